@@ -0,0 +1,232 @@
+package com.studentbudget.benchmark;
+
+import com.studentbudget.dao.TransactionDao;
+import com.studentbudget.dao.impl.HibernateTransactionDao;
+import com.studentbudget.dao.impl.JsonFileTransactionDao;
+import com.studentbudget.model.Category;
+import com.studentbudget.model.Transaction;
+import com.studentbudget.model.TransactionStatus;
+import com.studentbudget.model.TransactionType;
+import com.studentbudget.model.User;
+import com.studentbudget.model.UserRole;
+import com.studentbudget.util.HibernateTransactionManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Хранилище транзакций заданного размера для бенчмарков: файловая база H2 или JSON-файл.
+ *
+ * Данные генерируются детерминированно и один раз на размер (target/jmh-data/*-seed*),
+ * каждый прогон работает с копией, поэтому изменения бенчмарков не переходят в следующий запуск.
+ */
+final class BenchmarkStore implements AutoCloseable {
+    static final String H2 = "h2";
+    static final String JSON = "json";
+
+    private static final Path DATA_DIR = Paths.get("target", "jmh-data");
+    private static final String H2_OPTIONS = ";MODE=LEGACY;DATABASE_TO_LOWER=TRUE;DEFAULT_ESCAPE='';CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+    private static final int USERS = 100;
+    private static final int CATEGORIES = 20;
+    private static final int SEED_CHUNK_SIZE = 10_000;
+    private static final long SEED = 42L;
+    static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 0, 0);
+    private static final long SPAN_MINUTES = 2L * 365 * 24 * 60;
+    private static final String[] WORDS = {"coffee", "lunch", "bus", "rent", "books", "phone", "gym", "cinema", "taxi", "groceries"};
+
+    final TransactionDao dao;
+    final HibernateTransactionManager transactionManager;
+    final List<User> users;
+    final List<Category> categories;
+    private final SessionFactory sessionFactory;
+    private final boolean transactional;
+    private final long minId;
+    private final long maxId;
+
+    private BenchmarkStore(TransactionDao dao, SessionFactory sessionFactory, boolean transactional,
+                           List<User> users, List<Category> categories, long minId, long maxId) {
+        this.dao = dao;
+        this.sessionFactory = sessionFactory;
+        this.transactionManager = new HibernateTransactionManager(sessionFactory);
+        this.transactional = transactional;
+        this.users = users;
+        this.categories = categories;
+        this.minId = minId;
+        this.maxId = maxId;
+    }
+
+    static BenchmarkStore open(String kind, int size) {
+        try {
+            Files.createDirectories(DATA_DIR);
+            switch (kind) {
+                case H2:
+                    return openH2(size);
+                case JSON:
+                    return openJson(size);
+                default:
+                    throw new IllegalArgumentException("Unknown store: " + kind);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Выполняет операцию DAO; для базы - в транзакции, как это делают сервисы.
+     */
+    <T> T call(Supplier<T> operation) {
+        return transactional ? transactionManager.executeInTransaction(session -> operation.get()) : operation.get();
+    }
+
+    long randomId() {
+        return ThreadLocalRandom.current().nextLong(minId, maxId + 1);
+    }
+
+    User randomUser() {
+        return users.get(ThreadLocalRandom.current().nextInt(users.size()));
+    }
+
+    Category randomCategory() {
+        return categories.get(ThreadLocalRandom.current().nextInt(categories.size()));
+    }
+
+    @Override
+    public void close() {
+        sessionFactory.close();
+    }
+
+    private static BenchmarkStore openH2(int size) throws IOException {
+        Path seed = DATA_DIR.resolve("h2-" + size + "-seed.mv.db");
+        if (!Files.exists(seed)) {
+            Path building = DATA_DIR.resolve("h2-" + size + "-building");
+            Files.deleteIfExists(Paths.get(building + ".mv.db"));
+            SessionFactory seeding = sessionFactory("jdbc:h2:file:" + building.toAbsolutePath() + H2_OPTIONS, "create");
+            try {
+                seedH2(seeding, size);
+            } finally {
+                seeding.close();
+            }
+            Files.move(Paths.get(building + ".mv.db"), seed);
+        }
+
+        Path run = DATA_DIR.resolve("h2-" + size + "-run");
+        Files.copy(seed, Paths.get(run + ".mv.db"), StandardCopyOption.REPLACE_EXISTING);
+        SessionFactory sessionFactory = sessionFactory("jdbc:h2:file:" + run.toAbsolutePath() + H2_OPTIONS, "none");
+        HibernateTransactionManager transactionManager = new HibernateTransactionManager(sessionFactory);
+        List<User> users = transactionManager.executeReadOnly(session ->
+            session.createQuery("from User order by id", User.class).list());
+        List<Category> categories = transactionManager.executeReadOnly(session ->
+            session.createQuery("from Category order by id", Category.class).list());
+        Long[] range = idRange(transactionManager);
+        return new BenchmarkStore(new HibernateTransactionDao(sessionFactory), sessionFactory, true,
+            users, categories, range[0], range[1]);
+    }
+
+    private static Long[] idRange(HibernateTransactionManager transactionManager) {
+        Object[] row = transactionManager.executeReadOnly(session -> session.createQuery(
+            "select min(t.id), max(t.id) from Transaction t", Object[].class).getSingleResult());
+        return new Long[] {(Long) row[0], (Long) row[1]};
+    }
+
+    private static void seedH2(SessionFactory sessionFactory, int size) {
+        HibernateTransactionManager transactionManager = new HibernateTransactionManager(sessionFactory);
+        List<User> users = users();
+        List<Category> categories = categories();
+        transactionManager.executeInTransactionWithoutResult(session -> {
+            users.forEach(session::persist);
+            categories.forEach(session::persist);
+        });
+
+        HibernateTransactionDao dao = new HibernateTransactionDao(sessionFactory);
+        Random random = new Random(SEED);
+        for (int from = 0; from < size; from += SEED_CHUNK_SIZE) {
+            List<Transaction> chunk = generate(random, from, Math.min(SEED_CHUNK_SIZE, size - from), users, categories);
+            transactionManager.executeInTransactionWithoutResult(session -> dao.saveAll(chunk));
+        }
+        transactionManager.executeInTransactionWithoutResult(session ->
+            session.doWork(connection -> connection.createStatement().execute("ANALYZE")));
+    }
+
+    private static BenchmarkStore openJson(int size) throws IOException {
+        List<User> users = users();
+        List<Category> categories = categories();
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setId(i + 1L);
+        }
+        for (int i = 0; i < categories.size(); i++) {
+            categories.get(i).setId(i + 1L);
+        }
+
+        Path seed = DATA_DIR.resolve("transactions-" + size + "-seed.json");
+        if (!Files.exists(seed)) {
+            Path building = DATA_DIR.resolve("transactions-" + size + "-building.json");
+            Files.deleteIfExists(building);
+            new JsonFileTransactionDao(building.toString())
+                .saveAll(generate(new Random(SEED), 0, size, users, categories));
+            Files.move(building, seed);
+        }
+
+        Path run = DATA_DIR.resolve("transactions-" + size + "-run.json");
+        Files.copy(seed, run, StandardCopyOption.REPLACE_EXISTING);
+        // Сервисам нужен менеджер транзакций; пустая база в памяти дает им сессию, данные остаются в файле
+        SessionFactory sessionFactory = sessionFactory("jdbc:h2:mem:jmh_json;DB_CLOSE_DELAY=-1" + H2_OPTIONS, "create-drop");
+        return new BenchmarkStore(new JsonFileTransactionDao(run.toString()), sessionFactory, false,
+            users, categories, 1L, size);
+    }
+
+    private static SessionFactory sessionFactory(String url, String schemaAction) {
+        return new Configuration().configure()
+            .setProperty("hibernate.connection.url", url)
+            .setProperty("hibernate.hbm2ddl.auto", schemaAction)
+            .setProperty("hibernate.show_sql", "false")
+            .setProperty("hibernate.format_sql", "false")
+            .buildSessionFactory();
+    }
+
+    private static List<User> users() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(new User("user" + i, "hash", "user" + i + "@bench.local", "Bench", "User" + i, UserRole.STUDENT));
+        }
+        return users;
+    }
+
+    private static List<Category> categories() {
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES; i++) {
+            categories.add(new Category("category" + i, "benchmark"));
+        }
+        return categories;
+    }
+
+    // Транзакции с номерами from .. from + count - 1; random передается между порциями
+    private static List<Transaction> generate(Random random, int from, int count, List<User> users,
+                                              List<Category> categories) {
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++) {
+            TransactionType type = random.nextInt(4) == 0 ? TransactionType.INCOME : TransactionType.EXPENSE;
+            BigDecimal amount = BigDecimal.valueOf(100 + random.nextInt(500_000), 2);
+            Transaction transaction = new Transaction(amount, type,
+                categories.get(random.nextInt(categories.size())),
+                WORDS[random.nextInt(WORDS.length)] + " " + i,
+                users.get(random.nextInt(users.size())));
+            transaction.setDate(START.plusMinutes((long) (random.nextDouble() * SPAN_MINUTES)));
+            transaction.setStatus(random.nextInt(50) == 0 ? TransactionStatus.PENDING : TransactionStatus.ACTIVE);
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+}
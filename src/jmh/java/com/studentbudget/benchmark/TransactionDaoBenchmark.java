@@ -0,0 +1,134 @@
+package com.studentbudget.benchmark;
+
+import com.studentbudget.model.Page;
+import com.studentbudget.model.Transaction;
+import com.studentbudget.model.TransactionAggregate;
+import com.studentbudget.model.TransactionFilter;
+import com.studentbudget.model.TransactionRow;
+import com.studentbudget.model.TransactionSortKey;
+import com.studentbudget.model.TransactionStatus;
+import com.studentbudget.model.TransactionType;
+import com.studentbudget.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Операции записи и выборки TransactionDao для каждой реализации: HibernateTransactionDao
+ * на файловой H2 и JsonFileTransactionDao. RestApiTransactionDao требует сервера и здесь не измеряется.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx4g"})
+public class TransactionDaoBenchmark {
+    private static final String SEARCH_TERM = "coffee";
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({BenchmarkStore.H2, BenchmarkStore.JSON})
+    public String store;
+
+    private BenchmarkStore data;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = BenchmarkStore.open(store, size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.close();
+    }
+
+    // Вставка и удаление новой транзакции: размер набора данных между вызовами не меняется
+    @Benchmark
+    public boolean saveThenDelete() {
+        Transaction transaction = new Transaction(new BigDecimal("12.50"), TransactionType.EXPENSE,
+            data.randomCategory(), "benchmark insert", data.randomUser());
+        transaction.setDate(LocalDateTime.now());
+        return data.call(() -> {
+            data.dao.save(transaction);
+            data.dao.deleteById(transaction.getId());
+            return true;
+        });
+    }
+
+    @Benchmark
+    public Optional<Transaction> findById() {
+        long id = data.randomId();
+        return data.call(() -> data.dao.findById(id));
+    }
+
+    @Benchmark
+    public Transaction update() {
+        long id = data.randomId();
+        return data.call(() -> {
+            Transaction transaction = data.dao.findById(id).orElseThrow();
+            transaction.setDescription("updated " + ThreadLocalRandom.current().nextInt());
+            return data.dao.update(transaction);
+        });
+    }
+
+    @Benchmark
+    public List<Transaction> findByUser() {
+        User user = data.randomUser();
+        return data.call(() -> data.dao.findByUser(user));
+    }
+
+    @Benchmark
+    public List<Transaction> findByDateRange() {
+        LocalDateTime start = BenchmarkStore.START.plusDays(ThreadLocalRandom.current().nextInt(700));
+        return data.call(() -> data.dao.findByDateRange(start, start.plusDays(7)));
+    }
+
+    @Benchmark
+    public List<Transaction> searchByDescription() {
+        return data.call(() -> data.dao.searchByDescription(SEARCH_TERM));
+    }
+
+    @Benchmark
+    public Page<Transaction> findPage() {
+        TransactionFilter filter = new TransactionFilter();
+        filter.setUser(data.randomUser());
+        return data.call(() -> data.dao.findPage(filter, TransactionSortKey.DATE_DESC, null, 50));
+    }
+
+    @Benchmark
+    public Page<TransactionRow> findRowPage() {
+        TransactionFilter filter = new TransactionFilter();
+        filter.setUser(data.randomUser());
+        return data.call(() -> data.dao.findRowPage(filter, TransactionSortKey.DATE_DESC, null, 50));
+    }
+
+    @Benchmark
+    public List<TransactionAggregate> aggregateByTypeAndStatus() {
+        return data.call(() -> data.dao.aggregateByTypeAndStatus(null));
+    }
+
+    @Benchmark
+    public List<TransactionAggregate> aggregateByCategory() {
+        User user = data.randomUser();
+        return data.call(() -> data.dao.aggregateByCategory(user, TransactionType.EXPENSE, TransactionStatus.ACTIVE));
+    }
+}
@@ -0,0 +1,94 @@
+package com.studentbudget.benchmark;
+
+import com.studentbudget.model.Category;
+import com.studentbudget.model.Transaction;
+import com.studentbudget.model.User;
+import com.studentbudget.model.UserRole;
+import com.studentbudget.model.UserStatistics;
+import com.studentbudget.service.AuthService;
+import com.studentbudget.service.TransactionService;
+import com.studentbudget.service.impl.TransactionServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Агрегирующие методы TransactionServiceImpl на всем наборе данных, от имени администратора.
+ * Кэш результатов и свертка балансов не подключены: измеряется само вычисление.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx4g"})
+public class TransactionServiceBenchmark {
+    private static final LocalDate QUARTER_START = BenchmarkStore.START.toLocalDate();
+    private static final LocalDate QUARTER_END = QUARTER_START.plusMonths(3).minusDays(1);
+    private static final BigDecimal ANOMALY_THRESHOLD = BigDecimal.valueOf(3);
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({BenchmarkStore.H2, BenchmarkStore.JSON})
+    public String store;
+
+    private BenchmarkStore data;
+    private TransactionService transactionService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = BenchmarkStore.open(store, size);
+        // Вошедший администратор: сервис видит все транзакции
+        User admin = new User("admin", "hash", "admin@bench.local", "Bench", "Admin", UserRole.ADMIN);
+        admin.setId(0L);
+        AuthService authService = mock(AuthService.class);
+        when(authService.getCurrentUser()).thenReturn(admin);
+        transactionService = new TransactionServiceImpl(data.dao, null, null, null, null, List.of(), data.transactionManager,
+            authService);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.close();
+    }
+
+    @Benchmark
+    public BigDecimal getTotalIncome() {
+        return transactionService.getTotalIncome();
+    }
+
+    @Benchmark
+    public Map<Category, Double> getExpenseDistribution() {
+        return transactionService.getExpenseDistribution();
+    }
+
+    @Benchmark
+    public Map<User, UserStatistics> getUserStatistics() {
+        return transactionService.getUserStatistics(QUARTER_START, QUARTER_END);
+    }
+
+    @Benchmark
+    public List<Transaction> getAnomalousTransactions() {
+        return transactionService.getAnomalousTransactions(ANOMALY_THRESHOLD);
+    }
+}
@@ -14,10 +14,11 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import org.hibernate.SessionFactory;
-import org.hibernate.cfg.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
 /**
  * Главный класс приложения Student Budget Manager.
  * Инициализирует компоненты приложения, настраивает подключение к базе данных
@@ -36,23 +37,37 @@ public class Main extends Application {
     @Override
     public void start(Stage primaryStage) {
         try {
-            sessionFactory = new Configuration().configure().buildSessionFactory();
+            sessionFactory = AppConfig.hibernateConfiguration().buildSessionFactory();
             transactionManager = new HibernateTransactionManager(sessionFactory);
 
             UserDao userDao = new UserDaoImpl(sessionFactory);
             CategoryDao categoryDao = new CategoryDaoImpl(sessionFactory);
             TransactionDao transactionDao = new TransactionDaoImpl(sessionFactory);
+            BalanceRollupDao balanceRollupDao = new HibernateBalanceRollupDao(sessionFactory);
+            BudgetDao budgetDao = new HibernateBudgetDao(sessionFactory);
+            DescriptionSearchIndex searchIndex = new DescriptionSearchIndex(transactionDao, transactionManager);
+            AggregateResultCache resultCache = new AggregateResultCache();
+            ColumnarTransactionSnapshot snapshot = new ColumnarTransactionSnapshot(transactionDao, transactionManager);
+            List<TransactionWriteListener> writeListeners = List.of(new BalanceRollupWriteListener(balanceRollupDao),
+                    new BudgetWriteListener(budgetDao), resultCache, searchIndex, snapshot);
 
             AuthService authService = new AuthServiceImpl(userDao, transactionManager);
             UserService userService = new UserServiceImpl(userDao, transactionManager);
-            CategoryService categoryService = new CategoryServiceImpl(categoryDao, transactionDao, transactionManager);
-            TransactionService transactionService = new TransactionServiceImpl(transactionDao, transactionManager, authService);
+            CategoryService categoryService = new CategoryServiceImpl(categoryDao, transactionDao, writeListeners,
+                    transactionManager);
+            TransactionService transactionService = new TransactionServiceImpl(transactionDao, balanceRollupDao, searchIndex,
+                    resultCache, snapshot, writeListeners, transactionManager, authService);
+            ImportService importService = new ImportServiceImpl(transactionDao, categoryDao, writeListeners,
+                    transactionService, transactionManager, authService);
+            ExportService exportService = new ExportServiceImpl(transactionDao, transactionManager, authService);
+            BudgetService budgetService = new BudgetServiceImpl(budgetDao, transactionManager, authService);
 
-            DatabaseInitializer initializer = new DatabaseInitializer(categoryService, userService, sessionFactory);
+            DatabaseInitializer initializer = new DatabaseInitializer(categoryService, userService, sessionFactory, balanceRollupDao);
             initializer.initialize();
 
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/login-view.fxml"));
-            LoginController controller = new LoginController(authService, userService, transactionService, categoryService);
+            LoginController controller = new LoginController(authService, userService, transactionService, categoryService, importService, exportService,
+                    budgetService);
             loader.setController(controller);
             
             Scene scene = new Scene(loader.load());
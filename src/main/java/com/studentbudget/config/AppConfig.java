@@ -1,58 +1,115 @@
 package com.studentbudget.config;
 
+import com.studentbudget.dao.BalanceRollupDao;
+import com.studentbudget.dao.BudgetDao;
 import com.studentbudget.dao.CategoryDao;
 import com.studentbudget.dao.TransactionDao;
 import com.studentbudget.dao.UserDao;
 import com.studentbudget.dao.impl.CategoryDaoImpl;
+import com.studentbudget.dao.impl.HibernateBalanceRollupDao;
+import com.studentbudget.dao.impl.HibernateBudgetDao;
 import com.studentbudget.dao.impl.TransactionDaoImpl;
 import com.studentbudget.dao.impl.UserDaoImpl;
 import com.studentbudget.service.AuthService;
+import com.studentbudget.service.BudgetService;
 import com.studentbudget.service.CategoryService;
+import com.studentbudget.service.ExportService;
+import com.studentbudget.service.ImportService;
 import com.studentbudget.service.TransactionService;
 import com.studentbudget.service.UserService;
+import com.studentbudget.service.impl.AggregateResultCache;
+import com.studentbudget.service.impl.ColumnarTransactionSnapshot;
 import com.studentbudget.service.impl.AuthServiceImpl;
+import com.studentbudget.service.impl.BalanceRollupWriteListener;
+import com.studentbudget.service.impl.BudgetServiceImpl;
+import com.studentbudget.service.impl.BudgetWriteListener;
 import com.studentbudget.service.impl.CategoryServiceImpl;
+import com.studentbudget.service.impl.DescriptionSearchIndex;
+import com.studentbudget.service.impl.ExportServiceImpl;
+import com.studentbudget.service.impl.ImportServiceImpl;
 import com.studentbudget.service.impl.TransactionServiceImpl;
+import com.studentbudget.service.impl.TransactionWriteListener;
 import com.studentbudget.service.impl.UserServiceImpl;
+import com.studentbudget.util.ConnectionPoolMetrics;
 import com.studentbudget.util.DatabaseInitializer;
 import com.studentbudget.util.HibernateTransactionManager;
+import com.studentbudget.util.PooledConnectionProvider;
 import org.hibernate.SessionFactory;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
 public class AppConfig {
     private static final Logger logger = LoggerFactory.getLogger(AppConfig.class);
     private static AppConfig instance;
+
+    // Пул соединений: фоновые задачи (импорт, экспорт, построение индекса) и чтения интерфейса
+    // получают соединения параллельно и не ждут друг друга
+    private static final int POOL_MAX_SIZE = Math.max(10, Runtime.getRuntime().availableProcessors() * 2);
+    private static final int POOL_MIN_IDLE = 2;
+    private static final long POOL_CONNECTION_TIMEOUT_MS = 10_000;
+    // Импорт держит соединение на время пакета; дольше этого соединение считается утекшим
+    private static final long POOL_LEAK_DETECTION_THRESHOLD_MS = 60_000;
+    private static final int POOL_STATEMENT_CACHE_SIZE = 128;
     
     private final SessionFactory sessionFactory;
     private final HibernateTransactionManager transactionManager;
     private final UserDao userDao;
     private final CategoryDao categoryDao;
     private final TransactionDao transactionDao;
+    private final BalanceRollupDao balanceRollupDao;
+    private final BudgetDao budgetDao;
+    private final DescriptionSearchIndex searchIndex;
+    private final AggregateResultCache resultCache;
+    private final ColumnarTransactionSnapshot snapshot;
     private final AuthService authService;
     private final CategoryService categoryService;
     private final TransactionService transactionService;
     private final UserService userService;
+    private final ImportService importService;
+    private final ExportService exportService;
+    private final BudgetService budgetService;
 
     private AppConfig() {
+        this(hibernateConfiguration());
+    }
+
+    private AppConfig(Configuration configuration) {
         try {
-            sessionFactory = new Configuration().configure().buildSessionFactory();
+            sessionFactory = configuration.buildSessionFactory();
             transactionManager = new HibernateTransactionManager(sessionFactory);
 
             userDao = new UserDaoImpl(sessionFactory);
             categoryDao = new CategoryDaoImpl(sessionFactory);
             transactionDao = new TransactionDaoImpl(sessionFactory);
+            balanceRollupDao = new HibernateBalanceRollupDao(sessionFactory);
+            budgetDao = new HibernateBudgetDao(sessionFactory);
+            searchIndex = new DescriptionSearchIndex(transactionDao, transactionManager);
+            resultCache = new AggregateResultCache();
+            snapshot = new ColumnarTransactionSnapshot(transactionDao, transactionManager);
+            // Порядок задает порядок вызова: сначала данные в базе, затем структуры в памяти
+            List<TransactionWriteListener> writeListeners = List.of(new BalanceRollupWriteListener(balanceRollupDao),
+                new BudgetWriteListener(budgetDao), resultCache, searchIndex, snapshot);
 
             userService = new UserServiceImpl(userDao, transactionManager);
             authService = new AuthServiceImpl(userDao, transactionManager);
-            categoryService = new CategoryServiceImpl(categoryDao, transactionDao, transactionManager);
-            transactionService = new TransactionServiceImpl(transactionDao, transactionManager, authService);
+            categoryService = new CategoryServiceImpl(categoryDao, transactionDao, writeListeners, transactionManager);
+            transactionService = new TransactionServiceImpl(transactionDao, balanceRollupDao, searchIndex, resultCache,
+                snapshot, writeListeners, transactionManager, authService);
+            importService = new ImportServiceImpl(transactionDao, categoryDao, writeListeners, transactionService,
+                transactionManager, authService);
+            exportService = new ExportServiceImpl(transactionDao, transactionManager, authService);
+            budgetService = new BudgetServiceImpl(budgetDao, transactionManager, authService);
 
             DatabaseInitializer databaseInitializer = new DatabaseInitializer(
                 categoryService,
                 userService,
-                sessionFactory
+                sessionFactory,
+                balanceRollupDao
             );
             databaseInitializer.initialize();
 
@@ -62,6 +119,38 @@ public class AppConfig {
         }
     }
 
+    /**
+     * Конфигурация Hibernate из hibernate.cfg.xml с настройками пула соединений приложения.
+     */
+    public static Configuration hibernateConfiguration() {
+        return new Configuration().configure()
+            .setProperty(PooledConnectionProvider.MAX_SIZE, String.valueOf(POOL_MAX_SIZE))
+            .setProperty(PooledConnectionProvider.MIN_IDLE, String.valueOf(POOL_MIN_IDLE))
+            .setProperty(PooledConnectionProvider.CONNECTION_TIMEOUT, String.valueOf(POOL_CONNECTION_TIMEOUT_MS))
+            .setProperty(PooledConnectionProvider.LEAK_DETECTION_THRESHOLD, String.valueOf(POOL_LEAK_DETECTION_THRESHOLD_MS))
+            .setProperty(PooledConnectionProvider.STATEMENT_CACHE_SIZE, String.valueOf(POOL_STATEMENT_CACHE_SIZE));
+    }
+
+    /**
+     * Текущее состояние пула соединений; null, если Hibernate настроен на другой провайдер.
+     */
+    public static ConnectionPoolMetrics connectionPoolMetrics(SessionFactory sessionFactory) {
+        ConnectionProvider provider = sessionFactory.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+            .getService(ConnectionProvider.class);
+        if (provider == null || !provider.isUnwrappableAs(PooledConnectionProvider.class)) {
+            return null;
+        }
+        return provider.unwrap(PooledConnectionProvider.class).getMetrics();
+    }
+
+    /**
+     * Отдельный экземпляр приложения поверх заданной конфигурации Hibernate, например другой базы.
+     * Не заменяет экземпляр getInstance(); закрывается через shutdown().
+     */
+    public static AppConfig create(Configuration configuration) {
+        return new AppConfig(configuration);
+    }
+
     public static synchronized AppConfig getInstance() {
         if (instance == null) {
             instance = new AppConfig();
@@ -75,6 +164,10 @@ public class AppConfig {
         }
     }
 
+    public ConnectionPoolMetrics getConnectionPoolMetrics() {
+        return connectionPoolMetrics(sessionFactory);
+    }
+
     public AuthService getAuthService() {
         return authService;
     }
@@ -90,4 +183,16 @@ public class AppConfig {
     public UserService getUserService() {
         return userService;
     }
+
+    public ImportService getImportService() {
+        return importService;
+    }
+
+    public ExportService getExportService() {
+        return exportService;
+    }
+
+    public BudgetService getBudgetService() {
+        return budgetService;
+    }
 } 
\ No newline at end of file
@@ -1,6 +1,5 @@
 package com.studentbudget.controller;
 
-import com.studentbudget.config.AppConfig;
 import com.studentbudget.model.Category;
 import com.studentbudget.service.CategoryService;
 import javafx.fxml.FXML;
@@ -21,8 +20,8 @@ public class CategoryDialogController {
     private boolean okClicked = false;
     private final CategoryService categoryService;
 
-    public CategoryDialogController() {
-        this.categoryService = AppConfig.getInstance().getCategoryService();
+    public CategoryDialogController(CategoryService categoryService) {
+        this.categoryService = categoryService;
     }
 
     @FXML
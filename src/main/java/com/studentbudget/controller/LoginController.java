@@ -1,7 +1,10 @@
 package com.studentbudget.controller;
 
 import com.studentbudget.service.AuthService;
+import com.studentbudget.service.BudgetService;
 import com.studentbudget.service.CategoryService;
+import com.studentbudget.service.ExportService;
+import com.studentbudget.service.ImportService;
 import com.studentbudget.service.TransactionService;
 import com.studentbudget.service.UserService;
 import com.studentbudget.model.User;
@@ -28,6 +31,9 @@ public class LoginController {
     private final TransactionService transactionService;
     private final CategoryService categoryService;
     private final UserService userService;
+    private final ImportService importService;
+    private final ExportService exportService;
+    private final BudgetService budgetService;
 
     // Компоненты пользовательского интерфейса для авторизации
     @FXML private TabPane loginTabPane;
@@ -53,13 +59,21 @@ public class LoginController {
      * @param userService сервис управления пользователями
      * @param transactionService сервис управления транзакциями
      * @param categoryService сервис управления категориями
+     * @param importService сервис импорта выписок
+     * @param exportService сервис экспорта транзакций
+     * @param budgetService сервис бюджетов по категориям
      */
     public LoginController(AuthService authService, UserService userService, 
-                         TransactionService transactionService, CategoryService categoryService) {
+                         TransactionService transactionService, CategoryService categoryService,
+                         ImportService importService, ExportService exportService,
+                         BudgetService budgetService) {
         this.authService = authService;
         this.userService = userService;
         this.transactionService = transactionService;
         this.categoryService = categoryService;
+        this.importService = importService;
+        this.exportService = exportService;
+        this.budgetService = budgetService;
     }
 
     /**
@@ -173,7 +187,10 @@ public class LoginController {
                 transactionService,
                 categoryService,
                 authService,
-                userService
+                userService,
+                importService,
+                exportService,
+                budgetService
             );
             loader.setController(controller);
             Scene scene = new Scene(loader.load());
@@ -3,7 +3,11 @@ package com.studentbudget.controller;
 import com.studentbudget.config.AppConfig;
 import com.studentbudget.model.*;
 import com.studentbudget.service.*;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -11,6 +15,7 @@ import javafx.scene.Scene;
 import javafx.scene.chart.PieChart;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.util.StringConverter;
@@ -18,15 +23,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import javafx.scene.control.Alert.AlertType;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.ResourceBundle;
 
 public class MainController implements Initializable {
@@ -35,21 +45,34 @@ public class MainController implements Initializable {
     private final CategoryService categoryService;
     private final AuthService authService;
     private final UserService userService;
+    private final ImportService importService;
+    private final ExportService exportService;
+    private final BudgetService budgetService;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final int TRANSACTIONS_PAGE_SIZE = 200;
+    private static final DateTimeFormatter BUDGET_DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    // Балансы пользователей для таблицы администратора, пересчитываются при обновлении таблицы
+    private Map<User, BigDecimal> userBalances = new HashMap<>();
+    // Текущий фильтр списка транзакций и курсор следующей страницы (null - страниц больше нет)
+    private TransactionFilter transactionFilter = new TransactionFilter();
+    private String nextTransactionsCursor;
 
     @FXML private Label totalIncomeLabel;
     @FXML private Label totalExpensesLabel;
     @FXML private Label balanceLabel;
     
-    @FXML private TableView<Transaction> transactionsTable;
-    @FXML private TableColumn<Transaction, LocalDateTime> dateColumn;
-    @FXML private TableColumn<Transaction, TransactionType> typeColumn;
-    @FXML private TableColumn<Transaction, Category> categoryColumn;
-    @FXML private TableColumn<Transaction, BigDecimal> amountColumn;
-    @FXML private TableColumn<Transaction, String> descriptionColumn;
-    @FXML private TableColumn<Transaction, TransactionStatus> statusColumn;
-    @FXML private TableColumn<Transaction, User> userColumn;
-    @FXML private TableColumn<Transaction, Void> actionsColumn;
+    @FXML private TableView<TransactionRow> transactionsTable;
+    @FXML private TableColumn<TransactionRow, LocalDateTime> dateColumn;
+    @FXML private TableColumn<TransactionRow, TransactionType> typeColumn;
+    @FXML private TableColumn<TransactionRow, String> categoryColumn;
+    @FXML private TableColumn<TransactionRow, BigDecimal> amountColumn;
+    @FXML private TableColumn<TransactionRow, String> descriptionColumn;
+    @FXML private TableColumn<TransactionRow, TransactionStatus> statusColumn;
+    @FXML private TableColumn<TransactionRow, String> userColumn;
+    @FXML private TableColumn<TransactionRow, Void> actionsColumn;
+    @FXML private Button loadMoreButton;
+    @FXML private Button importButton;
+    @FXML private Button exportButton;
     
     @FXML private PieChart expenseChart;
     
@@ -77,6 +100,18 @@ public class MainController implements Initializable {
     @FXML private TableColumn<Category, String> categoryDescriptionColumn;
     @FXML private TableColumn<Category, Void> categoryActionsColumn;
 
+    @FXML private Label budgetWarningLabel;
+    @FXML private ComboBox<Category> budgetCategoryBox;
+    @FXML private ComboBox<BudgetPeriod> budgetPeriodBox;
+    @FXML private TextField budgetAmountField;
+    @FXML private TableView<Budget> budgetsTable;
+    @FXML private TableColumn<Budget, String> budgetCategoryColumn;
+    @FXML private TableColumn<Budget, String> budgetPeriodColumn;
+    @FXML private TableColumn<Budget, BigDecimal> budgetAmountColumn;
+    @FXML private TableColumn<Budget, BigDecimal> budgetSpentColumn;
+    @FXML private TableColumn<Budget, BigDecimal> budgetRemainingColumn;
+    @FXML private TableColumn<Budget, Void> budgetActionsColumn;
+
     @FXML private Label currentUserLabel;
 
     @FXML private ToggleButton themeToggle;
@@ -84,11 +119,16 @@ public class MainController implements Initializable {
     private static final String LIGHT_THEME = "/css/light-theme.css";
     private static final String DARK_THEME = "/css/dark-theme.css";
 
-    public MainController(TransactionService transactionService, CategoryService categoryService, AuthService authService, UserService userService) {
+    public MainController(TransactionService transactionService, CategoryService categoryService, AuthService authService,
+                          UserService userService, ImportService importService, ExportService exportService,
+                          BudgetService budgetService) {
         this.transactionService = transactionService;
         this.categoryService = categoryService;
         this.authService = authService;
         this.userService = userService;
+        this.importService = importService;
+        this.exportService = exportService;
+        this.budgetService = budgetService;
     }
 
     @Override
@@ -96,6 +136,7 @@ public class MainController implements Initializable {
         initializeTableColumns();
         initializeFilters();
         initializeCategoryTable();
+        initializeBudgetTable();
         initializeThemeToggle();
         
         User currentUser = authService.getCurrentUser();
@@ -127,8 +168,8 @@ public class MainController implements Initializable {
             {
                 deleteButton.getStyleClass().add("action-button");
                 deleteButton.setOnAction(event -> {
-                    Transaction transaction = getTableView().getItems().get(getIndex());
-                    handleDeleteTransaction(transaction);
+                    TransactionRow row = getTableView().getItems().get(getIndex());
+                    handleDeleteTransaction(row);
                 });
             }
             
@@ -142,44 +183,32 @@ public class MainController implements Initializable {
                 }
             }
         });
+
+        transactionsTable.setRowFactory(table -> {
+            TableRow<TransactionRow> tableRow = new TableRow<>();
+            tableRow.setOnMouseClicked(event -> {
+                if (event.getClickCount() == 2 && !tableRow.isEmpty()) {
+                    handleEditTransaction(tableRow.getItem());
+                }
+            });
+            return tableRow;
+        });
     }
 
     private void initializeTableColumns() {
 
+        // Таблица показывает проекции TransactionRow: имена категории и пользователя уже строки
         dateColumn.setCellValueFactory(new PropertyValueFactory<>("date"));
         typeColumn.setCellValueFactory(new PropertyValueFactory<>("type"));
-        categoryColumn.setCellValueFactory(new PropertyValueFactory<>("category"));
+        categoryColumn.setCellValueFactory(new PropertyValueFactory<>("categoryName"));
         amountColumn.setCellValueFactory(new PropertyValueFactory<>("amount"));
         descriptionColumn.setCellValueFactory(new PropertyValueFactory<>("description"));
         statusColumn.setCellValueFactory(new PropertyValueFactory<>("status"));
         
         if (userColumn != null) {
-            userColumn.setCellValueFactory(new PropertyValueFactory<>("user"));
-            userColumn.setCellFactory(column -> new TableCell<>() {
-                @Override
-                protected void updateItem(User user, boolean empty) {
-                    super.updateItem(user, empty);
-                    if (empty || user == null) {
-                        setText(null);
-                    } else {
-                        setText(user.getUsername());
-                    }
-                }
-            });
+            userColumn.setCellValueFactory(new PropertyValueFactory<>("username"));
         }
 
-        categoryColumn.setCellFactory(column -> new TableCell<>() {
-            @Override
-            protected void updateItem(Category category, boolean empty) {
-                super.updateItem(category, empty);
-                if (empty || category == null) {
-                    setText(null);
-                } else {
-                    setText(category.getName());
-                }
-            }
-        });
-
         dateColumn.setCellFactory(column -> new TableCell<>() {
             @Override
             protected void updateItem(LocalDateTime item, boolean empty) {
@@ -256,7 +285,7 @@ public class MainController implements Initializable {
                     } else {
                         User user = getTableRow().getItem();
                         if (user != null) {
-                            BigDecimal balance = calculateUserBalance(user);
+                            BigDecimal balance = userBalances.getOrDefault(user, BigDecimal.ZERO);
                             setText(String.format("%.2f ₽", balance));
                         } else {
                             setText(null);
@@ -271,25 +300,17 @@ public class MainController implements Initializable {
 
     private void updateUsersTable() {
         if (usersTable != null && isAdmin()) {
+            userBalances = calculateUserBalances();
             usersTable.setItems(FXCollections.observableArrayList(authService.getAllUsers()));
         }
     }
 
-    private BigDecimal calculateUserBalance(User user) {
-        if (!isAdmin()) return BigDecimal.ZERO;
-        
-        List<Transaction> userTransactions = transactionService.getTransactionsByUser(user);
-        BigDecimal income = userTransactions.stream()
-            .filter(t -> t.getType() == TransactionType.INCOME)
-            .map(Transaction::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal expenses = userTransactions.stream()
-            .filter(t -> t.getType() == TransactionType.EXPENSE)
-            .map(Transaction::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        return income.subtract(expenses);
+    // Два агрегирующих запроса на всю таблицу вместо загрузки транзакций каждого пользователя
+    private Map<User, BigDecimal> calculateUserBalances() {
+        Map<User, BigDecimal> balances = new HashMap<>(transactionService.getTotalIncomeByUser());
+        transactionService.getTotalExpensesByUser()
+            .forEach((user, expenses) -> balances.merge(user, expenses.negate(), BigDecimal::add));
+        return balances;
     }
 
     private void updateDashboard() {
@@ -297,86 +318,66 @@ public class MainController implements Initializable {
         updateTransactionTables();
         updateExpenseChart();
         updateCategoryTable();
+        updateBudgets();
         if (isAdmin()) {
             updateUsersTable();
         }
     }
 
     private void updateSummary() {
-        totalIncomeLabel.setText(formatAmount(transactionService.getTotalIncome()));
-        totalExpensesLabel.setText(formatAmount(transactionService.getTotalExpenses()));
-        updateBalanceLabel();
+        DashboardSummary summary = transactionService.getDashboardSummary();
+        totalIncomeLabel.setText(formatAmount(summary.getTotalIncome()));
+        totalExpensesLabel.setText(formatAmount(summary.getTotalExpenses()));
+        balanceLabel.setText(formatAmount(summary.getBalance()));
     }
 
     private void updateTransactionTables() {
-        List<Transaction> transactions;
+        TransactionFilter filter = new TransactionFilter();
         if (isAdmin()) {
-            User selectedUser = userFilter.getValue();
-            if (selectedUser != null) {
-                transactions = transactionService.getTransactionsByUser(selectedUser);
-            } else {
-                transactions = transactionService.getAllUsersTransactions();
-            }
-        } else {
-            transactions = transactionService.getCurrentUserTransactions();
+            filter.setUser(userFilter.getValue());
         }
-        transactionsTable.setItems(FXCollections.observableArrayList(transactions));
+        loadFirstTransactionsPage(filter);
     }
 
     @FXML
     private void handleSearch() {
-        LocalDateTime start = startDate.getValue() != null ? startDate.getValue().atStartOfDay() : null;
-        LocalDateTime end = endDate.getValue() != null ? endDate.getValue().atTime(23, 59, 59) : null;
-        
-        List<Transaction> results = new ArrayList<>();
-        
+        TransactionFilter filter = new TransactionFilter();
         if (isAdmin()) {
-            User selectedUser = userFilter.getValue();
-            if (selectedUser != null) {
-                if (start != null && end != null) {
-                    results = transactionService.getTransactionsByUserAndDateRange(selectedUser, start, end);
-                } else {
-                    results = transactionService.getTransactionsByUser(selectedUser);
-                }
-            } else {
-                if (start != null && end != null) {
-                    results = transactionService.getAllUsersTransactions().stream()
-                        .filter(t -> !t.getDate().isBefore(start) && !t.getDate().isAfter(end))
-                        .toList();
-                } else {
-                    results = transactionService.getAllUsersTransactions();
-                }
-            }
-        } else {
-            if (start != null && end != null) {
-                results = transactionService.getCurrentUserTransactionsByDateRange(start, end);
-            } else {
-                results = transactionService.getCurrentUserTransactions();
-            }
+            filter.setUser(userFilter.getValue());
         }
-        
-        if (!searchField.getText().isEmpty()) {
-            String searchTerm = searchField.getText().toLowerCase();
-            results = results.stream()
-                .filter(t -> t.getDescription().toLowerCase().contains(searchTerm))
-                .toList();
-        }
-        
-        if (categoryFilter.getValue() != null) {
-            Category category = categoryFilter.getValue();
-            results = results.stream()
-                .filter(t -> t.getCategory().equals(category))
-                .toList();
+        filter.setCategory(categoryFilter.getValue());
+        filter.setStatus(statusFilter.getValue());
+        filter.setFrom(startDate.getValue() != null ? startDate.getValue().atStartOfDay() : null);
+        filter.setTo(endDate.getValue() != null ? endDate.getValue().atTime(23, 59, 59) : null);
+        filter.setDescription(searchField.getText());
+        loadFirstTransactionsPage(filter);
+    }
+
+    @FXML
+    private void handleLoadMore() {
+        if (nextTransactionsCursor == null) {
+            return;
         }
-        
-        if (statusFilter.getValue() != null) {
-            TransactionStatus status = statusFilter.getValue();
-            results = results.stream()
-                .filter(t -> t.getStatus() == status)
-                .toList();
+        Page<TransactionRow> page = transactionService.getTransactionRowsPage(
+            transactionFilter, TransactionSortKey.DATE_DESC, nextTransactionsCursor, TRANSACTIONS_PAGE_SIZE);
+        transactionsTable.getItems().addAll(page.getItems());
+        updateLoadMore(page);
+    }
+
+    // Фильтрация и сортировка выполняются в базе; в таблицу попадает только первая страница
+    private void loadFirstTransactionsPage(TransactionFilter filter) {
+        transactionFilter = filter;
+        Page<TransactionRow> page = transactionService.getTransactionRowsPage(
+            filter, TransactionSortKey.DATE_DESC, null, TRANSACTIONS_PAGE_SIZE);
+        transactionsTable.setItems(FXCollections.observableArrayList(page.getItems()));
+        updateLoadMore(page);
+    }
+
+    private void updateLoadMore(Page<TransactionRow> page) {
+        nextTransactionsCursor = page.getNextCursor();
+        if (loadMoreButton != null) {
+            loadMoreButton.setDisable(!page.hasNext());
         }
-        
-        transactionsTable.setItems(FXCollections.observableArrayList(results));
     }
 
     @FXML
@@ -426,6 +427,140 @@ public class MainController implements Initializable {
         categoriesTable.setItems(FXCollections.observableArrayList(categoryService.getAllCategories()));
     }
 
+    private void initializeBudgetTable() {
+        budgetCategoryBox.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(Category category) {
+                return category != null ? category.getName() : "";
+            }
+
+            @Override
+            public Category fromString(String string) {
+                return null;
+            }
+        });
+        budgetPeriodBox.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(BudgetPeriod period) {
+                return period != null ? formatPeriod(period) : "";
+            }
+
+            @Override
+            public BudgetPeriod fromString(String string) {
+                return null;
+            }
+        });
+        budgetPeriodBox.setItems(FXCollections.observableArrayList(BudgetPeriod.values()));
+        budgetPeriodBox.setValue(BudgetPeriod.MONTHLY);
+
+        // Категории бюджетов загружены вместе с ними, поэтому строки читаются без обращения к базе
+        budgetCategoryColumn.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().getCategory().getName()));
+        budgetPeriodColumn.setCellValueFactory(cell -> new SimpleStringProperty(String.format("%s: %s - %s",
+            formatPeriod(cell.getValue().getPeriod()),
+            BUDGET_DATE_FORMATTER.format(cell.getValue().getStartDate()),
+            BUDGET_DATE_FORMATTER.format(cell.getValue().getEndDate()))));
+        budgetAmountColumn.setCellValueFactory(cell -> new SimpleObjectProperty<>(cell.getValue().getAmount()));
+        budgetSpentColumn.setCellValueFactory(cell -> new SimpleObjectProperty<>(cell.getValue().getSpent()));
+        budgetRemainingColumn.setCellValueFactory(cell -> new SimpleObjectProperty<>(cell.getValue().getRemaining()));
+        budgetAmountColumn.setCellFactory(column -> new AmountCell<>());
+        budgetSpentColumn.setCellFactory(column -> new AmountCell<>());
+        budgetRemainingColumn.setCellFactory(column -> new AmountCell<>());
+
+        budgetActionsColumn.setCellFactory(column -> new TableCell<>() {
+            private final Button deleteButton = new Button("Удалить");
+
+            {
+                deleteButton.getStyleClass().add("delete-button");
+                deleteButton.setOnAction(event -> handleRemoveBudget(getTableRow().getItem()));
+            }
+
+            @Override
+            protected void updateItem(Void item, boolean empty) {
+                super.updateItem(item, empty);
+                setGraphic(empty ? null : deleteButton);
+            }
+        });
+    }
+
+    // Таблица бюджетов и предупреждение о превышении обновляются вместе с остальной сводкой:
+    // счетчики расходов меняет та же запись транзакций
+    private void updateBudgets() {
+        budgetCategoryBox.setItems(FXCollections.observableArrayList(categoryService.getAllCategories()));
+        List<Budget> budgets = budgetService.getCurrentBudgets();
+        budgetsTable.setItems(FXCollections.observableArrayList(budgets));
+
+        List<String> exceeded = budgets.stream()
+            .filter(Budget::isExceeded)
+            .map(budget -> String.format("%s (%s): потрачено %s из %s",
+                budget.getCategory().getName(), formatPeriod(budget.getPeriod()).toLowerCase(),
+                formatAmount(budget.getSpent()), formatAmount(budget.getAmount())))
+            .toList();
+        budgetWarningLabel.setText(exceeded.isEmpty() ? "" : "Превышены бюджеты: " + String.join("; ", exceeded));
+        budgetWarningLabel.setVisible(!exceeded.isEmpty());
+        budgetWarningLabel.setManaged(!exceeded.isEmpty());
+    }
+
+    @FXML
+    private void handleSetBudget() {
+        if (budgetCategoryBox.getValue() == null || budgetPeriodBox.getValue() == null) {
+            showError("Ошибка", "Выберите категорию и период бюджета.");
+            return;
+        }
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(budgetAmountField.getText().trim().replace(',', '.'));
+        } catch (NumberFormatException e) {
+            showError("Ошибка", "Сумма бюджета должна быть числом.");
+            return;
+        }
+        try {
+            budgetService.setBudget(budgetCategoryBox.getValue(), budgetPeriodBox.getValue(), amount);
+            budgetAmountField.clear();
+            updateBudgets();
+        } catch (Exception e) {
+            logger.error("Error setting budget: {}", e.getMessage(), e);
+            showError("Ошибка", "Не удалось установить бюджет: " + e.getMessage());
+        }
+    }
+
+    private void handleRemoveBudget(Budget budget) {
+        if (budget == null) {
+            return;
+        }
+        Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION,
+                "Удалить бюджет категории \"" + budget.getCategory().getName() + "\" вместе с прошлыми периодами?",
+                ButtonType.YES, ButtonType.NO);
+        confirmAlert.setTitle("Удаление бюджета");
+        confirmAlert.setHeaderText("Подтверждение удаления");
+        confirmAlert.showAndWait().ifPresent(response -> {
+            if (response == ButtonType.YES) {
+                try {
+                    budgetService.removeBudget(budget.getCategory(), budget.getPeriod());
+                    updateBudgets();
+                } catch (Exception e) {
+                    logger.error("Error removing budget: {}", e.getMessage(), e);
+                    showError("Ошибка", "Не удалось удалить бюджет: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    private static String formatPeriod(BudgetPeriod period) {
+        return switch (period) {
+            case WEEKLY -> "Неделя";
+            case MONTHLY -> "Месяц";
+            case YEARLY -> "Год";
+        };
+    }
+
+    private class AmountCell<S> extends TableCell<S, BigDecimal> {
+        @Override
+        protected void updateItem(BigDecimal item, boolean empty) {
+            super.updateItem(item, empty);
+            setText(empty || item == null ? null : formatAmount(item));
+        }
+    }
+
     private void updateExpenseChart() {
         expenseChart.getData().clear();
         Map<Category, Double> distribution = transactionService.getExpenseDistribution();
@@ -465,11 +600,6 @@ public class MainController implements Initializable {
         }
     }
 
-    private void updateBalanceLabel() {
-        BigDecimal balance = transactionService.getCurrentBalance();
-        balanceLabel.setText(formatAmount(balance));
-    }
-
     @FXML
     private void handleAddTransaction() {
         Transaction transaction = new Transaction();
@@ -489,10 +619,147 @@ public class MainController implements Initializable {
         }
     }
 
+    @FXML
+    private void handleImport() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Импорт выписки");
+        fileChooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("CSV", "*.csv"),
+            new FileChooser.ExtensionFilter("OFX", "*.ofx"));
+        File file = fileChooser.showOpenDialog(currentUserLabel.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        ImportOptions options = new ImportOptions();
+        if (file.getName().toLowerCase().endsWith(".ofx")) {
+            options.setFormat(ImportFormat.OFX);
+        }
+        // Администратор может импортировать выписку пользователя, выбранного в фильтре
+        if (isAdmin() && userFilter != null && userFilter.getValue() != null) {
+            options.setUser(userFilter.getValue());
+        }
+
+        // В OFX нет категорий, поэтому все операции попадают в одну выбранную категорию
+        List<Category> categories = categoryService.getAllCategories();
+        if (options.getFormat() == ImportFormat.OFX) {
+            if (categories.isEmpty()) {
+                showError("Ошибка", "Создайте категорию перед импортом выписки OFX.");
+                return;
+            }
+            ChoiceDialog<Category> dialog = new ChoiceDialog<>(categories.get(0), categories);
+            dialog.setTitle("Импорт выписки");
+            dialog.setHeaderText("Выберите категорию для импортируемых операций");
+            dialog.setContentText("Категория:");
+            dialog.getDialogPane().lookupAll(".combo-box").forEach(node -> {
+                if (node instanceof ComboBox) {
+                    @SuppressWarnings("unchecked")
+                    ComboBox<Category> comboBox = (ComboBox<Category>) node;
+                    comboBox.setConverter(new StringConverter<>() {
+                        @Override
+                        public String toString(Category cat) {
+                            return cat != null ? cat.getName() : "";
+                        }
+
+                        @Override
+                        public Category fromString(String string) {
+                            return null;
+                        }
+                    });
+                }
+            });
+            Optional<Category> category = dialog.showAndWait();
+            if (category.isEmpty()) {
+                return;
+            }
+            options.setDefaultCategory(category.get());
+        }
+
+        Task<ImportResult> task = new Task<>() {
+            @Override
+            protected ImportResult call() throws Exception {
+                try (InputStream input = new FileInputStream(file)) {
+                    return importService.importTransactions(input, options, (processed, imported, failed) ->
+                        updateMessage(String.format("Обработано: %d, импортировано: %d, ошибок: %d",
+                            processed, imported, failed)));
+                }
+            }
+        };
+        importButton.disableProperty().bind(task.runningProperty());
+        importButton.textProperty().bind(Bindings.when(task.runningProperty())
+            .then(task.messageProperty())
+            .otherwise("Импорт"));
+        task.setOnSucceeded(event -> {
+            ImportResult result = task.getValue();
+            StringBuilder content = new StringBuilder(String.format("Импортировано: %d\nОшибок: %d",
+                result.getImportedRows(), result.getFailedRows()));
+            result.getErrors().stream()
+                .limit(10)
+                .forEach(error -> content.append("\n").append(error));
+            Alert alert = new Alert(result.getFailedRows() == 0 ? AlertType.INFORMATION : AlertType.WARNING);
+            alert.setTitle("Импорт выписки");
+            alert.setHeaderText("Импорт завершен");
+            alert.setContentText(content.toString());
+            alert.showAndWait();
+            updateDashboard();
+        });
+        task.setOnFailed(event -> {
+            logger.error("Import failed", task.getException());
+            showError("Ошибка", "Не удалось импортировать выписку: " + task.getException().getMessage());
+        });
+
+        Thread thread = new Thread(task, "statement-import");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @FXML
+    private void handleExport() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Экспорт транзакций");
+        fileChooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("CSV", "*.csv"),
+            new FileChooser.ExtensionFilter("JSON Lines", "*.jsonl"));
+        fileChooser.setInitialFileName("transactions.csv");
+        File file = fileChooser.showSaveDialog(currentUserLabel.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        ExportFormat format = file.getName().toLowerCase().endsWith(".jsonl") ? ExportFormat.JSONL : ExportFormat.CSV;
+        // Выгружаются транзакции с текущими фильтрами таблицы
+        TransactionFilter filter = transactionFilter;
+
+        Task<Long> task = new Task<>() {
+            @Override
+            protected Long call() {
+                return exportService.exportTransactions(filter, format, file.toPath());
+            }
+        };
+        exportButton.disableProperty().bind(task.runningProperty());
+        task.setOnSucceeded(event -> {
+            Alert alert = new Alert(AlertType.INFORMATION);
+            alert.setTitle("Экспорт транзакций");
+            alert.setHeaderText("Экспорт завершен");
+            alert.setContentText(String.format("Выгружено транзакций: %d", task.getValue()));
+            alert.showAndWait();
+        });
+        task.setOnFailed(event -> {
+            logger.error("Export failed", task.getException());
+            showError("Ошибка", "Не удалось экспортировать транзакции: " + task.getException().getMessage());
+        });
+
+        Thread thread = new Thread(task, "transaction-export");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
     @FXML
     private void handleAddCategory() {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/CategoryDialog.fxml"));
+            // Диалог пишет через тот же сервис, что и главное окно, и сбрасывает его кэш агрегатов
+            CategoryDialogController controller = new CategoryDialogController(categoryService);
+            loader.setController(controller);
             Scene scene = new Scene(loader.load());
             scene.getStylesheets().add(getClass().getResource("/css/styles.css").toExternalForm());
 
@@ -502,7 +769,6 @@ public class MainController implements Initializable {
             dialogStage.initOwner(totalIncomeLabel.getScene().getWindow());
             dialogStage.setScene(scene);
 
-            CategoryDialogController controller = loader.getController();
             controller.setDialogStage(dialogStage);
 
             dialogStage.showAndWait();
@@ -516,7 +782,9 @@ public class MainController implements Initializable {
         }
     }
 
-    private void handleEditTransaction(Transaction transaction) {
+    // Строка таблицы не отслеживается сессией: изменяется заново прочитанная сущность
+    private void handleEditTransaction(TransactionRow row) {
+        Transaction transaction = transactionService.getTransactionById(row.getId());
         boolean okClicked = showTransactionDialog(transaction, "Редактировать Транзакцию");
         if (okClicked) {
             transactionService.updateTransaction(transaction);
@@ -524,13 +792,13 @@ public class MainController implements Initializable {
         }
     }
 
-    private void handleDeleteTransaction(Transaction transaction) {
+    private void handleDeleteTransaction(TransactionRow row) {
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION,
                 "Вы уверены, что хотите удалить эту транзакцию?",
                 ButtonType.YES, ButtonType.NO);
         alert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.YES) {
-                transactionService.deleteTransaction(transaction.getId());
+                transactionService.deleteTransaction(row.getId());
                 updateDashboard();
             }
         });
@@ -611,6 +879,9 @@ public class MainController implements Initializable {
     private void handleEditCategory(Category category) {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/CategoryDialog.fxml"));
+            // Диалог пишет через тот же сервис, что и главное окно, и сбрасывает его кэш агрегатов
+            CategoryDialogController controller = new CategoryDialogController(categoryService);
+            loader.setController(controller);
             Scene scene = new Scene(loader.load());
             scene.getStylesheets().add(getClass().getResource("/css/styles.css").toExternalForm());
 
@@ -620,7 +891,6 @@ public class MainController implements Initializable {
             dialogStage.initOwner(totalIncomeLabel.getScene().getWindow());
             dialogStage.setScene(scene);
 
-            CategoryDialogController controller = loader.getController();
             controller.setDialogStage(dialogStage);
             controller.setCategory(category);
 
@@ -731,7 +1001,8 @@ public class MainController implements Initializable {
             authService.logout();
             
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/login-view.fxml"));
-            LoginController controller = new LoginController(authService, userService, transactionService, categoryService);
+            LoginController controller = new LoginController(authService, userService, transactionService, categoryService, importService, exportService,
+                budgetService);
             loader.setController(controller);
             
             Scene scene = new Scene(loader.load());
@@ -0,0 +1,28 @@
+package com.studentbudget.dao;
+
+import com.studentbudget.model.RollupDrift;
+import com.studentbudget.model.TransactionSnapshot;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Свертка сумм транзакций по пользователю, категории, типу, статусу и дню.
+ * Изменения применяются в той же транзакции Hibernate, что и запись самих транзакций.
+ * Период в агрегатах учитывается с точностью до дня.
+ */
+public interface BalanceRollupDao extends TransactionAggregateDao {
+    // Вычитает вклад removed и добавляет вклад added, схлопывая изменения по ключу свертки
+    void applyChanges(Collection<TransactionSnapshot> removed, Collection<TransactionSnapshot> added);
+    // Вклад транзакций с указанными id по их текущему состоянию в таблице:
+    // снимается перед массовым изменением и возвращается после него
+    void removeTransactions(Collection<Long> transactionIds);
+    void addTransactions(Collection<Long> transactionIds);
+    // Перенос всех сумм одной категории в другую без чтения таблицы транзакций
+    void moveCategory(Long fromCategoryId, Long toCategoryId);
+
+    // Полный пересчет свертки по таблице транзакций
+    void rebuild();
+    // Сравнение свертки с таблицей транзакций; пустой список - расхождений нет
+    List<RollupDrift> verify();
+    boolean isEmpty();
+}
@@ -0,0 +1,40 @@
+package com.studentbudget.dao;
+
+import com.studentbudget.model.Budget;
+import com.studentbudget.model.BudgetPeriod;
+import com.studentbudget.model.Category;
+import com.studentbudget.model.TransactionSnapshot;
+import com.studentbudget.model.User;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Бюджеты пользователей и счетчики расходов по ним.
+ * В счетчик бюджета входят активные расходы его пользователя и категории за его период.
+ * Изменения счетчиков применяются в той же транзакции Hibernate, что и запись самих транзакций.
+ */
+public interface BudgetDao {
+    Budget save(Budget budget);
+    Optional<Budget> find(User user, Category category, BudgetPeriod period, LocalDate startDate);
+    // Бюджеты пользователя, период которых содержит день; категории загружаются тем же запросом
+    List<Budget> findByUserAndDay(User user, LocalDate day);
+    // Последний период каждого бюджета пользователя, если он закончился раньше дня
+    List<Budget> findEndedBefore(User user, LocalDate day);
+    // Удаляет бюджет вместе с прошлыми периодами; возвращает число удаленных строк
+    int deleteAll(User user, Category category, BudgetPeriod period);
+    int deleteByCategory(Long categoryId);
+
+    // Вычитает вклад removed и добавляет вклад added в счетчики бюджетов, период которых содержит их день
+    void applyChanges(Collection<TransactionSnapshot> removed, Collection<TransactionSnapshot> added);
+    // Вклад транзакций с указанными id по их текущему состоянию в таблице:
+    // снимается перед массовым изменением и возвращается после него
+    void removeTransactions(Collection<Long> transactionIds);
+    void addTransactions(Collection<Long> transactionIds);
+    // Вставляет новый период и считает его счетчик по таблице транзакций;
+    // false, если этот период уже создан другой транзакцией
+    boolean startPeriod(Budget budget);
+    // Пересчет счетчиков по таблице транзакций после переноса транзакций между категориями
+    void recalculateCategory(Long categoryId);
+}
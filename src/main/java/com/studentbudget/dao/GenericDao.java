@@ -1,5 +1,6 @@
 package com.studentbudget.dao;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,4 +10,8 @@ public interface GenericDao<T> {
     void deleteById(Long id);
     Optional<T> findById(Long id);
     List<T> findAll();
+
+    // Пакетные операции: реализации пишут данные порциями, а не по одной строке
+    List<T> saveAll(Collection<T> entities);
+    int deleteAllById(Collection<Long> ids);
 } 
\ No newline at end of file
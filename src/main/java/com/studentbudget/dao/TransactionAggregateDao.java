@@ -0,0 +1,23 @@
+package com.studentbudget.dao;
+
+import com.studentbudget.model.TransactionAggregate;
+import com.studentbudget.model.TransactionStatus;
+import com.studentbudget.model.TransactionType;
+import com.studentbudget.model.User;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Источник агрегированных сумм по транзакциям.
+ * Реализуется как самой таблицей транзакций, так и предрасчитанной сверткой.
+ */
+public interface TransactionAggregateDao {
+    // user == null означает выборку по всем пользователям
+    List<TransactionAggregate> aggregateByTypeAndStatus(User user);
+    // status == null означает транзакции в любом статусе
+    List<TransactionAggregate> aggregateByCategory(User user, TransactionType type, TransactionStatus status);
+    // Группировка по пользователю, типу, категории и статусу за период
+    List<TransactionAggregate> aggregateByPeriod(LocalDateTime start, LocalDateTime end);
+    // Группировка по пользователю и категории для всех статусов
+    List<TransactionAggregate> aggregateByUserAndCategory(TransactionType type);
+}
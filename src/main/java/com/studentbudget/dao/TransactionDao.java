@@ -1,15 +1,66 @@
 package com.studentbudget.dao;
 
+import com.studentbudget.model.AmountStatistics;
+import com.studentbudget.model.Page;
 import com.studentbudget.model.Transaction;
+import com.studentbudget.model.TransactionAmount;
+import com.studentbudget.model.TransactionDescription;
+import com.studentbudget.model.TransactionFacts;
+import com.studentbudget.model.TransactionFilter;
+import com.studentbudget.model.TransactionRow;
+import com.studentbudget.model.TransactionSortKey;
+import com.studentbudget.model.TransactionStatus;
 import com.studentbudget.model.TransactionType;
+import com.studentbudget.model.TrendGranularity;
+import com.studentbudget.model.TrendPoint;
 import com.studentbudget.model.Category;
+import com.studentbudget.model.User;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
-public interface TransactionDao extends GenericDao<Transaction> {
+public interface TransactionDao extends GenericDao<Transaction>, TransactionAggregateDao {
     List<Transaction> findByType(TransactionType type);
     List<Transaction> findByCategory(Category category);
     List<Transaction> findByDateRange(LocalDateTime start, LocalDateTime end);
     List<Transaction> findByStatus(String status);
     List<Transaction> searchByDescription(String searchTerm);
-} 
\ No newline at end of file
+
+    // Выборки в пределах одного пользователя
+    List<Transaction> findByUser(User user);
+    List<Transaction> findByUserAndType(User user, TransactionType type);
+    List<Transaction> findByUserAndCategory(User user, Category category);
+    List<Transaction> findByUserAndDateRange(User user, LocalDateTime start, LocalDateTime end);
+    List<Transaction> findByUserAndStatus(User user, String status);
+
+    // Постраничный список с keyset-пагинацией по (ключ сортировки, id); afterCursor == null - первая страница
+    Page<Transaction> findPage(TransactionFilter filter, TransactionSortKey sortKey, String afterCursor, int limit);
+
+    // Та же страница в виде строк для отображения; курсоры findPage и findRowPage взаимозаменяемы
+    Page<TransactionRow> findRowPage(TransactionFilter filter, TransactionSortKey sortKey, String afterCursor, int limit);
+
+    // Потоковый обход всех подходящих транзакций без загрузки списка в память. Сессия очищается
+    // по ходу обхода, переданные сущности отсоединяются. Возвращает число обойденных строк
+    long forEachMatching(TransactionFilter filter, TransactionSortKey sortKey, Consumer<Transaction> action);
+
+    // Массовые изменения; возвращают число затронутых транзакций
+    int updateStatusIn(Collection<Long> ids, TransactionStatus status);
+    int moveCategoryIn(Collection<Long> ids, Category toCategory);
+    int moveCategory(Category fromCategory, Category toCategory);
+
+    // Итоги по интервалам за период [start, end] в порядке дат, только непустые интервалы; user == null - все
+    // пользователи. Изменение считается к предыдущему интервалу; если тот пуст или раньше start, он равен нулю
+    List<TrendPoint> aggregateTrend(User user, TransactionType type, TransactionStatus status,
+                                    TrendGranularity granularity, LocalDate start, LocalDate end);
+
+    // Статистика сумм по пользователям
+    List<AmountStatistics> amountStatisticsByUser();
+
+    // Последовательный просмотр по возрастанию id (keyset); afterId == null - с начала таблицы
+    List<TransactionAmount> findAmountsAfterId(Long afterId, int limit);
+    List<TransactionDescription> findDescriptionsAfterId(Long afterId, int limit);
+    List<TransactionFacts> findFactsAfterId(Long afterId, int limit);
+    List<Transaction> findAllById(Collection<Long> ids);
+}
@@ -44,7 +44,7 @@ public class CategoryDaoImpl implements CategoryDao {
 
     @Override
     public List<Category> findAll() {
-        return getCurrentSession().createQuery("from Category", Category.class).list();
+        return ReferenceQueries.cached(getCurrentSession().createQuery("from Category", Category.class)).list();
     }
 
     @Override
@@ -52,6 +52,6 @@ public class CategoryDaoImpl implements CategoryDao {
         Query<Category> query = getCurrentSession().createQuery(
             "from Category where name = :name", Category.class);
         query.setParameter("name", name);
-        return query.uniqueResult();
+        return ReferenceQueries.cached(query).uniqueResult();
     }
 } 
\ No newline at end of file
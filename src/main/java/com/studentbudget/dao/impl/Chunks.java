@@ -0,0 +1,23 @@
+package com.studentbudget.dao.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Разбиение списка id на порции для запросов с IN: размер списка параметров ограничен драйвером и сетью.
+ */
+final class Chunks {
+    static final int DEFAULT_SIZE = 1000;
+
+    private Chunks() {}
+
+    static <T> List<List<T>> of(Collection<T> items, int size) {
+        List<T> all = new ArrayList<>(items);
+        List<List<T>> chunks = new ArrayList<>((all.size() + size - 1) / size);
+        for (int from = 0; from < all.size(); from += size) {
+            chunks.add(all.subList(from, Math.min(from + size, all.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,359 @@
+package com.studentbudget.dao.impl;
+
+import com.studentbudget.dao.BalanceRollupDao;
+import com.studentbudget.model.BalanceRollup;
+import com.studentbudget.model.Category;
+import com.studentbudget.model.RollupDrift;
+import com.studentbudget.model.TransactionAggregate;
+import com.studentbudget.model.TransactionSnapshot;
+import com.studentbudget.model.TransactionStatus;
+import com.studentbudget.model.TransactionType;
+import com.studentbudget.model.User;
+import jakarta.persistence.LockModeType;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class HibernateBalanceRollupDao implements BalanceRollupDao {
+    // SQLSTATE нарушения уникальности (H2, PostgreSQL)
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final SessionFactory sessionFactory;
+
+    public HibernateBalanceRollupDao(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    private Session getCurrentSession() {
+        return sessionFactory.getCurrentSession();
+    }
+
+    @Override
+    public void applyChanges(Collection<TransactionSnapshot> removed, Collection<TransactionSnapshot> added) {
+        // Пакетные операции затрагивают много транзакций, но мало ключей свертки:
+        // сначала схлопываем изменения, затем пишем по одной строке на ключ
+        Map<List<Object>, BalanceRollup> deltas = new LinkedHashMap<>();
+        accumulate(deltas, removed, -1);
+        accumulate(deltas, added, 1);
+
+        for (BalanceRollup delta : deltas.values()) {
+            if (delta.getTransactionCount() != 0 || delta.getTotal().signum() != 0) {
+                applyDelta(delta);
+            }
+        }
+    }
+
+    @Override
+    public void removeTransactions(Collection<Long> transactionIds) {
+        applyTransactionGroups(transactionIds, -1);
+    }
+
+    @Override
+    public void addTransactions(Collection<Long> transactionIds) {
+        applyTransactionGroups(transactionIds, 1);
+    }
+
+    // Изменение считается группирующим запросом по затронутым id: строк в ответе столько, сколько ключей свертки
+    private void applyTransactionGroups(Collection<Long> transactionIds, int sign) {
+        Map<List<Object>, BalanceRollup> deltas = new LinkedHashMap<>();
+        for (List<Long> chunk : Chunks.of(transactionIds, Chunks.DEFAULT_SIZE)) {
+            List<Object[]> rows = getCurrentSession().createQuery(
+                    "select t.user.id, t.category.id, t.type, t.status, cast(t.date as LocalDate), sum(t.amount), count(t) " +
+                    "from Transaction t where t.id in :ids " +
+                    "group by t.user.id, t.category.id, t.type, t.status, cast(t.date as LocalDate)", Object[].class)
+                .setParameter("ids", chunk)
+                .list();
+            for (Object[] row : rows) {
+                BigDecimal total = sign > 0 ? (BigDecimal) row[5] : ((BigDecimal) row[5]).negate();
+                merge(deltas, new BalanceRollup((Long) row[0], (Long) row[1], (TransactionType) row[2],
+                    (TransactionStatus) row[3], (LocalDate) row[4], total, sign * (Long) row[6]));
+            }
+        }
+        deltas.values().forEach(this::applyDelta);
+    }
+
+    @Override
+    public void moveCategory(Long fromCategoryId, Long toCategoryId) {
+        if (fromCategoryId.equals(toCategoryId)) {
+            return;
+        }
+        // Строки исходной категории блокируются до конца транзакции: параллельное
+        // приращение дождется переноса и не пропадет вместе с удаленной строкой
+        Map<List<Object>, BalanceRollup> deltas = new LinkedHashMap<>();
+        List<BalanceRollup> source = getCurrentSession().createQuery(
+                "from BalanceRollup r where r.categoryId = :categoryId", BalanceRollup.class)
+            .setParameter("categoryId", fromCategoryId)
+            .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+            .list();
+        for (BalanceRollup rollup : source) {
+            merge(deltas, new BalanceRollup(rollup.getUserId(), toCategoryId, rollup.getType(), rollup.getStatus(),
+                rollup.getDay(), rollup.getTotal(), rollup.getTransactionCount()));
+            getCurrentSession().detach(rollup);
+        }
+        getCurrentSession().createMutationQuery("delete from BalanceRollup r where r.categoryId = :categoryId")
+            .setParameter("categoryId", fromCategoryId)
+            .executeUpdate();
+        deltas.values().forEach(this::applyDelta);
+    }
+
+    private void merge(Map<List<Object>, BalanceRollup> deltas, BalanceRollup delta) {
+        List<Object> key = List.of(delta.getUserId(), delta.getCategoryId(), delta.getType(), delta.getStatus(), delta.getDay());
+        BalanceRollup current = deltas.get(key);
+        if (current == null) {
+            deltas.put(key, delta);
+        } else {
+            current.add(delta.getTotal(), delta.getTransactionCount());
+        }
+    }
+
+    private void accumulate(Map<List<Object>, BalanceRollup> deltas, Collection<TransactionSnapshot> snapshots, int sign) {
+        for (TransactionSnapshot snapshot : snapshots) {
+            BigDecimal amount = sign > 0 ? snapshot.getAmount() : snapshot.getAmount().negate();
+            merge(deltas, new BalanceRollup(snapshot.getUserId(), snapshot.getCategoryId(),
+                snapshot.getType(), snapshot.getStatus(), snapshot.getDay(), amount, sign));
+        }
+    }
+
+    // Изменение одного ключа применяется в базе, без чтения строки: параллельные записи
+    // (окно и фоновый импорт) не теряют приращений друг друга
+    private void applyDelta(BalanceRollup delta) {
+        if (increment(delta) == 0 && !insert(delta)) {
+            // Строку ключа только что вставила другая транзакция: теперь она есть
+            increment(delta);
+        }
+        // Пустые группы удаляем, чтобы размер свертки зависел только от живых ключей
+        if (delta.getTransactionCount() < 0) {
+            getCurrentSession().createMutationQuery(
+                    "delete from BalanceRollup r where r.userId = :userId and r.categoryId = :categoryId " +
+                    "and r.type = :type and r.status = :status and r.day = :day and r.transactionCount = 0")
+                .setParameter("userId", delta.getUserId())
+                .setParameter("categoryId", delta.getCategoryId())
+                .setParameter("type", delta.getType())
+                .setParameter("status", delta.getStatus())
+                .setParameter("day", delta.getDay())
+                .executeUpdate();
+        }
+    }
+
+    private int increment(BalanceRollup delta) {
+        return getCurrentSession().createMutationQuery(
+                "update BalanceRollup r set r.total = r.total + :total, " +
+                "r.transactionCount = r.transactionCount + :count " +
+                "where r.userId = :userId and r.categoryId = :categoryId " +
+                "and r.type = :type and r.status = :status and r.day = :day")
+            .setParameter("total", delta.getTotal())
+            .setParameter("count", delta.getTransactionCount())
+            .setParameter("userId", delta.getUserId())
+            .setParameter("categoryId", delta.getCategoryId())
+            .setParameter("type", delta.getType())
+            .setParameter("status", delta.getStatus())
+            .setParameter("day", delta.getDay())
+            .executeUpdate();
+    }
+
+    // Вставка строки нового ключа. Нарушение uk_balance_rollup_key значит, что ключ
+    // одновременно вставила другая транзакция; вставка откатывается до точки сохранения,
+    // чтобы не портить текущую транзакцию, и возвращается false
+    private boolean insert(BalanceRollup delta) {
+        return getCurrentSession().doReturningWork(connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into balance_rollup (user_id, category_id, type, status, rollup_day, total, txn_count) " +
+                    "values (?, ?, ?, ?, ?, ?, ?)")) {
+                insert.setLong(1, delta.getUserId());
+                insert.setLong(2, delta.getCategoryId());
+                insert.setString(3, delta.getType().name());
+                insert.setString(4, delta.getStatus().name());
+                insert.setObject(5, delta.getDay());
+                insert.setBigDecimal(6, delta.getTotal());
+                insert.setLong(7, delta.getTransactionCount());
+                insert.executeUpdate();
+                connection.releaseSavepoint(savepoint);
+                return true;
+            } catch (SQLException e) {
+                if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                    throw e;
+                }
+                connection.rollback(savepoint);
+                return false;
+            }
+        });
+    }
+
+    @Override
+    public void rebuild() {
+        getCurrentSession().createMutationQuery("delete from BalanceRollup").executeUpdate();
+        getCurrentSession().createMutationQuery(
+                "insert into BalanceRollup (userId, categoryId, type, status, day, total, transactionCount) " +
+                "select t.user.id, t.category.id, t.type, t.status, cast(t.date as LocalDate), sum(t.amount), count(t) " +
+                "from Transaction t " +
+                "group by t.user.id, t.category.id, t.type, t.status, cast(t.date as LocalDate)")
+            .executeUpdate();
+    }
+
+    @Override
+    public List<RollupDrift> verify() {
+        Map<List<Object>, Object[]> expected = new HashMap<>();
+        for (Object[] row : getCurrentSession().createQuery(
+                "select t.user.id, t.category.id, t.type, t.status, cast(t.date as LocalDate), sum(t.amount), count(t) " +
+                "from Transaction t " +
+                "group by t.user.id, t.category.id, t.type, t.status, cast(t.date as LocalDate)", Object[].class).list()) {
+            expected.put(List.of(row[0], row[1], row[2], row[3], row[4]), row);
+        }
+
+        // Свертку читаем проекцией, а не сущностями: в сессии могут быть уже загруженные строки
+        List<RollupDrift> drifts = new ArrayList<>();
+        for (Object[] rollup : getCurrentSession().createQuery(
+                "select r.userId, r.categoryId, r.type, r.status, r.day, r.total, r.transactionCount " +
+                "from BalanceRollup r", Object[].class).list()) {
+            Object[] row = expected.remove(List.of(rollup[0], rollup[1], rollup[2], rollup[3], rollup[4]));
+            BigDecimal expectedTotal = row != null ? (BigDecimal) row[5] : BigDecimal.ZERO;
+            long expectedCount = row != null ? (Long) row[6] : 0L;
+            BigDecimal actualTotal = (BigDecimal) rollup[5];
+            long actualCount = (Long) rollup[6];
+            if (expectedCount != actualCount || expectedTotal.compareTo(actualTotal) != 0) {
+                drifts.add(new RollupDrift((Long) rollup[0], (Long) rollup[1], (TransactionType) rollup[2],
+                    (TransactionStatus) rollup[3], (LocalDate) rollup[4], expectedTotal, expectedCount,
+                    actualTotal, actualCount));
+            }
+        }
+        // Оставшиеся группы транзакций в свертке отсутствуют вовсе
+        for (Object[] row : expected.values()) {
+            drifts.add(new RollupDrift((Long) row[0], (Long) row[1], (TransactionType) row[2],
+                (TransactionStatus) row[3], (LocalDate) row[4], (BigDecimal) row[5], (Long) row[6],
+                BigDecimal.ZERO, 0L));
+        }
+        return drifts;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getCurrentSession().createQuery("select r.id from BalanceRollup r", Long.class)
+            .setMaxResults(1)
+            .list()
+            .isEmpty();
+    }
+
+    @Override
+    public List<TransactionAggregate> aggregateByTypeAndStatus(User user) {
+        String hql = "select new com.studentbudget.model.TransactionAggregate(r.type, r.status, sum(r.total), sum(r.transactionCount)) " +
+            "from BalanceRollup r" +
+            (user != null ? " where r.userId = :userId" : "") +
+            " group by r.type, r.status";
+        Query<TransactionAggregate> query = getCurrentSession().createQuery(hql, TransactionAggregate.class);
+        if (user != null) {
+            query.setParameter("userId", user.getId());
+        }
+        return query.list();
+    }
+
+    @Override
+    public List<TransactionAggregate> aggregateByCategory(User user, TransactionType type, TransactionStatus status) {
+        String hql = "select r.categoryId, sum(r.total), sum(r.transactionCount) from BalanceRollup r where r.type = :type" +
+            (status != null ? " and r.status = :status" : "") +
+            (user != null ? " and r.userId = :userId" : "") +
+            " group by r.categoryId";
+        Query<Object[]> query = getCurrentSession().createQuery(hql, Object[].class);
+        query.setParameter("type", type);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (user != null) {
+            query.setParameter("userId", user.getId());
+        }
+        List<Object[]> rows = query.list();
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Category> categories = findCategoriesByIds(rows.stream().map(row -> (Long) row[0]).toList());
+        List<TransactionAggregate> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            TransactionAggregate aggregate = new TransactionAggregate(type, status, (BigDecimal) row[1], (Long) row[2]);
+            aggregate.setCategory(categories.get((Long) row[0]));
+            aggregate.setUser(user);
+            result.add(aggregate);
+        }
+        return result;
+    }
+
+    @Override
+    public List<TransactionAggregate> aggregateByPeriod(LocalDateTime start, LocalDateTime end) {
+        Query<Object[]> query = getCurrentSession().createQuery(
+            "select r.userId, r.type, r.categoryId, r.status, sum(r.total), sum(r.transactionCount) " +
+            "from BalanceRollup r where r.day between :start and :end " +
+            "group by r.userId, r.type, r.categoryId, r.status", Object[].class);
+        query.setParameter("start", start.toLocalDate());
+        query.setParameter("end", end.toLocalDate());
+        List<Object[]> rows = query.list();
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, User> users = findUsersByIds(rows.stream().map(row -> (Long) row[0]).distinct().toList());
+        Map<Long, Category> categories = findCategoriesByIds(rows.stream().map(row -> (Long) row[2]).distinct().toList());
+        List<TransactionAggregate> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            TransactionAggregate aggregate = new TransactionAggregate(
+                (TransactionType) row[1], (TransactionStatus) row[3], (BigDecimal) row[4], (Long) row[5]);
+            aggregate.setUser(users.get((Long) row[0]));
+            aggregate.setCategory(categories.get((Long) row[2]));
+            result.add(aggregate);
+        }
+        return result;
+    }
+
+    @Override
+    public List<TransactionAggregate> aggregateByUserAndCategory(TransactionType type) {
+        Query<Object[]> query = getCurrentSession().createQuery(
+            "select r.userId, r.categoryId, sum(r.total), sum(r.transactionCount) " +
+            "from BalanceRollup r where r.type = :type " +
+            "group by r.userId, r.categoryId", Object[].class);
+        query.setParameter("type", type);
+        List<Object[]> rows = query.list();
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, User> users = findUsersByIds(rows.stream().map(row -> (Long) row[0]).distinct().toList());
+        Map<Long, Category> categories = findCategoriesByIds(rows.stream().map(row -> (Long) row[1]).distinct().toList());
+        List<TransactionAggregate> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            TransactionAggregate aggregate = new TransactionAggregate(type, null, (BigDecimal) row[2], (Long) row[3]);
+            aggregate.setUser(users.get((Long) row[0]));
+            aggregate.setCategory(categories.get((Long) row[1]));
+            result.add(aggregate);
+        }
+        return result;
+    }
+
+    private Map<Long, User> findUsersByIds(List<Long> ids) {
+        return getCurrentSession().createQuery("from User where id in :ids", User.class)
+            .setParameter("ids", ids)
+            .list()
+            .stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    private Map<Long, Category> findCategoriesByIds(List<Long> ids) {
+        return getCurrentSession().createQuery("from Category where id in :ids", Category.class)
+            .setParameter("ids", ids)
+            .list()
+            .stream()
+            .collect(Collectors.toMap(Category::getId, Function.identity()));
+    }
+}
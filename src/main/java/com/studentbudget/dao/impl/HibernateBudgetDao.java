@@ -0,0 +1,263 @@
+package com.studentbudget.dao.impl;
+
+import com.studentbudget.dao.BudgetDao;
+import com.studentbudget.model.Budget;
+import com.studentbudget.model.BudgetPeriod;
+import com.studentbudget.model.Category;
+import com.studentbudget.model.TransactionSnapshot;
+import com.studentbudget.model.TransactionStatus;
+import com.studentbudget.model.TransactionType;
+import com.studentbudget.model.User;
+import jakarta.persistence.LockModeType;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class HibernateBudgetDao implements BudgetDao {
+    // SQLSTATE нарушения уникальности (H2, PostgreSQL)
+    private static final String UNIQUE_VIOLATION = "23505";
+    // Расходы, которые входят в счетчики бюджетов
+    private static final TransactionType SPENDING_TYPE = TransactionType.EXPENSE;
+    private static final TransactionStatus SPENDING_STATUS = TransactionStatus.ACTIVE;
+
+    private final SessionFactory sessionFactory;
+
+    public HibernateBudgetDao(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    private Session getCurrentSession() {
+        return sessionFactory.getCurrentSession();
+    }
+
+    @Override
+    public Budget save(Budget budget) {
+        getCurrentSession().persist(budget);
+        return budget;
+    }
+
+    @Override
+    public Optional<Budget> find(User user, Category category, BudgetPeriod period, LocalDate startDate) {
+        return getCurrentSession().createQuery(
+                "from Budget b join fetch b.category where b.user.id = :userId and b.category.id = :categoryId " +
+                "and b.period = :period and b.startDate = :startDate", Budget.class)
+            .setParameter("userId", user.getId())
+            .setParameter("categoryId", category.getId())
+            .setParameter("period", period)
+            .setParameter("startDate", startDate)
+            .uniqueResultOptional();
+    }
+
+    @Override
+    public List<Budget> findByUserAndDay(User user, LocalDate day) {
+        return getCurrentSession().createQuery(
+                "from Budget b join fetch b.category where b.user.id = :userId " +
+                "and b.startDate <= :day and b.endDate >= :day order by b.category.name, b.period", Budget.class)
+            .setParameter("userId", user.getId())
+            .setParameter("day", day)
+            .list();
+    }
+
+    @Override
+    public List<Budget> findEndedBefore(User user, LocalDate day) {
+        return getCurrentSession().createQuery(
+                "from Budget b join fetch b.category where b.user.id = :userId and b.endDate < :day " +
+                "and b.startDate = (select max(n.startDate) from Budget n where n.user = b.user " +
+                "and n.category = b.category and n.period = b.period)", Budget.class)
+            .setParameter("userId", user.getId())
+            .setParameter("day", day)
+            .list();
+    }
+
+    @Override
+    public int deleteAll(User user, Category category, BudgetPeriod period) {
+        return getCurrentSession().createMutationQuery(
+                "delete from Budget b where b.user.id = :userId and b.category.id = :categoryId and b.period = :period")
+            .setParameter("userId", user.getId())
+            .setParameter("categoryId", category.getId())
+            .setParameter("period", period)
+            .executeUpdate();
+    }
+
+    @Override
+    public int deleteByCategory(Long categoryId) {
+        return getCurrentSession().createMutationQuery("delete from Budget b where b.category.id = :categoryId")
+            .setParameter("categoryId", categoryId)
+            .executeUpdate();
+    }
+
+    @Override
+    public void applyChanges(Collection<TransactionSnapshot> removed, Collection<TransactionSnapshot> added) {
+        // Как и в свертке балансов, изменения сначала схлопываются по (пользователь, категория, день)
+        Map<List<Object>, Delta> deltas = new LinkedHashMap<>();
+        accumulate(deltas, removed, -1);
+        accumulate(deltas, added, 1);
+        applyDeltas(deltas);
+    }
+
+    @Override
+    public void removeTransactions(Collection<Long> transactionIds) {
+        applyTransactionGroups(transactionIds, -1);
+    }
+
+    @Override
+    public void addTransactions(Collection<Long> transactionIds) {
+        applyTransactionGroups(transactionIds, 1);
+    }
+
+    private void applyTransactionGroups(Collection<Long> transactionIds, int sign) {
+        Map<List<Object>, Delta> deltas = new LinkedHashMap<>();
+        for (List<Long> chunk : Chunks.of(transactionIds, Chunks.DEFAULT_SIZE)) {
+            List<Object[]> rows = getCurrentSession().createQuery(
+                    "select t.user.id, t.category.id, cast(t.date as LocalDate), sum(t.amount), count(t) " +
+                    "from Transaction t where t.id in :ids and t.type = :type and t.status = :status " +
+                    "group by t.user.id, t.category.id, cast(t.date as LocalDate)", Object[].class)
+                .setParameter("ids", chunk)
+                .setParameter("type", SPENDING_TYPE)
+                .setParameter("status", SPENDING_STATUS)
+                .list();
+            for (Object[] row : rows) {
+                Delta delta = deltas.computeIfAbsent(List.of(row[0], row[1], row[2]), key -> new Delta());
+                delta.add(sign > 0 ? (BigDecimal) row[3] : ((BigDecimal) row[3]).negate(), sign * (Long) row[4]);
+            }
+        }
+        applyDeltas(deltas);
+    }
+
+    private void accumulate(Map<List<Object>, Delta> deltas, Collection<TransactionSnapshot> snapshots, int sign) {
+        for (TransactionSnapshot snapshot : snapshots) {
+            if (snapshot.getType() != SPENDING_TYPE || snapshot.getStatus() != SPENDING_STATUS) {
+                continue;
+            }
+            Delta delta = deltas.computeIfAbsent(
+                List.of(snapshot.getUserId(), snapshot.getCategoryId(), snapshot.getDay()), key -> new Delta());
+            delta.add(sign > 0 ? snapshot.getAmount() : snapshot.getAmount().negate(), sign);
+        }
+    }
+
+    private void applyDeltas(Map<List<Object>, Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        lockUsers(deltas.keySet().stream().map(key -> (Long) key.get(0)).distinct().toList());
+        deltas.forEach(this::applyDelta);
+    }
+
+    // Одно изменение на ключ: счетчик увеличивается в базе, без чтения строки бюджета
+    private void applyDelta(List<Object> key, Delta delta) {
+        if (delta.count == 0 && delta.amount.signum() == 0) {
+            return;
+        }
+        getCurrentSession().createMutationQuery(
+                "update Budget b set b.spent = b.spent + :amount, b.transactionCount = b.transactionCount + :count " +
+                "where b.user.id = :userId and b.category.id = :categoryId " +
+                "and b.startDate <= :day and b.endDate >= :day")
+            .setParameter("amount", delta.amount)
+            .setParameter("count", delta.count)
+            .setParameter("userId", key.get(0))
+            .setParameter("categoryId", key.get(1))
+            .setParameter("day", key.get(2))
+            .executeUpdate();
+    }
+
+    @Override
+    public boolean startPeriod(Budget budget) {
+        lockUsers(List.of(budget.getUser().getId()));
+        Long id = getCurrentSession().doReturningWork(connection -> {
+            // Повторная вставка периода нарушает uk_budgets_period; она откатывается
+            // до точки сохранения, и текущая транзакция остается рабочей
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into budgets (user_id, category_id, amount, period, start_date, end_date, spent, txn_count) " +
+                    "values (?, ?, ?, ?, ?, ?, 0, 0)", Statement.RETURN_GENERATED_KEYS)) {
+                insert.setLong(1, budget.getUser().getId());
+                insert.setLong(2, budget.getCategory().getId());
+                insert.setBigDecimal(3, budget.getAmount());
+                insert.setString(4, budget.getPeriod().name());
+                insert.setObject(5, budget.getStartDate());
+                insert.setObject(6, budget.getEndDate());
+                insert.executeUpdate();
+                connection.releaseSavepoint(savepoint);
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    return keys.getLong(1);
+                }
+            } catch (SQLException e) {
+                if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                    throw e;
+                }
+                connection.rollback(savepoint);
+                return null;
+            }
+        });
+        if (id == null) {
+            return false;
+        }
+        recalculate(id, budget.getStartDate(), budget.getEndDate());
+        return true;
+    }
+
+    @Override
+    public void recalculateCategory(Long categoryId) {
+        List<Object[]> budgets = getCurrentSession().createQuery(
+                "select b.id, b.user.id, b.startDate, b.endDate from Budget b where b.category.id = :categoryId",
+                Object[].class)
+            .setParameter("categoryId", categoryId)
+            .list();
+        if (budgets.isEmpty()) {
+            return;
+        }
+        lockUsers(budgets.stream().map(row -> (Long) row[1]).distinct().toList());
+        for (Object[] row : budgets) {
+            recalculate((Long) row[0], (LocalDate) row[2], (LocalDate) row[3]);
+        }
+    }
+
+    // Счетчик периода одним запросом по таблице транзакций. Вызывается под блокировкой
+    // пользователя, поэтому видит все транзакции, записи которых уже изменили счетчики
+    private void recalculate(Long budgetId, LocalDate startDate, LocalDate endDate) {
+        String matching = "from Transaction t where t.user = b.user and t.category = b.category " +
+            "and t.type = :type and t.status = :status and t.date >= :start and t.date < :end";
+        getCurrentSession().createMutationQuery(
+                "update Budget b set b.spent = (select coalesce(sum(t.amount), 0) " + matching + "), " +
+                "b.transactionCount = (select count(t) " + matching + ") where b.id = :id")
+            .setParameter("type", SPENDING_TYPE)
+            .setParameter("status", SPENDING_STATUS)
+            .setParameter("start", startDate.atStartOfDay())
+            .setParameter("end", endDate.plusDays(1).atStartOfDay())
+            .setParameter("id", budgetId)
+            .executeUpdate();
+    }
+
+    // Запись транзакций и пересчет счетчиков одного пользователя выполняются по очереди.
+    // Иначе пересчет не увидит незафиксированную транзакцию, а ее запись - новый период
+    // бюджета, и расход не попадет в счетчик. Блокировки берутся по возрастанию id
+    private void lockUsers(List<Long> userIds) {
+        getCurrentSession().createQuery("select u.id from User u where u.id in :ids order by u.id", Long.class)
+            .setParameter("ids", userIds)
+            .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+            .list();
+    }
+
+    // Изменение счетчика одного ключа
+    private static final class Delta {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private long count;
+
+        private void add(BigDecimal amount, long count) {
+            this.amount = this.amount.add(amount);
+            this.count += count;
+        }
+    }
+}
@@ -47,7 +47,7 @@ public class HibernateCategoryDao implements CategoryDao {
     @Override
     public List<Category> findAll() {
         Session session = sessionFactory.getCurrentSession();
-        return session.createQuery("from Category", Category.class).list();
+        return ReferenceQueries.cached(session.createQuery("from Category", Category.class)).list();
     }
 
     @Override
@@ -58,6 +58,6 @@ public class HibernateCategoryDao implements CategoryDao {
             Category.class
         );
         query.setParameter("name", name);
-        return query.uniqueResult();
+        return ReferenceQueries.cached(query).uniqueResult();
     }
 } 
\ No newline at end of file
@@ -1,17 +1,58 @@
 package com.studentbudget.dao.impl;
 
 import com.studentbudget.dao.TransactionDao;
+import com.studentbudget.model.AmountStatistics;
+import com.studentbudget.model.DescriptionWords;
+import com.studentbudget.model.Page;
 import com.studentbudget.model.Transaction;
+import com.studentbudget.model.TransactionAggregate;
+import com.studentbudget.model.TransactionAmount;
+import com.studentbudget.model.TransactionDescription;
+import com.studentbudget.model.TransactionFacts;
+import com.studentbudget.model.TransactionCursor;
+import com.studentbudget.model.TransactionFilter;
+import com.studentbudget.model.TransactionRow;
+import com.studentbudget.model.TransactionSortKey;
 import com.studentbudget.model.Category;
+import com.studentbudget.model.TransactionStatus;
 import com.studentbudget.model.TransactionType;
+import com.studentbudget.model.TrendGranularity;
+import com.studentbudget.model.TrendPoint;
+import com.studentbudget.model.User;
+import com.studentbudget.util.QueryFunctionContributor;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.jpa.SpecHints;
 import org.hibernate.query.Query;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class HibernateTransactionDao implements TransactionDao {
+    private static final int SCROLL_FETCH_SIZE = 1000;
+    private static final String IDS_PARAMETER = "ids";
+    // Описание в нижнем регистре с ё, замененной на е, - как слова DescriptionWords
+    private static final String FOLDED_DESCRIPTION = "replace(lower(description), 'ё', 'е')";
     private final SessionFactory sessionFactory;
 
     public HibernateTransactionDao(SessionFactory sessionFactory) {
@@ -40,36 +81,102 @@ public class HibernateTransactionDao implements TransactionDao {
         query.executeUpdate();
     }
 
+    @Override
+    public List<Transaction> saveAll(Collection<Transaction> transactions) {
+        // Вставка через StatelessSession: строки не копятся в контексте персистентности
+        // и не проверяются при flush. Сессия открывается на соединении текущей сессии,
+        // поэтому вставки входят в ее транзакцию и откатываются вместе с ней.
+        // Возвращенные сущности получают id, но остаются отсоединенными
+        Session session = getCurrentSession();
+        Connection connection = session.doReturningWork(jdbcConnection -> jdbcConnection);
+        try (StatelessSession statelessSession = sessionFactory.withStatelessOptions()
+                .connection(connection)
+                .openStatelessSession()) {
+            for (Transaction transaction : transactions) {
+                statelessSession.insert(transaction);
+            }
+        }
+        return new ArrayList<>(transactions);
+    }
+
+    @Override
+    public int deleteAllById(Collection<Long> ids) {
+        int deleted = 0;
+        for (List<Long> chunk : Chunks.of(ids, Chunks.DEFAULT_SIZE)) {
+            deleted += getCurrentSession().createMutationQuery("delete from Transaction where id in :ids")
+                .setParameter("ids", chunk)
+                .executeUpdate();
+        }
+        return deleted;
+    }
+
+    @Override
+    public int updateStatusIn(Collection<Long> ids, TransactionStatus status) {
+        int updated = 0;
+        for (List<Long> chunk : Chunks.of(ids, Chunks.DEFAULT_SIZE)) {
+            updated += getCurrentSession().createMutationQuery(
+                    "update Transaction set status = :status where id in :ids")
+                .setParameter("status", status)
+                .setParameter("ids", chunk)
+                .executeUpdate();
+        }
+        return updated;
+    }
+
+    @Override
+    public int moveCategoryIn(Collection<Long> ids, Category toCategory) {
+        int moved = 0;
+        for (List<Long> chunk : Chunks.of(ids, Chunks.DEFAULT_SIZE)) {
+            moved += getCurrentSession().createMutationQuery(
+                    "update Transaction set category = :category where id in :ids")
+                .setParameter("category", toCategory)
+                .setParameter("ids", chunk)
+                .executeUpdate();
+        }
+        return moved;
+    }
+
+    @Override
+    public int moveCategory(Category fromCategory, Category toCategory) {
+        return getCurrentSession().createMutationQuery(
+                "update Transaction set category = :toCategory where category = :fromCategory")
+            .setParameter("toCategory", toCategory)
+            .setParameter("fromCategory", fromCategory)
+            .executeUpdate();
+    }
+
     @Override
     public Optional<Transaction> findById(Long id) {
-        return Optional.ofNullable(getCurrentSession().get(Transaction.class, id));
+        Session session = getCurrentSession();
+        return Optional.ofNullable(session.find(Transaction.class, id,
+            Map.of(SpecHints.HINT_SPEC_FETCH_GRAPH, session.getEntityGraph(Transaction.WITH_REFERENCES))));
     }
 
     @Override
     public List<Transaction> findAll() {
-        return getCurrentSession().createQuery("from Transaction", Transaction.class).list();
+        return transactionQuery("from Transaction").list();
     }
 
     @Override
     public List<Transaction> findByType(TransactionType type) {
-        Query<Transaction> query = getCurrentSession().createQuery(
-            "from Transaction where type = :type", Transaction.class);
+        Query<Transaction> query = transactionQuery(
+            "from Transaction where type = :type");
         query.setParameter("type", type);
         return query.list();
     }
 
     @Override
     public List<Transaction> findByCategory(Category category) {
-        Query<Transaction> query = getCurrentSession().createQuery(
-            "from Transaction where category = :category", Transaction.class);
+        Query<Transaction> query = transactionQuery(
+            "from Transaction where category = :category");
         query.setParameter("category", category);
         return query.list();
     }
 
     @Override
     public List<Transaction> findByDateRange(LocalDateTime start, LocalDateTime end) {
-        Query<Transaction> query = getCurrentSession().createQuery(
-            "from Transaction where date between :start and :end", Transaction.class);
+        Query<Transaction> query = transactionQuery(
+            "from Transaction where date between :start and :end");
         query.setParameter("start", start);
         query.setParameter("end", end);
         return query.list();
@@ -77,17 +184,443 @@ public class HibernateTransactionDao implements TransactionDao {
 
     @Override
     public List<Transaction> searchByDescription(String searchTerm) {
-        Query<Transaction> query = getCurrentSession().createQuery(
-            "from Transaction where lower(description) like lower(:searchTerm)", Transaction.class);
-        query.setParameter("searchTerm", "%" + searchTerm + "%");
+        String[] words = DescriptionWords.of(searchTerm);
+        if (words.length == 0) {
+            return new ArrayList<>();
+        }
+        StringBuilder hql = new StringBuilder("from Transaction where ");
+        for (int i = 0; i < words.length; i++) {
+            hql.append(i > 0 ? " and " : "").append(FOLDED_DESCRIPTION).append(" like :word").append(i);
+        }
+        Query<Transaction> query = transactionQuery(hql.toString());
+        for (int i = 0; i < words.length; i++) {
+            query.setParameter("word" + i, containsPattern(words[i]));
+        }
         return query.list();
     }
 
     @Override
     public List<Transaction> findByStatus(String status) {
-        Query<Transaction> query = getCurrentSession().createQuery(
-            "from Transaction where status = :status", Transaction.class);
+        Query<Transaction> query = transactionQuery(
+            "from Transaction where status = :status");
+        query.setParameter("status", TransactionStatus.valueOf(status));
+        return query.list();
+    }
+
+    @Override
+    public List<Transaction> findByUser(User user) {
+        Query<Transaction> query = transactionQuery(
+            "from Transaction where user.id = :userId");
+        query.setParameter("userId", user.getId());
+        return query.list();
+    }
+
+    @Override
+    public List<Transaction> findByUserAndType(User user, TransactionType type) {
+        Query<Transaction> query = transactionQuery(
+            "from Transaction where user.id = :userId and type = :type");
+        query.setParameter("userId", user.getId());
+        query.setParameter("type", type);
+        return query.list();
+    }
+
+    @Override
+    public List<Transaction> findByUserAndCategory(User user, Category category) {
+        Query<Transaction> query = transactionQuery(
+            "from Transaction where user.id = :userId and category.id = :categoryId");
+        query.setParameter("userId", user.getId());
+        query.setParameter("categoryId", category.getId());
+        return query.list();
+    }
+
+    @Override
+    public List<Transaction> findByUserAndDateRange(User user, LocalDateTime start, LocalDateTime end) {
+        Query<Transaction> query = transactionQuery(
+            "from Transaction where user.id = :userId and date between :start and :end");
+        query.setParameter("userId", user.getId());
+        query.setParameter("start", start);
+        query.setParameter("end", end);
+        return query.list();
+    }
+
+    @Override
+    public List<Transaction> findByUserAndStatus(User user, String status) {
+        Query<Transaction> query = transactionQuery(
+            "from Transaction where user.id = :userId and status = :status");
+        query.setParameter("userId", user.getId());
+        query.setParameter("status", TransactionStatus.valueOf(status));
+        return query.list();
+    }
+
+    @Override
+    public Page<Transaction> findPage(TransactionFilter filter, TransactionSortKey sortKey, String afterCursor, int limit) {
+        TransactionCursor cursor = afterCursor != null ? TransactionCursor.decode(afterCursor, sortKey) : null;
+        Query<Transaction> query = createQuery(filteredQuery(filter, sortKey, cursor), filter);
+        // Лишняя строка показывает, есть ли следующая страница
+        query.setMaxResults(limit + 1);
+
+        List<Transaction> rows = query.list();
+        if (rows.size() <= limit) {
+            return new Page<>(rows, null);
+        }
+        List<Transaction> items = new ArrayList<>(rows.subList(0, limit));
+        return new Page<>(items, TransactionCursor.after(sortKey, items.get(limit - 1)).encode());
+    }
+
+    @Override
+    public Page<TransactionRow> findRowPage(TransactionFilter filter, TransactionSortKey sortKey, String afterCursor, int limit) {
+        TransactionCursor cursor = afterCursor != null ? TransactionCursor.decode(afterCursor, sortKey) : null;
+        // Проекция не создает сущностей: в сессии не остается ни транзакций, ни их снимков
+        Query<TransactionRow> query = createQuery(rowQuery(filter, sortKey, cursor), filter);
+        query.setMaxResults(limit + 1);
+
+        List<TransactionRow> rows = query.list();
+        if (rows.size() <= limit) {
+            return new Page<>(rows, null);
+        }
+        List<TransactionRow> items = new ArrayList<>(rows.subList(0, limit));
+        return new Page<>(items, TransactionCursor.after(sortKey, items.get(limit - 1)).encode());
+    }
+
+    @Override
+    public long forEachMatching(TransactionFilter filter, TransactionSortKey sortKey, Consumer<Transaction> action) {
+        Session session = getCurrentSession();
+        Query<Transaction> query = createQuery(filteredQuery(filter, sortKey, null), filter);
+        // Только чтение: Hibernate не хранит снимки состояния для проверки изменений
+        query.setReadOnly(true);
+        query.setFetchSize(SCROLL_FETCH_SIZE);
+
+        // Контекст персистентности очищается после каждой порции, поэтому
+        // память не растет с числом строк. Сервисы выгружают строки в транзакции
+        // только для чтения: сессия в ней не накапливает изменений, и очистка ничего
+        // не теряет. Если вызов вложен в транзакцию записи, ее изменения к этому
+        // моменту сброшены автоматическим flush перед запросом
+        long count = 0;
+        try (ScrollableResults<Transaction> results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                action.accept(results.get());
+                if (++count % SCROLL_FETCH_SIZE == 0) {
+                    session.clear();
+                }
+            }
+        }
+        return count;
+    }
+
+    // Связи транзакции ленивые: списки подгружают категорию и пользователя тем же запросом по графу
+    private Query<Transaction> transactionQuery(String hql) {
+        Session session = getCurrentSession();
+        Query<Transaction> query = session.createQuery(hql, Transaction.class);
+        query.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, session.getEntityGraph(Transaction.WITH_REFERENCES));
+        return query;
+    }
+
+    // Запрос по фильтру; список id передается одним параметром-массивом
+    private <R> Query<R> createQuery(CriteriaQuery<R> criteria, TransactionFilter filter) {
+        Query<R> query = getCurrentSession().createQuery(criteria);
+        if (filter.getIds() != null && !filter.getIds().isEmpty()) {
+            query.setParameter(IDS_PARAMETER, filter.getIds().toArray(new Long[0]));
+        }
+        return query;
+    }
+
+    /**
+     * Один параметризованный запрос по всем заданным условиям фильтра через Criteria API.
+     * Категория и пользователь подгружаются тем же запросом; после cursor выборка
+     * продолжается строго за последней строкой предыдущей страницы, без OFFSET.
+     */
+    private CriteriaQuery<Transaction> filteredQuery(TransactionFilter filter, TransactionSortKey sortKey,
+                                                     TransactionCursor cursor) {
+        CriteriaBuilder cb = getCurrentSession().getCriteriaBuilder();
+        CriteriaQuery<Transaction> query = cb.createQuery(Transaction.class);
+        Root<Transaction> t = query.from(Transaction.class);
+        t.fetch("category");
+        t.fetch("user");
+        query.select(t);
+        return restrict(cb, query, t, filter, sortKey, cursor);
+    }
+
+    // Те же условия и порядок, что у filteredQuery, но вместо сущностей - конструктор TransactionRow
+    private CriteriaQuery<TransactionRow> rowQuery(TransactionFilter filter, TransactionSortKey sortKey,
+                                                   TransactionCursor cursor) {
+        CriteriaBuilder cb = getCurrentSession().getCriteriaBuilder();
+        CriteriaQuery<TransactionRow> query = cb.createQuery(TransactionRow.class);
+        Root<Transaction> t = query.from(Transaction.class);
+        Join<Transaction, Category> category = t.join("category");
+        Join<Transaction, User> user = t.join("user");
+        query.select(cb.construct(TransactionRow.class,
+            t.get("id"), t.get("date"), t.get("type"), category.get("name"),
+            t.get("amount"), t.get("description"), t.get("status"), user.get("username")));
+        return restrict(cb, query, t, filter, sortKey, cursor);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <R> CriteriaQuery<R> restrict(CriteriaBuilder cb, CriteriaQuery<R> query, Root<Transaction> t,
+                                          TransactionFilter filter, TransactionSortKey sortKey,
+                                          TransactionCursor cursor) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getUser() != null) {
+            predicates.add(cb.equal(t.get("user").get("id"), filter.getUser().getId()));
+        }
+        if (filter.getCategory() != null) {
+            predicates.add(cb.equal(t.get("category").get("id"), filter.getCategory().getId()));
+        }
+        if (filter.getType() != null) {
+            predicates.add(cb.equal(t.get("type"), filter.getType()));
+        }
+        if (filter.getStatus() != null) {
+            predicates.add(cb.equal(t.get("status"), filter.getStatus()));
+        }
+        if (filter.getFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(t.get("date"), filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(t.get("date"), filter.getTo()));
+        }
+        if (filter.hasDescription()) {
+            String[] words = DescriptionWords.of(filter.getDescription());
+            if (words.length == 0) {
+                predicates.add(cb.disjunction());
+            }
+            Expression<String> description = cb.function("replace", String.class,
+                cb.lower(t.get("description")), cb.literal("ё"), cb.literal("е"));
+            for (String word : words) {
+                predicates.add(cb.like(description, containsPattern(word)));
+            }
+        }
+        if (filter.getIds() != null) {
+            predicates.add(filter.getIds().isEmpty() ? cb.disjunction() : cb.equal(t.get("id"),
+                cb.function(QueryFunctionContributor.ANY_OF, Long.class, cb.parameter(Long[].class, IDS_PARAMETER))));
+        }
+
+        Path sortPath = t.get(sortKey.getProperty());
+        Path<Long> id = t.get("id");
+        if (cursor != null) {
+            Comparable value = (Comparable) cursor.getValue();
+            predicates.add(sortKey.isDescending()
+                ? cb.or(cb.lessThan(sortPath, value), cb.and(cb.equal(sortPath, value), cb.lessThan(id, cursor.getId())))
+                : cb.or(cb.greaterThan(sortPath, value), cb.and(cb.equal(sortPath, value), cb.greaterThan(id, cursor.getId()))));
+        }
+
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(sortKey.isDescending()
+            ? List.of(cb.desc(sortPath), cb.desc(id))
+            : List.of(cb.asc(sortPath), cb.asc(id)));
+        return query;
+    }
+
+    @Override
+    public List<TransactionAggregate> aggregateByTypeAndStatus(User user) {
+        String hql = "select new com.studentbudget.model.TransactionAggregate(t.type, t.status, sum(t.amount), count(t)) " +
+            "from Transaction t" +
+            (user != null ? " where t.user.id = :userId" : "") +
+            " group by t.type, t.status";
+        Query<TransactionAggregate> query = getCurrentSession().createQuery(hql, TransactionAggregate.class);
+        if (user != null) {
+            query.setParameter("userId", user.getId());
+        }
+        return query.list();
+    }
+
+    @Override
+    public List<TransactionAggregate> aggregateByCategory(User user, TransactionType type, TransactionStatus status) {
+        String hql = "select t.category.id, sum(t.amount), count(t) from Transaction t where t.type = :type" +
+            (status != null ? " and t.status = :status" : "") +
+            (user != null ? " and t.user.id = :userId" : "") +
+            " group by t.category.id";
+        Query<Object[]> query = getCurrentSession().createQuery(hql, Object[].class);
+        query.setParameter("type", type);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (user != null) {
+            query.setParameter("userId", user.getId());
+        }
+        List<Object[]> rows = query.list();
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Категорий на порядки меньше, чем транзакций: догружаем их одним запросом
+        Map<Long, Category> categories = findCategoriesByIds(rows.stream().map(row -> (Long) row[0]).toList());
+        List<TransactionAggregate> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            TransactionAggregate aggregate = new TransactionAggregate(type, status, (BigDecimal) row[1], (Long) row[2]);
+            aggregate.setCategory(categories.get((Long) row[0]));
+            aggregate.setUser(user);
+            result.add(aggregate);
+        }
+        return result;
+    }
+
+    @Override
+    public List<TransactionAggregate> aggregateByPeriod(LocalDateTime start, LocalDateTime end) {
+        Query<Object[]> query = getCurrentSession().createQuery(
+            "select t.user.id, t.type, t.category.id, t.status, sum(t.amount), count(t) " +
+            "from Transaction t where t.date between :start and :end " +
+            "group by t.user.id, t.type, t.category.id, t.status", Object[].class);
+        query.setParameter("start", start);
+        query.setParameter("end", end);
+        List<Object[]> rows = query.list();
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, User> users = findUsersByIds(rows.stream().map(row -> (Long) row[0]).distinct().toList());
+        Map<Long, Category> categories = findCategoriesByIds(rows.stream().map(row -> (Long) row[2]).distinct().toList());
+        List<TransactionAggregate> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            TransactionAggregate aggregate = new TransactionAggregate(
+                (TransactionType) row[1], (TransactionStatus) row[3], (BigDecimal) row[4], (Long) row[5]);
+            aggregate.setUser(users.get((Long) row[0]));
+            aggregate.setCategory(categories.get((Long) row[2]));
+            result.add(aggregate);
+        }
+        return result;
+    }
+
+    @Override
+    public List<TransactionAggregate> aggregateByUserAndCategory(TransactionType type) {
+        Query<Object[]> query = getCurrentSession().createQuery(
+            "select t.user.id, t.category.id, sum(t.amount), count(t) " +
+            "from Transaction t where t.type = :type " +
+            "group by t.user.id, t.category.id", Object[].class);
+        query.setParameter("type", type);
+        List<Object[]> rows = query.list();
+        if (rows.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, User> users = findUsersByIds(rows.stream().map(row -> (Long) row[0]).distinct().toList());
+        Map<Long, Category> categories = findCategoriesByIds(rows.stream().map(row -> (Long) row[1]).distinct().toList());
+        List<TransactionAggregate> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            TransactionAggregate aggregate = new TransactionAggregate(type, null, (BigDecimal) row[2], (Long) row[3]);
+            aggregate.setUser(users.get((Long) row[0]));
+            aggregate.setCategory(categories.get((Long) row[1]));
+            result.add(aggregate);
+        }
+        return result;
+    }
+
+    @Override
+    public List<TrendPoint> aggregateTrend(User user, TransactionType type, TransactionStatus status,
+                                           TrendGranularity granularity, LocalDate start, LocalDate end) {
+        // Предыдущий непустой интервал берется оконными функциями того же запроса: его первый день
+        // показывает, соседний ли он. Окно упорядочено по min(epochDay), а не по выражению интервала,
+        // потому что H2 не сопоставляет выражение в окне с выражением группировки
+        String bucket = trendBucket(granularity);
+        String hql = "select " + bucket + ", sum(t.amount), count(t), " +
+            "lag(min(t.epochDay)) over (order by min(t.epochDay)), lag(sum(t.amount)) over (order by min(t.epochDay)) " +
+            "from Transaction t where t.type = :type and t.status = :status " +
+            "and t.epochDay between :startDay and :endDay" +
+            (user != null ? " and t.user.id = :userId" : "") +
+            " group by " + bucket + " order by min(t.epochDay)";
+        Query<Object[]> query = getCurrentSession().createQuery(hql, Object[].class);
+        query.setParameter("type", type);
         query.setParameter("status", status);
+        query.setParameter("startDay", TrendGranularity.DAY.bucketOf(start));
+        query.setParameter("endDay", TrendGranularity.DAY.bucketOf(end));
+        if (user != null) {
+            query.setParameter("userId", user.getId());
+        }
+
+        List<Object[]> rows = query.list();
+        List<TrendPoint> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            int index = ((Number) row[0]).intValue();
+            BigDecimal total = (BigDecimal) row[1];
+            Number previousDay = (Number) row[3];
+            boolean adjacent = previousDay != null
+                && granularity.bucketOf(LocalDate.ofEpochDay(previousDay.longValue())) == index - 1;
+            BigDecimal change = adjacent ? total.subtract((BigDecimal) row[4]) : total;
+            result.add(new TrendPoint(granularity.startOf(index), total, (Long) row[2], change));
+        }
+        return result;
+    }
+
+    // Шаблон like "содержит подстроку". Слова DescriptionWords состоят только из букв и цифр,
+    // поэтому символов шаблона, которые пришлось бы экранировать, в них нет
+    private static String containsPattern(String word) {
+        return "%" + word + "%";
+    }
+
+    // Номер интервала в HQL; деление целых в H2 отбрасывает дробную часть, что для дат
+    // после 1969-12-29 совпадает с TrendGranularity.bucketOf
+    private static String trendBucket(TrendGranularity granularity) {
+        return switch (granularity) {
+            case DAY -> "t.epochDay";
+            case WEEK -> "(t.epochDay + 3) / 7";
+            case MONTH -> "t.epochMonth";
+        };
+    }
+
+    @Override
+    public List<AmountStatistics> amountStatisticsByUser() {
+        List<Object[]> rows = getCurrentSession().createQuery(
+            "select t.user.id, count(t), sum(t.amount), sum(t.amount * t.amount) " +
+            "from Transaction t group by t.user.id", Object[].class).list();
+        List<AmountStatistics> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(AmountStatistics.fromSums((Long) row[0], (Long) row[1], (BigDecimal) row[2], (BigDecimal) row[3]));
+        }
+        return result;
+    }
+
+    @Override
+    public List<TransactionAmount> findAmountsAfterId(Long afterId, int limit) {
+        Query<TransactionAmount> query = getCurrentSession().createQuery(
+            "select new com.studentbudget.model.TransactionAmount(t.id, t.user.id, t.amount) " +
+            "from Transaction t where t.id > :afterId order by t.id", TransactionAmount.class);
+        query.setParameter("afterId", afterId != null ? afterId : 0L);
+        query.setMaxResults(limit);
+        return query.list();
+    }
+
+    @Override
+    public List<TransactionDescription> findDescriptionsAfterId(Long afterId, int limit) {
+        Query<TransactionDescription> query = getCurrentSession().createQuery(
+            "select new com.studentbudget.model.TransactionDescription(t.id, t.user.id, t.description) " +
+            "from Transaction t where t.id > :afterId order by t.id", TransactionDescription.class);
+        query.setParameter("afterId", afterId != null ? afterId : 0L);
+        query.setMaxResults(limit);
+        return query.list();
+    }
+
+    @Override
+    public List<TransactionFacts> findFactsAfterId(Long afterId, int limit) {
+        Query<TransactionFacts> query = getCurrentSession().createQuery(
+            "select new com.studentbudget.model.TransactionFacts(t.id, t.user.id, t.category.id, t.type, t.status, t.date, t.amount) " +
+            "from Transaction t where t.id > :afterId order by t.id", TransactionFacts.class);
+        query.setParameter("afterId", afterId != null ? afterId : 0L);
+        query.setMaxResults(limit);
+        return query.list();
+    }
+
+    @Override
+    public List<Transaction> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Query<Transaction> query = transactionQuery(
+            "from Transaction where id in :ids order by id");
+        query.setParameter("ids", ids);
         return query.list();
     }
-} 
\ No newline at end of file
+
+    private Map<Long, User> findUsersByIds(List<Long> ids) {
+        return getCurrentSession().createQuery("from User where id in :ids", User.class)
+            .setParameter("ids", ids)
+            .list()
+            .stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    private Map<Long, Category> findCategoriesByIds(List<Long> ids) {
+        return getCurrentSession().createQuery("from Category where id in :ids", Category.class)
+            .setParameter("ids", ids)
+            .list()
+            .stream()
+            .collect(Collectors.toMap(Category::getId, Function.identity()));
+    }
+}
\ No newline at end of file
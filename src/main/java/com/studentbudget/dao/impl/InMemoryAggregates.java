@@ -0,0 +1,177 @@
+package com.studentbudget.dao.impl;
+
+import com.studentbudget.model.Category;
+import com.studentbudget.model.MinorUnits;
+import com.studentbudget.model.Transaction;
+import com.studentbudget.model.TransactionAggregate;
+import com.studentbudget.model.TransactionStatus;
+import com.studentbudget.model.TransactionType;
+import com.studentbudget.model.TrendGranularity;
+import com.studentbudget.model.TrendPoint;
+import com.studentbudget.model.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Агрегация транзакций в памяти за один проход для хранилищ без SQL.
+ *
+ * Суммы копятся в long (копейки), группы ищутся по id из самих сущностей и массивам по ordinal,
+ * поэтому проход по транзакциям не создает объектов; BigDecimal появляется только в результате.
+ */
+final class InMemoryAggregates {
+    private static final int TYPES = TransactionType.values().length;
+    private static final int STATUSES = TransactionStatus.values().length;
+
+    private InMemoryAggregates() {}
+
+    static List<TransactionAggregate> byTypeAndStatus(Iterable<Transaction> source, User user) {
+        Totals[] groups = new Totals[TYPES * STATUSES];
+        for (Transaction t : source) {
+            if (user != null && !t.getUser().getId().equals(user.getId())) {
+                continue;
+            }
+            int slot = t.getType().ordinal() * STATUSES + t.getStatus().ordinal();
+            Totals totals = groups[slot];
+            if (totals == null) {
+                totals = new Totals(t.getType(), t.getStatus(), null, null);
+                groups[slot] = totals;
+            }
+            totals.add(t);
+        }
+        // Порядок как у перечислений: тип, затем статус
+        List<TransactionAggregate> result = new ArrayList<>();
+        for (Totals totals : groups) {
+            if (totals != null) {
+                result.add(totals.toAggregate());
+            }
+        }
+        return result;
+    }
+
+    static List<TransactionAggregate> byCategory(Iterable<Transaction> source, User user, TransactionType type,
+                                                 TransactionStatus status) {
+        Map<Long, Totals> groups = new LinkedHashMap<>();
+        for (Transaction t : source) {
+            if (t.getType() != type
+                    || (status != null && t.getStatus() != status)
+                    || (user != null && !t.getUser().getId().equals(user.getId()))) {
+                continue;
+            }
+            Totals totals = groups.get(t.getCategory().getId());
+            if (totals == null) {
+                totals = new Totals(type, status, user, t.getCategory());
+                groups.put(t.getCategory().getId(), totals);
+            }
+            totals.add(t);
+        }
+        return toAggregates(groups.values());
+    }
+
+    static List<TransactionAggregate> byUserTypeCategoryStatus(Iterator<Transaction> source) {
+        return byUserAndCategory(source, true);
+    }
+
+    static List<TransactionAggregate> byUserAndCategory(Iterator<Transaction> source) {
+        return byUserAndCategory(source, false);
+    }
+
+    // Пользователь -> категория -> группы по типу (и статусу); порядок результата - порядок появления групп
+    private static List<TransactionAggregate> byUserAndCategory(Iterator<Transaction> source, boolean byStatus) {
+        Map<Long, Map<Long, Totals[]>> groups = new HashMap<>();
+        List<Totals> order = new ArrayList<>();
+        int width = byStatus ? STATUSES : 1;
+        while (source.hasNext()) {
+            Transaction t = source.next();
+            Map<Long, Totals[]> byCategory = groups.get(t.getUser().getId());
+            if (byCategory == null) {
+                byCategory = new HashMap<>();
+                groups.put(t.getUser().getId(), byCategory);
+            }
+            Totals[] slots = byCategory.get(t.getCategory().getId());
+            if (slots == null) {
+                slots = new Totals[TYPES * width];
+                byCategory.put(t.getCategory().getId(), slots);
+            }
+            int slot = t.getType().ordinal() * width + (byStatus ? t.getStatus().ordinal() : 0);
+            Totals totals = slots[slot];
+            if (totals == null) {
+                totals = new Totals(t.getType(), byStatus ? t.getStatus() : null, t.getUser(), t.getCategory());
+                slots[slot] = totals;
+                order.add(totals);
+            }
+            totals.add(t);
+        }
+        return toAggregates(order);
+    }
+
+    // Итоги по интервалам дат в порядке интервалов; изменение - к соседнему предыдущему интервалу
+    static List<TrendPoint> trend(Iterator<Transaction> source, User user, TransactionType type,
+                                  TransactionStatus status, TrendGranularity granularity,
+                                  LocalDate start, LocalDate end) {
+        // Номер интервала -> {сумма в копейках, количество}
+        TreeMap<Integer, long[]> buckets = new TreeMap<>();
+        while (source.hasNext()) {
+            Transaction t = source.next();
+            LocalDate day = t.getDate().toLocalDate();
+            if (t.getType() != type || t.getStatus() != status || day.isBefore(start) || day.isAfter(end)
+                    || (user != null && !t.getUser().getId().equals(user.getId()))) {
+                continue;
+            }
+            long[] totals = buckets.computeIfAbsent(granularity.bucketOf(day), bucket -> new long[2]);
+            totals[0] = MinorUnits.add(totals[0], t.amountInMinorUnits());
+            totals[1]++;
+        }
+        List<TrendPoint> result = new ArrayList<>(buckets.size());
+        for (Map.Entry<Integer, long[]> bucket : buckets.entrySet()) {
+            long[] previous = buckets.get(bucket.getKey() - 1);
+            long units = bucket.getValue()[0];
+            result.add(new TrendPoint(granularity.startOf(bucket.getKey()), MinorUnits.toBigDecimal(units),
+                bucket.getValue()[1], MinorUnits.toBigDecimal(units - (previous != null ? previous[0] : 0))));
+        }
+        return result;
+    }
+
+    private static List<TransactionAggregate> toAggregates(Iterable<Totals> groups) {
+        List<TransactionAggregate> result = new ArrayList<>();
+        for (Totals totals : groups) {
+            result.add(totals.toAggregate());
+        }
+        return result;
+    }
+
+    // Счетчики одной группы
+    private static final class Totals {
+        private final TransactionType type;
+        private final TransactionStatus status;
+        private final User user;
+        private final Category category;
+        private long units;
+        private long count;
+
+        private Totals(TransactionType type, TransactionStatus status, User user, Category category) {
+            this.type = type;
+            this.status = status;
+            this.user = user;
+            this.category = category;
+        }
+
+        private void add(Transaction t) {
+            units = MinorUnits.add(units, t.amountInMinorUnits());
+            count++;
+        }
+
+        private TransactionAggregate toAggregate() {
+            TransactionAggregate aggregate = new TransactionAggregate(type, status, MinorUnits.toBigDecimal(units), count);
+            aggregate.setUser(user);
+            aggregate.setCategory(category);
+            return aggregate;
+        }
+    }
+}
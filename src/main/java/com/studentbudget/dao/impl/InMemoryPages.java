@@ -0,0 +1,48 @@
+package com.studentbudget.dao.impl;
+
+import com.studentbudget.model.Page;
+import com.studentbudget.model.Transaction;
+import com.studentbudget.model.TransactionCursor;
+import com.studentbudget.model.TransactionFilter;
+import com.studentbudget.model.TransactionRow;
+import com.studentbudget.model.TransactionSortKey;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keyset-пагинация для хранилищ без SQL: та же семантика курсора, что и у Hibernate-реализации.
+ */
+final class InMemoryPages {
+
+    private InMemoryPages() {}
+
+    static Page<Transaction> page(Stream<Transaction> source, TransactionFilter filter, TransactionSortKey sortKey,
+                                  String afterCursor, int limit) {
+        TransactionCursor cursor = afterCursor != null ? TransactionCursor.decode(afterCursor, sortKey) : null;
+        List<Transaction> rows = source
+                .filter(filter.toPredicate())
+                .filter(t -> cursor == null || cursor.isFollowedBy(t))
+                .sorted(sortKey.comparator())
+                .limit(limit + 1L)
+                .collect(Collectors.toList());
+        return trim(rows, sortKey, limit);
+    }
+
+    // rows содержит не более limit + 1 строк; лишняя строка означает наличие следующей страницы
+    static Page<Transaction> trim(List<Transaction> rows, TransactionSortKey sortKey, int limit) {
+        if (rows.size() <= limit) {
+            return new Page<>(rows, null);
+        }
+        List<Transaction> items = new ArrayList<>(rows.subList(0, limit));
+        return new Page<>(items, TransactionCursor.after(sortKey, items.get(limit - 1)).encode());
+    }
+
+    // Строки для отображения с тем же курсором: позиция строки и транзакции совпадает
+    static Page<TransactionRow> rows(Page<Transaction> page) {
+        return new Page<>(page.getItems().stream().map(TransactionRow::of).collect(Collectors.toList()),
+                page.getNextCursor());
+    }
+}
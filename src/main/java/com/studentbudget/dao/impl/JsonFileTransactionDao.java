@@ -1,19 +1,43 @@
 package com.studentbudget.dao.impl;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.studentbudget.dao.TransactionDao;
+import com.studentbudget.model.AmountStatistics;
+import com.studentbudget.model.MinorUnits;
+import com.studentbudget.model.Page;
 import com.studentbudget.model.Transaction;
+import com.studentbudget.model.TransactionAggregate;
+import com.studentbudget.model.TransactionAmount;
+import com.studentbudget.model.DescriptionWords;
+import com.studentbudget.model.TransactionDescription;
+import com.studentbudget.model.TransactionFacts;
+import com.studentbudget.model.TransactionFilter;
+import com.studentbudget.model.TransactionRow;
+import com.studentbudget.model.TransactionSortKey;
+import com.studentbudget.model.TransactionStatus;
 import com.studentbudget.model.TransactionType;
+import com.studentbudget.model.TrendGranularity;
+import com.studentbudget.model.TrendPoint;
 import com.studentbudget.model.Category;
+import com.studentbudget.model.User;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class JsonFileTransactionDao implements TransactionDao {
@@ -25,6 +49,8 @@ public class JsonFileTransactionDao implements TransactionDao {
         this.storageFile = new File(filePath);
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
+        // В файл попадают и вычисляемые свойства (formattedAmount), при чтении их пропускаем
+        this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         this.transactions = loadTransactions();
     }
 
@@ -58,6 +84,72 @@ public class JsonFileTransactionDao implements TransactionDao {
         return entity;
     }
 
+    @Override
+    public List<Transaction> saveAll(Collection<Transaction> entities) {
+        // generateId() просматривает весь список, поэтому следующий id считаем один раз
+        long nextId = generateId();
+        for (Transaction entity : entities) {
+            if (entity.getId() == null) {
+                entity.setId(nextId);
+            }
+            nextId = Math.max(nextId, entity.getId()) + 1;
+            transactions.add(entity);
+        }
+        // Файл перезаписывается один раз на всю пачку
+        saveTransactions();
+        return new ArrayList<>(entities);
+    }
+
+    @Override
+    public int deleteAllById(Collection<Long> ids) {
+        Set<Long> wanted = new HashSet<>(ids);
+        int before = transactions.size();
+        transactions.removeIf(t -> wanted.contains(t.getId()));
+        saveTransactions();
+        return before - transactions.size();
+    }
+
+    @Override
+    public int updateStatusIn(Collection<Long> ids, TransactionStatus status) {
+        Set<Long> wanted = new HashSet<>(ids);
+        int updated = 0;
+        for (Transaction t : transactions) {
+            if (wanted.contains(t.getId())) {
+                t.setStatus(status);
+                updated++;
+            }
+        }
+        saveTransactions();
+        return updated;
+    }
+
+    @Override
+    public int moveCategoryIn(Collection<Long> ids, Category toCategory) {
+        Set<Long> wanted = new HashSet<>(ids);
+        int moved = 0;
+        for (Transaction t : transactions) {
+            if (wanted.contains(t.getId())) {
+                t.setCategory(toCategory);
+                moved++;
+            }
+        }
+        saveTransactions();
+        return moved;
+    }
+
+    @Override
+    public int moveCategory(Category fromCategory, Category toCategory) {
+        int moved = 0;
+        for (Transaction t : transactions) {
+            if (t.getCategory().getId().equals(fromCategory.getId())) {
+                t.setCategory(toCategory);
+                moved++;
+            }
+        }
+        saveTransactions();
+        return moved;
+    }
+
     @Override
     public Optional<Transaction> findById(Long id) {
         return transactions.stream()
@@ -119,9 +211,150 @@ public class JsonFileTransactionDao implements TransactionDao {
 
     @Override
     public List<Transaction> searchByDescription(String searchTerm) {
+        String[] words = DescriptionWords.of(searchTerm);
+        return transactions.stream()
+                .filter(t -> DescriptionWords.matches(t.getDescription(), words))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Transaction> findByUser(User user) {
+        return transactions.stream()
+                .filter(t -> t.getUser().getId().equals(user.getId()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Transaction> findByUserAndType(User user, TransactionType type) {
+        return transactions.stream()
+                .filter(t -> t.getUser().getId().equals(user.getId()) && t.getType() == type)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Transaction> findByUserAndCategory(User user, Category category) {
+        return transactions.stream()
+                .filter(t -> t.getUser().getId().equals(user.getId()) &&
+                        t.getCategory().getId().equals(category.getId()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Transaction> findByUserAndDateRange(User user, LocalDateTime start, LocalDateTime end) {
+        return transactions.stream()
+                .filter(t -> t.getUser().getId().equals(user.getId()) &&
+                        !t.getDate().isBefore(start) && !t.getDate().isAfter(end))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Transaction> findByUserAndStatus(User user, String status) {
+        return transactions.stream()
+                .filter(t -> t.getUser().getId().equals(user.getId()) && t.getStatus().name().equals(status))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Page<Transaction> findPage(TransactionFilter filter, TransactionSortKey sortKey, String afterCursor, int limit) {
+        return InMemoryPages.page(transactions.stream(), filter, sortKey, afterCursor, limit);
+    }
+
+    @Override
+    public Page<TransactionRow> findRowPage(TransactionFilter filter, TransactionSortKey sortKey, String afterCursor, int limit) {
+        return InMemoryPages.rows(findPage(filter, sortKey, afterCursor, limit));
+    }
+
+    @Override
+    public long forEachMatching(TransactionFilter filter, TransactionSortKey sortKey, Consumer<Transaction> action) {
+        // Данные уже в памяти; сортируются только подходящие транзакции
+        List<Transaction> matching = transactions.stream()
+                .filter(filter.toPredicate())
+                .sorted(sortKey.comparator())
+                .collect(Collectors.toList());
+        matching.forEach(action);
+        return matching.size();
+    }
+
+    @Override
+    public List<TransactionAggregate> aggregateByTypeAndStatus(User user) {
+        return InMemoryAggregates.byTypeAndStatus(transactions, user);
+    }
+
+    @Override
+    public List<TransactionAggregate> aggregateByCategory(User user, TransactionType type, TransactionStatus status) {
+        return InMemoryAggregates.byCategory(transactions, user, type, status);
+    }
+
+    @Override
+    public List<TransactionAggregate> aggregateByPeriod(LocalDateTime start, LocalDateTime end) {
+        return InMemoryAggregates.byUserTypeCategoryStatus(transactions.stream()
+                .filter(t -> !t.getDate().isBefore(start) && !t.getDate().isAfter(end))
+                .iterator());
+    }
+
+    @Override
+    public List<TransactionAggregate> aggregateByUserAndCategory(TransactionType type) {
+        return InMemoryAggregates.byUserAndCategory(transactions.stream()
+                .filter(t -> t.getType() == type)
+                .iterator());
+    }
+
+    @Override
+    public List<TrendPoint> aggregateTrend(User user, TransactionType type, TransactionStatus status,
+                                           TrendGranularity granularity, LocalDate start, LocalDate end) {
+        return InMemoryAggregates.trend(transactions.iterator(), user, type, status, granularity, start, end);
+    }
+
+    @Override
+    public List<AmountStatistics> amountStatisticsByUser() {
+        Map<Long, AmountStatistics> statistics = new LinkedHashMap<>();
+        for (Transaction t : transactions) {
+            statistics.computeIfAbsent(t.getUser().getId(), AmountStatistics::new)
+                    .add(MinorUnits.toDouble(t.amountInMinorUnits()));
+        }
+        return new ArrayList<>(statistics.values());
+    }
+
+    @Override
+    public List<TransactionAmount> findAmountsAfterId(Long afterId, int limit) {
+        long after = afterId != null ? afterId : 0L;
+        return transactions.stream()
+                .filter(t -> t.getId() > after)
+                .sorted(Comparator.comparing(Transaction::getId))
+                .limit(limit)
+                .map(t -> new TransactionAmount(t.getId(), t.getUser().getId(), t.getAmount()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<TransactionDescription> findDescriptionsAfterId(Long afterId, int limit) {
+        long after = afterId != null ? afterId : 0L;
+        return transactions.stream()
+                .filter(t -> t.getId() > after)
+                .sorted(Comparator.comparing(Transaction::getId))
+                .limit(limit)
+                .map(t -> new TransactionDescription(t.getId(), t.getUser().getId(), t.getDescription()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<TransactionFacts> findFactsAfterId(Long afterId, int limit) {
+        long after = afterId != null ? afterId : 0L;
+        return transactions.stream()
+                .filter(t -> t.getId() > after)
+                .sorted(Comparator.comparing(Transaction::getId))
+                .limit(limit)
+                .map(t -> new TransactionFacts(t.getId(), t.getUser().getId(), t.getCategory().getId(),
+                        t.getType(), t.getStatus(), t.getDate(), t.getAmount()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Transaction> findAllById(Collection<Long> ids) {
+        Set<Long> wanted = new HashSet<>(ids);
         return transactions.stream()
-                .filter(t -> t.getDescription() != null &&
-                        t.getDescription().toLowerCase().contains(searchTerm.toLowerCase()))
+                .filter(t -> wanted.contains(t.getId()))
+                .sorted(Comparator.comparing(Transaction::getId))
                 .collect(Collectors.toList());
     }
 
@@ -0,0 +1,21 @@
+package com.studentbudget.dao.impl;
+
+import org.hibernate.query.Query;
+
+/**
+ * Кэширование запросов к справочникам (категории, пользователи) в кэше запросов Hibernate.
+ * Результат хранится как список id, сами сущности берутся из кэша второго уровня.
+ * Hibernate сбрасывает результат при любой записи в таблицу запроса, в том числе
+ * массовым delete, поэтому отдельная инвалидация в сервисах не нужна.
+ */
+final class ReferenceQueries {
+    static final String REGION = "reference-queries";
+
+    private ReferenceQueries() {}
+
+    static <T> Query<T> cached(Query<T> query) {
+        query.setCacheable(true);
+        query.setCacheRegion(REGION);
+        return query;
+    }
+}
@@ -3,21 +3,47 @@ package com.studentbudget.dao.impl;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.studentbudget.dao.TransactionDao;
+import com.studentbudget.model.AmountStatistics;
+import com.studentbudget.model.Page;
 import com.studentbudget.model.Transaction;
+import com.studentbudget.model.TransactionAggregate;
+import com.studentbudget.model.TransactionAmount;
+import com.studentbudget.model.TransactionDescription;
+import com.studentbudget.model.TransactionFacts;
+import com.studentbudget.model.TransactionCursor;
+import com.studentbudget.model.TransactionFilter;
+import com.studentbudget.model.TransactionRow;
+import com.studentbudget.model.TransactionSortKey;
+import com.studentbudget.model.TransactionStatus;
 import com.studentbudget.model.TransactionType;
+import com.studentbudget.model.TrendGranularity;
+import com.studentbudget.model.TrendPoint;
 import com.studentbudget.model.Category;
+import com.studentbudget.model.User;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 public class RestApiTransactionDao implements TransactionDao {
+    private static final int STATISTICS_CHUNK_SIZE = 5000;
+    private static final int BULK_CHUNK_SIZE = 1000;
     private final String baseUrl;
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
@@ -45,6 +71,90 @@ public class RestApiTransactionDao implements TransactionDao {
         }
     }
 
+    @Override
+    public List<Transaction> saveAll(Collection<Transaction> entities) {
+        List<Transaction> saved = new ArrayList<>(entities.size());
+        for (List<Transaction> chunk : Chunks.of(entities, BULK_CHUNK_SIZE)) {
+            try {
+                HttpRequest request = HttpRequest.newBuilder()
+                        .uri(URI.create(baseUrl + "/transactions/bulk"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(chunk)))
+                        .build();
+
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                saved.addAll(objectMapper.readValue(response.body(), new TypeReference<List<Transaction>>() {}));
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to save transactions", e);
+            }
+        }
+        return saved;
+    }
+
+    @Override
+    public int deleteAllById(Collection<Long> ids) {
+        int deleted = 0;
+        for (List<Long> chunk : Chunks.of(ids, BULK_CHUNK_SIZE)) {
+            String idList = chunk.stream().map(String::valueOf).collect(Collectors.joining(","));
+            deleted += sendForCount(HttpRequest.newBuilder()
+                    .uri(URI.create(baseUrl + "/transactions?ids=" + idList))
+                    .DELETE()
+                    .build(), "Failed to delete transactions");
+        }
+        return deleted;
+    }
+
+    @Override
+    public int updateStatusIn(Collection<Long> ids, TransactionStatus status) {
+        int updated = 0;
+        for (List<Long> chunk : Chunks.of(ids, BULK_CHUNK_SIZE)) {
+            updated += patchIds(baseUrl + "/transactions/status?status=" + status, chunk,
+                    "Failed to update transaction status");
+        }
+        return updated;
+    }
+
+    @Override
+    public int moveCategoryIn(Collection<Long> ids, Category toCategory) {
+        int moved = 0;
+        for (List<Long> chunk : Chunks.of(ids, BULK_CHUNK_SIZE)) {
+            moved += patchIds(baseUrl + "/transactions/category?categoryId=" + toCategory.getId(), chunk,
+                    "Failed to move transactions");
+        }
+        return moved;
+    }
+
+    @Override
+    public int moveCategory(Category fromCategory, Category toCategory) {
+        return sendForCount(HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/categories/" + fromCategory.getId() +
+                        "/transactions/move?to=" + toCategory.getId()))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build(), "Failed to move category transactions");
+    }
+
+    private int patchIds(String url, List<Long> ids, String errorMessage) {
+        try {
+            return sendForCount(HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .header("Content-Type", "application/json")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(ids)))
+                    .build(), errorMessage);
+        } catch (IOException e) {
+            throw new RuntimeException(errorMessage, e);
+        }
+    }
+
+    // Массовые эндпоинты отвечают числом затронутых транзакций
+    private int sendForCount(HttpRequest request, String errorMessage) {
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            return Integer.parseInt(response.body().trim());
+        } catch (Exception e) {
+            throw new RuntimeException(errorMessage, e);
+        }
+    }
+
     @Override
     public Optional<Transaction> findById(Long id) {
         try {
@@ -189,4 +299,243 @@ public class RestApiTransactionDao implements TransactionDao {
             throw new RuntimeException("Failed to search transactions by description", e);
         }
     }
-} 
\ No newline at end of file
+
+    @Override
+    public List<Transaction> findByUser(User user) {
+        return fetchList(baseUrl + "/users/" + user.getId() + "/transactions",
+                "Failed to find transactions by user");
+    }
+
+    @Override
+    public List<Transaction> findByUserAndType(User user, TransactionType type) {
+        return fetchList(baseUrl + "/users/" + user.getId() + "/transactions/type/" + type,
+                "Failed to find user transactions by type");
+    }
+
+    @Override
+    public List<Transaction> findByUserAndCategory(User user, Category category) {
+        return fetchList(baseUrl + "/users/" + user.getId() + "/transactions/category/" + category.getId(),
+                "Failed to find user transactions by category");
+    }
+
+    @Override
+    public List<Transaction> findByUserAndDateRange(User user, LocalDateTime start, LocalDateTime end) {
+        return fetchList(String.format("%s/users/%d/transactions/dateRange?start=%s&end=%s",
+                        baseUrl, user.getId(), start.toString(), end.toString()),
+                "Failed to find user transactions by date range");
+    }
+
+    @Override
+    public List<Transaction> findByUserAndStatus(User user, String status) {
+        return fetchList(baseUrl + "/users/" + user.getId() + "/transactions/status/" + status,
+                "Failed to find user transactions by status");
+    }
+
+    @Override
+    public Page<Transaction> findPage(TransactionFilter filter, TransactionSortKey sortKey, String afterCursor, int limit) {
+        // Сервер получает позицию в явном виде и отдает на одну строку больше страницы
+        StringBuilder url = new StringBuilder(baseUrl + "/transactions/page?sort=" + sortKey + "&limit=" + (limit + 1));
+        if (afterCursor != null) {
+            TransactionCursor cursor = TransactionCursor.decode(afterCursor, sortKey);
+            Object value = cursor.getValue();
+            url.append("&afterValue=").append(value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value)
+               .append("&afterId=").append(cursor.getId());
+        }
+        if (filter.getUser() != null) {
+            url.append("&userId=").append(filter.getUser().getId());
+        }
+        if (filter.getCategory() != null) {
+            url.append("&categoryId=").append(filter.getCategory().getId());
+        }
+        if (filter.getType() != null) {
+            url.append("&type=").append(filter.getType());
+        }
+        if (filter.getStatus() != null) {
+            url.append("&status=").append(filter.getStatus());
+        }
+        if (filter.getFrom() != null) {
+            url.append("&from=").append(filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            url.append("&to=").append(filter.getTo());
+        }
+        if (filter.hasDescription()) {
+            url.append("&description=").append(URLEncoder.encode(filter.getDescription(), StandardCharsets.UTF_8));
+        }
+        if (filter.getIds() != null) {
+            url.append("&ids=").append(filter.getIds().stream().map(String::valueOf).collect(Collectors.joining(",")));
+        }
+        return InMemoryPages.trim(fetchList(url.toString(), "Failed to fetch transaction page"), sortKey, limit);
+    }
+
+    @Override
+    public Page<TransactionRow> findRowPage(TransactionFilter filter, TransactionSortKey sortKey, String afterCursor, int limit) {
+        // API отдает транзакции целиком; в строки превращается только полученная страница
+        return InMemoryPages.rows(findPage(filter, sortKey, afterCursor, limit));
+    }
+
+    @Override
+    public long forEachMatching(TransactionFilter filter, TransactionSortKey sortKey, Consumer<Transaction> action) {
+        // Обход постраничным API: в памяти одновременно только одна страница
+        long count = 0;
+        String cursor = null;
+        do {
+            Page<Transaction> page = findPage(filter, sortKey, cursor, STATISTICS_CHUNK_SIZE);
+            page.getItems().forEach(action);
+            count += page.getItems().size();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return count;
+    }
+
+    @Override
+    public List<TransactionAggregate> aggregateByTypeAndStatus(User user) {
+        try {
+            String url = baseUrl + "/transactions/aggregates/type-status" +
+                    (user != null ? "?userId=" + user.getId() : "");
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .GET()
+                    .build();
+
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            return objectMapper.readValue(response.body(), new TypeReference<List<TransactionAggregate>>() {});
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to aggregate transactions by type and status", e);
+        }
+    }
+
+    @Override
+    public List<TransactionAggregate> aggregateByCategory(User user, TransactionType type, TransactionStatus status) {
+        try {
+            StringBuilder url = new StringBuilder(baseUrl + "/transactions/aggregates/category?type=" + type);
+            if (status != null) {
+                url.append("&status=").append(status);
+            }
+            if (user != null) {
+                url.append("&userId=").append(user.getId());
+            }
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url.toString()))
+                    .GET()
+                    .build();
+
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            return objectMapper.readValue(response.body(), new TypeReference<List<TransactionAggregate>>() {});
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to aggregate transactions by category", e);
+        }
+    }
+
+    @Override
+    public List<TransactionAggregate> aggregateByPeriod(LocalDateTime start, LocalDateTime end) {
+        // У REST API нет агрегирующего эндпоинта: сворачиваем выборку за период за один проход
+        return InMemoryAggregates.byUserTypeCategoryStatus(findByDateRange(start, end).iterator());
+    }
+
+    @Override
+    public List<TransactionAggregate> aggregateByUserAndCategory(TransactionType type) {
+        return InMemoryAggregates.byUserAndCategory(findByType(type).iterator());
+    }
+
+    @Override
+    public List<TrendPoint> aggregateTrend(User user, TransactionType type, TransactionStatus status,
+                                           TrendGranularity granularity, LocalDate start, LocalDate end) {
+        // Как и для периода, сервер отдает только выборку, интервалы сворачиваются здесь
+        List<Transaction> period = user != null
+            ? findByUserAndDateRange(user, start.atStartOfDay(), end.atTime(LocalTime.MAX))
+            : findByDateRange(start.atStartOfDay(), end.atTime(LocalTime.MAX));
+        return InMemoryAggregates.trend(period.iterator(), user, type, status, granularity, start, end);
+    }
+
+    @Override
+    public List<AmountStatistics> amountStatisticsByUser() {
+        // Сервер отдает только проекции; статистика накапливается за один проход по страницам
+        Map<Long, AmountStatistics> statistics = new LinkedHashMap<>();
+        Long afterId = null;
+        List<TransactionAmount> chunk;
+        do {
+            chunk = findAmountsAfterId(afterId, STATISTICS_CHUNK_SIZE);
+            for (TransactionAmount amount : chunk) {
+                statistics.computeIfAbsent(amount.getUserId(), AmountStatistics::new)
+                        .add(amount.getAmount().doubleValue());
+                afterId = amount.getId();
+            }
+        } while (chunk.size() == STATISTICS_CHUNK_SIZE);
+        return new ArrayList<>(statistics.values());
+    }
+
+    @Override
+    public List<TransactionAmount> findAmountsAfterId(Long afterId, int limit) {
+        try {
+            String url = baseUrl + "/transactions/amounts?limit=" + limit +
+                    (afterId != null ? "&afterId=" + afterId : "");
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .GET()
+                    .build();
+
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            return objectMapper.readValue(response.body(), new TypeReference<List<TransactionAmount>>() {});
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch transaction amounts", e);
+        }
+    }
+
+    @Override
+    public List<TransactionDescription> findDescriptionsAfterId(Long afterId, int limit) {
+        try {
+            String url = baseUrl + "/transactions/descriptions?limit=" + limit +
+                    (afterId != null ? "&afterId=" + afterId : "");
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .GET()
+                    .build();
+
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            return objectMapper.readValue(response.body(), new TypeReference<List<TransactionDescription>>() {});
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch transaction descriptions", e);
+        }
+    }
+
+    @Override
+    public List<TransactionFacts> findFactsAfterId(Long afterId, int limit) {
+        try {
+            String url = baseUrl + "/transactions/facts?limit=" + limit +
+                    (afterId != null ? "&afterId=" + afterId : "");
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .GET()
+                    .build();
+
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            return objectMapper.readValue(response.body(), new TypeReference<List<TransactionFacts>>() {});
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch transaction facts", e);
+        }
+    }
+
+    @Override
+    public List<Transaction> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String idList = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        return fetchList(baseUrl + "/transactions?ids=" + idList, "Failed to find transactions by ids");
+    }
+
+    private List<Transaction> fetchList(String url, String errorMessage) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .GET()
+                    .build();
+
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            return objectMapper.readValue(response.body(), new TypeReference<List<Transaction>>() {});
+        } catch (Exception e) {
+            throw new RuntimeException(errorMessage, e);
+        }
+    }
+}
\ No newline at end of file
@@ -7,6 +7,8 @@ import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.query.Query;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,6 +41,26 @@ public class UserDaoImpl implements UserDao {
         query.executeUpdate();
     }
 
+    @Override
+    public List<User> saveAll(Collection<User> users) {
+        Session session = getCurrentSession();
+        for (User user : users) {
+            session.persist(user);
+        }
+        return new ArrayList<>(users);
+    }
+
+    @Override
+    public int deleteAllById(Collection<Long> ids) {
+        int deleted = 0;
+        for (List<Long> chunk : Chunks.of(ids, Chunks.DEFAULT_SIZE)) {
+            deleted += getCurrentSession().createMutationQuery("delete from User where id in :ids")
+                .setParameter("ids", chunk)
+                .executeUpdate();
+        }
+        return deleted;
+    }
+
     @Override
     public Optional<User> findById(Long id) {
         return Optional.ofNullable(getCurrentSession().get(User.class, id));
@@ -46,7 +68,7 @@ public class UserDaoImpl implements UserDao {
 
     @Override
     public List<User> findAll() {
-        return getCurrentSession().createQuery("from User", User.class).list();
+        return ReferenceQueries.cached(getCurrentSession().createQuery("from User", User.class)).list();
     }
 
     @Override
@@ -54,7 +76,7 @@ public class UserDaoImpl implements UserDao {
         Query<User> query = getCurrentSession().createQuery(
             "from User where username = :username", User.class);
         query.setParameter("username", username);
-        return query.uniqueResultOptional();
+        return ReferenceQueries.cached(query).uniqueResultOptional();
     }
 
     @Override
@@ -0,0 +1,95 @@
+package com.studentbudget.model;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * Среднее и стандартное отклонение сумм транзакций одного пользователя.
+ * Может быть получена из SQL-агрегата (count, sum, sum of squares)
+ * или накоплена за один проход алгоритмом Уэлфорда.
+ */
+public class AmountStatistics {
+    private final Long userId;
+    private long count;
+    private double mean;
+    private double m2;
+
+    public AmountStatistics(Long userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * Строит статистику из точных сумм, посчитанных базой данных.
+     * Дисперсия вычисляется в BigDecimal, чтобы избежать потери точности
+     * при вычитании близких больших чисел.
+     */
+    public static AmountStatistics fromSums(Long userId, long count, BigDecimal sum, BigDecimal sumOfSquares) {
+        AmountStatistics statistics = new AmountStatistics(userId);
+        if (count == 0) {
+            return statistics;
+        }
+        BigDecimal n = BigDecimal.valueOf(count);
+        BigDecimal mean = sum.divide(n, MathContext.DECIMAL64);
+        BigDecimal m2 = sumOfSquares.subtract(sum.multiply(mean, MathContext.DECIMAL64));
+        statistics.count = count;
+        statistics.mean = mean.doubleValue();
+        statistics.m2 = Math.max(0.0, m2.doubleValue());
+        return statistics;
+    }
+
+    /**
+     * Строит статистику из среднего и суммы квадратов отклонений от него,
+     * посчитанных двумя проходами по данным.
+     */
+    public static AmountStatistics fromMoments(Long userId, long count, double mean, double m2) {
+        AmountStatistics statistics = new AmountStatistics(userId);
+        if (count == 0) {
+            return statistics;
+        }
+        statistics.count = count;
+        statistics.mean = mean;
+        statistics.m2 = Math.max(0.0, m2);
+        return statistics;
+    }
+
+    /**
+     * Добавляет одно наблюдение (алгоритм Уэлфорда).
+     */
+    public void add(double amount) {
+        count++;
+        double delta = amount - mean;
+        mean += delta / count;
+        m2 += delta * (amount - mean);
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Стандартное отклонение генеральной совокупности.
+     */
+    public double getStandardDeviation() {
+        return count > 0 ? Math.sqrt(m2 / count) : 0.0;
+    }
+
+    public boolean isAnomalous(double amount, AnomalyMode mode, double threshold) {
+        if (count == 0) {
+            return false;
+        }
+        double deviation = Math.abs(amount - mean);
+        if (mode == AnomalyMode.Z_SCORE) {
+            double standardDeviation = getStandardDeviation();
+            return standardDeviation > 0 && deviation / standardDeviation > threshold;
+        }
+        return deviation > mean * threshold;
+    }
+}
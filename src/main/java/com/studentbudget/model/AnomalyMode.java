@@ -0,0 +1,16 @@
+package com.studentbudget.model;
+
+/**
+ * Способ оценки отклонения суммы транзакции от привычных сумм пользователя.
+ */
+public enum AnomalyMode {
+    /**
+     * |сумма - среднее| / стандартное отклонение больше порога
+     */
+    Z_SCORE,
+
+    /**
+     * |сумма - среднее| больше среднего, умноженного на порог
+     */
+    RELATIVE_DEVIATION
+}
@@ -0,0 +1,99 @@
+package com.studentbudget.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Предрасчитанные суммы транзакций по пользователю, категории, типу, статусу и дню.
+ * Поддерживается инкрементально при каждой записи транзакций, поэтому итоги
+ * и разбивки читаются из O(групп) строк, а не из всей таблицы транзакций.
+ */
+@Entity
+@Table(name = "balance_rollup",
+       uniqueConstraints = @UniqueConstraint(
+           name = "uk_balance_rollup_key",
+           columnNames = {"user_id", "category_id", "type", "status", "rollup_day"}))
+public class BalanceRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionStatus status;
+
+    @Column(name = "rollup_day", nullable = false)
+    private LocalDate day;
+
+    // Точность задана явно: сумма меняется запросом total = total + :total, и без нее
+    // Hibernate не может вывести тип параметра в выражении
+    @Column(nullable = false, precision = 38, scale = 2)
+    private BigDecimal total = BigDecimal.ZERO;
+
+    @Column(name = "txn_count", nullable = false)
+    private long transactionCount;
+
+    public BalanceRollup() {}
+
+    public BalanceRollup(Long userId, Long categoryId, TransactionType type, TransactionStatus status,
+                         LocalDate day, BigDecimal total, long transactionCount) {
+        this.userId = userId;
+        this.categoryId = categoryId;
+        this.type = type;
+        this.status = status;
+        this.day = day;
+        this.total = total;
+        this.transactionCount = transactionCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public TransactionStatus getStatus() {
+        return status;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    /**
+     * Прибавляет к строке свертки изменение суммы и количества (в том числе отрицательное).
+     */
+    public void add(BigDecimal totalDelta, long countDelta) {
+        this.total = this.total.add(totalDelta);
+        this.transactionCount += countDelta;
+    }
+}
@@ -0,0 +1,126 @@
+package com.studentbudget.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Бюджет пользователя на категорию расходов за один период.
+ * Потраченная сумма - счетчик активных расходов категории за период. Он меняется в той же
+ * транзакции, что и сами транзакции, поэтому остаток читается из одной строки без просмотра истории.
+ */
+@Entity
+// Уникальный ключ начинается с (user_id, category_id): по нему же находятся бюджеты, счетчики которых
+// меняет запись транзакции
+@Table(name = "budgets",
+       uniqueConstraints = @UniqueConstraint(
+           name = "uk_budgets_period",
+           columnNames = {"user_id", "category_id", "period", "start_date"}))
+public class Budget {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", nullable = false)
+    private Category category;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BudgetPeriod period;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    // Точность задана явно: счетчик меняется запросом spent = spent + :amount, и без нее
+    // Hibernate не может вывести тип параметра в выражении
+    @Column(nullable = false, precision = 38, scale = 2)
+    private BigDecimal spent = BigDecimal.ZERO;
+
+    @Column(name = "txn_count", nullable = false)
+    private long transactionCount;
+
+    public Budget() {}
+
+    public Budget(User user, Category category, BudgetPeriod period, LocalDate startDate, BigDecimal amount) {
+        this.user = user;
+        this.category = category;
+        this.period = period;
+        this.startDate = startDate;
+        this.endDate = period.endOf(startDate);
+        this.amount = amount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public BudgetPeriod getPeriod() {
+        return period;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public BigDecimal getSpent() {
+        return spent;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    /**
+     * Остаток бюджета; отрицателен, если бюджет превышен.
+     */
+    public BigDecimal getRemaining() {
+        return amount.subtract(spent);
+    }
+
+    public boolean isExceeded() {
+        return spent.compareTo(amount) > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Budget{" +
+                "id=" + id +
+                ", category=" + (category != null ? category.getName() : "null") +
+                ", period=" + period +
+                ", startDate=" + startDate +
+                ", amount=" + amount +
+                ", spent=" + spent +
+                '}';
+    }
+}
@@ -0,0 +1,36 @@
+package com.studentbudget.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Длительность периода бюджета. Неделя начинается с понедельника.
+ */
+public enum BudgetPeriod {
+    WEEKLY,
+    MONTHLY,
+    YEARLY;
+
+    /**
+     * Первый день периода, в который попадает дата.
+     */
+    public LocalDate startOf(LocalDate date) {
+        return switch (this) {
+            case WEEKLY -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTHLY -> date.withDayOfMonth(1);
+            case YEARLY -> date.withDayOfYear(1);
+        };
+    }
+
+    /**
+     * Последний день периода, начинающегося в start.
+     */
+    public LocalDate endOf(LocalDate start) {
+        return switch (this) {
+            case WEEKLY -> start.plusWeeks(1).minusDays(1);
+            case MONTHLY -> start.plusMonths(1).minusDays(1);
+            case YEARLY -> start.plusYears(1).minusDays(1);
+        };
+    }
+}
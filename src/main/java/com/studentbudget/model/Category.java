@@ -1,11 +1,19 @@
 package com.studentbudget.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "categories")
+// Справочные данные читаются почти при каждом действии и редко меняются
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// Ленивые ссылки из транзакций инициализируются порциями, а не по одной
+@BatchSize(size = 50)
 public class Category {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -16,7 +24,8 @@ public class Category {
 
     private String description;
 
-    @OneToMany(mappedBy = "category", cascade = CascadeType.ALL)
+    // Без каскада: merge и remove категории не обходят все ее транзакции
+    @OneToMany(mappedBy = "category")
     private List<Transaction> transactions = new ArrayList<>();
 
     public Category() {}
@@ -57,4 +66,16 @@ public class Category {
     public void setTransactions(List<Transaction> transactions) {
         this.transactions = transactions;
     }
-} 
\ No newline at end of file
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Category other)) return false;
+        return id != null && id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : System.identityHashCode(this);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.studentbudget.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Сводка для главного окна: доходы, расходы, баланс и число транзакций,
+ * требующих внимания. Строится из одного сгруппированного запроса.
+ */
+public class DashboardSummary {
+    private final BigDecimal totalIncome;
+    private final BigDecimal totalExpenses;
+    private final long pendingCount;
+    private final long rejectedCount;
+
+    public DashboardSummary(BigDecimal totalIncome, BigDecimal totalExpenses, long pendingCount, long rejectedCount) {
+        this.totalIncome = totalIncome;
+        this.totalExpenses = totalExpenses;
+        this.pendingCount = pendingCount;
+        this.rejectedCount = rejectedCount;
+    }
+
+    /**
+     * Собирает сводку из строк, сгруппированных по типу и статусу.
+     */
+    public static DashboardSummary fromAggregates(List<TransactionAggregate> aggregates) {
+        // Суммы копятся в копейках и переводятся в BigDecimal один раз
+        long income = 0;
+        long expenses = 0;
+        long pending = 0;
+        long rejected = 0;
+
+        for (TransactionAggregate aggregate : aggregates) {
+            if (aggregate.getType() == TransactionType.INCOME) {
+                income = MinorUnits.add(income, MinorUnits.of(aggregate.getTotal()));
+            } else if (aggregate.getType() == TransactionType.EXPENSE) {
+                expenses = MinorUnits.add(expenses, MinorUnits.of(aggregate.getTotal()));
+            }
+
+            if (aggregate.getStatus() == TransactionStatus.PENDING) {
+                pending += aggregate.getCount();
+            } else if (aggregate.getStatus() == TransactionStatus.REJECTED) {
+                rejected += aggregate.getCount();
+            }
+        }
+
+        return new DashboardSummary(MinorUnits.toBigDecimal(income), MinorUnits.toBigDecimal(expenses), pending, rejected);
+    }
+
+    public BigDecimal getTotalIncome() {
+        return totalIncome;
+    }
+
+    public BigDecimal getTotalExpenses() {
+        return totalExpenses;
+    }
+
+    public BigDecimal getBalance() {
+        return totalIncome.subtract(totalExpenses);
+    }
+
+    public long getPendingCount() {
+        return pendingCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "DashboardSummary{" +
+                "totalIncome=" + totalIncome +
+                ", totalExpenses=" + totalExpenses +
+                ", balance=" + getBalance() +
+                ", pendingCount=" + pendingCount +
+                ", rejectedCount=" + rejectedCount +
+                '}';
+    }
+}
@@ -0,0 +1,74 @@
+package com.studentbudget.model;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Правило поиска по описанию транзакций, общее для SQL, хранилищ в памяти и индекса описаний.
+ *
+ * Запрос разбивается на слова - непрерывные последовательности букв и цифр - в нижнем
+ * регистре, ё приравнивается к е. Описание подходит, если каждое слово запроса входит
+ * в него подстрокой: "фе" находит "Кофе", "коф дом" - "Кофе у дома". Слово запроса не
+ * содержит разделителей, поэтому входит в описание тогда и только тогда, когда входит
+ * в одно из его слов. Запрос без слов не находит ничего.
+ */
+public final class DescriptionWords {
+    private static final String[] NO_WORDS = new String[0];
+
+    private DescriptionWords() {}
+
+    /**
+     * Различные слова текста в нижнем регистре с ё, замененной на е.
+     */
+    public static String[] of(String text) {
+        if (text == null || text.isEmpty()) {
+            return NO_WORDS;
+        }
+        Set<String> words = new LinkedHashSet<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char ch = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(ch)) {
+                word.append(fold(ch));
+            } else if (word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return words.toArray(NO_WORDS);
+    }
+
+    /**
+     * Входит ли каждое из слов, полученных из of, в описание подстрокой.
+     */
+    public static boolean matches(String description, String[] words) {
+        if (description == null || words.length == 0) {
+            return false;
+        }
+        for (String word : words) {
+            if (!contains(description, word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Сравнение без построения строки в нижнем регистре для каждого описания
+    private static boolean contains(String text, String word) {
+        for (int i = 0; i <= text.length() - word.length(); i++) {
+            int j = 0;
+            while (j < word.length() && fold(text.charAt(i + j)) == word.charAt(j)) {
+                j++;
+            }
+            if (j == word.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static char fold(char ch) {
+        char lower = Character.toLowerCase(ch);
+        return lower == 'ё' ? 'е' : lower;
+    }
+}
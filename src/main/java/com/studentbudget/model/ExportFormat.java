@@ -0,0 +1,10 @@
+package com.studentbudget.model;
+
+/**
+ * Формат файла экспорта транзакций.
+ */
+public enum ExportFormat {
+    CSV,
+    // JSON Lines: один JSON-объект на строку
+    JSONL
+}
@@ -0,0 +1,30 @@
+package com.studentbudget.model;
+
+/**
+ * Ошибка импорта одной записи выписки.
+ */
+public class ImportError {
+    private final long recordNumber;
+    private final String message;
+
+    public ImportError(long recordNumber, String message) {
+        this.recordNumber = recordNumber;
+        this.message = message;
+    }
+
+    /**
+     * Номер строки CSV-файла или порядковый номер операции OFX.
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return recordNumber + ": " + message;
+    }
+}
@@ -0,0 +1,9 @@
+package com.studentbudget.model;
+
+/**
+ * Формат файла выписки для импорта транзакций.
+ */
+public enum ImportFormat {
+    CSV,
+    OFX
+}
@@ -0,0 +1,67 @@
+package com.studentbudget.model;
+
+/**
+ * Параметры импорта выписки.
+ */
+public class ImportOptions {
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private ImportFormat format = ImportFormat.CSV;
+    // Владелец импортируемых транзакций; null - текущий пользователь
+    private User user;
+    // Категория для строк без категории; для OFX обязательна, так как в формате нет категорий
+    private Category defaultCategory;
+    private char delimiter = ',';
+    // Дополнительный шаблон даты, например dd.MM.yyyy; ISO-даты распознаются всегда
+    private String datePattern;
+    // Строк на одну транзакцию БД; ошибка записи откатывает только свой пакет
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    public ImportFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(ImportFormat format) {
+        this.format = format;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Category getDefaultCategory() {
+        return defaultCategory;
+    }
+
+    public void setDefaultCategory(Category defaultCategory) {
+        this.defaultCategory = defaultCategory;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    public void setDelimiter(char delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    public String getDatePattern() {
+        return datePattern;
+    }
+
+    public void setDatePattern(String datePattern) {
+        this.datePattern = datePattern;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+}
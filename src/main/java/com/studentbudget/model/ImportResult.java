@@ -0,0 +1,52 @@
+package com.studentbudget.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Итог импорта: счетчики записей и первые ошибки.
+ * Хранится не более MAX_STORED_ERRORS ошибок, чтобы битый многомиллионный файл не занял всю память.
+ */
+public class ImportResult {
+    public static final int MAX_STORED_ERRORS = 1000;
+
+    private long importedRows;
+    private long failedRows;
+    private final List<ImportError> errors = new ArrayList<>();
+
+    public void addImported(long rows) {
+        importedRows += rows;
+    }
+
+    public void addError(ImportError error) {
+        failedRows++;
+        if (errors.size() < MAX_STORED_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    public long getProcessedRows() {
+        return importedRows + failedRows;
+    }
+
+    public long getImportedRows() {
+        return importedRows;
+    }
+
+    public long getFailedRows() {
+        return failedRows;
+    }
+
+    public List<ImportError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResult{" +
+                "importedRows=" + importedRows +
+                ", failedRows=" + failedRows +
+                '}';
+    }
+}
@@ -0,0 +1,81 @@
+package com.studentbudget.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.Currency;
+import java.util.Locale;
+
+/**
+ * Денежные суммы в минимальных единицах валюты (копейках), хранящиеся в long.
+ * Используются для агрегации в памяти: сложение long не создает объектов,
+ * в BigDecimal сумма переводится только на границе API.
+ */
+public final class MinorUnits {
+    public static final Currency CURRENCY = Currency.getInstance("RUB");
+    /** Количество знаков после запятой у валюты */
+    public static final int SCALE = CURRENCY.getDefaultFractionDigits();
+
+    private static final long UNITS_PER_MAJOR = pow10(SCALE);
+    private static final String SYMBOL = " ₽";
+    // Тот же разделитель, что у String.format("%.2f") в локали пользователя
+    private static final char DECIMAL_SEPARATOR =
+        DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT)).getDecimalSeparator();
+
+    private MinorUnits() {}
+
+    /**
+     * Переводит сумму в копейки. Лишние знаки округляются по HALF_UP, как при записи в колонку суммы.
+     * @throws ArithmeticException если сумма не помещается в long
+     */
+    public static long of(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Складывает суммы в копейках.
+     * @throws ArithmeticException при переполнении long
+     */
+    public static long add(long augend, long addend) {
+        return Math.addExact(augend, addend);
+    }
+
+    public static BigDecimal toBigDecimal(long units) {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    public static double toDouble(long units) {
+        return (double) units / UNITS_PER_MAJOR;
+    }
+
+    /**
+     * Сумма с символом валюты, например «1234,50 ₽».
+     */
+    public static String format(long units) {
+        StringBuilder text = new StringBuilder(24);
+        if (units < 0) {
+            text.append('-');
+        }
+        // Остаток и частное берутся по модулю без Math.abs, чтобы не переполниться на Long.MIN_VALUE
+        long major = Math.abs(units / UNITS_PER_MAJOR);
+        long minor = Math.abs(units % UNITS_PER_MAJOR);
+        text.append(major);
+        if (SCALE > 0) {
+            text.append(DECIMAL_SEPARATOR);
+            String digits = Long.toString(minor);
+            for (int i = digits.length(); i < SCALE; i++) {
+                text.append('0');
+            }
+            text.append(digits);
+        }
+        return text.append(SYMBOL).toString();
+    }
+
+    private static long pow10(int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,29 @@
+package com.studentbudget.model;
+
+import java.util.List;
+
+/**
+ * Страница результатов с курсором для запроса следующей страницы.
+ * Курсор непрозрачен для вызывающего кода; null означает, что страниц больше нет.
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
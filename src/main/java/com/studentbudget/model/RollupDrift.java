@@ -0,0 +1,87 @@
+package com.studentbudget.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Расхождение между строкой свертки и фактическими транзакциями.
+ */
+public class RollupDrift {
+    private final Long userId;
+    private final Long categoryId;
+    private final TransactionType type;
+    private final TransactionStatus status;
+    private final LocalDate day;
+    private final BigDecimal expectedTotal;
+    private final long expectedCount;
+    private final BigDecimal actualTotal;
+    private final long actualCount;
+
+    public RollupDrift(Long userId, Long categoryId, TransactionType type, TransactionStatus status, LocalDate day,
+                       BigDecimal expectedTotal, long expectedCount, BigDecimal actualTotal, long actualCount) {
+        this.userId = userId;
+        this.categoryId = categoryId;
+        this.type = type;
+        this.status = status;
+        this.day = day;
+        this.expectedTotal = expectedTotal;
+        this.expectedCount = expectedCount;
+        this.actualTotal = actualTotal;
+        this.actualCount = actualCount;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public TransactionStatus getStatus() {
+        return status;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    /**
+     * Сумма по таблице транзакций.
+     */
+    public BigDecimal getExpectedTotal() {
+        return expectedTotal;
+    }
+
+    public long getExpectedCount() {
+        return expectedCount;
+    }
+
+    /**
+     * Сумма, записанная в свертке.
+     */
+    public BigDecimal getActualTotal() {
+        return actualTotal;
+    }
+
+    public long getActualCount() {
+        return actualCount;
+    }
+
+    @Override
+    public String toString() {
+        return "RollupDrift{" +
+                "userId=" + userId +
+                ", categoryId=" + categoryId +
+                ", type=" + type +
+                ", status=" + status +
+                ", day=" + day +
+                ", expected=" + expectedTotal + "/" + expectedCount +
+                ", actual=" + actualTotal + "/" + actualCount +
+                '}';
+    }
+}
@@ -0,0 +1,58 @@
+package com.studentbudget.model;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Сводная статистика системы за период.
+ */
+public class SystemStatistics {
+    private long totalTransactions;
+    private BigDecimal totalIncome = BigDecimal.ZERO;
+    private BigDecimal totalExpenses = BigDecimal.ZERO;
+    private final Map<TransactionStatus, Long> countByStatus = new EnumMap<>(TransactionStatus.class);
+
+    /**
+     * Учитывает одну строку агрегата (группа по пользователю, типу, категории и статусу).
+     */
+    public void add(TransactionAggregate aggregate) {
+        totalTransactions += aggregate.getCount();
+        if (aggregate.getType() == TransactionType.INCOME) {
+            totalIncome = totalIncome.add(aggregate.getTotal());
+        } else {
+            totalExpenses = totalExpenses.add(aggregate.getTotal());
+        }
+        countByStatus.merge(aggregate.getStatus(), aggregate.getCount(), Long::sum);
+    }
+
+    public long getTotalTransactions() {
+        return totalTransactions;
+    }
+
+    public BigDecimal getTotalIncome() {
+        return totalIncome;
+    }
+
+    public BigDecimal getTotalExpenses() {
+        return totalExpenses;
+    }
+
+    public Map<TransactionStatus, Long> getCountByStatus() {
+        return countByStatus;
+    }
+
+    public long getCount(TransactionStatus status) {
+        return countByStatus.getOrDefault(status, 0L);
+    }
+
+    @Override
+    public String toString() {
+        return "SystemStatistics{" +
+                "totalTransactions=" + totalTransactions +
+                ", totalIncome=" + totalIncome +
+                ", totalExpenses=" + totalExpenses +
+                ", countByStatus=" + countByStatus +
+                '}';
+    }
+}
@@ -5,8 +5,31 @@ import java.time.LocalDateTime;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "transactions")
+// Категория и пользователь нужны всем спискам и отчетам; граф подгружает их тем же запросом
+@NamedEntityGraph(name = Transaction.WITH_REFERENCES, attributeNodes = {
+    @NamedAttributeNode("category"),
+    @NamedAttributeNode("user")
+})
+@Table(name = "transactions", indexes = {
+    // Keyset-пагинация: (ключ сортировки, id) читается по индексу без сортировки всей таблицы
+    @Index(name = "idx_transactions_date_id", columnList = "date, id"),
+    @Index(name = "idx_transactions_amount_id", columnList = "amount, id"),
+    // Списки и период одного пользователя, в том числе его лента по дате
+    @Index(name = "idx_transactions_user_date", columnList = "user_id, date, id"),
+    // Итоги пользователя по типу и статусу
+    @Index(name = "idx_transactions_user_type_status", columnList = "user_id, type, status"),
+    @Index(name = "idx_transactions_category", columnList = "category_id"),
+    // Очередь на утверждение и выборки по статусу за период
+    @Index(name = "idx_transactions_status_date", columnList = "status, date"),
+    // Сводная статистика администратора по типу операции
+    @Index(name = "idx_transactions_type_status", columnList = "type, status"),
+    // Динамика сумм по интервалам: по всем пользователям и по одному пользователю
+    @Index(name = "idx_transactions_type_day", columnList = "type, epoch_day"),
+    @Index(name = "idx_transactions_user_type_day", columnList = "user_id, type, epoch_day")
+})
 public class Transaction {
+    public static final String WITH_REFERENCES = "Transaction.withReferences";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -18,17 +41,25 @@ public class Transaction {
     @Column(nullable = false)
     private TransactionType type;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", nullable = false)
     private Category category;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
     @Column(nullable = false)
     private LocalDateTime date;
 
+    // Номер дня и месяца даты от 1970-01-01: по ним динамика группируется без функций над date.
+    // Пересчитываются в setDate; у строк, сохраненных до появления колонок, их заполняет DatabaseInitializer
+    @Column(name = "epoch_day")
+    private Integer epochDay;
+
+    @Column(name = "epoch_month")
+    private Integer epochMonth;
+
     private String description;
 
     @Enumerated(EnumType.STRING)
@@ -38,6 +69,10 @@ public class Transaction {
     @Column(name = "rejection_reason")
     private String rejectionReason;
 
+    // Сумма в копейках для агрегации в памяти; пересчитывается, только когда меняется amount
+    @Transient
+    private MinorAmount minorAmount;
+
     public Transaction() {}
 
     public Transaction(BigDecimal amount, TransactionType type, Category category, String description, User user) {
@@ -45,7 +80,7 @@ public class Transaction {
         this.type = type;
         this.category = category;
         this.description = description;
-        this.date = LocalDateTime.now();
+        setDate(LocalDateTime.now());
         this.user = user;
     }
 
@@ -95,6 +130,8 @@ public class Transaction {
 
     public void setDate(LocalDateTime date) {
         this.date = date;
+        this.epochDay = date != null ? TrendGranularity.DAY.bucketOf(date.toLocalDate()) : null;
+        this.epochMonth = date != null ? TrendGranularity.epochMonth(date.toLocalDate()) : null;
     }
 
     public String getDescription() {
@@ -122,7 +159,21 @@ public class Transaction {
     }
 
     public String getFormattedAmount() {
-        return String.format("%.2f ₽", amount);
+        return amount != null ? MinorUnits.format(amountInMinorUnits()) : null;
+    }
+
+    /**
+     * Сумма в копейках. Не свойство JavaBean, поэтому не попадает в JSON.
+     * После первого вызова возвращается без создания объектов, пока не изменится amount.
+     * @throws ArithmeticException если сумма не помещается в long
+     */
+    public long amountInMinorUnits() {
+        MinorAmount cached = minorAmount;
+        if (cached == null || cached.source != amount) {
+            cached = new MinorAmount(amount, MinorUnits.of(amount));
+            minorAmount = cached;
+        }
+        return cached.units;
     }
 
     @Override
@@ -139,4 +190,15 @@ public class Transaction {
                 ", rejectionReason='" + rejectionReason + '\'' +
                 '}';
     }
-} 
\ No newline at end of file
+
+    // Сумма и ее исходное значение в одном неизменяемом объекте: другие потоки не увидят их рассогласованными
+    private static final class MinorAmount {
+        private final BigDecimal source;
+        private final long units;
+
+        private MinorAmount(BigDecimal source, long units) {
+            this.source = source;
+            this.units = units;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.studentbudget.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Строка результата агрегирующего запроса по транзакциям.
+ * Поля, по которым группировка не выполнялась, остаются null.
+ */
+public class TransactionAggregate {
+    private User user;
+    private Category category;
+    private TransactionType type;
+    private TransactionStatus status;
+    private BigDecimal total = BigDecimal.ZERO;
+    private long count;
+
+    public TransactionAggregate() {}
+
+    public TransactionAggregate(TransactionType type, TransactionStatus status, BigDecimal total, Long count) {
+        this.type = type;
+        this.status = status;
+        this.total = total != null ? total : BigDecimal.ZERO;
+        this.count = count != null ? count : 0L;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+
+    public void setCategory(Category category) {
+        this.category = category;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+
+    public TransactionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TransactionStatus status) {
+        this.status = status;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionAggregate{" +
+                "user=" + (user != null ? user.getUsername() : "null") +
+                ", category=" + (category != null ? category.getName() : "null") +
+                ", type=" + type +
+                ", status=" + status +
+                ", total=" + total +
+                ", count=" + count +
+                '}';
+    }
+}
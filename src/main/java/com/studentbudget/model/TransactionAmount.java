@@ -0,0 +1,44 @@
+package com.studentbudget.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Облегченная проекция транзакции для потокового просмотра сумм без загрузки сущностей.
+ */
+public class TransactionAmount {
+    private Long id;
+    private Long userId;
+    private BigDecimal amount;
+
+    public TransactionAmount() {}
+
+    public TransactionAmount(Long id, Long userId, BigDecimal amount) {
+        this.id = id;
+        this.userId = userId;
+        this.amount = amount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,87 @@
+package com.studentbudget.model;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Позиция в отсортированном списке транзакций: значение ключа сортировки и id последней строки страницы.
+ * Для вызывающего кода передается как непрозрачная строка.
+ */
+public class TransactionCursor {
+    private static final String SEPARATOR = "|";
+
+    private final TransactionSortKey sortKey;
+    private final Object value;
+    private final Long id;
+
+    private TransactionCursor(TransactionSortKey sortKey, Object value, Long id) {
+        this.sortKey = sortKey;
+        this.value = value;
+        this.id = id;
+    }
+
+    public static TransactionCursor after(TransactionSortKey sortKey, Transaction last) {
+        return new TransactionCursor(sortKey, sortKey.isByDate() ? last.getDate() : last.getAmount(), last.getId());
+    }
+
+    public static TransactionCursor after(TransactionSortKey sortKey, TransactionRow last) {
+        return new TransactionCursor(sortKey, sortKey.isByDate() ? last.getDate() : last.getAmount(), last.getId());
+    }
+
+    public static TransactionCursor decode(String cursor, TransactionSortKey expectedSortKey) {
+        TransactionCursor decoded;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Unexpected number of cursor fields: " + parts.length);
+            }
+            TransactionSortKey sortKey = TransactionSortKey.valueOf(parts[0]);
+            Object value = sortKey.isByDate() ? LocalDateTime.parse(parts[1]) : new BigDecimal(parts[1]);
+            decoded = new TransactionCursor(sortKey, value, Long.valueOf(parts[2]));
+        } catch (RuntimeException e) {
+            // Курсор приходит извне: любая ошибка разбора означает подделанную или поврежденную строку
+            throw new IllegalArgumentException("Malformed cursor: " + cursor, e);
+        }
+        if (decoded.sortKey != expectedSortKey) {
+            throw new IllegalArgumentException("Cursor was issued for sort order " + decoded.sortKey + ", not " + expectedSortKey);
+        }
+        return decoded;
+    }
+
+    public String encode() {
+        String printed = value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+        String raw = sortKey.name() + SEPARATOR + printed + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Идет ли транзакция строго после позиции курсора в порядке его ключа сортировки.
+     */
+    public boolean isFollowedBy(Transaction transaction) {
+        int cmp = sortKey.isByDate()
+            ? transaction.getDate().compareTo((LocalDateTime) value)
+            : transaction.getAmount().compareTo((BigDecimal) value);
+        if (cmp == 0) {
+            cmp = transaction.getId().compareTo(id);
+        }
+        return sortKey.isDescending() ? cmp < 0 : cmp > 0;
+    }
+
+    public TransactionSortKey getSortKey() {
+        return sortKey;
+    }
+
+    /**
+     * Значение ключа сортировки: LocalDateTime для сортировки по дате, BigDecimal - по сумме.
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,42 @@
+package com.studentbudget.model;
+
+/**
+ * Облегченная проекция транзакции для построения поискового индекса по описаниям.
+ */
+public class TransactionDescription {
+    private Long id;
+    private Long userId;
+    private String description;
+
+    public TransactionDescription() {}
+
+    public TransactionDescription(Long id, Long userId, String description) {
+        this.id = id;
+        this.userId = userId;
+        this.description = description;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
@@ -0,0 +1,87 @@
+package com.studentbudget.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Облегченная проекция транзакции для построения колоночного снимка аналитики:
+ * только поля, по которым группируются и суммируются агрегаты.
+ */
+public class TransactionFacts {
+    private Long id;
+    private Long userId;
+    private Long categoryId;
+    private TransactionType type;
+    private TransactionStatus status;
+    private LocalDateTime date;
+    private BigDecimal amount;
+
+    public TransactionFacts() {}
+
+    public TransactionFacts(Long id, Long userId, Long categoryId, TransactionType type, TransactionStatus status,
+                            LocalDateTime date, BigDecimal amount) {
+        this.id = id;
+        this.userId = userId;
+        this.categoryId = categoryId;
+        this.type = type;
+        this.status = status;
+        this.date = date;
+        this.amount = amount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+
+    public TransactionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TransactionStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDateTime date) {
+        this.date = date;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,160 @@
+package com.studentbudget.model;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Условия отбора транзакций для списка, поиска и экспорта.
+ * Незаданные (null) поля не ограничивают выборку.
+ */
+public class TransactionFilter {
+    private User user;
+    private Category category;
+    private TransactionType type;
+    private TransactionStatus status;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    // Слова описания по правилу DescriptionWords: каждое должно входить подстрокой
+    private String description;
+    // Ограничение по id транзакций, например найденных индексом описаний
+    private Collection<Long> ids;
+
+    public TransactionFilter() {}
+
+    public TransactionFilter(TransactionFilter other) {
+        this.user = other.user;
+        this.category = other.category;
+        this.type = other.type;
+        this.status = other.status;
+        this.from = other.from;
+        this.to = other.to;
+        this.description = other.description;
+        this.ids = other.ids;
+    }
+
+    /**
+     * Собирает предикат для хранилищ без SQL: в него попадают только заданные условия,
+     * а значения фильтра берутся один раз, а не при проверке каждой транзакции.
+     */
+    public Predicate<Transaction> toPredicate() {
+        Predicate<Transaction> predicate = transaction -> true;
+        if (user != null) {
+            Long userId = user.getId();
+            predicate = predicate.and(t -> userId.equals(t.getUser().getId()));
+        }
+        if (category != null) {
+            Long categoryId = category.getId();
+            predicate = predicate.and(t -> categoryId.equals(t.getCategory().getId()));
+        }
+        if (type != null) {
+            TransactionType expectedType = type;
+            predicate = predicate.and(t -> t.getType() == expectedType);
+        }
+        if (status != null) {
+            TransactionStatus expectedStatus = status;
+            predicate = predicate.and(t -> t.getStatus() == expectedStatus);
+        }
+        if (from != null) {
+            LocalDateTime start = from;
+            predicate = predicate.and(t -> !t.getDate().isBefore(start));
+        }
+        if (to != null) {
+            LocalDateTime end = to;
+            predicate = predicate.and(t -> !t.getDate().isAfter(end));
+        }
+        if (hasDescription()) {
+            String[] words = DescriptionWords.of(description);
+            predicate = predicate.and(t -> DescriptionWords.matches(t.getDescription(), words));
+        }
+        if (ids != null) {
+            Set<Long> allowed = new HashSet<>(ids);
+            predicate = predicate.and(t -> allowed.contains(t.getId()));
+        }
+        return predicate;
+    }
+
+    public boolean hasDescription() {
+        return description != null && !description.isBlank();
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+
+    public void setCategory(Category category) {
+        this.category = category;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+
+    public TransactionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TransactionStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Collection<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(Collection<Long> ids) {
+        this.ids = ids;
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionFilter{" +
+                "user=" + (user != null ? user.getUsername() : null) +
+                ", category=" + (category != null ? category.getName() : null) +
+                ", type=" + type +
+                ", status=" + status +
+                ", from=" + from +
+                ", to=" + to +
+                ", description='" + description + '\'' +
+                ", ids=" + (ids != null ? ids.size() + " ids" : null) +
+                '}';
+    }
+}
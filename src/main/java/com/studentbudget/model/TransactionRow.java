@@ -0,0 +1,70 @@
+package com.studentbudget.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Строка таблицы транзакций: только отображаемые поля, без сущностей категории и пользователя.
+ * Загружается проекцией и не отслеживается сессией; для изменения транзакция читается заново по id.
+ */
+public class TransactionRow {
+    private final Long id;
+    private final LocalDateTime date;
+    private final TransactionType type;
+    private final String categoryName;
+    private final BigDecimal amount;
+    private final String description;
+    private final TransactionStatus status;
+    private final String username;
+
+    public TransactionRow(Long id, LocalDateTime date, TransactionType type, String categoryName,
+                          BigDecimal amount, String description, TransactionStatus status, String username) {
+        this.id = id;
+        this.date = date;
+        this.type = type;
+        this.categoryName = categoryName;
+        this.amount = amount;
+        this.description = description;
+        this.status = status;
+        this.username = username;
+    }
+
+    public static TransactionRow of(Transaction transaction) {
+        return new TransactionRow(transaction.getId(), transaction.getDate(), transaction.getType(),
+            transaction.getCategory() != null ? transaction.getCategory().getName() : null,
+            transaction.getAmount(), transaction.getDescription(), transaction.getStatus(),
+            transaction.getUser() != null ? transaction.getUser().getUsername() : null);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public TransactionStatus getStatus() {
+        return status;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+}
@@ -0,0 +1,73 @@
+package com.studentbudget.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Неизменяемый снимок полей транзакции, влияющих на агрегаты.
+ * Снимается до изменения сущности, чтобы корректно вычесть старый вклад.
+ */
+public final class TransactionSnapshot {
+    private final Long userId;
+    private final Long categoryId;
+    private final TransactionType type;
+    private final TransactionStatus status;
+    private final LocalDate day;
+    private final BigDecimal amount;
+
+    public TransactionSnapshot(Long userId, Long categoryId, TransactionType type, TransactionStatus status,
+                               LocalDate day, BigDecimal amount) {
+        this.userId = userId;
+        this.categoryId = categoryId;
+        this.type = type;
+        this.status = status;
+        this.day = day;
+        this.amount = amount;
+    }
+
+    public static TransactionSnapshot of(Transaction transaction) {
+        return new TransactionSnapshot(
+            transaction.getUser().getId(),
+            transaction.getCategory().getId(),
+            transaction.getType(),
+            transaction.getStatus(),
+            transaction.getDate().toLocalDate(),
+            transaction.getAmount());
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public TransactionStatus getStatus() {
+        return status;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionSnapshot{" +
+                "userId=" + userId +
+                ", categoryId=" + categoryId +
+                ", type=" + type +
+                ", status=" + status +
+                ", day=" + day +
+                ", amount=" + amount +
+                '}';
+    }
+}
@@ -0,0 +1,45 @@
+package com.studentbudget.model;
+
+import java.util.Comparator;
+
+/**
+ * Порядок сортировки списка транзакций.
+ * Каждый ключ дополняется id, поэтому порядок строгий и пригоден для keyset-пагинации.
+ */
+public enum TransactionSortKey {
+    DATE_DESC("date", true),
+    DATE_ASC("date", false),
+    AMOUNT_DESC("amount", true),
+    AMOUNT_ASC("amount", false);
+
+    private final String property;
+    private final boolean descending;
+
+    TransactionSortKey(String property, boolean descending) {
+        this.property = property;
+        this.descending = descending;
+    }
+
+    /**
+     * Имя свойства сущности Transaction, по которому идет сортировка.
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public boolean isByDate() {
+        return "date".equals(property);
+    }
+
+    public Comparator<Transaction> comparator() {
+        Comparator<Transaction> comparator = isByDate()
+            ? Comparator.comparing(Transaction::getDate)
+            : Comparator.comparing(Transaction::getAmount);
+        comparator = comparator.thenComparing(Transaction::getId);
+        return descending ? comparator.reversed() : comparator;
+    }
+}
@@ -0,0 +1,46 @@
+package com.studentbudget.model;
+
+import java.time.LocalDate;
+
+/**
+ * Шаг интервалов динамики сумм. Интервалы нумеруются от 1970-01-01:
+ * день - номер дня, неделя (с понедельника) - номер недели, месяц - номер месяца.
+ */
+public enum TrendGranularity {
+    DAY,
+    WEEK,
+    MONTH;
+
+    private static final LocalDate EPOCH = LocalDate.ofEpochDay(0);
+    // 1970-01-01 - четверг, первый понедельник до него - за три дня
+    private static final int WEEK_SHIFT = 3;
+
+    /**
+     * Номер интервала, в который попадает дата.
+     */
+    public int bucketOf(LocalDate date) {
+        return switch (this) {
+            case DAY -> Math.toIntExact(date.toEpochDay());
+            case WEEK -> Math.toIntExact(Math.floorDiv(date.toEpochDay() + WEEK_SHIFT, 7));
+            case MONTH -> epochMonth(date);
+        };
+    }
+
+    /**
+     * Первый день интервала с номером bucket.
+     */
+    public LocalDate startOf(int bucket) {
+        return switch (this) {
+            case DAY -> LocalDate.ofEpochDay(bucket);
+            case WEEK -> LocalDate.ofEpochDay(bucket * 7L - WEEK_SHIFT);
+            case MONTH -> EPOCH.plusMonths(bucket);
+        };
+    }
+
+    /**
+     * Номер месяца даты, считая январь 1970 года нулевым.
+     */
+    public static int epochMonth(LocalDate date) {
+        return (date.getYear() - EPOCH.getYear()) * 12 + date.getMonthValue() - 1;
+    }
+}
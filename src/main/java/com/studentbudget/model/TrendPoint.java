@@ -0,0 +1,67 @@
+package com.studentbudget.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Итог транзакций за один интервал динамики и его изменение относительно
+ * предыдущего интервала. Пустой интервал имеет нулевой итог.
+ */
+public class TrendPoint {
+    private LocalDate start;
+    private BigDecimal total = BigDecimal.ZERO;
+    private long count;
+    private BigDecimal change = BigDecimal.ZERO;
+
+    public TrendPoint() {}
+
+    public TrendPoint(LocalDate start, BigDecimal total, long count, BigDecimal change) {
+        this.start = start;
+        this.total = total;
+        this.count = count;
+        this.change = change;
+    }
+
+    /**
+     * Первый день интервала.
+     */
+    public LocalDate getStart() {
+        return start;
+    }
+
+    public void setStart(LocalDate start) {
+        this.start = start;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    /**
+     * Итог интервала минус итог предыдущего интервала.
+     */
+    public BigDecimal getChange() {
+        return change;
+    }
+
+    public void setChange(BigDecimal change) {
+        this.change = change;
+    }
+
+    @Override
+    public String toString() {
+        return "TrendPoint{start=" + start + ", total=" + total + ", count=" + count + ", change=" + change + '}';
+    }
+}
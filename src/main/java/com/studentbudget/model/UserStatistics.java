@@ -0,0 +1,73 @@
+package com.studentbudget.model;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Статистика одного пользователя за период.
+ */
+public class UserStatistics {
+    private final User user;
+    private BigDecimal totalIncome = BigDecimal.ZERO;
+    private BigDecimal totalExpenses = BigDecimal.ZERO;
+    private long transactionCount;
+    private final Map<Category, BigDecimal> incomeByCategory = new HashMap<>();
+    private final Map<Category, BigDecimal> expensesByCategory = new HashMap<>();
+
+    public UserStatistics(User user) {
+        this.user = user;
+    }
+
+    /**
+     * Учитывает одну строку агрегата (группа по пользователю, типу, категории и статусу).
+     */
+    public void add(TransactionAggregate aggregate) {
+        if (aggregate.getType() == TransactionType.INCOME) {
+            totalIncome = totalIncome.add(aggregate.getTotal());
+            incomeByCategory.merge(aggregate.getCategory(), aggregate.getTotal(), BigDecimal::add);
+        } else {
+            totalExpenses = totalExpenses.add(aggregate.getTotal());
+            expensesByCategory.merge(aggregate.getCategory(), aggregate.getTotal(), BigDecimal::add);
+        }
+        transactionCount += aggregate.getCount();
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public BigDecimal getTotalIncome() {
+        return totalIncome;
+    }
+
+    public BigDecimal getTotalExpenses() {
+        return totalExpenses;
+    }
+
+    public BigDecimal getBalance() {
+        return totalIncome.subtract(totalExpenses);
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public Map<Category, BigDecimal> getIncomeByCategory() {
+        return incomeByCategory;
+    }
+
+    public Map<Category, BigDecimal> getExpensesByCategory() {
+        return expensesByCategory;
+    }
+
+    @Override
+    public String toString() {
+        return "UserStatistics{" +
+                "user=" + (user != null ? user.getUsername() : "null") +
+                ", totalIncome=" + totalIncome +
+                ", totalExpenses=" + totalExpenses +
+                ", transactionCount=" + transactionCount +
+                '}';
+    }
+}
@@ -0,0 +1,21 @@
+package com.studentbudget.service;
+
+import com.studentbudget.model.Budget;
+import com.studentbudget.model.BudgetPeriod;
+import com.studentbudget.model.Category;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Бюджеты текущего пользователя по категориям расходов.
+ */
+public interface BudgetService {
+    // Бюджет на текущий период; если он уже есть, меняется только сумма
+    Budget setBudget(Category category, BudgetPeriod period, BigDecimal amount);
+    // Удаляет бюджет вместе с прошлыми периодами
+    void removeBudget(Category category, BudgetPeriod period);
+    // Бюджеты на текущие периоды; закончившиеся бюджеты продлеваются на текущий период с той же суммой
+    List<Budget> getCurrentBudgets();
+    // Текущие бюджеты, расходы по которым превысили сумму
+    List<Budget> getExceededBudgets();
+}
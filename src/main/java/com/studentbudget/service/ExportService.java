@@ -0,0 +1,12 @@
+package com.studentbudget.service;
+
+import com.studentbudget.model.ExportFormat;
+import com.studentbudget.model.TransactionFilter;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+public interface ExportService {
+    // Возвращают число выгруженных транзакций; студент выгружает только свои
+    long exportTransactions(TransactionFilter filter, ExportFormat format, Path target);
+    long exportTransactions(TransactionFilter filter, ExportFormat format, OutputStream output);
+}
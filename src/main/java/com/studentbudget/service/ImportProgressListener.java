@@ -0,0 +1,10 @@
+package com.studentbudget.service;
+
+/**
+ * Получает ход импорта после записи каждого пакета.
+ * Вызывается в потоке импорта.
+ */
+@FunctionalInterface
+public interface ImportProgressListener {
+    void onProgress(long processedRows, long importedRows, long failedRows);
+}
@@ -0,0 +1,9 @@
+package com.studentbudget.service;
+
+import com.studentbudget.model.ImportOptions;
+import com.studentbudget.model.ImportResult;
+import java.io.InputStream;
+
+public interface ImportService {
+    ImportResult importTransactions(InputStream input, ImportOptions options, ImportProgressListener listener);
+}
@@ -1,9 +1,20 @@
 package com.studentbudget.service;
 
+import com.studentbudget.model.AnomalyMode;
+import com.studentbudget.model.DashboardSummary;
+import com.studentbudget.model.Page;
+import com.studentbudget.model.RollupDrift;
+import com.studentbudget.model.SystemStatistics;
 import com.studentbudget.model.Transaction;
+import com.studentbudget.model.TransactionFilter;
+import com.studentbudget.model.TransactionRow;
+import com.studentbudget.model.TransactionSortKey;
 import com.studentbudget.model.TransactionType;
+import com.studentbudget.model.TrendGranularity;
+import com.studentbudget.model.TrendPoint;
 import com.studentbudget.model.Category;
 import com.studentbudget.model.User;
+import com.studentbudget.model.UserStatistics;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
 import java.math.BigDecimal;
@@ -29,7 +40,13 @@ public interface TransactionService {
     List<Transaction> getTransactionsByUserAndType(User user, TransactionType type);
     List<Transaction> getTransactionsByUserAndCategory(User user, Category category);
     List<Transaction> getTransactionsByUserAndDateRange(User user, LocalDateTime start, LocalDateTime end);
+
+    // Постраничный список; студент всегда получает только свои транзакции
+    Page<Transaction> getTransactionsPage(TransactionFilter filter, TransactionSortKey sortKey, String cursor, int pageSize);
+    // Та же страница для таблицы: проекция без сущностей, для изменения транзакция читается по id
+    Page<TransactionRow> getTransactionRowsPage(TransactionFilter filter, TransactionSortKey sortKey, String cursor, int pageSize);
     
+    // С индексом описаний: все слова запроса как начала слов описания, по убыванию релевантности
     List<Transaction> searchTransactions(String searchTerm);
     List<Transaction> searchTransactions(String query, Category category, 
                                       LocalDate startDate, LocalDate endDate);
@@ -37,6 +54,12 @@ public interface TransactionService {
     BigDecimal getTotalIncome();
     BigDecimal getTotalExpenses();
     BigDecimal getCurrentBalance();
+    DashboardSummary getDashboardSummary();
+
+    // Итоги активных транзакций по интервалам периода, включая пустые интервалы, с изменением к предыдущему.
+    // scope == null - все пользователи (только администратор); студент получает только свою динамику
+    List<TrendPoint> getTrend(User scope, TrendGranularity granularity, LocalDate startDate, LocalDate endDate,
+                              TransactionType type);
     
     Map<Category, BigDecimal> getExpensesByCategory();
     Map<Category, Double> getExpenseDistribution();
@@ -57,9 +80,10 @@ public interface TransactionService {
     void batchMoveTransactions(List<Long> transactionIds, Category toCategory);
 
     // Расширенная статистика
-    Map<User, Map<String, BigDecimal>> getUserStatistics(LocalDate startDate, LocalDate endDate);
-    Map<String, BigDecimal> getSystemStatistics(LocalDate startDate, LocalDate endDate);
+    Map<User, UserStatistics> getUserStatistics(LocalDate startDate, LocalDate endDate);
+    SystemStatistics getSystemStatistics(LocalDate startDate, LocalDate endDate);
     List<Transaction> getAnomalousTransactions(BigDecimal threshold);
+    Page<Transaction> getAnomalousTransactions(AnomalyMode mode, BigDecimal threshold, String cursor, int pageSize);
 
     // Управление лимитами пользователей
     void setUserTransactionLimit(User user, TransactionType type, BigDecimal limit);
@@ -69,8 +93,13 @@ public interface TransactionService {
 
     // Рабочий процесс утверждения
     void requireApprovalForTransactions(BigDecimal threshold);
+    BigDecimal getApprovalThreshold();
     List<Transaction> getPendingApprovalTransactions();
     void approveTransaction(Long transactionId);
     void rejectTransaction(Long transactionId, String reason);
     List<Transaction> getRejectedTransactions();
+
+    // Обслуживание свертки балансов
+    void rebuildBalanceRollup();
+    List<RollupDrift> verifyBalanceRollup();
 } 
\ No newline at end of file
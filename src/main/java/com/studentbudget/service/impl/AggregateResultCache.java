@@ -0,0 +1,156 @@
+package com.studentbudget.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кэш результатов агрегирующих запросов с инвалидацией по версиям записи.
+ *
+ * Ключ - область (пользователь или все пользователи), имя метода и аргументы.
+ * Каждая запись в транзакции увеличивает версию своего пользователя и общую
+ * версию; результат по одному пользователю действителен, пока не изменилась его
+ * версия, результат по всем пользователям - пока не изменилась общая. Изменения,
+ * затрагивающие неизвестный набор пользователей, сбрасывают все результаты сразу.
+ *
+ * Версия читается до вычисления, а увеличивается после фиксации транзакции,
+ * поэтому результат, посчитанный одновременно с записью, при следующем чтении
+ * считается устаревшим. Размер ограничен, вытесняется давно не читавшийся результат.
+ */
+public class AggregateResultCache implements TransactionWriteListener {
+    private static final Logger logger = LoggerFactory.getLogger(AggregateResultCache.class);
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private final Map<Key, Entry> entries;
+    private final Map<Long, AtomicLong> userVersions = new ConcurrentHashMap<>();
+    // Увеличивается при любой записи: версия результатов по всем пользователям
+    private final AtomicLong globalVersion = new AtomicLong();
+    // Увеличивается при записи, затронувшей неизвестный набор пользователей
+    private final AtomicLong epoch = new AtomicLong();
+
+    public AggregateResultCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public AggregateResultCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxEntries);
+        }
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Возвращает сохраненный результат или вычисляет его через loader.
+     * @param userId область результата; null - все пользователи
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Long userId, String method, Supplier<T> loader, Object... args) {
+        Key key = new Key(userId, method, Arrays.asList(args));
+        long currentEpoch = epoch.get();
+        long version = version(userId);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.epoch == currentEpoch && entry.version == version) {
+                return (T) entry.value;
+            }
+        }
+
+        // Запрос к БД выполняется без блокировки; параллельные промахи по одному ключу посчитают его дважды
+        T value = loader.get();
+        synchronized (entries) {
+            entries.put(key, new Entry(currentEpoch, version, value));
+        }
+        return value;
+    }
+
+    /**
+     * Помечает устаревшими результаты пользователя и результаты по всем пользователям.
+     */
+    public void invalidateUser(Long userId) {
+        if (userId != null) {
+            userVersions.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+        }
+        globalVersion.incrementAndGet();
+    }
+
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        globalVersion.incrementAndGet();
+        synchronized (entries) {
+            entries.clear();
+        }
+        logger.debug("Aggregate result cache cleared");
+    }
+
+    @Override
+    public void afterAggregatesChanged(Long userId) {
+        if (userId != null) {
+            invalidateUser(userId);
+        } else {
+            invalidateAll();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private long version(Long userId) {
+        if (userId == null) {
+            return globalVersion.get();
+        }
+        AtomicLong version = userVersions.get(userId);
+        return version != null ? version.get() : 0L;
+    }
+
+    private static final class Key {
+        private final Long userId;
+        private final String method;
+        private final List<Object> args;
+
+        private Key(Long userId, String method, List<Object> args) {
+            this.userId = userId;
+            this.method = method;
+            this.args = args;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return Objects.equals(userId, other.userId) && method.equals(other.method) && args.equals(other.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, method, args);
+        }
+    }
+
+    private static final class Entry {
+        private final long epoch;
+        private final long version;
+        private final Object value;
+
+        private Entry(long epoch, long version, Object value) {
+            this.epoch = epoch;
+            this.version = version;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.studentbudget.service.impl;
+
+import com.studentbudget.dao.TransactionDao;
+import com.studentbudget.model.AmountStatistics;
+import com.studentbudget.model.AnomalyMode;
+import com.studentbudget.model.Page;
+import com.studentbudget.model.Transaction;
+import com.studentbudget.model.TransactionAmount;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Поиск аномальных транзакций за линейное время.
+ * Среднее и стандартное отклонение по каждому пользователю берутся одним
+ * агрегирующим запросом, после чего таблица просматривается порциями по
+ * возрастанию id. Сущности загружаются только для помеченных транзакций.
+ * С колоночным снимком и статистика, и просмотр выполняются по нему в памяти.
+ *
+ * Статистика считается один раз на весь просмотр: курсор содержит номер
+ * просмотра, и следующие страницы берут статистику первой. Незавершенные
+ * просмотры хранятся недолго; если статистика просмотра уже забыта, она
+ * считается заново.
+ */
+public class AnomalyDetector {
+    private static final int SCAN_CHUNK_SIZE = 1000;
+    private static final int MAX_OPEN_SCANS = 16;
+    private static final long SCAN_TTL_MS = 10 * 60 * 1000L;
+    private static final String CURSOR_SEPARATOR = ":";
+
+    private final TransactionDao transactionDao;
+    // Колоночный снимок; null - статистика и суммы читаются из DAO
+    private final ColumnarTransactionSnapshot snapshot;
+    private final AtomicLong scanSequence = new AtomicLong();
+    // Номер просмотра -> статистика; при переполнении вытесняется давно не использованный
+    private final Map<Long, Scan> openScans = new LinkedHashMap<>(MAX_OPEN_SCANS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Scan> eldest) {
+            return size() > MAX_OPEN_SCANS;
+        }
+    };
+
+    public AnomalyDetector(TransactionDao transactionDao) {
+        this(transactionDao, null);
+    }
+
+    public AnomalyDetector(TransactionDao transactionDao, ColumnarTransactionSnapshot snapshot) {
+        this.transactionDao = transactionDao;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Возвращает очередную страницу аномальных транзакций.
+     * @param cursor курсор из предыдущей страницы или null для первой страницы
+     */
+    public Page<Transaction> findPage(AnomalyMode mode, double threshold, String cursor, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        Long scanId = null;
+        Long lastSeenId = null;
+        if (cursor != null) {
+            String[] parts = cursor.split(CURSOR_SEPARATOR);
+            try {
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Unexpected number of cursor fields: " + parts.length);
+                }
+                scanId = Long.valueOf(parts[0]);
+                lastSeenId = Long.valueOf(parts[1]);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Malformed cursor: " + cursor, e);
+            }
+        }
+        Scan scan = openScan(scanId);
+
+        List<Long> flaggedIds;
+        Long nextId;
+        if (snapshot != null) {
+            Page<Long> ids = snapshot.findAnomalousIds(scan.statisticsByUser, mode, threshold, lastSeenId, pageSize);
+            flaggedIds = ids.getItems();
+            nextId = ids.getNextCursor() != null ? Long.valueOf(ids.getNextCursor()) : null;
+        } else {
+            flaggedIds = new ArrayList<>(pageSize);
+            nextId = scanTable(scan.statisticsByUser, mode, threshold, lastSeenId, pageSize, flaggedIds);
+        }
+
+        List<Transaction> transactions = transactionDao.findAllById(flaggedIds);
+        if (nextId == null) {
+            closeScan(scan.id);
+            return new Page<>(transactions, null);
+        }
+        return new Page<>(transactions, scan.id + CURSOR_SEPARATOR + nextId);
+    }
+
+    // Просматривает суммы после lastSeenId; возвращает id последней просмотренной строки или null, если строк больше нет
+    private Long scanTable(Map<Long, AmountStatistics> statisticsByUser, AnomalyMode mode, double threshold,
+                           Long lastSeenId, int pageSize, List<Long> flaggedIds) {
+        while (flaggedIds.size() < pageSize) {
+            List<TransactionAmount> chunk = transactionDao.findAmountsAfterId(lastSeenId, SCAN_CHUNK_SIZE);
+            for (int i = 0; i < chunk.size() && flaggedIds.size() < pageSize; i++) {
+                TransactionAmount amount = chunk.get(i);
+                lastSeenId = amount.getId();
+                AmountStatistics statistics = statisticsByUser.get(amount.getUserId());
+                if (statistics != null && statistics.isAnomalous(amount.getAmount().doubleValue(), mode, threshold)) {
+                    flaggedIds.add(amount.getId());
+                }
+            }
+
+            boolean lastChunk = chunk.size() < SCAN_CHUNK_SIZE;
+            boolean chunkConsumed = chunk.isEmpty() || chunk.get(chunk.size() - 1).getId().equals(lastSeenId);
+            if (lastChunk && chunkConsumed) {
+                return null;
+            }
+        }
+        return lastSeenId;
+    }
+
+    // Статистика продолжаемого просмотра или новый просмотр со свежей статистикой
+    private Scan openScan(Long scanId) {
+        long now = System.currentTimeMillis();
+        synchronized (openScans) {
+            Scan scan = scanId != null ? openScans.get(scanId) : null;
+            if (scan != null && now - scan.lastUsed <= SCAN_TTL_MS) {
+                scan.lastUsed = now;
+                return scan;
+            }
+        }
+        List<AmountStatistics> statistics = snapshot != null
+            ? snapshot.amountStatisticsByUser()
+            : transactionDao.amountStatisticsByUser();
+        Map<Long, AmountStatistics> statisticsByUser = new HashMap<>();
+        for (AmountStatistics userStatistics : statistics) {
+            statisticsByUser.put(userStatistics.getUserId(), userStatistics);
+        }
+        Scan scan = new Scan(scanSequence.incrementAndGet(), statisticsByUser, now);
+        synchronized (openScans) {
+            openScans.put(scan.id, scan);
+        }
+        return scan;
+    }
+
+    private void closeScan(long scanId) {
+        synchronized (openScans) {
+            openScans.remove(scanId);
+        }
+    }
+
+    private static final class Scan {
+        private final long id;
+        private final Map<Long, AmountStatistics> statisticsByUser;
+        private long lastUsed;
+
+        private Scan(long id, Map<Long, AmountStatistics> statisticsByUser, long lastUsed) {
+            this.id = id;
+            this.statisticsByUser = statisticsByUser;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
@@ -106,19 +106,19 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public boolean isUsernameAvailable(String username) {
-        return transactionManager.executeInTransaction(session -> 
+        return transactionManager.executeReadOnly(session -> 
             !userDao.existsByUsername(username));
     }
 
     @Override
     public boolean isEmailAvailable(String email) {
-        return transactionManager.executeInTransaction(session -> 
+        return transactionManager.executeReadOnly(session -> 
             !userDao.existsByEmail(email));
     }
 
     @Override
     public List<User> getAllUsers() {
         logger.debug("Fetching all users");
-        return transactionManager.executeInTransaction(session -> userDao.findAll());
+        return transactionManager.executeReadOnly(session -> userDao.findAll());
     }
 } 
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.studentbudget.service.impl;
+
+import com.studentbudget.dao.BalanceRollupDao;
+import com.studentbudget.model.TransactionSnapshot;
+
+import java.util.Collection;
+
+/**
+ * Поддерживает свертку балансов в транзакции записи.
+ */
+public class BalanceRollupWriteListener implements TransactionWriteListener {
+    private final BalanceRollupDao balanceRollupDao;
+
+    public BalanceRollupWriteListener(BalanceRollupDao balanceRollupDao) {
+        this.balanceRollupDao = balanceRollupDao;
+    }
+
+    @Override
+    public boolean tracksChanges() {
+        return true;
+    }
+
+    @Override
+    public void onChanges(Collection<TransactionSnapshot> removed, Collection<TransactionSnapshot> added) {
+        balanceRollupDao.applyChanges(removed, added);
+    }
+
+    @Override
+    public void onBeforeBulkUpdate(Collection<Long> ids) {
+        balanceRollupDao.removeTransactions(ids);
+    }
+
+    @Override
+    public void onAfterBulkUpdate(Collection<Long> ids) {
+        balanceRollupDao.addTransactions(ids);
+    }
+
+    @Override
+    public void onCategoryMerged(Long fromCategoryId, Long toCategoryId) {
+        balanceRollupDao.moveCategory(fromCategoryId, toCategoryId);
+    }
+}
@@ -0,0 +1,99 @@
+package com.studentbudget.service.impl;
+
+import com.studentbudget.dao.BudgetDao;
+import com.studentbudget.model.Budget;
+import com.studentbudget.model.BudgetPeriod;
+import com.studentbudget.model.Category;
+import com.studentbudget.model.User;
+import com.studentbudget.service.AuthService;
+import com.studentbudget.service.BudgetService;
+import com.studentbudget.util.HibernateTransactionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class BudgetServiceImpl implements BudgetService {
+    private static final Logger logger = LoggerFactory.getLogger(BudgetServiceImpl.class);
+    private final BudgetDao budgetDao;
+    private final HibernateTransactionManager transactionManager;
+    private final AuthService authService;
+
+    public BudgetServiceImpl(BudgetDao budgetDao, HibernateTransactionManager transactionManager, AuthService authService) {
+        this.budgetDao = budgetDao;
+        this.transactionManager = transactionManager;
+        this.authService = authService;
+    }
+
+    @Override
+    public Budget setBudget(Category category, BudgetPeriod period, BigDecimal amount) {
+        logger.debug("Setting {} budget for category {} to {}", period, category, amount);
+        if (category == null || period == null || amount == null) {
+            throw new IllegalArgumentException("Budget category, period and amount must be specified");
+        }
+        if (amount.signum() < 0) {
+            throw new IllegalArgumentException("Budget amount must not be negative: " + amount);
+        }
+        User user = authService.getCurrentUser();
+        LocalDate start = period.startOf(LocalDate.now());
+        return transactionManager.executeInTransaction(session -> {
+            Budget existing = budgetDao.find(user, category, period, start).orElse(null);
+            if (existing != null) {
+                existing.setAmount(amount);
+                return existing;
+            }
+            Budget started = startPeriod(new Budget(user, category, period, start, amount));
+            started.setAmount(amount);
+            return started;
+        });
+    }
+
+    @Override
+    public void removeBudget(Category category, BudgetPeriod period) {
+        logger.debug("Removing {} budget for category {}", period, category);
+        User user = authService.getCurrentUser();
+        transactionManager.executeInTransactionWithoutResult(session -> {
+            int deleted = budgetDao.deleteAll(user, category, period);
+            logger.debug("Deleted {} budget periods", deleted);
+        });
+    }
+
+    @Override
+    public List<Budget> getCurrentBudgets() {
+        logger.debug("Fetching current budgets");
+        User user = authService.getCurrentUser();
+        LocalDate today = LocalDate.now();
+        return transactionManager.executeInTransaction(session -> {
+            // Продление нужно раз в период; дальше остаток читается из строки бюджета
+            for (Budget ended : budgetDao.findEndedBefore(user, today)) {
+                startPeriod(new Budget(user, ended.getCategory(), ended.getPeriod(),
+                    ended.getPeriod().startOf(today), ended.getAmount()));
+            }
+            return budgetDao.findByUserAndDay(user, today);
+        });
+    }
+
+    @Override
+    public List<Budget> getExceededBudgets() {
+        return getCurrentBudgets().stream()
+            .filter(Budget::isExceeded)
+            .collect(Collectors.toList());
+    }
+
+    // Счетчик нового периода считается по уже записанным транзакциям один раз,
+    // дальше его поддерживают записи транзакций. Период, который успел создать
+    // параллельный запрос, не пересчитывается повторно
+    private Budget startPeriod(Budget budget) {
+        if (!budgetDao.startPeriod(budget)) {
+            logger.debug("Budget period {} for category {} is already started", budget.getStartDate(),
+                budget.getCategory());
+        }
+        Budget started = budgetDao.find(budget.getUser(), budget.getCategory(), budget.getPeriod(), budget.getStartDate())
+            .orElseThrow(() -> new IllegalStateException("Период бюджета не найден после создания"));
+        logger.debug("Started budget period {} with spent {}", started.getStartDate(), started.getSpent());
+        return started;
+    }
+}
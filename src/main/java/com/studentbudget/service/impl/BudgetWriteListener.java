@@ -0,0 +1,50 @@
+package com.studentbudget.service.impl;
+
+import com.studentbudget.dao.BudgetDao;
+import com.studentbudget.model.TransactionSnapshot;
+
+import java.util.Collection;
+
+/**
+ * Поддерживает счетчики расходов бюджетов в транзакции записи.
+ */
+public class BudgetWriteListener implements TransactionWriteListener {
+    private final BudgetDao budgetDao;
+
+    public BudgetWriteListener(BudgetDao budgetDao) {
+        this.budgetDao = budgetDao;
+    }
+
+    @Override
+    public boolean tracksChanges() {
+        return true;
+    }
+
+    @Override
+    public void onChanges(Collection<TransactionSnapshot> removed, Collection<TransactionSnapshot> added) {
+        budgetDao.applyChanges(removed, added);
+    }
+
+    @Override
+    public void onBeforeBulkUpdate(Collection<Long> ids) {
+        budgetDao.removeTransactions(ids);
+    }
+
+    @Override
+    public void onAfterBulkUpdate(Collection<Long> ids) {
+        budgetDao.addTransactions(ids);
+    }
+
+    // Периоды бюджетов у категорий разные, поэтому их счетчики пересчитываются, а не переносятся
+    @Override
+    public void onCategoryMerged(Long fromCategoryId, Long toCategoryId) {
+        budgetDao.recalculateCategory(fromCategoryId);
+        budgetDao.recalculateCategory(toCategoryId);
+    }
+
+    // Бюджеты удаляемой категории пропадают вместе с ней
+    @Override
+    public void onCategoryDeleted(Long categoryId) {
+        budgetDao.deleteByCategory(categoryId);
+    }
+}
@@ -15,11 +15,16 @@ public class CategoryServiceImpl implements CategoryService {
     private static final Logger logger = LoggerFactory.getLogger(CategoryServiceImpl.class);
     private final CategoryDao categoryDao;
     private final TransactionDao transactionDao;
+    // Производные данные транзакций: их свертка, бюджеты и агрегаты ссылаются на категории
+    private final List<TransactionWriteListener> writeListeners;
     private final HibernateTransactionManager transactionManager;
 
-    public CategoryServiceImpl(CategoryDao categoryDao, TransactionDao transactionDao, HibernateTransactionManager transactionManager) {
+    public CategoryServiceImpl(CategoryDao categoryDao, TransactionDao transactionDao,
+                               List<TransactionWriteListener> writeListeners,
+                               HibernateTransactionManager transactionManager) {
         this.categoryDao = categoryDao;
         this.transactionDao = transactionDao;
+        this.writeListeners = List.copyOf(writeListeners);
         this.transactionManager = transactionManager;
     }
 
@@ -49,6 +54,7 @@ public class CategoryServiceImpl implements CategoryService {
             
             categoryDao.update(category);
         });
+        invalidateAggregates();
     }
 
     @Override
@@ -63,6 +69,7 @@ public class CategoryServiceImpl implements CategoryService {
                 throw new IllegalStateException("Cannot delete category with existing transactions");
             }
             
+            writeListeners.forEach(listener -> listener.onCategoryDeleted(id));
             categoryDao.deleteById(id);
         });
     }
@@ -70,7 +77,7 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     public Category getCategoryById(Long id) {
         logger.debug("Fetching category with id: {}", id);
-        return transactionManager.executeInTransaction(session -> 
+        return transactionManager.executeReadOnly(session -> 
             categoryDao.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Category not found with id: " + id))
         );
@@ -79,25 +86,25 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     public List<Category> getAllCategories() {
         logger.debug("Fetching all categories");
-        return transactionManager.executeInTransaction(session -> categoryDao.findAll());
+        return transactionManager.executeReadOnly(session -> categoryDao.findAll());
     }
 
     @Override
     public Category getCategoryByName(String name) {
         logger.debug("Fetching category by name: {}", name);
-        return transactionManager.executeInTransaction(session -> categoryDao.findByName(name));
+        return transactionManager.executeReadOnly(session -> categoryDao.findByName(name));
     }
 
     @Override
     public boolean isCategoryNameUnique(String name) {
         logger.debug("Checking if category name is unique: {}", name);
-        return transactionManager.executeInTransaction(session -> categoryDao.findByName(name) == null);
+        return transactionManager.executeReadOnly(session -> categoryDao.findByName(name) == null);
     }
 
     @Override
     public boolean hasTransactions(Long categoryId) {
         logger.debug("Checking if category has transactions: {}", categoryId);
-        return transactionManager.executeInTransaction(session -> {
+        return transactionManager.executeReadOnly(session -> {
             Category category = categoryDao.findById(categoryId)
                 .orElseThrow(() -> new IllegalArgumentException("Category not found with id: " + categoryId));
             List<Transaction> transactions = transactionDao.findByCategory(category);
@@ -111,14 +118,18 @@ public class CategoryServiceImpl implements CategoryService {
             Category oldCategory = categoryDao.findById(categoryId)
                 .orElseThrow(() -> new IllegalArgumentException("Category not found with id: " + categoryId));
             
-            List<Transaction> transactions = transactionDao.findByCategory(oldCategory);
-            for (Transaction transaction : transactions) {
-                transaction.setCategory(newCategory);
-                transactionDao.update(transaction);
-            }
-            
+            transactionDao.moveCategory(oldCategory, newCategory);
+            writeListeners.forEach(listener -> listener.onCategoryMerged(categoryId, newCategory.getId()));
+            writeListeners.forEach(listener -> listener.onCategoryDeleted(categoryId));
 
             categoryDao.deleteById(categoryId);
         });
+        invalidateAggregates();
+        writeListeners.forEach(listener -> listener.afterCategoryMerged(categoryId, newCategory.getId()));
+    }
+
+    // Переименование или перенос меняет категории в уже посчитанных агрегатах
+    private void invalidateAggregates() {
+        writeListeners.forEach(listener -> listener.afterAggregatesChanged(null));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,719 @@
+package com.studentbudget.service.impl;
+
+import com.studentbudget.dao.TransactionDao;
+import com.studentbudget.model.AmountStatistics;
+import com.studentbudget.model.AnomalyMode;
+import com.studentbudget.model.Category;
+import com.studentbudget.model.MinorUnits;
+import com.studentbudget.model.Page;
+import com.studentbudget.model.Transaction;
+import com.studentbudget.model.TransactionAggregate;
+import com.studentbudget.model.TransactionFacts;
+import com.studentbudget.model.TransactionStatus;
+import com.studentbudget.model.TransactionType;
+import com.studentbudget.model.User;
+import com.studentbudget.util.HibernateTransactionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BinaryOperator;
+import java.util.function.LongFunction;
+
+/**
+ * Колоночный снимок транзакций в памяти процесса для аналитики администратора.
+ * Каждое поле, по которому группируются агрегаты, хранится отдельным массивом
+ * примитивов: id, пользователь, категория, день (epochDay), сумма в копейках,
+ * тип вместе со статусом. Пользователи и категории кодируются плотными номерами,
+ * строка занимает 29 байт, объектов на строку нет: 10 млн транзакций - около 300 МБ.
+ *
+ * Агрегаты считаются циклом по массивам. Строки делятся на диапазоны, которые
+ * обрабатываются параллельно в ForkJoinPool; частичные итоги сливаются попарно.
+ *
+ * Строки упорядочены по id. Снимок заполняется из DAO при первом обращении, далее
+ * поддерживается сервисами после фиксации изменений: новые транзакции дописываются
+ * в конец, удаленные помечаются и вычищаются, когда их накопится четверть.
+ * Изменения, пришедшие до заполнения, пропускаются: заполнение все равно
+ * прочитает зафиксированные данные. Заполненность проверяется под блокировкой
+ * записи, которую заполнение держит до конца: изменение, зафиксированное во время
+ * заполнения, дождется его и применится поверх. Все изменения идемпотентны, поэтому
+ * строка, которую заполнение уже прочитало в новом виде, не испортится.
+ */
+public class ColumnarTransactionSnapshot implements TransactionWriteListener {
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarTransactionSnapshot.class);
+    private static final int LOAD_CHUNK_SIZE = 5000;
+    private static final int INITIAL_CAPACITY = 1024;
+    // Меньше этого диапазон строк не делится: накладные расходы задачи превысят выигрыш
+    private static final int MIN_TASK_ROWS = 1 << 16;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+    // Тип и статус строки в одном байте: type.ordinal() * STATUSES.length + status.ordinal()
+    private static final int KINDS = TYPES.length * STATUSES.length;
+    private static final byte DELETED = -1;
+    // Если сочетаний пользователя, категории и типа со статусом не больше, итоги копятся в массиве по прямому индексу
+    private static final int DENSE_GROUP_LIMIT = 1 << 18;
+
+    private final TransactionDao transactionDao;
+    private final HibernateTransactionManager transactionManager;
+    private final ForkJoinPool pool;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Dictionary users = new Dictionary();
+    private final Dictionary categories = new Dictionary();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] userCodes = new int[INITIAL_CAPACITY];
+    private int[] categoryCodes = new int[INITIAL_CAPACITY];
+    private int[] days = new int[INITIAL_CAPACITY];
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private int size;
+    private int deleted;
+    private volatile boolean loaded;
+
+    public ColumnarTransactionSnapshot(TransactionDao transactionDao, HibernateTransactionManager transactionManager) {
+        this(transactionDao, transactionManager, ForkJoinPool.commonPool());
+    }
+
+    public ColumnarTransactionSnapshot(TransactionDao transactionDao, HibernateTransactionManager transactionManager,
+                                       ForkJoinPool pool) {
+        this.transactionDao = transactionDao;
+        this.transactionManager = transactionManager;
+        this.pool = pool;
+    }
+
+    /**
+     * Группировка по пользователю, типу, категории и статусу за период, включая обе границы.
+     * Пользователи и категории подставляются из resolver'ов; группы, для которых они
+     * не нашлись (удалены в обход сервисов), пропускаются.
+     */
+    public List<TransactionAggregate> aggregateByPeriod(LocalDate from, LocalDate to,
+                                                        LongFunction<User> userResolver,
+                                                        LongFunction<Category> categoryResolver) {
+        return aggregate(new Selection((int) from.toEpochDay(), (int) to.toEpochDay(), -1, true),
+            userResolver, categoryResolver);
+    }
+
+    /**
+     * Группировка по пользователю и категории для всех статусов.
+     */
+    public List<TransactionAggregate> aggregateByUserAndCategory(TransactionType type,
+                                                                 LongFunction<User> userResolver,
+                                                                 LongFunction<Category> categoryResolver) {
+        return aggregate(new Selection(Integer.MIN_VALUE, Integer.MAX_VALUE, type.ordinal(), false),
+            userResolver, categoryResolver);
+    }
+
+    /**
+     * Среднее и стандартное отклонение сумм по пользователям, в рублях.
+     */
+    public List<AmountStatistics> amountStatisticsByUser() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            AmountStatistics[] byCode = statisticsByUserCode();
+            List<AmountStatistics> result = new ArrayList<>();
+            for (AmountStatistics statistics : byCode) {
+                if (statistics.getCount() > 0) {
+                    result.add(statistics);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Очередная страница id аномальных транзакций по возрастанию id.
+     * Статистика передается вызывающим: она считается один раз на весь просмотр,
+     * а страница проходит только свои строки.
+     * @param statisticsByUser статистика пользователей из amountStatisticsByUser(); у пользователей без нее аномалий нет
+     * @param afterId id последней просмотренной транзакции или null для первой страницы
+     * @return страница с курсором - id последней просмотренной транзакции
+     */
+    public Page<Long> findAnomalousIds(Map<Long, AmountStatistics> statisticsByUser, AnomalyMode mode, double threshold,
+                                       Long afterId, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            AmountStatistics[] byCode = new AmountStatistics[users.size()];
+            for (int code = 0; code < byCode.length; code++) {
+                byCode[code] = statisticsByUser.get(users.decode(code));
+            }
+            int row = afterId != null ? rowAfter(afterId) : 0;
+            List<Long> flagged = new ArrayList<>(Math.min(pageSize, 1024));
+            long lastSeenId = 0;
+            for (; row < size && flagged.size() < pageSize; row++) {
+                if (kinds[row] == DELETED) {
+                    continue;
+                }
+                lastSeenId = ids[row];
+                AmountStatistics statistics = byCode[userCodes[row]];
+                if (statistics != null && statistics.isAnomalous(MinorUnits.toDouble(amounts[row]), mode, threshold)) {
+                    flagged.add(ids[row]);
+                }
+            }
+            boolean exhausted = nextLiveRow(row) == size;
+            return new Page<>(flagged, exhausted || lastSeenId == 0 ? null : String.valueOf(lastSeenId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Добавляет транзакцию или заменяет ее строку.
+     */
+    public void put(Transaction transaction) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            int row = Arrays.binarySearch(ids, 0, size, transaction.getId());
+            if (row < 0) {
+                row = insertRow(-row - 1);
+                ids[row] = transaction.getId();
+            } else if (kinds[row] == DELETED) {
+                deleted--;
+            }
+            userCodes[row] = users.encode(transaction.getUser().getId());
+            categoryCodes[row] = categories.encode(transaction.getCategory().getId());
+            days[row] = (int) transaction.getDate().toLocalDate().toEpochDay();
+            amounts[row] = transaction.amountInMinorUnits();
+            kinds[row] = kind(transaction.getType(), transaction.getStatus());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAll(Collection<Long> transactionIds) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            for (Long id : transactionIds) {
+                int row = Arrays.binarySearch(ids, 0, size, id);
+                if (row >= 0 && kinds[row] != DELETED) {
+                    kinds[row] = DELETED;
+                    deleted++;
+                }
+            }
+            if (deleted > size / 4) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void updateStatus(Collection<Long> transactionIds, TransactionStatus status) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            for (Long id : transactionIds) {
+                int row = Arrays.binarySearch(ids, 0, size, id);
+                if (row >= 0 && kinds[row] != DELETED) {
+                    kinds[row] = (byte) (kinds[row] / STATUSES.length * STATUSES.length + status.ordinal());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void moveCategoryIn(Collection<Long> transactionIds, Long toCategoryId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            int code = categories.encode(toCategoryId);
+            for (Long id : transactionIds) {
+                int row = Arrays.binarySearch(ids, 0, size, id);
+                if (row >= 0) {
+                    categoryCodes[row] = code;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void moveCategory(Long fromCategoryId, Long toCategoryId) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            Integer fromCode = categories.find(fromCategoryId);
+            if (fromCode == null) {
+                return;
+            }
+            int from = fromCode;
+            int to = categories.encode(toCategoryId);
+            for (int row = 0; row < size; row++) {
+                if (categoryCodes[row] == from) {
+                    categoryCodes[row] = to;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void afterSaved(Collection<Transaction> transactions) {
+        transactions.forEach(this::put);
+    }
+
+    @Override
+    public void afterDeleted(Collection<Long> ids) {
+        removeAll(ids);
+    }
+
+    @Override
+    public void afterStatusUpdated(Collection<Long> ids, TransactionStatus status) {
+        updateStatus(ids, status);
+    }
+
+    @Override
+    public void afterCategoryChanged(Collection<Long> ids, Long categoryId) {
+        moveCategoryIn(ids, categoryId);
+    }
+
+    @Override
+    public void afterCategoryMerged(Long fromCategoryId, Long toCategoryId) {
+        moveCategory(fromCategoryId, toCategoryId);
+    }
+
+    /**
+     * Число транзакций в снимке без учета удаленных.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size - deleted;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<TransactionAggregate> aggregate(Selection selection, LongFunction<User> userResolver,
+                                                 LongFunction<Category> categoryResolver) {
+        ensureLoaded();
+        GroupTable groups;
+        long[] userIds;
+        long[] categoryIds;
+        lock.readLock().lock();
+        try {
+            int userCount = users.size();
+            int categoryCount = categories.size();
+            groups = scanParallel((from, to) -> groupRange(from, to, selection, userCount, categoryCount),
+                GroupTable::merge);
+            userIds = users.values();
+            categoryIds = categories.values();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Сущности подставляются без блокировки: resolver может обращаться к базе
+        Map<Integer, User> resolvedUsers = new HashMap<>();
+        Map<Integer, Category> resolvedCategories = new HashMap<>();
+        List<TransactionAggregate> result = new ArrayList<>(groups.size);
+        for (int slot = 0; slot < groups.keys.length; slot++) {
+            long key = groups.keys[slot];
+            if (key == GroupTable.EMPTY) {
+                continue;
+            }
+            int userCode = (int) (key >>> 32);
+            int categoryCode = (int) (key >>> 8) & 0xFFFFFF;
+            int kind = (int) key & 0xFF;
+            User user = resolvedUsers.computeIfAbsent(userCode, code -> userResolver.apply(userIds[code]));
+            Category category = resolvedCategories.computeIfAbsent(categoryCode,
+                code -> categoryResolver.apply(categoryIds[code]));
+            if (user == null || category == null) {
+                continue;
+            }
+            TransactionAggregate aggregate = new TransactionAggregate(TYPES[kind / STATUSES.length],
+                selection.byStatus ? STATUSES[kind % STATUSES.length] : null,
+                MinorUnits.toBigDecimal(groups.units[slot]), groups.counts[slot]);
+            aggregate.setUser(user);
+            aggregate.setCategory(category);
+            result.add(aggregate);
+        }
+        return result;
+    }
+
+    // Ключ группы: номер пользователя (32 бита), номер категории (24 бита), тип и статус (8 бит).
+    // При небольшом числе сочетаний итоги диапазона копятся в массивах без хеширования
+    // и переносятся в таблицу один раз в конце
+    private GroupTable groupRange(int from, int to, Selection selection, int userCount, int categoryCount) {
+        long[] amounts = this.amounts;
+        int[] days = this.days;
+        int[] userCodes = this.userCodes;
+        int[] categoryCodes = this.categoryCodes;
+        byte[] kinds = this.kinds;
+        boolean dense = (long) userCount * categoryCount * KINDS <= DENSE_GROUP_LIMIT;
+        long[] denseUnits = dense ? new long[userCount * categoryCount * KINDS] : null;
+        long[] denseCounts = dense ? new long[denseUnits.length] : null;
+        GroupTable table = new GroupTable();
+        for (int row = from; row < to; row++) {
+            int kind = kinds[row];
+            int day = days[row];
+            if (kind == DELETED || day < selection.fromDay || day > selection.toDay) {
+                continue;
+            }
+            int type = kind / STATUSES.length;
+            if (selection.type >= 0 && type != selection.type) {
+                continue;
+            }
+            int groupKind = selection.byStatus ? kind : type * STATUSES.length;
+            if (dense) {
+                int slot = (userCodes[row] * categoryCount + categoryCodes[row]) * KINDS + groupKind;
+                denseUnits[slot] = MinorUnits.add(denseUnits[slot], amounts[row]);
+                denseCounts[slot]++;
+            } else {
+                table.add(groupKey(userCodes[row], categoryCodes[row], groupKind), amounts[row], 1);
+            }
+        }
+        if (dense) {
+            for (int slot = 0; slot < denseCounts.length; slot++) {
+                if (denseCounts[slot] > 0) {
+                    int pair = slot / KINDS;
+                    table.add(groupKey(pair / categoryCount, pair % categoryCount, slot % KINDS),
+                        denseUnits[slot], denseCounts[slot]);
+                }
+            }
+        }
+        return table;
+    }
+
+    private static long groupKey(int userCode, int categoryCode, int kind) {
+        return ((long) userCode << 32) | ((long) categoryCode << 8) | kind;
+    }
+
+    // Два прохода: сначала количество и сумма, затем сумма квадратов отклонений от среднего
+    private AmountStatistics[] statisticsByUserCode() {
+        long[] amounts = this.amounts;
+        int[] userCodes = this.userCodes;
+        byte[] kinds = this.kinds;
+        int userCount = users.size();
+        long[][] sums = scanParallel((from, to) -> {
+            long[] counts = new long[userCount];
+            long[] units = new long[userCount];
+            for (int row = from; row < to; row++) {
+                if (kinds[row] != DELETED) {
+                    counts[userCodes[row]]++;
+                    units[userCodes[row]] = MinorUnits.add(units[userCodes[row]], amounts[row]);
+                }
+            }
+            return new long[][] {counts, units};
+        }, (left, right) -> {
+            for (int code = 0; code < userCount; code++) {
+                left[0][code] += right[0][code];
+                left[1][code] = MinorUnits.add(left[1][code], right[1][code]);
+            }
+            return left;
+        });
+
+        double[] means = new double[userCount];
+        for (int code = 0; code < userCount; code++) {
+            means[code] = sums[0][code] > 0 ? MinorUnits.toDouble(sums[1][code]) / sums[0][code] : 0.0;
+        }
+        double[] deviations = scanParallel((from, to) -> {
+            double[] m2 = new double[userCount];
+            for (int row = from; row < to; row++) {
+                if (kinds[row] != DELETED) {
+                    double delta = MinorUnits.toDouble(amounts[row]) - means[userCodes[row]];
+                    m2[userCodes[row]] += delta * delta;
+                }
+            }
+            return m2;
+        }, (left, right) -> {
+            for (int code = 0; code < userCount; code++) {
+                left[code] += right[code];
+            }
+            return left;
+        });
+
+        AmountStatistics[] result = new AmountStatistics[userCount];
+        for (int code = 0; code < userCount; code++) {
+            result[code] = AmountStatistics.fromMoments(users.decode(code), sums[0][code], means[code], deviations[code]);
+        }
+        return result;
+    }
+
+    // Диапазоны не меньше MIN_TASK_ROWS и примерно по четыре на поток пула
+    private <T> T scanParallel(RangeScan<T> scan, BinaryOperator<T> merge) {
+        int leafRows = Math.max(MIN_TASK_ROWS, size / (pool.getParallelism() * 4) + 1);
+        return pool.invoke(new ScanTask<>(0, size, leafRows, scan, merge));
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            Long afterId = null;
+            List<TransactionFacts> chunk;
+            do {
+                Long from = afterId;
+                chunk = transactionManager.executeReadOnly(session ->
+                    transactionDao.findFactsAfterId(from, LOAD_CHUNK_SIZE));
+                for (TransactionFacts facts : chunk) {
+                    int row = insertRow(size);
+                    ids[row] = facts.getId();
+                    userCodes[row] = users.encode(facts.getUserId());
+                    categoryCodes[row] = categories.encode(facts.getCategoryId());
+                    days[row] = (int) facts.getDate().toLocalDate().toEpochDay();
+                    amounts[row] = MinorUnits.of(facts.getAmount());
+                    kinds[row] = kind(facts.getType(), facts.getStatus());
+                    afterId = facts.getId();
+                }
+            } while (chunk.size() == LOAD_CHUNK_SIZE);
+            loaded = true;
+            logger.info("Columnar snapshot loaded: {} transactions, {} users, {} categories in {} ms",
+                size, users.size(), categories.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Освобождает место под строку в позиции row; новые id обычно больше всех, и строка дописывается в конец
+    private int insertRow(int row) {
+        if (size == ids.length) {
+            int capacity = size + (size >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            userCodes = Arrays.copyOf(userCodes, capacity);
+            categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+            days = Arrays.copyOf(days, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+        }
+        if (row < size) {
+            int tail = size - row;
+            System.arraycopy(ids, row, ids, row + 1, tail);
+            System.arraycopy(userCodes, row, userCodes, row + 1, tail);
+            System.arraycopy(categoryCodes, row, categoryCodes, row + 1, tail);
+            System.arraycopy(days, row, days, row + 1, tail);
+            System.arraycopy(amounts, row, amounts, row + 1, tail);
+            System.arraycopy(kinds, row, kinds, row + 1, tail);
+        }
+        size++;
+        return row;
+    }
+
+    private void compact() {
+        int kept = 0;
+        for (int row = 0; row < size; row++) {
+            if (kinds[row] == DELETED) {
+                continue;
+            }
+            ids[kept] = ids[row];
+            userCodes[kept] = userCodes[row];
+            categoryCodes[kept] = categoryCodes[row];
+            days[kept] = days[row];
+            amounts[kept] = amounts[row];
+            kinds[kept] = kinds[row];
+            kept++;
+        }
+        size = kept;
+        deleted = 0;
+    }
+
+    // Первая строка с id больше заданного
+    private int rowAfter(long id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row >= 0 ? row + 1 : -row - 1;
+    }
+
+    private int nextLiveRow(int row) {
+        while (row < size && kinds[row] == DELETED) {
+            row++;
+        }
+        return row;
+    }
+
+    private static byte kind(TransactionType type, TransactionStatus status) {
+        return (byte) (type.ordinal() * STATUSES.length + status.ordinal());
+    }
+
+    // Условия отбора строк и признак группировки по статусу; type == -1 - любой тип
+    private static final class Selection {
+        private final int fromDay;
+        private final int toDay;
+        private final int type;
+        private final boolean byStatus;
+
+        private Selection(int fromDay, int toDay, int type, boolean byStatus) {
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.type = type;
+            this.byStatus = byStatus;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RangeScan<T> {
+        T scan(int from, int to);
+    }
+
+    // Делит строки пополам, пока диапазон больше leafRows; левая половина уходит другому потоку
+    private static final class ScanTask<T> extends RecursiveTask<T> {
+        // RecursiveTask сериализуем, но задачи сканирования не покидают пул и не сериализуются
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int leafRows;
+        private final RangeScan<T> scan;
+        private final BinaryOperator<T> merge;
+
+        private ScanTask(int from, int to, int leafRows, RangeScan<T> scan, BinaryOperator<T> merge) {
+            this.from = from;
+            this.to = to;
+            this.leafRows = leafRows;
+            this.scan = scan;
+            this.merge = merge;
+        }
+
+        @Override
+        protected T compute() {
+            if (to - from <= leafRows) {
+                return scan.scan(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask<T> left = new ScanTask<>(from, middle, leafRows, scan, merge);
+            left.fork();
+            T right = new ScanTask<>(middle, to, leafRows, scan, merge).compute();
+            return merge.apply(left.join(), right);
+        }
+    }
+
+    /**
+     * Таблица итогов групп с открытой адресацией по ключу long: без упаковки ключей и сумм в объекты.
+     */
+    private static final class GroupTable {
+        private static final long EMPTY = -1L;
+
+        private long[] keys;
+        private long[] units;
+        private long[] counts;
+        private int size;
+
+        private GroupTable() {
+            allocate(64);
+        }
+
+        private void add(long key, long amount, long count) {
+            int slot = slotOf(key);
+            if (keys[slot] == EMPTY) {
+                if ((size + 1) * 2 > keys.length) {
+                    grow();
+                    slot = slotOf(key);
+                }
+                keys[slot] = key;
+                size++;
+            }
+            units[slot] = MinorUnits.add(units[slot], amount);
+            counts[slot] += count;
+        }
+
+        private GroupTable merge(GroupTable other) {
+            for (int slot = 0; slot < other.keys.length; slot++) {
+                if (other.keys[slot] != EMPTY) {
+                    add(other.keys[slot], other.units[slot], other.counts[slot]);
+                }
+            }
+            return this;
+        }
+
+        private int slotOf(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldUnits = units;
+            long[] oldCounts = counts;
+            allocate(oldKeys.length * 2);
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != EMPTY) {
+                    int target = slotOf(oldKeys[slot]);
+                    keys[target] = oldKeys[slot];
+                    units[target] = oldUnits[slot];
+                    counts[target] = oldCounts[slot];
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            units = new long[capacity];
+            counts = new long[capacity];
+        }
+    }
+
+    /**
+     * Плотные номера для id пользователей и категорий в порядке первого появления.
+     */
+    private static final class Dictionary {
+        private final Map<Long, Integer> codes = new HashMap<>();
+        private long[] ids = new long[16];
+
+        private int encode(Long id) {
+            Integer code = codes.get(id);
+            if (code == null) {
+                code = codes.size();
+                if (code == ids.length) {
+                    ids = Arrays.copyOf(ids, code * 2);
+                }
+                ids[code] = id;
+                codes.put(id, code);
+            }
+            return code;
+        }
+
+        private Integer find(Long id) {
+            return codes.get(id);
+        }
+
+        private long decode(int code) {
+            return ids[code];
+        }
+
+        private long[] values() {
+            return Arrays.copyOf(ids, codes.size());
+        }
+
+        private int size() {
+            return codes.size();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.studentbudget.service.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Построчное чтение CSV-выписки. Первая строка - заголовок; колонки узнаются
+ * по названию на русском или английском, порядок колонок произвольный.
+ * Поля в кавычках могут содержать разделитель и удвоенные кавычки,
+ * но не перевод строки.
+ */
+class CsvStatementReader implements StatementReader {
+    private static final Map<String, String> COLUMN_ALIASES = Map.ofEntries(
+            Map.entry("date", "date"), Map.entry("дата", "date"),
+            Map.entry("type", "type"), Map.entry("тип", "type"),
+            Map.entry("category", "category"), Map.entry("категория", "category"),
+            Map.entry("amount", "amount"), Map.entry("сумма", "amount"),
+            Map.entry("description", "description"), Map.entry("описание", "description"));
+
+    private final BufferedReader reader;
+    private final char delimiter;
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+    private long lineNumber;
+    private int dateColumn = -1;
+    private int typeColumn = -1;
+    private int categoryColumn = -1;
+    private int amountColumn = -1;
+    private int descriptionColumn = -1;
+
+    CsvStatementReader(BufferedReader reader, char delimiter) throws IOException {
+        this.reader = reader;
+        this.delimiter = delimiter;
+        readHeader();
+    }
+
+    private void readHeader() throws IOException {
+        String line = nextNonBlankLine();
+        if (line == null) {
+            throw new IllegalArgumentException("CSV file is empty");
+        }
+        List<String> header = split(stripBom(line));
+        for (int i = 0; i < header.size(); i++) {
+            String column = COLUMN_ALIASES.get(header.get(i).trim().toLowerCase(Locale.ROOT));
+            if (column == null) {
+                continue;
+            }
+            switch (column) {
+                case "date" -> dateColumn = i;
+                case "type" -> typeColumn = i;
+                case "category" -> categoryColumn = i;
+                case "amount" -> amountColumn = i;
+                default -> descriptionColumn = i;
+            }
+        }
+        if (dateColumn < 0 || amountColumn < 0) {
+            throw new IllegalArgumentException("CSV header must contain date and amount columns: " + line);
+        }
+    }
+
+    @Override
+    public StatementRecord next() throws IOException {
+        String line = nextNonBlankLine();
+        if (line == null) {
+            return null;
+        }
+        List<String> values = split(line);
+        return new StatementRecord(lineNumber,
+                column(values, dateColumn),
+                column(values, typeColumn),
+                column(values, categoryColumn),
+                column(values, amountColumn),
+                column(values, descriptionColumn));
+    }
+
+    private String nextNonBlankLine() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            lineNumber++;
+        } while (line != null && line.isBlank());
+        return line;
+    }
+
+    private static String column(List<String> values, int index) {
+        if (index < 0 || index >= values.size()) {
+            return null;
+        }
+        return values.get(index).trim();
+    }
+
+    private static String stripBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == '﻿' ? line.substring(1) : line;
+    }
+
+    // Возвращает общий буфер полей, который перезаписывается следующим вызовом
+    private List<String> split(String line) {
+        fields.clear();
+        field.setLength(0);
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(ch);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,452 @@
+package com.studentbudget.service.impl;
+
+import com.studentbudget.dao.TransactionDao;
+import com.studentbudget.model.DescriptionWords;
+import com.studentbudget.model.Transaction;
+import com.studentbudget.model.TransactionDescription;
+import com.studentbudget.util.HibernateTransactionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс по описаниям транзакций в памяти процесса.
+ * Описание разбивается на слова (DescriptionWords), для каждого слова хранится
+ * отсортированный список id транзакций.
+ *
+ * Находит то же, что условие по описанию в SQL и TransactionFilter.toPredicate:
+ * транзакции, где каждое слово запроса входит подстрокой в какое-либо слово описания.
+ * Слова словаря, содержащие слово запроса, находятся по таблице триграмм словаря:
+ * кандидаты - слова с самой редкой триграммой запроса, из них остаются содержащие
+ * его целиком. Слово запроса короче триграммы проверяется по всему словарю, который
+ * на порядки меньше числа транзакций. Списки id найденных слов объединяются, а списки
+ * разных слов запроса пересекаются, начиная с самого короткого. Результат упорядочен
+ * по релевантности: полное совпадение слова весит больше, чем совпадение начала слова,
+ * а оно - больше, чем совпадение внутри слова.
+ *
+ * Индекс заполняется из DAO при первом поиске, далее поддерживается сервисами
+ * после фиксации изменений. Изменения, пришедшие до заполнения, пропускаются:
+ * заполнение все равно прочитает зафиксированные данные. Заполненность проверяется
+ * под блокировкой записи, поэтому изменение, зафиксированное во время заполнения,
+ * применяется после него; повторное применение ничего не меняет.
+ */
+public class DescriptionSearchIndex implements TransactionWriteListener {
+    private static final Logger logger = LoggerFactory.getLogger(DescriptionSearchIndex.class);
+    private static final int LOAD_CHUNK_SIZE = 5000;
+    private static final int GRAM_LENGTH = 3;
+    private static final int ID_BITS = 40;
+    private static final long ID_MASK = (1L << ID_BITS) - 1;
+    private static final int SCORE_SCALE = 1024;
+
+    private final TransactionDao transactionDao;
+    private final HibernateTransactionManager transactionManager;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Слово -> id транзакций, в описании которых оно встречается
+    private final NavigableMap<String, Postings> dictionary = new TreeMap<>();
+    // Триграмма -> слова словаря, в которые она входит
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+    // id транзакции -> владелец и слова описания; нужны для удаления и ранжирования
+    private final Map<Long, Document> documents = new HashMap<>();
+    // Владелец -> id его транзакций; фильтр по пользователю - еще одно пересечение
+    private final Map<Long, Postings> byUser = new HashMap<>();
+    private volatile boolean loaded;
+
+    public DescriptionSearchIndex(TransactionDao transactionDao, HibernateTransactionManager transactionManager) {
+        this.transactionDao = transactionDao;
+        this.transactionManager = transactionManager;
+    }
+
+    /**
+     * Ищет транзакции по словам запроса.
+     * @param userId владелец транзакций; null - все пользователи
+     * @return id найденных транзакций, сначала самые релевантные
+     */
+    public List<Long> search(String query, Long userId) {
+        String[] words = DescriptionWords.of(query);
+        if (words.length == 0) {
+            return new ArrayList<>();
+        }
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            long[] candidates = match(words, userId);
+            return rank(words, candidates, candidates.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Те же совпадения, что у search, без ранжирования.
+     * @param userId владелец транзакций; null - все пользователи
+     * @return id найденных транзакций по возрастанию
+     */
+    public long[] matchingIds(String query, Long userId) {
+        String[] words = DescriptionWords.of(query);
+        if (words.length == 0) {
+            return new long[0];
+        }
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return match(words, userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Каждое условие - отсортированный список id; пересечение начинается с самого короткого.
+    // Вызывается под блокировкой чтения
+    private long[] match(String[] words, Long userId) {
+        List<IdList> terms = new ArrayList<>(words.length + 1);
+        for (String word : words) {
+            terms.add(union(postingsContaining(word)));
+        }
+        if (userId != null) {
+            Postings own = byUser.get(userId);
+            terms.add(own != null ? new IdList(own.ids, own.size) : IdList.EMPTY);
+        }
+        terms.sort(Comparator.comparingInt(term -> term.size));
+
+        IdList first = terms.get(0);
+        long[] candidates = Arrays.copyOf(first.ids, first.size);
+        int count = first.size;
+        for (int i = 1; i < terms.size() && count > 0; i++) {
+            count = retainAll(candidates, count, terms.get(i));
+        }
+        return count == candidates.length ? candidates : Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * Добавляет или заменяет описание транзакции.
+     */
+    public void put(Long id, Long userId, String description) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            removeDocument(id);
+            addDocument(id, userId, description);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAll(Collection<Long> ids) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            for (Long id : ids) {
+                removeDocument(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void afterSaved(Collection<Transaction> transactions) {
+        for (Transaction transaction : transactions) {
+            put(transaction.getId(), transaction.getUser().getId(), transaction.getDescription());
+        }
+    }
+
+    @Override
+    public void afterDeleted(Collection<Long> ids) {
+        removeAll(ids);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            Long afterId = null;
+            List<TransactionDescription> chunk;
+            do {
+                Long from = afterId;
+                chunk = transactionManager.executeReadOnly(session ->
+                    transactionDao.findDescriptionsAfterId(from, LOAD_CHUNK_SIZE));
+                for (TransactionDescription description : chunk) {
+                    addDocument(description.getId(), description.getUserId(), description.getDescription());
+                    afterId = description.getId();
+                }
+            } while (chunk.size() == LOAD_CHUNK_SIZE);
+            loaded = true;
+            logger.info("Description index loaded: {} transactions, {} words in {} ms",
+                documents.size(), dictionary.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Списки id слов словаря, в которые word входит подстрокой
+    private List<Postings> postingsContaining(String word) {
+        List<Postings> found = new ArrayList<>();
+        if (word.length() < GRAM_LENGTH) {
+            dictionary.forEach((candidate, postings) -> {
+                if (candidate.contains(word)) {
+                    found.add(postings);
+                }
+            });
+            return found;
+        }
+        Set<String> rarest = null;
+        for (int i = 0; i + GRAM_LENGTH <= word.length(); i++) {
+            Set<String> words = trigrams.get(word.substring(i, i + GRAM_LENGTH));
+            if (words == null) {
+                return found;
+            }
+            if (rarest == null || words.size() < rarest.size()) {
+                rarest = words;
+            }
+        }
+        for (String candidate : rarest) {
+            if (candidate.contains(word)) {
+                found.add(dictionary.get(candidate));
+            }
+        }
+        return found;
+    }
+
+    private void addDocument(long id, Long userId, String description) {
+        String[] words = DescriptionWords.of(description);
+        for (int i = 0; i < words.length; i++) {
+            Map.Entry<String, Postings> entry = dictionary.ceilingEntry(words[i]);
+            if (entry != null && entry.getKey().equals(words[i])) {
+                // Документы ссылаются на строку из словаря, а не держат свою копию
+                words[i] = entry.getKey();
+                entry.getValue().add(id);
+            } else {
+                Postings postings = new Postings();
+                postings.add(id);
+                dictionary.put(words[i], postings);
+                for (int j = 0; j + GRAM_LENGTH <= words[i].length(); j++) {
+                    trigrams.computeIfAbsent(words[i].substring(j, j + GRAM_LENGTH), gram -> new HashSet<>()).add(words[i]);
+                }
+            }
+        }
+        long owner = userId != null ? userId : 0L;
+        documents.put(id, new Document(owner, words));
+        byUser.computeIfAbsent(owner, key -> new Postings()).add(id);
+    }
+
+    private void removeDocument(long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        Postings own = byUser.get(document.userId);
+        own.remove(id);
+        if (own.size == 0) {
+            byUser.remove(document.userId);
+        }
+        for (String word : document.words) {
+            Postings postings = dictionary.get(word);
+            if (postings != null) {
+                postings.remove(id);
+                if (postings.size == 0) {
+                    dictionary.remove(word);
+                    removeTrigrams(word);
+                }
+            }
+        }
+    }
+
+    private void removeTrigrams(String word) {
+        for (int i = 0; i + GRAM_LENGTH <= word.length(); i++) {
+            String gram = word.substring(i, i + GRAM_LENGTH);
+            Set<String> words = trigrams.get(gram);
+            words.remove(word);
+            if (words.isEmpty()) {
+                trigrams.remove(gram);
+            }
+        }
+    }
+
+    // Объединение списков всех слов, содержащих слово запроса
+    private static IdList union(Collection<Postings> postingsList) {
+        if (postingsList.isEmpty()) {
+            return IdList.EMPTY;
+        }
+        if (postingsList.size() == 1) {
+            Postings postings = postingsList.iterator().next();
+            return new IdList(postings.ids, postings.size);
+        }
+        int total = 0;
+        for (Postings postings : postingsList) {
+            total += postings.size;
+        }
+        long[] ids = new long[total];
+        int offset = 0;
+        for (Postings postings : postingsList) {
+            System.arraycopy(postings.ids, 0, ids, offset, postings.size);
+            offset += postings.size;
+        }
+        Arrays.sort(ids);
+        int size = 0;
+        for (int i = 0; i < total; i++) {
+            if (size == 0 || ids[size - 1] != ids[i]) {
+                ids[size++] = ids[i];
+            }
+        }
+        return new IdList(ids, size);
+    }
+
+    // Оставляет в candidates только id из term; длинный term просматривается двоичным поиском
+    private static int retainAll(long[] candidates, int count, IdList term) {
+        int kept = 0;
+        if (term.size > count * 8L) {
+            for (int i = 0; i < count; i++) {
+                if (Arrays.binarySearch(term.ids, 0, term.size, candidates[i]) >= 0) {
+                    candidates[kept++] = candidates[i];
+                }
+            }
+            return kept;
+        }
+        int j = 0;
+        for (int i = 0; i < count && j < term.size; i++) {
+            while (j < term.size && term.ids[j] < candidates[i]) {
+                j++;
+            }
+            if (j < term.size && term.ids[j] == candidates[i]) {
+                candidates[kept++] = candidates[i];
+            }
+        }
+        return kept;
+    }
+
+    // Релевантность и id упаковываются в один long: сортировка примитивов без упаковки в объекты.
+    // Предполагается id < 2^40 и не более нескольких тысяч слов в запросе
+    private List<Long> rank(String[] words, long[] candidates, int count) {
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            long score = Math.round(score(words, documents.get(candidates[i]).words) * SCORE_SCALE);
+            keys[i] = (score << ID_BITS) | candidates[i];
+        }
+        Arrays.sort(keys);
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = count - 1; i >= 0; i--) {
+            ids.add(keys[i] & ID_MASK);
+        }
+        return ids;
+    }
+
+    // Каждое слово запроса дает 1 за полное совпадение, долю длины за совпадение начала слова
+    // и половину доли за совпадение внутри слова
+    private static double score(String[] queryWords, String[] documentWords) {
+        double total = 0;
+        for (String queryWord : queryWords) {
+            double best = 0;
+            for (String word : documentWords) {
+                if (word.equals(queryWord)) {
+                    best = 1;
+                    break;
+                }
+                if (word.startsWith(queryWord)) {
+                    best = Math.max(best, (double) queryWord.length() / word.length());
+                } else if (word.contains(queryWord)) {
+                    best = Math.max(best, 0.5 * queryWord.length() / word.length());
+                }
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    // Отсортированный список id без копирования: ссылается на массив Postings или на результат объединения
+    private static final class IdList {
+        private static final IdList EMPTY = new IdList(new long[0], 0);
+
+        private final long[] ids;
+        private final int size;
+
+        private IdList(long[] ids, int size) {
+            this.ids = ids;
+            this.size = size;
+        }
+    }
+
+    private static final class Document {
+        private final long userId;
+        private final String[] words;
+
+        private Document(long userId, String[] words) {
+            this.userId = userId;
+            this.words = words;
+        }
+    }
+
+    /**
+     * Отсортированный список id без упаковки в Long.
+     * Новые транзакции обычно получают наибольший id и просто дописываются в конец.
+     */
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        private void add(long id) {
+            if (size == 0 || ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            ensureCapacity();
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        private void remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+        }
+    }
+}
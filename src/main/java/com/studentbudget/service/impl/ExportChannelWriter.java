@@ -0,0 +1,72 @@
+package com.studentbudget.service.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Построчная запись текста в канал через повторно используемые буферы.
+ * Строка собирается в общем StringBuilder, кодируется в UTF-8 прямо
+ * в байтовый буфер, который сбрасывается в канал по заполнении.
+ * Память не зависит от числа записанных строк.
+ */
+class ExportChannelWriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    // Непарные суррогаты в описаниях заменяются, а не обрывают выгрузку
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final StringBuilder line = new StringBuilder(256);
+
+    ExportChannelWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Очищает и возвращает буфер следующей строки.
+     */
+    StringBuilder startLine() {
+        line.setLength(0);
+        return line;
+    }
+
+    /**
+     * Кодирует собранную строку с переводом строки в байтовый буфер.
+     */
+    void endLine() throws IOException {
+        line.append('\n');
+        CharBuffer chars = CharBuffer.wrap(line);
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                drain();
+            } else {
+                break;
+            }
+        }
+        encoder.reset();
+    }
+
+    /**
+     * Записывает накопленные байты в канал.
+     */
+    void flush() throws IOException {
+        drain();
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
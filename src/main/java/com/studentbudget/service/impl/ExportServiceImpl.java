@@ -0,0 +1,176 @@
+package com.studentbudget.service.impl;
+
+import com.studentbudget.dao.TransactionDao;
+import com.studentbudget.model.ExportFormat;
+import com.studentbudget.model.Transaction;
+import com.studentbudget.model.TransactionFilter;
+import com.studentbudget.model.TransactionSortKey;
+import com.studentbudget.model.UserRole;
+import com.studentbudget.service.AuthService;
+import com.studentbudget.service.ExportService;
+import com.studentbudget.util.HibernateTransactionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Выгрузка транзакций в CSV или JSON Lines с постоянным расходом памяти:
+ * строки читаются из DAO потоком и сразу пишутся в канал, список транзакций
+ * целиком не строится. CSV совместим с импортом выписок.
+ */
+public class ExportServiceImpl implements ExportService {
+    private static final Logger logger = LoggerFactory.getLogger(ExportServiceImpl.class);
+    private static final String CSV_HEADER = "date,type,category,amount,description,status,user";
+
+    private final TransactionDao transactionDao;
+    private final HibernateTransactionManager transactionManager;
+    private final AuthService authService;
+
+    public ExportServiceImpl(TransactionDao transactionDao, HibernateTransactionManager transactionManager,
+                             AuthService authService) {
+        this.transactionDao = transactionDao;
+        this.transactionManager = transactionManager;
+        this.authService = authService;
+    }
+
+    @Override
+    public long exportTransactions(TransactionFilter filter, ExportFormat format, Path target) {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return export(filter, format, channel);
+        } catch (IOException e) {
+            logger.error("Failed to open export file {}", target, e);
+            throw new IllegalStateException("Не удалось записать файл экспорта: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public long exportTransactions(TransactionFilter filter, ExportFormat format, OutputStream output) {
+        // Поток не закрывается: им владеет вызывающий код
+        return export(filter, format, Channels.newChannel(output));
+    }
+
+    private long export(TransactionFilter filter, ExportFormat format, WritableByteChannel channel) {
+        logger.debug("Exporting transactions as {}: filter={}", format, filter);
+        TransactionFilter scoped = new TransactionFilter(filter);
+        if (authService.getCurrentUser().getRole() != UserRole.ADMIN) {
+            scoped.setUser(authService.getCurrentUser());
+        }
+
+        ExportChannelWriter writer = new ExportChannelWriter(channel);
+        try {
+            if (format == ExportFormat.CSV) {
+                writer.startLine().append(CSV_HEADER);
+                writer.endLine();
+            }
+            long count = transactionManager.executeReadOnly(session ->
+                transactionDao.forEachMatching(scoped, TransactionSortKey.DATE_ASC, transaction -> {
+                    StringBuilder line = writer.startLine();
+                    if (format == ExportFormat.CSV) {
+                        appendCsv(line, transaction);
+                    } else {
+                        appendJson(line, transaction);
+                    }
+                    try {
+                        writer.endLine();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            writer.flush();
+            logger.info("Exported {} transactions as {}", count, format);
+            return count;
+        } catch (IOException | UncheckedIOException e) {
+            logger.error("Failed to write export", e);
+            throw new IllegalStateException("Не удалось записать файл экспорта: " + e.getMessage(), e);
+        }
+    }
+
+    private static void appendCsv(StringBuilder line, Transaction transaction) {
+        line.append(transaction.getDate()).append(',')
+            .append(transaction.getType()).append(',');
+        appendCsvField(line, transaction.getCategory().getName());
+        line.append(',').append(transaction.getAmount().toPlainString()).append(',');
+        appendCsvField(line, transaction.getDescription());
+        line.append(',').append(transaction.getStatus()).append(',');
+        appendCsvField(line, transaction.getUser().getUsername());
+    }
+
+    private static void appendCsvField(StringBuilder line, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char ch = value.charAt(i);
+            quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            // Импорт читает выписку построчно, поэтому переводы строк заменяются пробелами
+            if (ch == '\n' || ch == '\r') {
+                line.append(' ');
+            } else {
+                if (ch == '"') {
+                    line.append('"');
+                }
+                line.append(ch);
+            }
+        }
+        line.append('"');
+    }
+
+    private static void appendJson(StringBuilder line, Transaction transaction) {
+        line.append("{\"id\":").append(transaction.getId())
+            .append(",\"date\":\"").append(transaction.getDate()).append('"')
+            .append(",\"type\":\"").append(transaction.getType()).append('"')
+            .append(",\"category\":");
+        appendJsonString(line, transaction.getCategory().getName());
+        line.append(",\"amount\":").append(transaction.getAmount().toPlainString())
+            .append(",\"description\":");
+        appendJsonString(line, transaction.getDescription());
+        line.append(",\"status\":\"").append(transaction.getStatus()).append('"')
+            .append(",\"user\":");
+        appendJsonString(line, transaction.getUser().getUsername());
+        line.append('}');
+    }
+
+    private static void appendJsonString(StringBuilder line, String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (ch < 0x20) {
+                        line.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        line.append(ch);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,312 @@
+package com.studentbudget.service.impl;
+
+import com.studentbudget.dao.CategoryDao;
+import com.studentbudget.dao.TransactionDao;
+import com.studentbudget.model.Category;
+import com.studentbudget.model.ImportError;
+import com.studentbudget.model.ImportFormat;
+import com.studentbudget.model.ImportOptions;
+import com.studentbudget.model.ImportResult;
+import com.studentbudget.model.Transaction;
+import com.studentbudget.model.TransactionSnapshot;
+import com.studentbudget.model.TransactionStatus;
+import com.studentbudget.model.TransactionType;
+import com.studentbudget.model.User;
+import com.studentbudget.model.UserRole;
+import com.studentbudget.service.AuthService;
+import com.studentbudget.service.ImportProgressListener;
+import com.studentbudget.service.ImportService;
+import com.studentbudget.service.TransactionService;
+import com.studentbudget.util.HibernateTransactionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Импорт выписок пакетами. Файл читается потоково, каждый пакет проверяется
+ * параллельно, а затем записывается одной транзакцией БД вместе с обновлением
+ * свертки балансов и бюджетов. Ошибка записи откатывает только свой пакет: его строки
+ * попадают в ошибки, импорт продолжается со следующего пакета.
+ */
+public class ImportServiceImpl implements ImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ImportServiceImpl.class);
+    private static final int DESCRIPTION_MAX_LENGTH = 255;
+
+    private final TransactionDao transactionDao;
+    private final CategoryDao categoryDao;
+    // Свертка, бюджеты, индекс, кэш и снимок обновляются после записи каждого пакета
+    private final List<TransactionWriteListener> writeListeners;
+    private final boolean tracksChanges;
+    private final TransactionService transactionService;
+    private final HibernateTransactionManager transactionManager;
+    private final AuthService authService;
+
+    public ImportServiceImpl(TransactionDao transactionDao, CategoryDao categoryDao,
+                             List<TransactionWriteListener> writeListeners, TransactionService transactionService,
+                             HibernateTransactionManager transactionManager, AuthService authService) {
+        this.transactionDao = transactionDao;
+        this.categoryDao = categoryDao;
+        this.writeListeners = List.copyOf(writeListeners);
+        this.tracksChanges = writeListeners.stream().anyMatch(TransactionWriteListener::tracksChanges);
+        this.transactionService = transactionService;
+        this.transactionManager = transactionManager;
+        this.authService = authService;
+    }
+
+    @Override
+    public ImportResult importTransactions(InputStream input, ImportOptions options, ImportProgressListener listener) {
+        if (options.getBatchSize() <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + options.getBatchSize());
+        }
+        User currentUser = authService.getCurrentUser();
+        User owner = options.getUser() != null ? options.getUser() : currentUser;
+        if (currentUser.getRole() != UserRole.ADMIN && !currentUser.getId().equals(owner.getId())) {
+            throw new SecurityException("Недостаточно прав для импорта транзакций другого пользователя");
+        }
+        logger.info("Importing {} statement for user {} in batches of {}",
+                options.getFormat(), owner.getUsername(), options.getBatchSize());
+
+        RowValidator validator = new RowValidator(owner, loadCategories(), options,
+                transactionService.getApprovalThreshold());
+        ImportResult result = new ImportResult();
+        List<StatementRecord> batch = new ArrayList<>(options.getBatchSize());
+        try (StatementReader reader = openReader(input, options)) {
+            StatementRecord record;
+            while ((record = reader.next()) != null) {
+                batch.add(record);
+                if (batch.size() == options.getBatchSize()) {
+                    importBatch(batch, validator, result, listener);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                importBatch(batch, validator, result, listener);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to read import file", e);
+            throw new IllegalStateException("Не удалось прочитать файл импорта: " + e.getMessage(), e);
+        }
+        logger.info("Import finished: {}", result);
+        return result;
+    }
+
+    // Категории читаются один раз на весь импорт
+    private Map<String, Category> loadCategories() {
+        List<Category> categories = transactionManager.executeReadOnly(session -> categoryDao.findAll());
+        Map<String, Category> byName = new HashMap<>();
+        for (Category category : categories) {
+            byName.put(normalizeName(category.getName()), category);
+        }
+        return byName;
+    }
+
+    private static StatementReader openReader(InputStream input, ImportOptions options) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        if (options.getFormat() == ImportFormat.OFX) {
+            return new OfxStatementReader(reader);
+        }
+        return new CsvStatementReader(reader, options.getDelimiter());
+    }
+
+    private void importBatch(List<StatementRecord> batch, RowValidator validator, ImportResult result,
+                             ImportProgressListener listener) {
+        // Проверка не обращается к БД, поэтому строки пакета проверяются параллельно
+        List<ValidatedRow> rows = batch.parallelStream()
+                .map(validator::validate)
+                .collect(Collectors.toList());
+
+        List<Transaction> valid = new ArrayList<>(rows.size());
+        List<Long> validRecordNumbers = new ArrayList<>(rows.size());
+        for (ValidatedRow row : rows) {
+            if (row.error != null) {
+                result.addError(new ImportError(row.recordNumber, row.error));
+            } else {
+                valid.add(row.transaction);
+                validRecordNumbers.add(row.recordNumber);
+            }
+        }
+
+        if (!valid.isEmpty()) {
+            try {
+                transactionManager.executeInTransactionWithoutResult(session -> {
+                    transactionDao.saveAll(valid);
+                    if (tracksChanges) {
+                        List<TransactionSnapshot> added = valid.stream()
+                                .map(TransactionSnapshot::of)
+                                .collect(Collectors.toList());
+                        writeListeners.forEach(writeListener -> writeListener.onChanges(List.of(), added));
+                    }
+                });
+                result.addImported(valid.size());
+                Long ownerId = validator.owner.getId();
+                writeListeners.forEach(writeListener -> writeListener.afterAggregatesChanged(ownerId));
+                writeListeners.forEach(writeListener -> writeListener.afterSaved(valid));
+            } catch (RuntimeException e) {
+                logger.warn("Import batch starting at record {} failed", validRecordNumbers.get(0), e);
+                String message = "Пакет не записан: " + e.getMessage();
+                for (Long recordNumber : validRecordNumbers) {
+                    result.addError(new ImportError(recordNumber, message));
+                }
+            }
+        }
+
+        if (listener != null) {
+            listener.onProgress(result.getProcessedRows(), result.getImportedRows(), result.getFailedRows());
+        }
+    }
+
+    private static String normalizeName(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class ValidatedRow {
+        private final long recordNumber;
+        private final Transaction transaction;
+        private final String error;
+
+        private ValidatedRow(long recordNumber, Transaction transaction, String error) {
+            this.recordNumber = recordNumber;
+            this.transaction = transaction;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Превращает сырую запись в транзакцию. Не изменяет общего состояния
+     * и может вызываться из нескольких потоков.
+     */
+    private final class RowValidator {
+        private final User owner;
+        private final Map<String, Category> categories;
+        private final Category defaultCategory;
+        private final DateTimeFormatter customDateFormat;
+        private final BigDecimal approvalThreshold;
+
+        private RowValidator(User owner, Map<String, Category> categories, ImportOptions options,
+                             BigDecimal approvalThreshold) {
+            this.owner = owner;
+            this.categories = categories;
+            this.defaultCategory = options.getDefaultCategory();
+            this.customDateFormat = options.getDatePattern() != null
+                    ? DateTimeFormatter.ofPattern(options.getDatePattern())
+                    : null;
+            this.approvalThreshold = approvalThreshold;
+        }
+
+        private ValidatedRow validate(StatementRecord record) {
+            try {
+                return new ValidatedRow(record.getRecordNumber(), toTransaction(record), null);
+            } catch (IllegalArgumentException e) {
+                return new ValidatedRow(record.getRecordNumber(), null, e.getMessage());
+            }
+        }
+
+        private Transaction toTransaction(StatementRecord record) {
+            LocalDateTime date = parseDate(record.getDate());
+            BigDecimal signedAmount = parseAmount(record.getAmount());
+            TransactionType type = parseType(record.getType(), signedAmount);
+            Category category = resolveCategory(record.getCategory());
+
+            Transaction transaction = new Transaction(signedAmount.abs(), type, category,
+                    truncate(record.getDescription()), owner);
+            transaction.setDate(date);
+            if (!transactionService.checkTransactionLimit(transaction)) {
+                throw new IllegalArgumentException("Сумма превышает лимит пользователя");
+            }
+            // Те же правила, что при ручном вводе: крупные суммы ждут утверждения
+            transaction.setStatus(transaction.getAmount().compareTo(approvalThreshold) > 0
+                    ? TransactionStatus.PENDING
+                    : TransactionStatus.ACTIVE);
+            return transaction;
+        }
+
+        private LocalDateTime parseDate(String value) {
+            if (value == null || value.isEmpty()) {
+                throw new IllegalArgumentException("Не указана дата");
+            }
+            try {
+                if (customDateFormat != null) {
+                    return LocalDate.parse(value, customDateFormat).atStartOfDay();
+                }
+                return value.length() > 10
+                        ? LocalDateTime.parse(value.replace(' ', 'T'))
+                        : LocalDate.parse(value).atStartOfDay();
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Неверная дата: " + value);
+            }
+        }
+
+        // Допускаются пробелы между разрядами и запятая как десятичный разделитель
+        private BigDecimal parseAmount(String value) {
+            if (value == null || value.isEmpty()) {
+                throw new IllegalArgumentException("Не указана сумма");
+            }
+            String normalized = value.replace(" ", "").replace("\u00A0", "");
+            if (normalized.indexOf(',') >= 0 && normalized.indexOf('.') < 0) {
+                normalized = normalized.replace(',', '.');
+            }
+            BigDecimal amount;
+            try {
+                amount = new BigDecimal(normalized);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Неверная сумма: " + value);
+            }
+            if (amount.signum() == 0) {
+                throw new IllegalArgumentException("Сумма должна быть отличной от нуля");
+            }
+            return amount;
+        }
+
+        // Без явного типа знак суммы определяет доход или расход
+        private TransactionType parseType(String value, BigDecimal signedAmount) {
+            if (value == null || value.isEmpty()) {
+                return signedAmount.signum() < 0 ? TransactionType.EXPENSE : TransactionType.INCOME;
+            }
+            switch (value.trim().toUpperCase(Locale.ROOT)) {
+                case "INCOME", "ДОХОД", "CREDIT", "DEP", "DIRECTDEP", "INT", "DIV":
+                    return TransactionType.INCOME;
+                case "EXPENSE", "РАСХОД", "DEBIT", "PAYMENT", "POS", "ATM", "FEE", "SRVCHG", "CHECK":
+                    return TransactionType.EXPENSE;
+                default:
+                    throw new IllegalArgumentException("Неизвестный тип операции: " + value);
+            }
+        }
+
+        private Category resolveCategory(String name) {
+            if (name == null || name.isEmpty()) {
+                if (defaultCategory == null) {
+                    throw new IllegalArgumentException("Не указана категория");
+                }
+                return defaultCategory;
+            }
+            Category category = categories.get(normalizeName(name));
+            if (category == null) {
+                throw new IllegalArgumentException("Неизвестная категория: " + name);
+            }
+            return category;
+        }
+
+        private String truncate(String description) {
+            if (description == null || description.length() <= DESCRIPTION_MAX_LENGTH) {
+                return description;
+            }
+            return description.substring(0, DESCRIPTION_MAX_LENGTH);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.studentbudget.service.impl;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Locale;
+import java.util.Scanner;
+
+/**
+ * Потоковое чтение банковской выписки OFX (SGML-версии 1.x и XML-версии 2.x).
+ * Файл разбирается по тегам, из каждого блока STMTTRN берутся TRNTYPE,
+ * DTPOSTED, TRNAMT и NAME/MEMO. Категорий в OFX нет, поле категории остается пустым.
+ */
+class OfxStatementReader implements StatementReader {
+    private final Scanner scanner;
+    private long transactionNumber;
+
+    OfxStatementReader(Reader reader) {
+        this.scanner = new Scanner(reader).useDelimiter("<");
+    }
+
+    @Override
+    public StatementRecord next() throws IOException {
+        String type = null;
+        String date = null;
+        String amount = null;
+        String name = null;
+        String memo = null;
+        boolean inTransaction = false;
+        while (scanner.hasNext()) {
+            String token = scanner.next();
+            int end = token.indexOf('>');
+            if (end < 0) {
+                continue;
+            }
+            String tag = token.substring(0, end).trim().toUpperCase(Locale.ROOT);
+            String value = token.substring(end + 1).trim();
+            if (tag.equals("STMTTRN")) {
+                inTransaction = true;
+                type = date = amount = name = memo = null;
+            } else if (tag.equals("/STMTTRN") && inTransaction) {
+                transactionNumber++;
+                String description = name != null ? name : memo;
+                if (name != null && memo != null && !memo.equals(name)) {
+                    description = name + " " + memo;
+                }
+                return new StatementRecord(transactionNumber, toIsoDate(date), type, null, amount, description);
+            } else if (inTransaction) {
+                switch (tag) {
+                    case "TRNTYPE" -> type = value;
+                    case "DTPOSTED" -> date = value;
+                    case "TRNAMT" -> amount = value;
+                    case "NAME" -> name = value;
+                    case "MEMO" -> memo = value;
+                    default -> {
+                    }
+                }
+            }
+        }
+        IOException failure = scanner.ioException();
+        if (failure != null) {
+            throw failure;
+        }
+        return null;
+    }
+
+    // DTPOSTED имеет вид YYYYMMDD[HHMMSS[.XXX][TZ]]; время суток для бюджета не важно
+    private static String toIsoDate(String value) {
+        if (value == null || value.length() < 8) {
+            return value;
+        }
+        return value.substring(0, 4) + "-" + value.substring(4, 6) + "-" + value.substring(6, 8);
+    }
+
+    @Override
+    public void close() {
+        scanner.close();
+    }
+}
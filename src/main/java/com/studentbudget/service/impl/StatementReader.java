@@ -0,0 +1,14 @@
+package com.studentbudget.service.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Потоковое чтение выписки: файл не загружается в память целиком.
+ */
+interface StatementReader extends Closeable {
+    /**
+     * @return следующая запись или null в конце файла
+     */
+    StatementRecord next() throws IOException;
+}
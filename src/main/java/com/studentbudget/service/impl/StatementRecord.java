@@ -0,0 +1,46 @@
+package com.studentbudget.service.impl;
+
+/**
+ * Сырая запись выписки до проверки: поля в том виде, в каком они прочитаны из файла.
+ */
+class StatementRecord {
+    private final long recordNumber;
+    private final String date;
+    private final String type;
+    private final String category;
+    private final String amount;
+    private final String description;
+
+    StatementRecord(long recordNumber, String date, String type, String category, String amount, String description) {
+        this.recordNumber = recordNumber;
+        this.date = date;
+        this.type = type;
+        this.category = category;
+        this.amount = amount;
+        this.description = description;
+    }
+
+    long getRecordNumber() {
+        return recordNumber;
+    }
+
+    String getDate() {
+        return date;
+    }
+
+    String getType() {
+        return type;
+    }
+
+    String getCategory() {
+        return category;
+    }
+
+    String getAmount() {
+        return amount;
+    }
+
+    String getDescription() {
+        return description;
+    }
+}
@@ -1,30 +1,64 @@
 package com.studentbudget.service.impl;
 
+import com.studentbudget.dao.BalanceRollupDao;
+import com.studentbudget.dao.TransactionAggregateDao;
 import com.studentbudget.dao.TransactionDao;
+import com.studentbudget.model.AnomalyMode;
+import com.studentbudget.model.DashboardSummary;
+import com.studentbudget.model.MinorUnits;
+import com.studentbudget.model.Page;
+import com.studentbudget.model.RollupDrift;
+import com.studentbudget.model.SystemStatistics;
 import com.studentbudget.model.Transaction;
+import com.studentbudget.model.TransactionAggregate;
+import com.studentbudget.model.TransactionFilter;
+import com.studentbudget.model.TransactionRow;
+import com.studentbudget.model.TransactionSnapshot;
+import com.studentbudget.model.TransactionSortKey;
 import com.studentbudget.model.TransactionType;
+import com.studentbudget.model.TrendGranularity;
+import com.studentbudget.model.TrendPoint;
 import com.studentbudget.model.Category;
 import com.studentbudget.model.TransactionStatus;
 import com.studentbudget.model.User;
+import com.studentbudget.model.UserStatistics;
 import com.studentbudget.model.UserRole;
 import com.studentbudget.service.TransactionService;
 import com.studentbudget.service.AuthService;
 import com.studentbudget.util.HibernateTransactionManager;
+import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class TransactionServiceImpl implements TransactionService {
     private static final Logger logger = LoggerFactory.getLogger(TransactionServiceImpl.class);
+    private static final int ANOMALY_PAGE_SIZE = 500;
+    private static final int SEARCH_LOAD_CHUNK_SIZE = 1000;
     private final TransactionDao transactionDao;
+    // Свертка сумм; null - агрегаты считаются напрямую по таблице транзакций
+    private final BalanceRollupDao balanceRollupDao;
+    // Индекс описаний; null - поиск выполняется запросом к DAO
+    private final DescriptionSearchIndex searchIndex;
+    // Кэш агрегатов; null - агрегаты считаются при каждом вызове
+    private final AggregateResultCache resultCache;
+    // Колоночный снимок для аналитики администратора; null - аналитика считается по агрегатам DAO
+    private final ColumnarTransactionSnapshot snapshot;
+    // Производные данные, которые обновляются при записи транзакций
+    private final List<TransactionWriteListener> writeListeners;
+    private final boolean tracksChanges;
     private final HibernateTransactionManager transactionManager;
     private final AuthService authService;
+    private final AnomalyDetector anomalyDetector;
 
     // Хранение лимитов пользователей: User -> TransactionType -> Limit
     private final Map<Long, Map<TransactionType, BigDecimal>> userLimits = new ConcurrentHashMap<>();
@@ -32,10 +66,20 @@ public class TransactionServiceImpl implements TransactionService {
     // Порог для обязательного утверждения транзакций
     private BigDecimal approvalThreshold = BigDecimal.valueOf(10000);
 
-    public TransactionServiceImpl(TransactionDao transactionDao, HibernateTransactionManager transactionManager, AuthService authService) {
+    public TransactionServiceImpl(TransactionDao transactionDao, BalanceRollupDao balanceRollupDao,
+                                  DescriptionSearchIndex searchIndex, AggregateResultCache resultCache,
+                                  ColumnarTransactionSnapshot snapshot, List<TransactionWriteListener> writeListeners,
+                                  HibernateTransactionManager transactionManager, AuthService authService) {
         this.transactionDao = transactionDao;
+        this.balanceRollupDao = balanceRollupDao;
+        this.searchIndex = searchIndex;
+        this.resultCache = resultCache;
+        this.snapshot = snapshot;
+        this.writeListeners = List.copyOf(writeListeners);
+        this.tracksChanges = writeListeners.stream().anyMatch(TransactionWriteListener::tracksChanges);
         this.transactionManager = transactionManager;
         this.authService = authService;
+        this.anomalyDetector = new AnomalyDetector(transactionDao, snapshot);
     }
 
     @Override
@@ -65,13 +109,22 @@ public class TransactionServiceImpl implements TransactionService {
             transaction.setStatus(TransactionStatus.ACTIVE);
         }
         
-        return transactionManager.executeInTransaction(session -> transactionDao.save(transaction));
+        Transaction created = transactionManager.executeInTransaction(session -> {
+            Transaction saved = transactionDao.save(transaction);
+            recordChange(null, snapshot(saved));
+            return saved;
+        });
+        invalidateAggregates(created.getUser());
+        publishSaved(created);
+        return created;
     }
 
     @Override
     public void updateTransaction(Transaction transaction) {
         logger.debug("Updating transaction with id {}: {}", transaction.getId(), transaction);
-        transactionManager.executeInTransactionWithoutResult(session -> {
+        // Владелец мог смениться: устаревают агрегаты и прежнего, и нового
+        List<User> previousOwner = new ArrayList<>(1);
+        Transaction updated = transactionManager.executeInTransaction(session -> {
             Transaction existing = transactionDao.findById(transaction.getId())
                 .orElseThrow(() -> new IllegalArgumentException("Transaction not found with id: " + transaction.getId()));
             
@@ -79,14 +132,21 @@ public class TransactionServiceImpl implements TransactionService {
                 throw new SecurityException("Недостаточно прав для редактирования этой транзакции");
             }
             
-            transactionDao.update(transaction);
+            TransactionSnapshot before = snapshot(existing);
+            previousOwner.add(existing.getUser());
+            Transaction merged = transactionDao.update(transaction);
+            recordChange(before, snapshot(merged));
+            return merged;
         });
+        previousOwner.forEach(this::invalidateAggregates);
+        invalidateAggregates(updated.getUser());
+        publishSaved(updated);
     }
 
     @Override
     public void deleteTransaction(Long id) {
         logger.debug("Deleting transaction with id: {}", id);
-        transactionManager.executeInTransactionWithoutResult(session -> {
+        User owner = transactionManager.executeInTransaction(session -> {
             Transaction existing = transactionDao.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Transaction not found with id: " + id));
             
@@ -95,13 +155,17 @@ public class TransactionServiceImpl implements TransactionService {
             }
             
             transactionDao.deleteById(id);
+            recordChange(snapshot(existing), null);
+            return existing.getUser();
         });
+        invalidateAggregates(owner);
+        publishDeleted(List.of(id));
     }
 
     @Override
     public Transaction getTransactionById(Long id) {
         logger.debug("Fetching transaction with id: {}", id);
-        return transactionManager.executeInTransaction(session -> {
+        return transactionManager.executeReadOnly(session -> {
             Transaction transaction = transactionDao.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Transaction not found with id: " + id));
             
@@ -123,44 +187,31 @@ public class TransactionServiceImpl implements TransactionService {
     public List<Transaction> getCurrentUserTransactions() {
         logger.debug("Fetching current user transactions");
         User currentUser = authService.getCurrentUser();
-        return transactionManager.executeInTransaction(session -> 
-            transactionDao.findAll().stream()
-                .filter(t -> t.getUser().getId().equals(currentUser.getId()))
-                .collect(Collectors.toList())
-        );
+        return transactionManager.executeReadOnly(session -> transactionDao.findByUser(currentUser));
     }
 
     @Override
     public List<Transaction> getCurrentUserTransactionsByType(TransactionType type) {
         logger.debug("Fetching current user transactions by type: {}", type);
         User currentUser = authService.getCurrentUser();
-        return transactionManager.executeInTransaction(session -> 
-            transactionDao.findByType(type).stream()
-                .filter(t -> t.getUser().getId().equals(currentUser.getId()))
-                .collect(Collectors.toList())
-        );
+        return transactionManager.executeReadOnly(session -> 
+            transactionDao.findByUserAndType(currentUser, type));
     }
 
     @Override
     public List<Transaction> getCurrentUserTransactionsByCategory(Category category) {
         logger.debug("Fetching current user transactions by category: {}", category.getName());
         User currentUser = authService.getCurrentUser();
-        return transactionManager.executeInTransaction(session -> 
-            transactionDao.findByCategory(category).stream()
-                .filter(t -> t.getUser().getId().equals(currentUser.getId()))
-                .collect(Collectors.toList())
-        );
+        return transactionManager.executeReadOnly(session -> 
+            transactionDao.findByUserAndCategory(currentUser, category));
     }
 
     @Override
     public List<Transaction> getCurrentUserTransactionsByDateRange(LocalDateTime start, LocalDateTime end) {
         logger.debug("Fetching current user transactions between {} and {}", start, end);
         User currentUser = authService.getCurrentUser();
-        return transactionManager.executeInTransaction(session -> 
-            transactionDao.findByDateRange(start, end).stream()
-                .filter(t -> t.getUser().getId().equals(currentUser.getId()))
-                .collect(Collectors.toList())
-        );
+        return transactionManager.executeReadOnly(session -> 
+            transactionDao.findByUserAndDateRange(currentUser, start, end));
     }
 
     @Override
@@ -174,11 +225,8 @@ public class TransactionServiceImpl implements TransactionService {
     public List<Transaction> getCurrentUserTransactionsByStatus(String status) {
         logger.debug("Fetching current user transactions by status: {}", status);
         User currentUser = authService.getCurrentUser();
-        return transactionManager.executeInTransaction(session -> 
-            transactionDao.findByStatus(status).stream()
-                .filter(t -> t.getUser().getId().equals(currentUser.getId()))
-                .collect(Collectors.toList())
-        );
+        return transactionManager.executeReadOnly(session -> 
+            transactionDao.findByUserAndStatus(currentUser, status));
     }
 
     @Override
@@ -187,7 +235,7 @@ public class TransactionServiceImpl implements TransactionService {
         if (!isAdmin()) {
             throw new SecurityException("Только администратор может просматривать все транзакции");
         }
-        return transactionManager.executeInTransaction(session -> transactionDao.findAll());
+        return transactionManager.executeReadOnly(session -> transactionDao.findAll());
     }
 
     @Override
@@ -196,11 +244,7 @@ public class TransactionServiceImpl implements TransactionService {
         if (!isAdmin()) {
             throw new SecurityException("Только администратор может просматривать транзакции других пользователей");
         }
-        return transactionManager.executeInTransaction(session -> 
-            transactionDao.findAll().stream()
-                .filter(t -> t.getUser().getId().equals(user.getId()))
-                .collect(Collectors.toList())
-        );
+        return transactionManager.executeReadOnly(session -> transactionDao.findByUser(user));
     }
 
     @Override
@@ -209,11 +253,8 @@ public class TransactionServiceImpl implements TransactionService {
         if (!isAdmin()) {
             throw new SecurityException("Только администратор может просматривать транзакции других пользователей");
         }
-        return transactionManager.executeInTransaction(session -> 
-            transactionDao.findByType(type).stream()
-                .filter(t -> t.getUser().getId().equals(user.getId()))
-                .collect(Collectors.toList())
-        );
+        return transactionManager.executeReadOnly(session -> 
+            transactionDao.findByUserAndType(user, type));
     }
 
     @Override
@@ -222,11 +263,8 @@ public class TransactionServiceImpl implements TransactionService {
         if (!isAdmin()) {
             throw new SecurityException("Только администратор может просматривать транзакции других пользователей");
         }
-        return transactionManager.executeInTransaction(session -> 
-            transactionDao.findByCategory(category).stream()
-                .filter(t -> t.getUser().getId().equals(user.getId()))
-                .collect(Collectors.toList())
-        );
+        return transactionManager.executeReadOnly(session -> 
+            transactionDao.findByUserAndCategory(user, category));
     }
 
     @Override
@@ -235,47 +273,88 @@ public class TransactionServiceImpl implements TransactionService {
         if (!isAdmin()) {
             throw new SecurityException("Только администратор может просматривать транзакции других пользователей");
         }
-        return transactionManager.executeInTransaction(session -> 
-            transactionDao.findByDateRange(start, end).stream()
-                .filter(t -> t.getUser().getId().equals(user.getId()))
-                .collect(Collectors.toList())
-        );
+        return transactionManager.executeReadOnly(session -> 
+            transactionDao.findByUserAndDateRange(user, start, end));
+    }
+
+    @Override
+    public Page<Transaction> getTransactionsPage(TransactionFilter filter, TransactionSortKey sortKey, String cursor, int pageSize) {
+        logger.debug("Fetching transactions page: filter={}, sort={}, cursor={}, size={}", filter, sortKey, cursor, pageSize);
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        TransactionFilter scoped = scopedFilter(filter);
+        return findPage(scoped, sortKey, cursor, pageSize, transactionDao::findPage);
+    }
+
+    @Override
+    public Page<TransactionRow> getTransactionRowsPage(TransactionFilter filter, TransactionSortKey sortKey,
+                                                       String cursor, int pageSize) {
+        logger.debug("Fetching transaction rows page: filter={}, sort={}, cursor={}, size={}", filter, sortKey, cursor, pageSize);
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        TransactionFilter scoped = scopedFilter(filter);
+        return findPage(scoped, sortKey, cursor, pageSize, transactionDao::findRowPage);
+    }
+
+    // Описание ищется по индексу, а найденные id ограничивают тот же keyset-запрос страницы:
+    // без индекса условие по описанию - LIKE '%...%', который просматривает всю таблицу.
+    // Стоимость страницы зависит от числа совпадений, а не от размера таблицы и глубины страницы
+    private <T> Page<T> findPage(TransactionFilter filter, TransactionSortKey sortKey, String cursor, int pageSize,
+                                 PageQuery<T> query) {
+        long[] matches = searchIndex != null && filter.hasDescription()
+            ? searchIndex.matchingIds(filter.getDescription(), filter.getUser() != null ? filter.getUser().getId() : null)
+            : null;
+        if (matches == null) {
+            return transactionManager.executeReadOnly(session -> query.find(filter, sortKey, cursor, pageSize));
+        }
+        if (matches.length == 0) {
+            return new Page<>(new ArrayList<>(), null);
+        }
+        TransactionFilter indexed = new TransactionFilter(filter);
+        indexed.setDescription(null);
+        indexed.setIds(Arrays.stream(matches).boxed().collect(Collectors.toList()));
+        return transactionManager.executeReadOnly(session -> query.find(indexed, sortKey, cursor, pageSize));
+    }
+
+    @FunctionalInterface
+    private interface PageQuery<T> {
+        Page<T> find(TransactionFilter filter, TransactionSortKey sortKey, String cursor, int limit);
+    }
+
+    // Копия фильтра; студент всегда ограничен своими транзакциями
+    private TransactionFilter scopedFilter(TransactionFilter filter) {
+        TransactionFilter scoped = new TransactionFilter(filter);
+        if (!isAdmin()) {
+            scoped.setUser(authService.getCurrentUser());
+        }
+        return scoped;
     }
 
     @Override
     public BigDecimal getTotalIncome() {
         logger.debug("Calculating total income");
-        List<Transaction> transactions = isAdmin() ? getAllUsersTransactions() : getCurrentUserTransactions();
-        return transactions.stream()
-            .filter(t -> t.getType() == TransactionType.INCOME)
-            .map(Transaction::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return getDashboardSummary().getTotalIncome();
     }
 
     @Override
     public BigDecimal getTotalExpenses() {
         logger.debug("Calculating total expenses");
-        List<Transaction> transactions = isAdmin() ? getAllUsersTransactions() : getCurrentUserTransactions();
-        return transactions.stream()
-            .filter(t -> t.getType() == TransactionType.EXPENSE)
-            .map(Transaction::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return getDashboardSummary().getTotalExpenses();
     }
 
     @Override
     public Map<Category, BigDecimal> getExpensesByCategory() {
         logger.debug("Calculating expenses by category");
-        List<Transaction> transactions = isAdmin() ? getAllUsersTransactions() : getCurrentUserTransactions();
-        return transactions.stream()
-            .filter(t -> t.getType() == TransactionType.EXPENSE)
-            .collect(Collectors.groupingBy(
-                Transaction::getCategory,
-                Collectors.reducing(
-                    BigDecimal.ZERO,
-                    Transaction::getAmount,
-                    BigDecimal::add
-                )
-            ));
+        User scope = getAggregationScope();
+        return cached(scope, "expensesByCategory", () -> transactionManager.executeReadOnly(session -> {
+            Map<Category, BigDecimal> expensesByCategory = new HashMap<>();
+            for (TransactionAggregate aggregate : aggregates().aggregateByCategory(scope, TransactionType.EXPENSE, null)) {
+                expensesByCategory.put(aggregate.getCategory(), aggregate.getTotal());
+            }
+            return Collections.unmodifiableMap(expensesByCategory);
+        }));
     }
 
     @Override
@@ -284,18 +363,8 @@ public class TransactionServiceImpl implements TransactionService {
         if (!isAdmin()) {
             throw new SecurityException("Только администратор может просматривать статистику по всем пользователям");
         }
-        return transactionManager.executeInTransaction(session -> 
-            transactionDao.findAll().stream()
-                .filter(t -> t.getType() == TransactionType.INCOME)
-                .collect(Collectors.groupingBy(
-                    Transaction::getUser,
-                    Collectors.reducing(
-                        BigDecimal.ZERO,
-                        Transaction::getAmount,
-                        BigDecimal::add
-                    )
-                ))
-        );
+        return cached(null, "incomeByUser", () ->
+            transactionManager.executeReadOnly(session -> sumByUser(session, TransactionType.INCOME)));
     }
 
     @Override
@@ -304,18 +373,8 @@ public class TransactionServiceImpl implements TransactionService {
         if (!isAdmin()) {
             throw new SecurityException("Только администратор может просматривать статистику по всем пользователям");
         }
-        return transactionManager.executeInTransaction(session -> 
-            transactionDao.findAll().stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .collect(Collectors.groupingBy(
-                    Transaction::getUser,
-                    Collectors.reducing(
-                        BigDecimal.ZERO,
-                        Transaction::getAmount,
-                        BigDecimal::add
-                    )
-                ))
-        );
+        return cached(null, "expensesByUser", () ->
+            transactionManager.executeReadOnly(session -> sumByUser(session, TransactionType.EXPENSE)));
     }
 
     @Override
@@ -324,94 +383,199 @@ public class TransactionServiceImpl implements TransactionService {
         if (!isAdmin()) {
             throw new SecurityException("Только администратор может просматривать статистику по всем пользователям");
         }
-        return transactionManager.executeInTransaction(session -> 
-            transactionDao.findAll().stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .collect(Collectors.groupingBy(
-                    Transaction::getUser,
-                    Collectors.groupingBy(
-                        Transaction::getCategory,
-                        Collectors.reducing(
-                            BigDecimal.ZERO,
-                            Transaction::getAmount,
-                            BigDecimal::add
-                        )
-                    )
-                ))
-        );
+        return cached(null, "expensesByCategoryAndUser", () -> transactionManager.executeReadOnly(session -> {
+            Map<User, Map<Category, BigDecimal>> expenses = new HashMap<>();
+            for (TransactionAggregate aggregate : aggregateByUserAndCategory(session, TransactionType.EXPENSE)) {
+                expenses.computeIfAbsent(aggregate.getUser(), user -> new HashMap<>())
+                    .merge(aggregate.getCategory(), aggregate.getTotal(), BigDecimal::add);
+            }
+            expenses.replaceAll((user, byCategory) -> Collections.unmodifiableMap(byCategory));
+            return Collections.unmodifiableMap(expenses);
+        }));
+    }
+
+    private Map<User, BigDecimal> sumByUser(Session session, TransactionType type) {
+        Map<User, BigDecimal> totals = new HashMap<>();
+        for (TransactionAggregate aggregate : aggregateByUserAndCategory(session, type)) {
+            totals.merge(aggregate.getUser(), aggregate.getTotal(), BigDecimal::add);
+        }
+        return Collections.unmodifiableMap(totals);
     }
 
     @Override
     public BigDecimal getCurrentBalance() {
         logger.debug("Calculating current balance");
-        return getTotalIncome().subtract(getTotalExpenses());
+        return getDashboardSummary().getBalance();
+    }
+
+    @Override
+    public DashboardSummary getDashboardSummary() {
+        logger.debug("Calculating dashboard summary");
+        User scope = getAggregationScope();
+        return cached(scope, "dashboardSummary", () -> transactionManager.executeReadOnly(session ->
+            DashboardSummary.fromAggregates(aggregates().aggregateByTypeAndStatus(scope))
+        ));
+    }
+
+    @Override
+    public List<TrendPoint> getTrend(User scope, TrendGranularity granularity, LocalDate startDate, LocalDate endDate,
+                                     TransactionType type) {
+        logger.debug("Getting {} {} trend between {} and {}", granularity, type, startDate, endDate);
+        if (granularity == null || type == null || startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Trend granularity, type and period must be specified");
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Trend period start is after its end: " + startDate + " > " + endDate);
+        }
+        if (!isAdmin() && (scope == null || !scope.getId().equals(authService.getCurrentUser().getId()))) {
+            throw new SecurityException("Недостаточно прав для просмотра динамики другого пользователя");
+        }
+
+        int first = granularity.bucketOf(startDate);
+        int last = granularity.bucketOf(endDate);
+        return cached(scope, "trend", () -> {
+            // Интервалы берутся целиком; интервал перед периодом читается только ради изменения в первом
+            List<TrendPoint> points = transactionManager.executeReadOnly(session -> transactionDao.aggregateTrend(
+                scope, type, TransactionStatus.ACTIVE, granularity,
+                granularity.startOf(first - 1), granularity.startOf(last + 1).minusDays(1)));
+            Map<LocalDate, TrendPoint> byStart = new HashMap<>();
+            points.forEach(point -> byStart.put(point.getStart(), point));
+
+            TrendPoint before = byStart.get(granularity.startOf(first - 1));
+            BigDecimal previous = before != null ? before.getTotal() : BigDecimal.ZERO;
+            List<TrendPoint> trend = new ArrayList<>(last - first + 1);
+            for (int bucket = first; bucket <= last; bucket++) {
+                LocalDate start = granularity.startOf(bucket);
+                TrendPoint point = byStart.get(start);
+                if (point == null) {
+                    point = new TrendPoint(start, BigDecimal.ZERO, 0, previous.negate());
+                }
+                trend.add(point);
+                previous = point.getTotal();
+            }
+            return Collections.unmodifiableList(trend);
+        }, granularity, first, last, type);
     }
 
     @Override
     public Map<Category, Double> getExpenseDistribution() {
         logger.debug("Calculating expense distribution");
-        return transactionManager.executeInTransaction(session -> {
+        User scope = getAggregationScope();
+        return cached(scope, "expenseDistribution", () -> transactionManager.executeReadOnly(session -> {
+            List<TransactionAggregate> expensesByCategory =
+                aggregates().aggregateByCategory(scope, TransactionType.EXPENSE, TransactionStatus.ACTIVE);
+
+            // Итог считается в копейках; BigDecimal нужен только для округления долей
+            long totalUnits = 0;
+            for (TransactionAggregate aggregate : expensesByCategory) {
+                totalUnits = MinorUnits.add(totalUnits, MinorUnits.of(aggregate.getTotal()));
+            }
 
-            List<Transaction> allExpenses = transactionDao.findByType(TransactionType.EXPENSE);
-            logger.debug("Total expense transactions found: {}", allExpenses.size());
-            
-            allExpenses.forEach(t -> logger.debug("Expense transaction: amount={}, category={}, status={}", 
-                t.getAmount(), t.getCategory().getName(), t.getStatus()));
-            
-            List<Transaction> expenseTransactions = allExpenses.stream()
-                .filter(t -> t.getStatus() == TransactionStatus.ACTIVE)
-                .toList();
-            
-            logger.debug("Active expense transactions after filtering: {}", expenseTransactions.size());
-            
-            expenseTransactions.forEach(t -> logger.debug("Active expense: amount={}, category={}", 
-                t.getAmount(), t.getCategory().getName()));
-            
-            Map<Category, BigDecimal> expensesByCategory = expenseTransactions.stream()
-                .collect(Collectors.groupingBy(
-                    Transaction::getCategory,
-                    Collectors.reducing(
-                        BigDecimal.ZERO,
-                        Transaction::getAmount,
-                        BigDecimal::add
-                    )
-                ));
-            
-            logger.debug("Expenses grouped by category: {}", expensesByCategory);
-            
-            BigDecimal totalExpenses = expenseTransactions.stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            logger.debug("Total expenses amount: {}", totalExpenses);
-            
-            if (totalExpenses.compareTo(BigDecimal.ZERO) == 0) {
+            if (totalUnits == 0) {
                 logger.debug("No expenses found, returning empty distribution");
-                return new HashMap<>();
+                return Map.<Category, Double>of();
             }
 
-            Map<Category, Double> distribution = expensesByCategory.entrySet().stream()
-                .collect(Collectors.toMap(
-                    Map.Entry::getKey,
-                    e -> {
-                        Double percentage = e.getValue()
-                            .divide(totalExpenses, 4, BigDecimal.ROUND_HALF_UP)
-                            .multiply(BigDecimal.valueOf(100))
-                            .doubleValue();
-                        logger.debug("Category {} percentage: {}%", e.getKey().getName(), percentage);
-                        return percentage;
-                    }
-                ));
-                
-            logger.debug("Final distribution: {}", distribution);
-            return distribution;
-        });
+            BigDecimal totalExpenses = BigDecimal.valueOf(totalUnits);
+            Map<Category, Double> distribution = new HashMap<>();
+            for (TransactionAggregate aggregate : expensesByCategory) {
+                double percentage = BigDecimal.valueOf(MinorUnits.of(aggregate.getTotal()))
+                    .divide(totalExpenses, 4, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100))
+                    .doubleValue();
+                distribution.put(aggregate.getCategory(), percentage);
+            }
+
+            logger.debug("Expense distribution over {} categories, total {}", distribution.size(),
+                MinorUnits.toBigDecimal(totalUnits));
+            return Collections.unmodifiableMap(distribution);
+        }));
     }
 
     private boolean isAdmin() {
         return authService.getCurrentUser().getRole() == UserRole.ADMIN;
     }
 
+    // Администратор видит агрегаты по всем пользователям (null), остальные - только свои
+    private User getAggregationScope() {
+        return isAdmin() ? null : authService.getCurrentUser();
+    }
+
+    // Агрегаты читаются из свертки, если она подключена, иначе напрямую из таблицы транзакций
+    private TransactionAggregateDao aggregates() {
+        return balanceRollupDao != null ? balanceRollupDao : transactionDao;
+    }
+
+    // Аналитика по всем пользователям считается по колоночному снимку, если он подключен;
+    // пользователи и категории берутся из сессии, то есть из кэша второго уровня
+    private List<TransactionAggregate> aggregateByUserAndCategory(Session session, TransactionType type) {
+        if (snapshot != null) {
+            return snapshot.aggregateByUserAndCategory(type,
+                id -> session.get(User.class, id), id -> session.get(Category.class, id));
+        }
+        return aggregates().aggregateByUserAndCategory(type);
+    }
+
+    private List<TransactionAggregate> aggregateByPeriod(Session session, LocalDate startDate, LocalDate endDate) {
+        if (snapshot != null) {
+            return snapshot.aggregateByPeriod(startDate, endDate,
+                id -> session.get(User.class, id), id -> session.get(Category.class, id));
+        }
+        return aggregates().aggregateByPeriod(startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
+    }
+
+    // Результаты общие для всех вызывающих, поэтому возвращаются неизменяемыми
+    private <T> T cached(User scope, String method, Supplier<T> loader, Object... args) {
+        if (resultCache == null) {
+            return loader.get();
+        }
+        return resultCache.get(scope != null ? scope.getId() : null, method, loader, args);
+    }
+
+    // Вызывается после фиксации транзакции
+    private void invalidateAggregates(User owner) {
+        if (owner != null) {
+            writeListeners.forEach(listener -> listener.afterAggregatesChanged(owner.getId()));
+        }
+    }
+
+    private void invalidateAllAggregates() {
+        writeListeners.forEach(listener -> listener.afterAggregatesChanged(null));
+    }
+
+    // Без свертки и бюджетов снимки не нужны: null вместо лишнего копирования полей
+    private TransactionSnapshot snapshot(Transaction transaction) {
+        return tracksChanges ? TransactionSnapshot.of(transaction) : null;
+    }
+
+    // Вызывается внутри той же транзакции Hibernate, что и запись самих транзакций
+    private void recordChange(TransactionSnapshot before, TransactionSnapshot after) {
+        if (!tracksChanges) {
+            return;
+        }
+        List<TransactionSnapshot> removed = before != null ? List.of(before) : List.of();
+        List<TransactionSnapshot> added = after != null ? List.of(after) : List.of();
+        writeListeners.forEach(listener -> listener.onChanges(removed, added));
+    }
+
+    // Перед массовым изменением вклад транзакций снимается по их текущему состоянию
+    private void removeContribution(Collection<Long> ids) {
+        writeListeners.forEach(listener -> listener.onBeforeBulkUpdate(ids));
+    }
+
+    // После массового изменения вклад возвращается по новому состоянию
+    private void addContribution(Collection<Long> ids) {
+        writeListeners.forEach(listener -> listener.onAfterBulkUpdate(ids));
+    }
+
+    // Массовое изменение откатывается целиком, если часть id не нашлась
+    private void requireAllAffected(Set<Long> ids, int affected) {
+        if (affected != ids.size()) {
+            throw new IllegalArgumentException(
+                "Transactions not found: expected " + ids.size() + " rows, affected " + affected);
+        }
+    }
+
     private boolean isAdminOrOwner(User user) {
         User currentUser = authService.getCurrentUser();
         return currentUser.getRole() == UserRole.ADMIN || 
@@ -420,7 +584,10 @@ public class TransactionServiceImpl implements TransactionService {
 
     @Override
     public List<Transaction> searchTransactions(String searchTerm) {
-        List<Transaction> results = transactionManager.executeInTransaction(session -> 
+        if (searchIndex != null) {
+            return findIndexed(searchTerm);
+        }
+        List<Transaction> results = transactionManager.executeReadOnly(session -> 
             transactionDao.searchByDescription(searchTerm)
         );
         
@@ -437,52 +604,93 @@ public class TransactionServiceImpl implements TransactionService {
     @Override
     public List<Transaction> searchTransactions(String query, Category category, 
                                               LocalDate startDate, LocalDate endDate) {
-        List<Transaction> results = transactionManager.executeInTransaction(session -> 
-            getAllTransactions().stream()
-                .filter(t -> (query == null || query.isEmpty() || 
-                            t.getDescription().toLowerCase().contains(query.toLowerCase())))
-                .filter(t -> (category == null || t.getCategory().equals(category)))
-                .filter(t -> (startDate == null || !t.getDate().toLocalDate().isBefore(startDate)))
-                .filter(t -> (endDate == null || !t.getDate().toLocalDate().isAfter(endDate)))
-                .collect(Collectors.toList())
-        );
-        
+        TransactionFilter filter = new TransactionFilter();
         if (!isAdmin()) {
-            User currentUser = authService.getCurrentUser();
-            results = results.stream()
-                .filter(t -> t.getUser().getId().equals(currentUser.getId()))
+            filter.setUser(authService.getCurrentUser());
+        }
+        filter.setCategory(category);
+        filter.setFrom(startDate != null ? startDate.atStartOfDay() : null);
+        filter.setTo(endDate != null ? endDate.atTime(LocalTime.MAX) : null);
+
+        // Слова ищутся по индексу с ранжированием, остальные условия проверяются тем же фильтром
+        if (searchIndex != null && query != null && !query.isBlank()) {
+            return findIndexed(query).stream()
+                .filter(filter.toPredicate())
                 .collect(Collectors.toList());
         }
-        
+        filter.setDescription(query);
+        List<Transaction> results = new ArrayList<>();
+        transactionManager.executeReadOnly(session ->
+            transactionDao.forEachMatching(filter, TransactionSortKey.DATE_DESC, results::add));
         return results;
     }
 
+    // Результаты индекса в порядке релевантности; студент находит только свои транзакции
+    private List<Transaction> findIndexed(String query) {
+        Long userId = isAdmin() ? null : authService.getCurrentUser().getId();
+        List<Long> ids = searchIndex.search(query, userId);
+        Map<Long, Transaction> byId = transactionManager.executeReadOnly(session -> {
+            Map<Long, Transaction> loaded = new HashMap<>();
+            for (int from = 0; from < ids.size(); from += SEARCH_LOAD_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + SEARCH_LOAD_CHUNK_SIZE));
+                for (Transaction transaction : transactionDao.findAllById(chunk)) {
+                    loaded.put(transaction.getId(), transaction);
+                }
+            }
+            return loaded;
+        });
+        // Транзакции, удаленные в обход сервиса (например, вместе с пользователем), здесь отбрасываются
+        return ids.stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
+    // Индекс и снимок обновляются после фиксации, чтобы откат не оставлял в них лишнего
+    private void publishSaved(Transaction transaction) {
+        writeListeners.forEach(listener -> listener.afterSaved(List.of(transaction)));
+    }
+
+    private void publishDeleted(Collection<Long> ids) {
+        writeListeners.forEach(listener -> listener.afterDeleted(ids));
+    }
+
+    private void publishStatus(Transaction transaction) {
+        writeListeners.forEach(listener ->
+            listener.afterStatusUpdated(List.of(transaction.getId()), transaction.getStatus()));
+    }
+
     @Override
     public void updateTransactionStatus(Long id, String newStatus) {
         logger.debug("Updating transaction status with id: {} to: {}", id, newStatus);
-        transactionManager.executeInTransactionWithoutResult(session -> {
+        Transaction updated = transactionManager.executeInTransaction(session -> {
             Transaction transaction = getTransactionById(id);
+            TransactionSnapshot before = snapshot(transaction);
             transaction.setStatus(TransactionStatus.valueOf(newStatus.toUpperCase()));
             transactionDao.update(transaction);
+            recordChange(before, snapshot(transaction));
+            return transaction;
         });
+        invalidateAggregates(updated.getUser());
+        publishStatus(updated);
     }
 
     @Override
     public List<Transaction> getTransactionsByStatus(String status) {
         logger.debug("Fetching transactions by status: {}", status);
-        return transactionManager.executeInTransaction(session -> transactionDao.findByStatus(status));
+        return transactionManager.executeReadOnly(session -> transactionDao.findByStatus(status));
     }
 
     @Override
     public void moveTransactions(Category fromCategory, Category toCategory) {
         logger.debug("Moving transactions from category {} to category {}", fromCategory.getName(), toCategory.getName());
         transactionManager.executeInTransactionWithoutResult(session -> {
-            List<Transaction> transactions = transactionDao.findByCategory(fromCategory);
-            for (Transaction transaction : transactions) {
-                transaction.setCategory(toCategory);
-                transactionDao.update(transaction);
-            }
+            int moved = transactionDao.moveCategory(fromCategory, toCategory);
+            writeListeners.forEach(listener -> listener.onCategoryMerged(fromCategory.getId(), toCategory.getId()));
+            logger.debug("Moved {} transactions", moved);
         });
+        invalidateAllAggregates();
+        writeListeners.forEach(listener -> listener.afterCategoryMerged(fromCategory.getId(), toCategory.getId()));
     }
 
     @Override
@@ -492,14 +700,15 @@ public class TransactionServiceImpl implements TransactionService {
             throw new SecurityException("Только администратор может выполнять пакетное обновление статуса");
         }
         
+        TransactionStatus status = TransactionStatus.valueOf(newStatus);
+        Set<Long> ids = new LinkedHashSet<>(transactionIds);
         transactionManager.executeInTransactionWithoutResult(session -> {
-            for (Long id : transactionIds) {
-                Transaction transaction = transactionDao.findById(id)
-                    .orElseThrow(() -> new IllegalArgumentException("Transaction not found with id: " + id));
-                transaction.setStatus(TransactionStatus.valueOf(newStatus));
-                transactionDao.update(transaction);
-            }
+            removeContribution(ids);
+            requireAllAffected(ids, transactionDao.updateStatusIn(ids, status));
+            addContribution(ids);
         });
+        invalidateAllAggregates();
+        writeListeners.forEach(listener -> listener.afterStatusUpdated(ids, status));
     }
 
     @Override
@@ -510,10 +719,11 @@ public class TransactionServiceImpl implements TransactionService {
         }
         
         transactionManager.executeInTransactionWithoutResult(session -> {
-            for (Long id : transactionIds) {
-                transactionDao.deleteById(id);
-            }
+            removeContribution(transactionIds);
+            transactionDao.deleteAllById(transactionIds);
         });
+        invalidateAllAggregates();
+        publishDeleted(transactionIds);
     }
 
     @Override
@@ -523,83 +733,42 @@ public class TransactionServiceImpl implements TransactionService {
             throw new SecurityException("Только администратор может выполнять пакетное перемещение");
         }
         
+        Set<Long> ids = new LinkedHashSet<>(transactionIds);
         transactionManager.executeInTransactionWithoutResult(session -> {
-            for (Long id : transactionIds) {
-                Transaction transaction = transactionDao.findById(id)
-                    .orElseThrow(() -> new IllegalArgumentException("Transaction not found with id: " + id));
-                transaction.setCategory(toCategory);
-                transactionDao.update(transaction);
-            }
+            removeContribution(ids);
+            requireAllAffected(ids, transactionDao.moveCategoryIn(ids, toCategory));
+            addContribution(ids);
         });
+        invalidateAllAggregates();
+        writeListeners.forEach(listener -> listener.afterCategoryChanged(ids, toCategory.getId()));
     }
 
     @Override
-    public Map<User, Map<String, BigDecimal>> getUserStatistics(LocalDate startDate, LocalDate endDate) {
+    public Map<User, UserStatistics> getUserStatistics(LocalDate startDate, LocalDate endDate) {
         logger.debug("Getting user statistics between {} and {}", startDate, endDate);
         if (!isAdmin()) {
             throw new SecurityException("Только администратор может просматривать статистику пользователей");
         }
 
-        LocalDateTime start = startDate.atStartOfDay();
-        LocalDateTime end = endDate.atTime(23, 59, 59);
-
-        return transactionManager.executeInTransaction(session -> {
-            List<Transaction> transactions = transactionDao.findByDateRange(start, end);
-            Map<User, Map<String, BigDecimal>> stats = new HashMap<>();
-
-            for (Transaction t : transactions) {
-                User user = t.getUser();
-                stats.putIfAbsent(user, new HashMap<>());
-                Map<String, BigDecimal> userStats = stats.get(user);
-
-                // Обновляем общую сумму
-                String totalKey = t.getType() == TransactionType.INCOME ? "totalIncome" : "totalExpenses";
-                userStats.merge(totalKey, t.getAmount(), BigDecimal::add);
-
-                // Обновляем сумму по категории
-                String categoryKey = "category_" + t.getCategory().getName();
-                userStats.merge(categoryKey, t.getAmount(), BigDecimal::add);
-
-                // Обновляем количество транзакций
-                String countKey = "transactionCount";
-                userStats.merge(countKey, BigDecimal.ONE, BigDecimal::add);
+        return transactionManager.executeReadOnly(session -> {
+            Map<User, UserStatistics> stats = new HashMap<>();
+            for (TransactionAggregate aggregate : aggregateByPeriod(session, startDate, endDate)) {
+                stats.computeIfAbsent(aggregate.getUser(), UserStatistics::new).add(aggregate);
             }
-
             return stats;
         });
     }
 
     @Override
-    public Map<String, BigDecimal> getSystemStatistics(LocalDate startDate, LocalDate endDate) {
+    public SystemStatistics getSystemStatistics(LocalDate startDate, LocalDate endDate) {
         logger.debug("Getting system statistics between {} and {}", startDate, endDate);
         if (!isAdmin()) {
             throw new SecurityException("Только администратор может просматривать системную статистику");
         }
 
-        LocalDateTime start = startDate.atStartOfDay();
-        LocalDateTime end = endDate.atTime(23, 59, 59);
-
-        return transactionManager.executeInTransaction(session -> {
-            List<Transaction> transactions = transactionDao.findByDateRange(start, end);
-            Map<String, BigDecimal> stats = new HashMap<>();
-
-            // Общая статистика
-            stats.put("totalTransactions", BigDecimal.valueOf(transactions.size()));
-            stats.put("totalIncome", transactions.stream()
-                .filter(t -> t.getType() == TransactionType.INCOME)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add));
-            stats.put("totalExpenses", transactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add));
-
-            // Статистика по статусам
-            Map<TransactionStatus, Long> statusCounts = transactions.stream()
-                .collect(Collectors.groupingBy(Transaction::getStatus, Collectors.counting()));
-            statusCounts.forEach((status, count) -> 
-                stats.put("status_" + status.name(), BigDecimal.valueOf(count)));
-
+        return transactionManager.executeReadOnly(session -> {
+            SystemStatistics stats = new SystemStatistics();
+            aggregateByPeriod(session, startDate, endDate).forEach(stats::add);
             return stats;
         });
     }
@@ -611,30 +780,30 @@ public class TransactionServiceImpl implements TransactionService {
             throw new SecurityException("Только администратор может искать аномальные транзакции");
         }
 
-        return transactionManager.executeInTransaction(session -> {
-            List<Transaction> allTransactions = transactionDao.findAll();
-            Map<User, BigDecimal> userAverages = new HashMap<>();
-
-            // Вычисляем средние значения для каждого пользователя
-            for (Transaction t : allTransactions) {
-                userAverages.merge(t.getUser(), t.getAmount(), BigDecimal::add);
-            }
-            userAverages.forEach((user, total) -> 
-                userAverages.put(user, total.divide(BigDecimal.valueOf(
-                    allTransactions.stream().filter(t -> t.getUser().equals(user)).count()
-                ), 2, BigDecimal.ROUND_HALF_UP)));
-
-            // Находим аномальные транзакции
-            return allTransactions.stream()
-                .filter(t -> {
-                    BigDecimal userAvg = userAverages.get(t.getUser());
-                    return t.getAmount().subtract(userAvg).abs()
-                        .compareTo(userAvg.multiply(threshold)) > 0;
-                })
-                .collect(Collectors.toList());
+        return transactionManager.executeReadOnly(session -> {
+            List<Transaction> anomalies = new ArrayList<>();
+            String cursor = null;
+            do {
+                Page<Transaction> page = anomalyDetector.findPage(
+                    AnomalyMode.RELATIVE_DEVIATION, threshold.doubleValue(), cursor, ANOMALY_PAGE_SIZE);
+                anomalies.addAll(page.getItems());
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            return anomalies;
         });
     }
 
+    @Override
+    public Page<Transaction> getAnomalousTransactions(AnomalyMode mode, BigDecimal threshold, String cursor, int pageSize) {
+        logger.debug("Getting anomalous transactions page: mode={}, threshold={}, cursor={}", mode, threshold, cursor);
+        if (!isAdmin()) {
+            throw new SecurityException("Только администратор может искать аномальные транзакции");
+        }
+
+        return transactionManager.executeReadOnly(session ->
+            anomalyDetector.findPage(mode, threshold.doubleValue(), cursor, pageSize));
+    }
+
     @Override
     public void setUserTransactionLimit(User user, TransactionType type, BigDecimal limit) {
         logger.debug("Setting {} limit for user {}: {}", type, user.getUsername(), limit);
@@ -666,16 +835,16 @@ public class TransactionServiceImpl implements TransactionService {
             throw new SecurityException("Только администратор может просматривать лимиты");
         }
         
-        Map<User, Map<TransactionType, BigDecimal>> result = new HashMap<>();
-        transactionManager.executeInTransactionWithoutResult(session -> {
+        return transactionManager.executeReadOnly(session -> {
+            Map<User, Map<TransactionType, BigDecimal>> result = new HashMap<>();
             userLimits.forEach((userId, limits) -> {
                 User user = session.get(User.class, userId);
                 if (user != null) {
                     result.put(user, new HashMap<>(limits));
                 }
             });
+            return result;
         });
-        return result;
     }
 
     @Override
@@ -698,6 +867,11 @@ public class TransactionServiceImpl implements TransactionService {
         this.approvalThreshold = threshold;
     }
 
+    @Override
+    public BigDecimal getApprovalThreshold() {
+        return approvalThreshold;
+    }
+
     @Override
     public List<Transaction> getPendingApprovalTransactions() {
         logger.debug("Getting pending approval transactions");
@@ -705,7 +879,7 @@ public class TransactionServiceImpl implements TransactionService {
             throw new SecurityException("Только администратор может просматривать ожидающие утверждения транзакции");
         }
 
-        return transactionManager.executeInTransaction(session ->
+        return transactionManager.executeReadOnly(session ->
             transactionDao.findByStatus(TransactionStatus.PENDING.name()));
     }
 
@@ -716,12 +890,17 @@ public class TransactionServiceImpl implements TransactionService {
             throw new SecurityException("Только администратор может утверждать транзакции");
         }
 
-        transactionManager.executeInTransactionWithoutResult(session -> {
+        Transaction approved = transactionManager.executeInTransaction(session -> {
             Transaction transaction = transactionDao.findById(transactionId)
                 .orElseThrow(() -> new IllegalArgumentException("Transaction not found with id: " + transactionId));
+            TransactionSnapshot before = snapshot(transaction);
             transaction.setStatus(TransactionStatus.ACTIVE);
             transactionDao.update(transaction);
+            recordChange(before, snapshot(transaction));
+            return transaction;
         });
+        invalidateAggregates(approved.getUser());
+        publishStatus(approved);
     }
 
     @Override
@@ -731,13 +910,18 @@ public class TransactionServiceImpl implements TransactionService {
             throw new SecurityException("Только администратор может отклонять транзакции");
         }
 
-        transactionManager.executeInTransactionWithoutResult(session -> {
+        Transaction rejected = transactionManager.executeInTransaction(session -> {
             Transaction transaction = transactionDao.findById(transactionId)
                 .orElseThrow(() -> new IllegalArgumentException("Transaction not found with id: " + transactionId));
+            TransactionSnapshot before = snapshot(transaction);
             transaction.setStatus(TransactionStatus.REJECTED);
             transaction.setRejectionReason(reason);
             transactionDao.update(transaction);
+            recordChange(before, snapshot(transaction));
+            return transaction;
         });
+        invalidateAggregates(rejected.getUser());
+        publishStatus(rejected);
     }
 
     @Override
@@ -747,10 +931,39 @@ public class TransactionServiceImpl implements TransactionService {
             throw new SecurityException("Только администратор может просматривать отклоненные транзакции");
         }
 
-        return transactionManager.executeInTransaction(session -> {
+        return transactionManager.executeReadOnly(session -> {
             @SuppressWarnings("unchecked")
             List<Transaction> transactions = transactionDao.findByStatus(TransactionStatus.REJECTED.name());
             return transactions;
         });
     }
+
+    @Override
+    public void rebuildBalanceRollup() {
+        logger.debug("Rebuilding balance rollup");
+        if (!isAdmin()) {
+            throw new SecurityException("Только администратор может пересчитывать свертку балансов");
+        }
+        if (balanceRollupDao == null) {
+            throw new IllegalStateException("Свертка балансов не подключена");
+        }
+        transactionManager.executeInTransactionWithoutResult(session -> balanceRollupDao.rebuild());
+        invalidateAllAggregates();
+    }
+
+    @Override
+    public List<RollupDrift> verifyBalanceRollup() {
+        logger.debug("Verifying balance rollup");
+        if (!isAdmin()) {
+            throw new SecurityException("Только администратор может проверять свертку балансов");
+        }
+        if (balanceRollupDao == null) {
+            throw new IllegalStateException("Свертка балансов не подключена");
+        }
+        List<RollupDrift> drifts = transactionManager.executeReadOnly(session -> balanceRollupDao.verify());
+        if (!drifts.isEmpty()) {
+            logger.warn("Balance rollup drift detected in {} groups", drifts.size());
+        }
+        return drifts;
+    }
 } 
\ No newline at end of file
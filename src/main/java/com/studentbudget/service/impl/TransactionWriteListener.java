@@ -0,0 +1,61 @@
+package com.studentbudget.service.impl;
+
+import com.studentbudget.model.Transaction;
+import com.studentbudget.model.TransactionSnapshot;
+import com.studentbudget.model.TransactionStatus;
+
+import java.util.Collection;
+
+/**
+ * Получает записи транзакций от сервисов и поддерживает по ним производные данные:
+ * свертку балансов, счетчики бюджетов, индекс описаний, кэш агрегатов, колоночный снимок.
+ *
+ * Методы on* вызываются внутри транзакции Hibernate, которая пишет сами транзакции,
+ * и откатываются вместе с ней. Методы after* вызываются после фиксации, чтобы откат
+ * не оставлял в памяти процесса изменений, которых нет в базе.
+ */
+public interface TransactionWriteListener {
+    // true, если получателю нужны снимки транзакций в onChanges; иначе сервисы их не создают
+    default boolean tracksChanges() {
+        return false;
+    }
+
+    // Точечная запись: вклад removed снимается, вклад added добавляется
+    default void onChanges(Collection<TransactionSnapshot> removed, Collection<TransactionSnapshot> added) {
+    }
+
+    // Массовое изменение по id: вклад снимается до запроса по текущему состоянию строк
+    default void onBeforeBulkUpdate(Collection<Long> ids) {
+    }
+
+    // ...и возвращается после запроса по новому состоянию
+    default void onAfterBulkUpdate(Collection<Long> ids) {
+    }
+
+    // Все транзакции категории перенесены в другую
+    default void onCategoryMerged(Long fromCategoryId, Long toCategoryId) {
+    }
+
+    // Категория удаляется; транзакций в ней к этому моменту нет
+    default void onCategoryDeleted(Long categoryId) {
+    }
+
+    default void afterSaved(Collection<Transaction> transactions) {
+    }
+
+    default void afterDeleted(Collection<Long> ids) {
+    }
+
+    default void afterStatusUpdated(Collection<Long> ids, TransactionStatus status) {
+    }
+
+    default void afterCategoryChanged(Collection<Long> ids, Long categoryId) {
+    }
+
+    default void afterCategoryMerged(Long fromCategoryId, Long toCategoryId) {
+    }
+
+    // Агрегаты пользователя устарели; null - устарели агрегаты всех пользователей
+    default void afterAggregatesChanged(Long userId) {
+    }
+}
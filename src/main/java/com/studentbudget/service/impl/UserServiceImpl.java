@@ -24,13 +24,13 @@ public class UserServiceImpl implements UserService {
     @Override
     public List<User> getAllUsers() {
         logger.debug("Fetching all users");
-        return transactionManager.executeInTransaction(session -> userDao.findAll());
+        return transactionManager.executeReadOnly(session -> userDao.findAll());
     }
 
     @Override
     public User getUserById(Long id) {
         logger.debug("Fetching user with id: {}", id);
-        return transactionManager.executeInTransaction(session -> 
+        return transactionManager.executeReadOnly(session -> 
             userDao.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + id))
         );
@@ -39,7 +39,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public List<User> getUsersByRole(UserRole role) {
         logger.debug("Fetching users with role: {}", role);
-        return transactionManager.executeInTransaction(session -> 
+        return transactionManager.executeReadOnly(session -> 
             userDao.findAll().stream()
                 .filter(u -> u.getRole() == role)
                 .collect(Collectors.toList())
@@ -105,12 +105,12 @@ public class UserServiceImpl implements UserService {
     @Override
     public boolean userExists(String username) {
         logger.debug("Checking if username exists: {}", username);
-        return transactionManager.executeInTransaction(session -> userDao.existsByUsername(username));
+        return transactionManager.executeReadOnly(session -> userDao.existsByUsername(username));
     }
 
     @Override
     public boolean emailExists(String email) {
         logger.debug("Checking if email exists: {}", email);
-        return transactionManager.executeInTransaction(session -> userDao.existsByEmail(email));
+        return transactionManager.executeReadOnly(session -> userDao.existsByEmail(email));
     }
 } 
\ No newline at end of file
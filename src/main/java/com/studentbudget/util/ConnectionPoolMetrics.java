@@ -0,0 +1,68 @@
+package com.studentbudget.util;
+
+/**
+ * Снимок состояния пула соединений: занятость на момент снимка и накопленные
+ * с запуска пула счетчики выдачи соединений.
+ */
+public class ConnectionPoolMetrics {
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int totalConnections;
+    private final int threadsAwaitingConnection;
+    private final long acquisitions;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long timeouts;
+
+    public ConnectionPoolMetrics(int activeConnections, int idleConnections, int totalConnections,
+                                 int threadsAwaitingConnection, long acquisitions, long totalWaitNanos,
+                                 long maxWaitNanos, long timeouts) {
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.totalConnections = totalConnections;
+        this.threadsAwaitingConnection = threadsAwaitingConnection;
+        this.acquisitions = acquisitions;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.timeouts = timeouts;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections;
+    }
+
+    public int getThreadsAwaitingConnection() {
+        return threadsAwaitingConnection;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions;
+    }
+
+    public double getAverageWaitMillis() {
+        return acquisitions == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / acquisitions;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos / 1_000_000.0;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("active=%d, idle=%d, total=%d, waiting=%d, acquisitions=%d, avgWait=%.3fms, maxWait=%.3fms, timeouts=%d",
+            activeConnections, idleConnections, totalConnections, threadsAwaitingConnection, acquisitions,
+            getAverageWaitMillis(), getMaxWaitMillis(), timeouts);
+    }
+}
@@ -0,0 +1,277 @@
+package com.studentbudget.util;
+
+import com.studentbudget.dao.BalanceRollupDao;
+import com.studentbudget.dao.CategoryDao;
+import com.studentbudget.dao.TransactionDao;
+import com.studentbudget.dao.UserDao;
+import com.studentbudget.dao.impl.CategoryDaoImpl;
+import com.studentbudget.dao.impl.HibernateBalanceRollupDao;
+import com.studentbudget.dao.impl.TransactionDaoImpl;
+import com.studentbudget.dao.impl.UserDaoImpl;
+import com.studentbudget.model.Category;
+import com.studentbudget.model.Transaction;
+import com.studentbudget.model.TransactionStatus;
+import com.studentbudget.model.TransactionType;
+import com.studentbudget.model.User;
+import com.studentbudget.model.UserRole;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Генератор синтетических данных для проверки производительности (PERF-01..PERF-03).
+ * Создает пользователей, категории и транзакции с правдоподобным распределением дат и сумм.
+ * При одном и том же seed на пустой базе получаются одни и те же данные.
+ *
+ * Транзакции записываются пачками через TransactionDao.saveAll, свертка балансов
+ * пересчитывается один раз после загрузки.
+ */
+public class DataGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(DataGenerator.class);
+
+    public static final long DEFAULT_SEED = 20240901L;
+    /** Пароль всех сгенерированных пользователей */
+    public static final String PASSWORD = "password";
+
+    private static final int CHUNK_SIZE = 10_000;
+    // Транзакции равномерно распределены по двум годам до фиксированной даты, чтобы данные не зависели от дня запуска
+    private static final int HISTORY_DAYS = 730;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 6, 30).minusDays(HISTORY_DAYS - 1);
+    // Разброс сумм вокруг типичной для категории (логнормальное распределение)
+    private static final double AMOUNT_SIGMA = 0.6;
+    private static final BigDecimal MIN_AMOUNT = new BigDecimal("1.00");
+
+    // Название, тип, типичная сумма, относительная частота, день месяца (0 - любой), слова описаний
+    private static final CategoryProfile[] PROFILES = {
+        new CategoryProfile("Питание", TransactionType.EXPENSE, 350, 34, 0,
+            "кофе", "обед в столовой", "продукты", "пицца", "ужин в кафе", "булочная"),
+        new CategoryProfile("Транспорт", TransactionType.EXPENSE, 60, 20, 0,
+            "метро", "автобус", "такси", "электричка", "каршеринг"),
+        new CategoryProfile("Учебные материалы", TransactionType.EXPENSE, 900, 5, 0,
+            "учебник", "тетради", "распечатка", "курс онлайн", "канцтовары"),
+        new CategoryProfile("Развлечения", TransactionType.EXPENSE, 700, 8, 0,
+            "кино", "концерт", "игра", "боулинг", "подписка на музыку"),
+        new CategoryProfile("Медицина", TransactionType.EXPENSE, 1200, 3, 0,
+            "аптека", "витамины", "стоматолог", "анализы"),
+        new CategoryProfile("Одежда", TransactionType.EXPENSE, 2500, 3, 0,
+            "куртка", "кроссовки", "футболка", "джинсы"),
+        new CategoryProfile("Спорт", TransactionType.EXPENSE, 1500, 3, 0,
+            "абонемент в зал", "бассейн", "секция", "спортивное питание"),
+        new CategoryProfile("Прочее", TransactionType.EXPENSE, 500, 4, 0,
+            "подарок", "ремонт телефона", "хозтовары", "перевод другу"),
+        new CategoryProfile("Связь", TransactionType.EXPENSE, 450, 2, 5,
+            "мобильная связь", "интернет"),
+        new CategoryProfile("Жилье", TransactionType.EXPENSE, 7000, 2, 1,
+            "общежитие", "аренда комнаты", "коммунальные услуги"),
+        new CategoryProfile("Стипендия", TransactionType.INCOME, 3500, 3, 25,
+            "стипендия", "повышенная стипендия"),
+        new CategoryProfile("Подработка", TransactionType.INCOME, 9000, 3, 0,
+            "подработка", "репетиторство", "фриланс"),
+        new CategoryProfile("Перевод от родителей", TransactionType.INCOME, 6000, 3, 0,
+            "перевод от родителей", "помощь семьи")
+    };
+    private static final String[] EXTRA_WORDS = {"покупка", "оплата", "заказ", "сервис"};
+
+    private final HibernateTransactionManager transactionManager;
+    private final UserDao userDao;
+    private final CategoryDao categoryDao;
+    private final TransactionDao transactionDao;
+    private final BalanceRollupDao balanceRollupDao;
+    private final long seed;
+
+    /**
+     * Конструктор генератора с seed по умолчанию.
+     * @param sessionFactory фабрика сессий базы, в которую загружаются данные
+     */
+    public DataGenerator(SessionFactory sessionFactory) {
+        this(sessionFactory, DEFAULT_SEED);
+    }
+
+    /**
+     * Конструктор генератора.
+     * @param sessionFactory фабрика сессий базы, в которую загружаются данные
+     * @param seed начальное значение генератора случайных чисел
+     */
+    public DataGenerator(SessionFactory sessionFactory, long seed) {
+        this.transactionManager = new HibernateTransactionManager(sessionFactory);
+        this.userDao = new UserDaoImpl(sessionFactory);
+        this.categoryDao = new CategoryDaoImpl(sessionFactory);
+        this.transactionDao = new TransactionDaoImpl(sessionFactory);
+        this.balanceRollupDao = new HibernateBalanceRollupDao(sessionFactory);
+        this.seed = seed;
+    }
+
+    /**
+     * Имя сгенерированного пользователя с заданным номером.
+     */
+    public static String username(int index) {
+        return String.format("student%05d", index);
+    }
+
+    /**
+     * Заполняет базу данными заданного объема.
+     * @param userCount количество пользователей-студентов
+     * @param categoryCount количество категорий; сверх стандартного набора добавляются «Категория N»
+     * @param transactionCount количество транзакций
+     */
+    public void generate(int userCount, int categoryCount, int transactionCount) {
+        if (userCount < 1 || categoryCount < 1 || transactionCount < 0) {
+            throw new IllegalArgumentException("Counts must be positive");
+        }
+        if (transactionManager.executeReadOnly(session -> userDao.existsByUsername(username(0)))) {
+            throw new IllegalStateException("Данные уже сгенерированы в этой базе");
+        }
+
+        long started = System.nanoTime();
+        Random random = new Random(seed);
+        List<User> users = transactionManager.executeInTransaction(session -> createUsers(userCount));
+        List<CategoryProfile> profiles = profiles(categoryCount);
+        List<Category> categories = transactionManager.executeInTransaction(session -> createCategories(profiles));
+        double[] cumulativeWeights = cumulativeWeights(profiles);
+
+        for (int from = 0; from < transactionCount; from += CHUNK_SIZE) {
+            int count = Math.min(CHUNK_SIZE, transactionCount - from);
+            List<Transaction> chunk = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int category = pick(cumulativeWeights, random.nextDouble());
+                LocalDate day = FIRST_DAY.plusDays((long) (from + i) * HISTORY_DAYS / transactionCount);
+                chunk.add(transaction(random, day, profiles.get(category), categories.get(category),
+                    pickUser(users, random)));
+            }
+            // Как в живой базе, id растут вместе с датой; индексы по дате заполняются по порядку
+            chunk.sort(Comparator.comparing(Transaction::getDate));
+            transactionManager.executeInTransactionWithoutResult(session -> transactionDao.saveAll(chunk));
+            logger.debug("Generated {} of {} transactions", from + count, transactionCount);
+        }
+        transactionManager.executeInTransactionWithoutResult(session -> balanceRollupDao.rebuild());
+
+        logger.info("Generated {} users, {} categories and {} transactions in {} ms",
+            userCount, categoryCount, transactionCount, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private List<User> createUsers(int userCount) {
+        // Пароль у всех одинаковый, поэтому хеш с солью вычисляется один раз
+        String passwordHash = PasswordUtils.generateSecurePassword(PASSWORD);
+        List<User> users = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            String username = username(i);
+            users.add(new User(username, passwordHash, username + "@students.example.com",
+                "Студент", String.valueOf(i), UserRole.STUDENT));
+        }
+        return userDao.saveAll(users);
+    }
+
+    // Стандартные категории уже могут быть созданы DatabaseInitializer; их переиспользуем
+    private List<Category> createCategories(List<CategoryProfile> profiles) {
+        List<Category> categories = new ArrayList<>(profiles.size());
+        for (CategoryProfile profile : profiles) {
+            Category category = categoryDao.findByName(profile.name);
+            if (category == null) {
+                category = categoryDao.save(new Category(profile.name, "Категория для " + profile.name.toLowerCase()));
+            }
+            categories.add(category);
+        }
+        return categories;
+    }
+
+    private static List<CategoryProfile> profiles(int categoryCount) {
+        List<CategoryProfile> profiles = new ArrayList<>(categoryCount);
+        for (int i = 0; i < categoryCount; i++) {
+            profiles.add(i < PROFILES.length
+                ? PROFILES[i]
+                : new CategoryProfile("Категория " + (i + 1), TransactionType.EXPENSE, 500, 1, 0, EXTRA_WORDS));
+        }
+        return profiles;
+    }
+
+    private static double[] cumulativeWeights(List<CategoryProfile> profiles) {
+        double[] cumulative = new double[profiles.size()];
+        double total = 0;
+        for (int i = 0; i < profiles.size(); i++) {
+            total += profiles.get(i).weight;
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    private static int pick(double[] cumulativeWeights, double value) {
+        for (int i = 0; i < cumulativeWeights.length - 1; i++) {
+            if (value < cumulativeWeights[i]) {
+                return i;
+            }
+        }
+        return cumulativeWeights.length - 1;
+    }
+
+    // Активность пользователей неравномерна: первые пользователи совершают заметно больше операций
+    private static User pickUser(List<User> users, Random random) {
+        double value = random.nextDouble();
+        return users.get((int) (users.size() * value * value));
+    }
+
+    private static Transaction transaction(Random random, LocalDate day, CategoryProfile profile, Category category,
+                                           User user) {
+        BigDecimal amount = BigDecimal.valueOf(profile.typicalAmount * Math.exp(AMOUNT_SIGMA * random.nextGaussian()))
+            .setScale(2, RoundingMode.HALF_UP)
+            .max(MIN_AMOUNT);
+        String description = profile.words[random.nextInt(profile.words.length)];
+        Transaction transaction = new Transaction(amount, profile.type, category, description, user);
+        transaction.setDate(date(random, day, profile));
+        transaction.setStatus(status(random));
+        if (transaction.getStatus() == TransactionStatus.REJECTED) {
+            transaction.setRejectionReason("Не подтверждена");
+        }
+        return transaction;
+    }
+
+    // Регулярные платежи приходятся на свой день месяца; остальные - днем и вечером
+    private static LocalDateTime date(Random random, LocalDate day, CategoryProfile profile) {
+        if (profile.dayOfMonth > 0) {
+            day = day.withDayOfMonth(Math.min(profile.dayOfMonth, day.lengthOfMonth()));
+        }
+        int hour = (int) Math.round(15 + 3.5 * random.nextGaussian());
+        return day.atTime(Math.max(7, Math.min(23, hour)), random.nextInt(60), random.nextInt(60));
+    }
+
+    private static TransactionStatus status(Random random) {
+        int value = random.nextInt(1000);
+        if (value < 960) {
+            return TransactionStatus.ACTIVE;
+        }
+        if (value < 980) {
+            return TransactionStatus.PENDING;
+        }
+        return value < 995 ? TransactionStatus.CANCELLED : TransactionStatus.REJECTED;
+    }
+
+    private static final class CategoryProfile {
+        private final String name;
+        private final TransactionType type;
+        private final double typicalAmount;
+        private final double weight;
+        private final int dayOfMonth;
+        private final String[] words;
+
+        private CategoryProfile(String name, TransactionType type, double typicalAmount, double weight,
+                                int dayOfMonth, String... words) {
+            this.name = name;
+            this.type = type;
+            this.typicalAmount = typicalAmount;
+            this.weight = weight;
+            this.dayOfMonth = dayOfMonth;
+            this.words = words;
+        }
+    }
+}
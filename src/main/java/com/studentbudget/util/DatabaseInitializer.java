@@ -1,5 +1,6 @@
 package com.studentbudget.util;
 
+import com.studentbudget.dao.BalanceRollupDao;
 import com.studentbudget.model.Category;
 import com.studentbudget.model.User;
 import com.studentbudget.model.UserRole;
@@ -9,6 +10,7 @@ import org.hibernate.SessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -20,6 +22,7 @@ public class DatabaseInitializer {
     private final CategoryService categoryService;
     private final UserService userService;
     private final SessionFactory sessionFactory;
+    private final BalanceRollupDao balanceRollupDao;
 
     /**
      * Конструктор инициализатора базы данных.
@@ -28,9 +31,22 @@ public class DatabaseInitializer {
      * @param sessionFactory фабрика сессий Hibernate
      */
     public DatabaseInitializer(CategoryService categoryService, UserService userService, SessionFactory sessionFactory) {
+        this(categoryService, userService, sessionFactory, null);
+    }
+
+    /**
+     * Конструктор инициализатора базы данных со сверткой балансов.
+     * @param categoryService сервис для работы с категориями
+     * @param userService сервис для работы с пользователями
+     * @param sessionFactory фабрика сессий Hibernate
+     * @param balanceRollupDao свертка балансов, заполняемая при первом запуске
+     */
+    public DatabaseInitializer(CategoryService categoryService, UserService userService, SessionFactory sessionFactory,
+                               BalanceRollupDao balanceRollupDao) {
         this.categoryService = categoryService;
         this.userService = userService;
         this.sessionFactory = sessionFactory;
+        this.balanceRollupDao = balanceRollupDao;
     }
 
     /**
@@ -43,6 +59,8 @@ public class DatabaseInitializer {
         try {
             initializeCategories();
             initializeUsers();
+            initializeDateBuckets();
+            initializeBalanceRollup();
             logger.info("Инициализация базы данных успешно завершена.");
         } catch (Exception e) {
             logger.error("Ошибка при инициализации базы данных", e);
@@ -87,6 +105,41 @@ public class DatabaseInitializer {
         }
     }
 
+    /**
+     * Заполняет номера дня и месяца у транзакций, сохраненных до появления этих колонок.
+     * Новые и измененные транзакции получают их в Transaction.setDate.
+     */
+    private void initializeDateBuckets() {
+        new HibernateTransactionManager(sessionFactory).executeInTransactionWithoutResult(session -> {
+            int updated = session.createMutationQuery(
+                    "update Transaction t set " +
+                    "t.epochDay = (cast(t.date as LocalDate) - cast(:epoch as LocalDate)) by day, " +
+                    "t.epochMonth = (year(t.date) - 1970) * 12 + month(t.date) - 1 " +
+                    "where t.epochDay is null or t.epochMonth is null")
+                .setParameter("epoch", LocalDate.ofEpochDay(0))
+                .executeUpdate();
+            if (updated > 0) {
+                logger.info("Заполнены номера дня и месяца у {} транзакций", updated);
+            }
+        });
+    }
+
+    /**
+     * Заполняет свертку балансов, если она пуста.
+     * Нужно при первом запуске на базе, где транзакции появились до введения свертки.
+     */
+    private void initializeBalanceRollup() {
+        if (balanceRollupDao == null) {
+            return;
+        }
+        new HibernateTransactionManager(sessionFactory).executeInTransactionWithoutResult(session -> {
+            if (balanceRollupDao.isEmpty()) {
+                logger.info("Пересчет свертки балансов...");
+                balanceRollupDao.rebuild();
+            }
+        });
+    }
+
     /**
      * Создает учетные записи пользователей по умолчанию.
      * Создает администратора (admin/admin) и тестового студента (student/student).
@@ -1,15 +1,34 @@
 package com.studentbudget.util;
 
+import org.hibernate.FlushMode;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
+import org.hibernate.context.internal.ThreadLocalSessionContext;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+
+import java.sql.Connection;
+import java.sql.SQLException;
 
 public class HibernateTransactionManager {
+    // Уровень изоляции чтений по умолчанию: чтение только зафиксированных данных
+    public static final int DEFAULT_READ_ONLY_ISOLATION = Connection.TRANSACTION_READ_COMMITTED;
+
     private final SessionFactory sessionFactory;
+    private final int readOnlyIsolation;
     private final ThreadLocal<Integer> transactionCount = new ThreadLocal<>();
 
     public HibernateTransactionManager(SessionFactory sessionFactory) {
+        this(sessionFactory, DEFAULT_READ_ONLY_ISOLATION);
+    }
+
+    /**
+     * @param readOnlyIsolation уровень изоляции из java.sql.Connection для executeReadOnly;
+     *                          Connection.TRANSACTION_NONE - уровень соединения не меняется
+     */
+    public HibernateTransactionManager(SessionFactory sessionFactory, int readOnlyIsolation) {
         this.sessionFactory = sessionFactory;
+        this.readOnlyIsolation = readOnlyIsolation;
     }
 
     private void incrementTransactionCount() {
@@ -85,6 +104,85 @@ public class HibernateTransactionManager {
         }
     }
 
+    /**
+     * Выполняет чтение в транзакции только для чтения. Сессия помечает загруженные сущности
+     * как read-only (без снимков состояния для проверки изменений) и не делает flush,
+     * соединение получает флаг readOnly и уровень изоляции чтений на время транзакции.
+     *
+     * Вызов внутри уже открытой транзакции выполняется в ней и не меняет ее режим.
+     * Изменения, сделанные внутри чтения, в базу не записываются.
+     */
+    public <T> T executeReadOnly(TransactionCallback<T> callback) {
+        if (isTransactionActive()) {
+            return executeInTransaction(callback);
+        }
+
+        // Отдельная сессия держит соединение до закрытия: после фиксации его настройки
+        // возвращаются на то же соединение, прежде чем оно вернется в пул
+        Session session = sessionFactory.withOptions()
+            .connectionHandlingMode(PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_HOLD)
+            .openSession();
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+        ThreadLocalSessionContext.bind(session);
+        Transaction transaction = null;
+
+        try {
+            ConnectionSettings previous = session.doReturningWork(ConnectionSettings::of);
+            try {
+                session.doWork(this::applyReadOnly);
+                transaction = session.beginTransaction();
+                incrementTransactionCount();
+                try {
+                    T result = callback.execute(session);
+                    transaction.commit();
+                    return result;
+                } finally {
+                    decrementTransactionCount();
+                }
+            } catch (Exception e) {
+                if (transaction != null && transaction.isActive()) {
+                    transaction.rollback();
+                }
+                throw e;
+            } finally {
+                session.doWork(previous::restore);
+            }
+        } finally {
+            ThreadLocalSessionContext.unbind(sessionFactory);
+            session.close();
+        }
+    }
+
+    private void applyReadOnly(Connection connection) throws SQLException {
+        connection.setReadOnly(true);
+        if (readOnlyIsolation != Connection.TRANSACTION_NONE) {
+            connection.setTransactionIsolation(readOnlyIsolation);
+        }
+    }
+
+    // Настройки соединения до перехода в режим чтения
+    private static final class ConnectionSettings {
+        private final boolean readOnly;
+        private final int isolation;
+
+        private ConnectionSettings(boolean readOnly, int isolation) {
+            this.readOnly = readOnly;
+            this.isolation = isolation;
+        }
+
+        private static ConnectionSettings of(Connection connection) throws SQLException {
+            return new ConnectionSettings(connection.isReadOnly(), connection.getTransactionIsolation());
+        }
+
+        private void restore(Connection connection) throws SQLException {
+            connection.setReadOnly(readOnly);
+            if (connection.getTransactionIsolation() != isolation) {
+                connection.setTransactionIsolation(isolation);
+            }
+        }
+    }
+
     @FunctionalInterface
     public interface TransactionCallback<T> {
         T execute(Session session);
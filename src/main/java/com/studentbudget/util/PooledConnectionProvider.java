@@ -0,0 +1,185 @@
+package com.studentbudget.util;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.Stoppable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Пул соединений HikariCP для Hibernate вместо встроенного пула (hibernate.connection.pool_size).
+ *
+ * Адрес базы и учетные данные берутся из свойств jakarta.persistence.jdbc.*, а если
+ * они не заданы - из обычных свойств hibernate.connection.*; размеры и таймауты пула - из свойств studentbudget.pool.*. Соединения проверяются
+ * перед выдачей через Connection.isValid, соединение, удерживаемое дольше порога,
+ * попадает в журнал вместе со стеком места получения. Для H2 включается кэш
+ * разобранных запросов сессии (QUERY_CACHE_SIZE).
+ */
+public class PooledConnectionProvider implements ConnectionProvider, Configurable, Stoppable {
+    // ConnectionProvider наследует Serializable от Service; сам пул не сериализуется
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger logger = LoggerFactory.getLogger(PooledConnectionProvider.class);
+
+    public static final String MAX_SIZE = "studentbudget.pool.max_size";
+    public static final String MIN_IDLE = "studentbudget.pool.min_idle";
+    public static final String CONNECTION_TIMEOUT = "studentbudget.pool.connection_timeout";
+    public static final String VALIDATION_TIMEOUT = "studentbudget.pool.validation_timeout";
+    public static final String LEAK_DETECTION_THRESHOLD = "studentbudget.pool.leak_detection_threshold";
+    public static final String STATEMENT_CACHE_SIZE = "studentbudget.pool.statement_cache_size";
+
+    // Устаревшие имена hibernate.connection.*, которыми пользуется hibernate.cfg.xml
+    private static final String LEGACY_URL = "hibernate.connection.url";
+    private static final String LEGACY_DRIVER = "hibernate.connection.driver_class";
+    private static final String LEGACY_USER = "hibernate.connection.username";
+    private static final String LEGACY_PASSWORD = "hibernate.connection.password";
+
+    public static final int DEFAULT_MAX_SIZE = 10;
+    public static final int DEFAULT_MIN_IDLE = 2;
+    public static final long DEFAULT_CONNECTION_TIMEOUT_MS = 10_000;
+    public static final long DEFAULT_VALIDATION_TIMEOUT_MS = 3_000;
+    public static final long DEFAULT_LEAK_DETECTION_THRESHOLD_MS = 60_000;
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+    private HikariDataSource dataSource;
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+
+    @Override
+    public void configure(Map<String, Object> settings) {
+        String url = jdbcSetting(settings, AvailableSettings.JAKARTA_JDBC_URL, LEGACY_URL);
+        if (url == null) {
+            throw new IllegalArgumentException("Connection pool requires " + AvailableSettings.JAKARTA_JDBC_URL
+                + " or " + LEGACY_URL);
+        }
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("studentbudget");
+        config.setJdbcUrl(url);
+        String driver = jdbcSetting(settings, AvailableSettings.JAKARTA_JDBC_DRIVER, LEGACY_DRIVER);
+        if (driver != null) {
+            config.setDriverClassName(driver);
+        }
+        config.setUsername(jdbcSetting(settings, AvailableSettings.JAKARTA_JDBC_USER, LEGACY_USER));
+        config.setPassword(jdbcSetting(settings, AvailableSettings.JAKARTA_JDBC_PASSWORD, LEGACY_PASSWORD));
+        config.setAutoCommit(Boolean.parseBoolean(stringSetting(settings, AvailableSettings.AUTOCOMMIT, "false")));
+
+        config.setMaximumPoolSize(intSetting(settings, MAX_SIZE, DEFAULT_MAX_SIZE));
+        config.setMinimumIdle(intSetting(settings, MIN_IDLE, DEFAULT_MIN_IDLE));
+        config.setConnectionTimeout(longSetting(settings, CONNECTION_TIMEOUT, DEFAULT_CONNECTION_TIMEOUT_MS));
+        config.setValidationTimeout(longSetting(settings, VALIDATION_TIMEOUT, DEFAULT_VALIDATION_TIMEOUT_MS));
+        config.setLeakDetectionThreshold(longSetting(settings, LEAK_DETECTION_THRESHOLD, DEFAULT_LEAK_DETECTION_THRESHOLD_MS));
+        if (url.startsWith("jdbc:h2:")) {
+            config.addDataSourceProperty("QUERY_CACHE_SIZE",
+                String.valueOf(intSetting(settings, STATEMENT_CACHE_SIZE, DEFAULT_STATEMENT_CACHE_SIZE)));
+        }
+        config.setMetricsTrackerFactory((poolName, poolStats) -> new WaitTracker());
+
+        dataSource = new HikariDataSource(config);
+        logger.info("Connection pool started: maxSize={}, minIdle={}", config.getMaximumPoolSize(), config.getMinimumIdle());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        // Для соединения из пула close возвращает его в пул
+        connection.close();
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    public ConnectionPoolMetrics getMetrics() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return new ConnectionPoolMetrics(
+            pool.getActiveConnections(),
+            pool.getIdleConnections(),
+            pool.getTotalConnections(),
+            pool.getThreadsAwaitingConnection(),
+            acquisitions.sum(),
+            totalWaitNanos.sum(),
+            maxWaitNanos.get(),
+            timeouts.sum());
+    }
+
+    @Override
+    public void stop() {
+        if (dataSource != null) {
+            logger.info("Connection pool stopping: {}", getMetrics());
+            dataSource.close();
+        }
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class<?> unwrapType) {
+        return unwrapType.isAssignableFrom(PooledConnectionProvider.class)
+            || unwrapType.isAssignableFrom(HikariDataSource.class);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isAssignableFrom(PooledConnectionProvider.class)) {
+            return (T) this;
+        }
+        if (unwrapType.isAssignableFrom(HikariDataSource.class)) {
+            return (T) dataSource;
+        }
+        throw new UnknownUnwrapTypeException(unwrapType);
+    }
+
+    // Параметр JDBC из настроек Jakarta Persistence; старое имя Hibernate читается, если новое не задано
+    private static String jdbcSetting(Map<String, Object> settings, String name, String legacyName) {
+        return stringSetting(settings, name, stringSetting(settings, legacyName, null));
+    }
+
+    private static String stringSetting(Map<String, Object> settings, String name, String defaultValue) {
+        Object value = settings.get(name);
+        return value != null ? value.toString() : defaultValue;
+    }
+
+    private static int intSetting(Map<String, Object> settings, String name, int defaultValue) {
+        String value = stringSetting(settings, name, null);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+
+    private static long longSetting(Map<String, Object> settings, String name, long defaultValue) {
+        String value = stringSetting(settings, name, null);
+        return value != null ? Long.parseLong(value.trim()) : defaultValue;
+    }
+
+    // Пул сообщает время ожидания каждой выдачи и каждый отказ по таймауту
+    private final class WaitTracker implements IMetricsTracker {
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquisitions.increment();
+            totalWaitNanos.add(elapsedAcquiredNanos);
+            maxWaitNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+    }
+}
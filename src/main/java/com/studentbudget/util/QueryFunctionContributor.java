@@ -0,0 +1,24 @@
+package com.studentbudget.util;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Функции запросов, которых нет среди стандартных функций HQL. Hibernate находит
+ * класс через META-INF/services при построении любой SessionFactory.
+ */
+public class QueryFunctionContributor implements FunctionContributor {
+    /**
+     * any_of(:ids) - элемент массива id: условие id = any_of(:ids) передает весь список
+     * одним параметром-массивом. H2 выбирает строки по индексу первичного ключа, а
+     * текст запроса, в отличие от IN (?, ?, ...), не зависит от длины списка.
+     */
+    public static final String ANY_OF = "any_of";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        functionContributions.getFunctionRegistry().registerPattern(ANY_OF, "any(?1)",
+            functionContributions.getTypeConfiguration().getBasicTypeRegistry().resolve(StandardBasicTypes.LONG));
+    }
+}
@@ -0,0 +1,254 @@
+package com.studentbudget.config;
+
+import com.studentbudget.model.Category;
+import com.studentbudget.model.Page;
+import com.studentbudget.model.Transaction;
+import com.studentbudget.model.TransactionFilter;
+import com.studentbudget.model.TransactionRow;
+import com.studentbudget.model.TransactionSortKey;
+import com.studentbudget.model.TransactionType;
+import com.studentbudget.model.UserRole;
+import com.studentbudget.service.AuthService;
+import com.studentbudget.service.CategoryService;
+import com.studentbudget.service.TransactionService;
+import com.studentbudget.util.DataGenerator;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.function.Executable;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Приемочная проверка требований производительности на сгенерированных данных.
+ * Поднимает сервисы через AppConfig и замеряет сценарии главного окна: вход и загрузку
+ * главного окна, поиск и добавление транзакции.
+ *
+ * PERF-01: главное окно загружается не дольше 2 секунд.
+ * PERF-02: операции с транзакциями выполняются не дольше 1 секунды.
+ * PERF-03: база до 100 000 транзакций - на этих объемах p95 проверяется, на больших только выводится.
+ *
+ * Запуск: mvn -B -Pperf test; объемы задаются -Dperf.sizes=100000,1000000.
+ * Результаты дописываются в target/perf-results.csv.
+ */
+@Tag("perf")
+class PerformanceAcceptanceTest {
+    private static final Path DATA_DIR = Paths.get("target", "perf-data");
+    private static final Path RESULTS = Paths.get("target", "perf-results.csv");
+    private static final String H2_OPTIONS = ";MODE=LEGACY;DATABASE_TO_LOWER=TRUE;DEFAULT_ESCAPE='';CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+
+    private static final long PERF_01_MAIN_WINDOW_MS = 2_000;
+    private static final long PERF_02_OPERATION_MS = 1_000;
+    private static final int PERF_03_TRANSACTIONS = 100_000;
+
+    private static final int USERS = 500;
+    private static final int CATEGORIES = 13;
+    private static final int WARMUP = 5;
+    private static final int SAMPLES = 30;
+    // Совпадает с размером страницы таблицы в MainController
+    private static final int PAGE_SIZE = 200;
+    private static final String[] SEARCH_TERMS = {"кофе", "такси", "учебник", "кино", "стипендия", "аптека"};
+
+    @TestFactory
+    Stream<DynamicTest> mainWindowFlows_ShouldMeetPerfTargets() {
+        return Arrays.stream(System.getProperty("perf.sizes", "100000,1000000").split(","))
+            .map(String::trim)
+            .map(Integer::parseInt)
+            .map(size -> DynamicTest.dynamicTest(size + " transactions", () -> runFlows(size)));
+    }
+
+    private static void runFlows(int size) throws IOException, SQLException {
+        // Arrange
+        Configuration configuration = configuration(prepareDatabase(size));
+
+        // Act
+        long bootStarted = System.nanoTime();
+        AppConfig app = AppConfig.create(configuration);
+        List<Result> results = new ArrayList<>();
+        try {
+            AuthService authService = app.getAuthService();
+            TransactionService transactionService = app.getTransactionService();
+            CategoryService categoryService = app.getCategoryService();
+            String student = DataGenerator.username(0);
+
+            authService.authenticate(student, DataGenerator.PASSWORD);
+            loadMainWindow(authService, transactionService, categoryService);
+            long coldStartNanos = System.nanoTime() - bootStarted;
+            authService.logout();
+
+            results.add(measure("login+main window", PERF_01_MAIN_WINDOW_MS, i -> {
+                authService.authenticate(student, DataGenerator.PASSWORD);
+                loadMainWindow(authService, transactionService, categoryService);
+                authService.logout();
+            }));
+            results.add(measure("admin main window", PERF_01_MAIN_WINDOW_MS, i -> {
+                authService.authenticate("admin", "admin");
+                loadMainWindow(authService, transactionService, categoryService);
+                authService.logout();
+            }));
+
+            authService.authenticate(student, DataGenerator.PASSWORD);
+            List<Category> categories = categoryService.getAllCategories();
+            results.add(measure("search", PERF_02_OPERATION_MS, i -> {
+                TransactionFilter filter = new TransactionFilter();
+                filter.setDescription(SEARCH_TERMS[i % SEARCH_TERMS.length]);
+                transactionService.getTransactionRowsPage(filter, TransactionSortKey.DATE_DESC, null, PAGE_SIZE);
+            }));
+            results.add(measure("add transaction", PERF_02_OPERATION_MS, i -> {
+                // Как в MainController: создание и обновление главного окна
+                transactionService.createTransaction(new Transaction(new BigDecimal("250.00"), TransactionType.EXPENSE,
+                    categories.get(i % categories.size()), "кофе perf " + i, authService.getCurrentUser()));
+                loadMainWindow(authService, transactionService, categoryService);
+            }));
+
+            report(size, coldStartNanos, results);
+        } finally {
+            app.shutdown();
+        }
+
+        // Assert
+        if (size <= PERF_03_TRANSACTIONS) {
+            assertAll(results.stream().map(result -> (Executable) () -> assertTrue(
+                result.percentileMillis(95) <= result.targetMillis,
+                () -> String.format("%s p95 %.1f ms exceeds %d ms at %d transactions",
+                    result.name, result.percentileMillis(95), result.targetMillis, size))));
+        }
+    }
+
+    // Те же запросы, что MainController выполняет при открытии и обновлении главного окна
+    private static void loadMainWindow(AuthService authService, TransactionService transactionService,
+                                       CategoryService categoryService) {
+        boolean admin = authService.getCurrentUser().getRole() == UserRole.ADMIN;
+        categoryService.getAllCategories();
+        if (admin) {
+            assertFalse(authService.getAllUsers().isEmpty());
+            transactionService.getTotalIncomeByUser();
+            transactionService.getTotalExpensesByUser();
+        }
+        transactionService.getDashboardSummary();
+        Page<TransactionRow> page = transactionService.getTransactionRowsPage(
+            new TransactionFilter(), TransactionSortKey.DATE_DESC, null, PAGE_SIZE);
+        assertFalse(page.getItems().isEmpty());
+        transactionService.getExpenseDistribution();
+    }
+
+    private static Result measure(String name, long targetMillis, Flow flow) {
+        for (int i = 0; i < WARMUP; i++) {
+            flow.run(i);
+        }
+        long[] nanos = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long started = System.nanoTime();
+            flow.run(WARMUP + i);
+            nanos[i] = System.nanoTime() - started;
+        }
+        return new Result(name, targetMillis, nanos);
+    }
+
+    // Данные генерируются один раз на объем; каждый запуск работает с копией
+    private static Path prepareDatabase(int size) throws IOException, SQLException {
+        Files.createDirectories(DATA_DIR);
+        Path seed = DATA_DIR.resolve("seed-" + size + ".mv.db");
+        if (!Files.exists(seed)) {
+            Path building = DATA_DIR.resolve("building-" + size);
+            Files.deleteIfExists(Paths.get(building + ".mv.db"));
+            // RETENTION_TIME=0: страницы, освобожденные при построчной вставке, H2 переиспользует сразу;
+            // на миллионе строк файл до уплотнения все равно занимает гигабайты
+            SessionFactory sessionFactory = configuration(building)
+                .setProperty("hibernate.connection.url", url(building) + ";RETENTION_TIME=0")
+                .buildSessionFactory();
+            try {
+                new DataGenerator(sessionFactory).generate(USERS, CATEGORIES, size);
+            } finally {
+                sessionFactory.close();
+            }
+            // Без уплотнения файл после пакетной загрузки в несколько раз больше данных
+            try (Connection connection = DriverManager.getConnection(url(building), "sa", "");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("SHUTDOWN COMPACT");
+            }
+            Files.move(Paths.get(building + ".mv.db"), seed);
+        }
+        Path run = DATA_DIR.resolve("run-" + size);
+        Files.copy(seed, Paths.get(run + ".mv.db"), StandardCopyOption.REPLACE_EXISTING);
+        return run;
+    }
+
+    private static Configuration configuration(Path database) {
+        return AppConfig.hibernateConfiguration()
+            .setProperty("hibernate.connection.url", url(database))
+            .setProperty("hibernate.show_sql", "false")
+            .setProperty("hibernate.format_sql", "false");
+    }
+
+    private static String url(Path database) {
+        return "jdbc:h2:file:" + database.toAbsolutePath() + H2_OPTIONS;
+    }
+
+    private static void report(int size, long coldStartNanos, List<Result> results) throws IOException {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%nPerformance at %,d transactions (cold start %.0f ms, target %d ms)%n",
+            size, coldStartNanos / 1e6, PERF_01_MAIN_WINDOW_MS));
+        table.append(String.format("%-20s %9s %9s %9s %9s %9s%n", "flow", "p50 ms", "p95 ms", "p99 ms", "max ms", "target"));
+        StringBuilder csv = new StringBuilder();
+        if (!Files.exists(RESULTS)) {
+            csv.append("transactions,flow,p50_ms,p95_ms,p99_ms,max_ms,target_ms\n");
+        }
+        for (Result result : results) {
+            table.append(String.format("%-20s %9.1f %9.1f %9.1f %9.1f %9d %s%n", result.name,
+                result.percentileMillis(50), result.percentileMillis(95), result.percentileMillis(99),
+                result.percentileMillis(100), result.targetMillis,
+                result.percentileMillis(95) <= result.targetMillis ? "ok" : "SLOW"));
+            csv.append(String.format(Locale.ROOT, "%d,%s,%.1f,%.1f,%.1f,%.1f,%d%n", size, result.name,
+                result.percentileMillis(50), result.percentileMillis(95), result.percentileMillis(99),
+                result.percentileMillis(100), result.targetMillis));
+        }
+        System.out.print(table);
+        Files.writeString(RESULTS, csv, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @FunctionalInterface
+    private interface Flow {
+        void run(int iteration);
+    }
+
+    private static final class Result {
+        private final String name;
+        private final long targetMillis;
+        private final long[] sortedNanos;
+
+        private Result(String name, long targetMillis, long[] nanos) {
+            this.name = name;
+            this.targetMillis = targetMillis;
+            this.sortedNanos = nanos.clone();
+            Arrays.sort(sortedNanos);
+        }
+
+        // Процентиль по ближайшему рангу
+        private double percentileMillis(int percentile) {
+            int rank = (int) Math.ceil(percentile / 100.0 * sortedNanos.length);
+            return sortedNanos[Math.max(0, rank - 1)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.studentbudget.dao;
+
+import com.studentbudget.dao.impl.HibernateBalanceRollupDao;
+import com.studentbudget.model.TransactionAggregate;
+import com.studentbudget.model.TransactionSnapshot;
+import com.studentbudget.model.TransactionStatus;
+import com.studentbudget.model.TransactionType;
+import com.studentbudget.util.HibernateTransactionManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Свертка балансов на H2 при параллельных записях: окно приложения и фоновый импорт
+ * меняют одни и те же ключи, и ни одно приращение не теряется.
+ */
+class BalanceRollupCounterTest {
+    private static final int WRITERS = 4;
+    private static final int WRITES_PER_WRITER = 50;
+
+    private SessionFactory sessionFactory;
+    private HibernateTransactionManager transactionManager;
+    private BalanceRollupDao balanceRollupDao;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = new Configuration().configure()
+            .setProperty("hibernate.connection.url", "jdbc:h2:mem:rollup_counters;DB_CLOSE_DELAY=-1;MODE=LEGACY;" +
+                "DATABASE_TO_LOWER=TRUE;DEFAULT_ESCAPE='';CASE_INSENSITIVE_IDENTIFIERS=TRUE;LOCK_TIMEOUT=10000")
+            .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+            .setProperty("hibernate.show_sql", "false")
+            .buildSessionFactory();
+        transactionManager = new HibernateTransactionManager(sessionFactory);
+        balanceRollupDao = new HibernateBalanceRollupDao(sessionFactory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void concurrentWriters_ShouldNotLoseIncrementsOfNewKey() throws Exception {
+        // Arrange: ключа еще нет, и первые записи всех потоков вставляют его одновременно
+        TransactionSnapshot expense = new TransactionSnapshot(1L, 1L, TransactionType.EXPENSE,
+            TransactionStatus.ACTIVE, LocalDate.of(2024, 9, 1), new BigDecimal("12.50"));
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+
+        // Act
+        List<Future<?>> writers = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < WRITES_PER_WRITER; j++) {
+                    transactionManager.executeInTransactionWithoutResult(session ->
+                        balanceRollupDao.applyChanges(List.of(), List.of(expense)));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        executor.shutdown();
+
+        // Assert
+        List<TransactionAggregate> aggregates = transactionManager.executeInTransaction(session ->
+            balanceRollupDao.aggregateByTypeAndStatus(null));
+        assertEquals(1, aggregates.size());
+        assertEquals(WRITERS * WRITES_PER_WRITER, aggregates.get(0).getCount());
+        assertEquals(0, new BigDecimal("12.50").multiply(BigDecimal.valueOf(WRITERS * WRITES_PER_WRITER))
+            .compareTo(aggregates.get(0).getTotal()));
+    }
+
+    @Test
+    void removingLastTransaction_ShouldDeleteEmptyGroup() {
+        // Arrange
+        TransactionSnapshot income = new TransactionSnapshot(1L, 2L, TransactionType.INCOME,
+            TransactionStatus.ACTIVE, LocalDate.of(2024, 9, 2), new BigDecimal("100.00"));
+        transactionManager.executeInTransactionWithoutResult(session ->
+            balanceRollupDao.applyChanges(List.of(), List.of(income, income)));
+
+        // Act
+        transactionManager.executeInTransactionWithoutResult(session ->
+            balanceRollupDao.applyChanges(List.of(income, income), List.of()));
+
+        // Assert
+        boolean empty = transactionManager.executeInTransaction(session -> balanceRollupDao.isEmpty());
+        assertTrue(empty);
+    }
+}
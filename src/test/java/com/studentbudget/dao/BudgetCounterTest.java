@@ -0,0 +1,246 @@
+package com.studentbudget.dao;
+
+import com.studentbudget.dao.impl.CategoryDaoImpl;
+import com.studentbudget.dao.impl.HibernateBudgetDao;
+import com.studentbudget.dao.impl.TransactionDaoImpl;
+import com.studentbudget.model.*;
+import com.studentbudget.service.AuthService;
+import com.studentbudget.service.BudgetService;
+import com.studentbudget.service.CategoryService;
+import com.studentbudget.service.TransactionService;
+import com.studentbudget.service.impl.BudgetServiceImpl;
+import com.studentbudget.service.impl.BudgetWriteListener;
+import com.studentbudget.service.impl.CategoryServiceImpl;
+import com.studentbudget.service.impl.TransactionServiceImpl;
+import com.studentbudget.service.impl.TransactionWriteListener;
+import com.studentbudget.util.HibernateTransactionManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Счетчики расходов бюджетов на H2: записи транзакций через сервисы меняют их в той же
+ * транзакции, и остаток совпадает с пересчетом по таблице транзакций.
+ */
+class BudgetCounterTest {
+    private SessionFactory sessionFactory;
+    private HibernateTransactionManager transactionManager;
+    private BudgetDao budgetDao;
+    private AuthService authService;
+    private TransactionService transactionService;
+    private CategoryService categoryService;
+    private BudgetService budgetService;
+    private final List<String> statements = new ArrayList<>();
+    private User student;
+    private User admin;
+    private Category food;
+    private Category transport;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        Configuration configuration = new Configuration().configure()
+            .setProperty("hibernate.connection.url", "jdbc:h2:mem:budget_counters;DB_CLOSE_DELAY=-1;MODE=LEGACY;" +
+                "DATABASE_TO_LOWER=TRUE;DEFAULT_ESCAPE='';CASE_INSENSITIVE_IDENTIFIERS=TRUE;LOCK_TIMEOUT=10000")
+            .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+            .setProperty("hibernate.show_sql", "false");
+        configuration.setStatementInspector(sql -> {
+            statements.add(sql);
+            return sql;
+        });
+        sessionFactory = configuration.buildSessionFactory();
+        transactionManager = new HibernateTransactionManager(sessionFactory);
+        TransactionDao transactionDao = new TransactionDaoImpl(sessionFactory);
+        budgetDao = new HibernateBudgetDao(sessionFactory);
+        authService = mock(AuthService.class);
+        List<TransactionWriteListener> writeListeners = List.of(new BudgetWriteListener(budgetDao));
+        transactionService = new TransactionServiceImpl(transactionDao, null, null, null, null, writeListeners,
+            transactionManager, authService);
+        categoryService = new CategoryServiceImpl(new CategoryDaoImpl(sessionFactory), transactionDao, writeListeners,
+            transactionManager);
+        budgetService = new BudgetServiceImpl(budgetDao, transactionManager, authService);
+
+        transactionManager.executeInTransactionWithoutResult(session -> {
+            student = new User("student", "hash", "student@test.com", "Test", "Student", UserRole.STUDENT);
+            admin = new User("admin", "hash", "admin@test.com", "Test", "Admin", UserRole.ADMIN);
+            food = new Category("Еда", "Продукты");
+            transport = new Category("Транспорт", "Проезд");
+            session.persist(student);
+            session.persist(admin);
+            session.persist(food);
+            session.persist(transport);
+        });
+        when(authService.getCurrentUser()).thenReturn(student);
+        today = LocalDate.now();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void transactionWrites_ShouldKeepSpentInStepWithHistory() {
+        // Arrange: расход до бюджета учитывается при его создании, прошлый месяц и доходы - нет
+        expense(food, "300.00", today);
+        expense(food, "999.00", BudgetPeriod.MONTHLY.startOf(today).minusDays(1));
+        transactionService.createTransaction(transaction(food, "5000.00", TransactionType.INCOME, today));
+        Budget budget = budgetService.setBudget(food, BudgetPeriod.MONTHLY, new BigDecimal("1000.00"));
+        assertEquals(0, new BigDecimal("300.00").compareTo(budget.getSpent()));
+
+        // Act
+        Transaction lunch = expense(food, "450.00", today);
+        Transaction bus = expense(transport, "50.00", today);
+        lunch.setAmount(new BigDecimal("500.00"));
+        transactionService.updateTransaction(lunch);
+        bus.setCategory(food);
+        transactionService.updateTransaction(bus);
+        Transaction coffee = expense(food, "100.00", today);
+        transactionService.deleteTransaction(coffee.getId());
+
+        // Assert
+        Budget current = single(budgetService.getCurrentBudgets());
+        assertEquals(0, new BigDecimal("850.00").compareTo(current.getSpent()));
+        assertEquals(0, new BigDecimal("150.00").compareTo(current.getRemaining()));
+        assertEquals(3, current.getTransactionCount());
+        assertTrue(budgetService.getExceededBudgets().isEmpty());
+        assertMatchesHistory(current);
+    }
+
+    @Test
+    void batchUpdatesAndCategoryDeletion_ShouldMoveSpentBetweenBudgets() {
+        // Arrange
+        budgetService.setBudget(food, BudgetPeriod.WEEKLY, new BigDecimal("100.00"));
+        budgetService.setBudget(transport, BudgetPeriod.MONTHLY, new BigDecimal("100.00"));
+        Transaction first = expense(transport, "70.00", today);
+        expense(transport, "60.00", today);
+        expense(food, "40.00", today);
+        when(authService.getCurrentUser()).thenReturn(admin);
+
+        // Act: отмена убирает расход из счетчика, перенос категории переводит остальное в бюджет еды
+        transactionService.batchUpdateStatus(List.of(first.getId()), TransactionStatus.CANCELLED.name());
+        categoryService.deleteCategoryWithTransactions(transport.getId(), food);
+        when(authService.getCurrentUser()).thenReturn(student);
+
+        // Assert
+        Budget weekly = single(budgetService.getCurrentBudgets());
+        assertEquals(food.getId(), weekly.getCategory().getId());
+        assertEquals(0, new BigDecimal("100.00").compareTo(weekly.getSpent()));
+        assertEquals(2, weekly.getTransactionCount());
+        assertTrue(budgetService.getExceededBudgets().isEmpty());
+        assertMatchesHistory(weekly);
+
+        expense(food, "0.01", today);
+        assertEquals(List.of(weekly.getId()), budgetService.getExceededBudgets().stream().map(Budget::getId).toList());
+    }
+
+    @Test
+    void getCurrentBudgets_ShouldRenewEndedPeriodAndReadWithoutTransactionsTable() {
+        // Arrange: бюджет прошлого месяца, в текущем месяце уже есть расход
+        LocalDate previousStart = BudgetPeriod.MONTHLY.startOf(BudgetPeriod.MONTHLY.startOf(today).minusDays(1));
+        transactionManager.executeInTransactionWithoutResult(session ->
+            budgetDao.save(new Budget(student, food, BudgetPeriod.MONTHLY, previousStart, new BigDecimal("500.00"))));
+        expense(food, "120.00", today);
+
+        // Act
+        Budget renewed = single(budgetService.getCurrentBudgets());
+        statements.clear();
+        Budget reread = single(budgetService.getCurrentBudgets());
+
+        // Assert: продление считает расходы по таблице один раз, дальше читается только строка бюджета
+        assertEquals(BudgetPeriod.MONTHLY.startOf(today), renewed.getStartDate());
+        assertEquals(0, new BigDecimal("500.00").compareTo(renewed.getAmount()));
+        assertEquals(0, new BigDecimal("120.00").compareTo(reread.getSpent()));
+        assertTrue(statements.stream().noneMatch(sql -> sql.contains("transactions")), statements.toString());
+    }
+
+    @Test
+    void concurrentRenewalAndWrites_ShouldStartPeriodOnceAndCountEveryExpense() throws Exception {
+        // Arrange: бюджет прошлого месяца; продление идет одновременно с записью расходов
+        LocalDate previousStart = BudgetPeriod.MONTHLY.startOf(BudgetPeriod.MONTHLY.startOf(today).minusDays(1));
+        transactionManager.executeInTransactionWithoutResult(session ->
+            budgetDao.save(new Budget(student, food, BudgetPeriod.MONTHLY, previousStart, new BigDecimal("500.00"))));
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> tasks = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 2; i++) {
+            tasks.add(executor.submit(() -> {
+                start.await();
+                return budgetService.getCurrentBudgets();
+            }));
+            tasks.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < 20; j++) {
+                    expense(food, "1.00", today);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        Budget current = single(budgetService.getCurrentBudgets());
+        assertEquals(40, current.getTransactionCount());
+        assertEquals(0, new BigDecimal("40.00").compareTo(current.getSpent()));
+        assertMatchesHistory(current);
+    }
+
+    private Transaction expense(Category category, String amount, LocalDate day) {
+        return transactionService.createTransaction(transaction(category, amount, TransactionType.EXPENSE, day));
+    }
+
+    private Transaction transaction(Category category, String amount, TransactionType type, LocalDate day) {
+        Transaction transaction = new Transaction(new BigDecimal(amount), type, category, "test", student);
+        transaction.setDate(LocalDateTime.of(day, LocalTime.NOON));
+        return transaction;
+    }
+
+    private static Budget single(List<Budget> budgets) {
+        assertEquals(1, budgets.size(), budgets.toString());
+        return budgets.get(0);
+    }
+
+    // Счетчик совпадает с пересчетом по таблице транзакций
+    private void assertMatchesHistory(Budget budget) {
+        Object[] history = transactionManager.executeReadOnly(session -> session.createQuery(
+                "select coalesce(sum(t.amount), 0), count(t) from Transaction t where t.user.id = :userId " +
+                "and t.category.id = :categoryId and t.type = :type and t.status = :status " +
+                "and t.date >= :start and t.date < :end", Object[].class)
+            .setParameter("userId", student.getId())
+            .setParameter("categoryId", budget.getCategory().getId())
+            .setParameter("type", TransactionType.EXPENSE)
+            .setParameter("status", TransactionStatus.ACTIVE)
+            .setParameter("start", budget.getStartDate().atStartOfDay())
+            .setParameter("end", budget.getEndDate().plusDays(1).atStartOfDay())
+            .getSingleResult());
+        assertEquals(0, ((BigDecimal) history[0]).compareTo(budget.getSpent()));
+        assertEquals((Long) history[1], budget.getTransactionCount());
+    }
+}
@@ -0,0 +1,125 @@
+package com.studentbudget.dao;
+
+import com.studentbudget.dao.impl.HibernateTransactionDao;
+import com.studentbudget.model.*;
+import com.studentbudget.service.impl.DescriptionSearchIndex;
+import com.studentbudget.util.HibernateTransactionManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Условие по описанию дает одни и те же транзакции в SQL, в предикате хранилищ
+ * без SQL и в индексе описаний: от того, какое хранилище и есть ли индекс,
+ * результат поиска не зависит.
+ */
+class DescriptionFilterTest {
+    private static final String[] DESCRIPTIONS = {
+        "Кофе у дома", "Кофемашина в общежитие", "Автобус до дома", "Кофе, булочка; ещё кофе", "Обед", null};
+
+    private static SessionFactory sessionFactory;
+    private static HibernateTransactionManager transactionManager;
+    private static TransactionDao transactionDao;
+    private static DescriptionSearchIndex searchIndex;
+    private static final List<Transaction> transactions = new ArrayList<>();
+
+    @BeforeAll
+    static void setUp() {
+        sessionFactory = new Configuration().configure()
+            .setProperty("hibernate.connection.url", "jdbc:h2:mem:description_filter;DB_CLOSE_DELAY=-1;MODE=LEGACY;" +
+                "DATABASE_TO_LOWER=TRUE;DEFAULT_ESCAPE='';CASE_INSENSITIVE_IDENTIFIERS=TRUE")
+            .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+            .setProperty("hibernate.show_sql", "false")
+            .buildSessionFactory();
+        transactionManager = new HibernateTransactionManager(sessionFactory);
+        transactionDao = new HibernateTransactionDao(sessionFactory);
+        searchIndex = new DescriptionSearchIndex(transactionDao, transactionManager);
+
+        transactionManager.executeInTransactionWithoutResult(session -> {
+            User student = new User("student", "hash", "student@test.com", "Test", "User", UserRole.STUDENT);
+            session.persist(student);
+            Category food = new Category("food", "test");
+            session.persist(food);
+            for (int i = 0; i < DESCRIPTIONS.length; i++) {
+                Transaction transaction = new Transaction(BigDecimal.TEN, TransactionType.EXPENSE, food,
+                    DESCRIPTIONS[i], student);
+                transaction.setDate(LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(i));
+                session.persist(transaction);
+                transactions.add(transaction);
+            }
+        });
+    }
+
+    @AfterAll
+    static void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void infixQuery_ShouldFindWordsContainingIt() {
+        // Act & Assert: "фе" - середина слова "Кофе", а не его начало
+        assertEquals(descriptionsOf(0, 1, 3), findInDatabase("фе"));
+        assertEquals(descriptionsOf(1), findInDatabase("маш"));
+        assertEquals(descriptionsOf(0), findInDatabase("коф ома"));
+    }
+
+    @Test
+    void allPaths_ShouldFindSameTransactions() {
+        for (String query : List.of("фе", "КОФЕ", "коф дом", "ома", "еще", "ё", "о", "маш обще", "метро", " ,. ")) {
+            // Act
+            List<String> database = findInDatabase(query);
+            TransactionFilter filter = new TransactionFilter();
+            filter.setDescription(query);
+            List<String> predicate = transactions.stream()
+                .filter(filter.toPredicate())
+                .map(Transaction::getDescription)
+                .collect(Collectors.toList());
+            List<String> index = Arrays.stream(searchIndex.matchingIds(query, null))
+                .mapToObj(id -> transactions.stream().filter(t -> t.getId() == id).findFirst().orElseThrow())
+                .map(Transaction::getDescription)
+                .collect(Collectors.toList());
+            TransactionFilter indexed = new TransactionFilter();
+            indexed.setIds(Arrays.stream(searchIndex.matchingIds(query, null)).boxed().collect(Collectors.toList()));
+            List<String> restricted = transactionManager.executeReadOnly(session ->
+                transactionDao.findPage(indexed, TransactionSortKey.DATE_ASC, null, 100)).getItems().stream()
+                .map(Transaction::getDescription)
+                .collect(Collectors.toList());
+            List<String> searched = transactionManager.executeReadOnly(session ->
+                transactionDao.searchByDescription(query)).stream()
+                .sorted((a, b) -> a.getId().compareTo(b.getId()))
+                .map(Transaction::getDescription)
+                .collect(Collectors.toList());
+
+            // Assert
+            assertEquals(database, predicate, "toPredicate: " + query);
+            assertEquals(database, index, "index: " + query);
+            assertEquals(database, restricted, "ids from index: " + query);
+            assertEquals(database, searched, "searchByDescription: " + query);
+        }
+    }
+
+    // Описания найденных транзакций в порядке id
+    private static List<String> findInDatabase(String query) {
+        TransactionFilter filter = new TransactionFilter();
+        filter.setDescription(query);
+        return transactionManager.executeReadOnly(session ->
+            transactionDao.findPage(filter, TransactionSortKey.DATE_ASC, null, 100)).getItems().stream()
+            .map(Transaction::getDescription)
+            .collect(Collectors.toList());
+    }
+
+    private static List<String> descriptionsOf(int... indexes) {
+        return Arrays.stream(indexes).mapToObj(i -> DESCRIPTIONS[i]).collect(Collectors.toList());
+    }
+}
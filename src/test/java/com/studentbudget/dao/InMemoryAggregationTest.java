@@ -0,0 +1,111 @@
+package com.studentbudget.dao;
+
+import com.studentbudget.dao.impl.JsonFileTransactionDao;
+import com.studentbudget.model.Category;
+import com.studentbudget.model.Transaction;
+import com.studentbudget.model.TransactionAggregate;
+import com.studentbudget.model.TransactionStatus;
+import com.studentbudget.model.TransactionType;
+import com.studentbudget.model.User;
+import com.studentbudget.model.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Агрегация в памяти (JSON-хранилище): суммы совпадают с точным сложением BigDecimal,
+ * а повторный проход по всем строкам не создает объектов на каждую строку.
+ */
+class InMemoryAggregationTest {
+    private static final int ROWS = 100_000;
+    // Результат и служебные объекты одного вызова; от числа строк не зависит
+    private static final long ALLOCATION_BUDGET_BYTES = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private JsonFileTransactionDao dao;
+    private User user;
+    private Category food;
+    private BigDecimal expectedIncome = BigDecimal.ZERO;
+    private BigDecimal expectedFoodExpenses = BigDecimal.ZERO;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("student", "hash", "student@example.com", "Test", "Student", UserRole.STUDENT);
+        user.setId(1L);
+        food = new Category("Питание", "Еда");
+        food.setId(1L);
+        Category transport = new Category("Транспорт", "Проезд");
+        transport.setId(2L);
+
+        List<Transaction> transactions = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            TransactionType type = i % 5 == 0 ? TransactionType.INCOME : TransactionType.EXPENSE;
+            Category category = i % 2 == 0 ? food : transport;
+            BigDecimal amount = BigDecimal.valueOf(i % 100_000 + 1, 2);
+            Transaction transaction = new Transaction(amount, type, category, "row " + i, user);
+            transaction.setStatus(i % 50 == 0 ? TransactionStatus.PENDING : TransactionStatus.ACTIVE);
+            transactions.add(transaction);
+            if (type == TransactionType.INCOME) {
+                expectedIncome = expectedIncome.add(amount);
+            } else if (category == food && transaction.getStatus() == TransactionStatus.ACTIVE) {
+                expectedFoodExpenses = expectedFoodExpenses.add(amount);
+            }
+        }
+        dao = new JsonFileTransactionDao(directory.resolve("transactions.json").toString());
+        dao.saveAll(transactions);
+    }
+
+    @Test
+    void aggregateByTypeAndStatus_ShouldSumExactlyWithoutPerRowAllocation() {
+        // Arrange: первый проход переводит суммы строк в копейки
+        dao.aggregateByTypeAndStatus(null);
+
+        // Act
+        long before = allocatedBytes();
+        List<TransactionAggregate> aggregates = dao.aggregateByTypeAndStatus(null);
+        long allocated = allocatedBytes() - before;
+
+        // Assert
+        BigDecimal income = aggregates.stream()
+            .filter(aggregate -> aggregate.getType() == TransactionType.INCOME)
+            .map(TransactionAggregate::getTotal)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, expectedIncome.compareTo(income));
+        assertEquals(ROWS, aggregates.stream().mapToLong(TransactionAggregate::getCount).sum());
+        assertTrue(allocated < ALLOCATION_BUDGET_BYTES, "allocated " + allocated + " bytes for " + ROWS + " rows");
+    }
+
+    @Test
+    void aggregateByCategory_ShouldSumExactlyWithoutPerRowAllocation() {
+        // Arrange
+        dao.aggregateByCategory(user, TransactionType.EXPENSE, TransactionStatus.ACTIVE);
+
+        // Act
+        long before = allocatedBytes();
+        List<TransactionAggregate> aggregates =
+            dao.aggregateByCategory(user, TransactionType.EXPENSE, TransactionStatus.ACTIVE);
+        long allocated = allocatedBytes() - before;
+
+        // Assert
+        TransactionAggregate foodTotal = aggregates.stream()
+            .filter(aggregate -> aggregate.getCategory().getId().equals(food.getId()))
+            .findFirst()
+            .orElseThrow();
+        assertEquals(expectedFoodExpenses, foodTotal.getTotal());
+        assertTrue(allocated < ALLOCATION_BUDGET_BYTES, "allocated " + allocated + " bytes for " + ROWS + " rows");
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,104 @@
+package com.studentbudget.dao;
+
+import com.studentbudget.dao.impl.CategoryDaoImpl;
+import com.studentbudget.dao.impl.TransactionDaoImpl;
+import com.studentbudget.dao.impl.UserDaoImpl;
+import com.studentbudget.model.Category;
+import com.studentbudget.model.User;
+import com.studentbudget.model.UserRole;
+import com.studentbudget.service.CategoryService;
+import com.studentbudget.service.UserService;
+import com.studentbudget.service.impl.CategoryServiceImpl;
+import com.studentbudget.service.impl.UserServiceImpl;
+import com.studentbudget.util.HibernateTransactionManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Справочники читаются из кэша второго уровня и кэша запросов, а запись
+ * через сервисы сбрасывает закэшированные результаты.
+ */
+class ReferenceDataCacheTest {
+    private SessionFactory sessionFactory;
+    private CategoryService categoryService;
+    private UserService userService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = new Configuration().configure()
+            .setProperty("hibernate.connection.url", "jdbc:h2:mem:reference_cache;DB_CLOSE_DELAY=-1;MODE=LEGACY;" +
+                "DATABASE_TO_LOWER=TRUE;DEFAULT_ESCAPE='';CASE_INSENSITIVE_IDENTIFIERS=TRUE")
+            .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+            .setProperty("hibernate.show_sql", "false")
+            .setProperty("hibernate.generate_statistics", "true")
+            .buildSessionFactory();
+        HibernateTransactionManager transactionManager = new HibernateTransactionManager(sessionFactory);
+        categoryService = new CategoryServiceImpl(new CategoryDaoImpl(sessionFactory),
+            new TransactionDaoImpl(sessionFactory), List.of(), transactionManager);
+        userService = new UserServiceImpl(new UserDaoImpl(sessionFactory), transactionManager);
+        statistics = sessionFactory.getStatistics();
+
+        categoryService.createCategory(new Category("Еда", "Продукты"));
+        userService.createUser(new User("student", "hash", "student@test.com", "Test", "User", UserRole.STUDENT));
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void getAllCategories_Repeated_ShouldNotQueryDatabase() {
+        // Act
+        Long id = categoryService.getAllCategories().get(0).getId();
+        categoryService.getAllCategories();
+        boolean unique = categoryService.isCategoryNameUnique("Еда");
+        categoryService.isCategoryNameUnique("Еда");
+        categoryService.getCategoryById(id);
+
+        // Assert: каждый запрос выполняет SQL один раз, повторы и поиск по id идут в кэш
+        assertFalse(unique);
+        assertEquals(2, statistics.getQueryExecutionCount());
+        assertEquals(2, statistics.getQueryCacheHitCount());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void createCategory_ShouldInvalidateCachedResults() {
+        // Arrange
+        assertEquals(1, categoryService.getAllCategories().size());
+
+        // Act
+        categoryService.createCategory(new Category("Транспорт", "Проезд"));
+
+        // Assert
+        assertEquals(2, categoryService.getAllCategories().size());
+        assertNotNull(categoryService.getCategoryByName("Транспорт"));
+    }
+
+    @Test
+    void updateUser_ShouldBeVisibleThroughCachedQueries() {
+        // Arrange
+        User user = userService.getAllUsers().get(0);
+        userService.getUserById(user.getId());
+
+        // Act
+        user.setFirstName("Renamed");
+        userService.updateUser(user);
+
+        // Assert
+        assertEquals("Renamed", userService.getAllUsers().get(0).getFirstName());
+        assertEquals("Renamed", userService.getUserById(user.getId()).getFirstName());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+}
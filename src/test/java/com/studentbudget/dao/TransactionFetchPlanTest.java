@@ -0,0 +1,184 @@
+package com.studentbudget.dao;
+
+import com.studentbudget.dao.impl.HibernateTransactionDao;
+import com.studentbudget.model.*;
+import com.studentbudget.service.AuthService;
+import com.studentbudget.service.TransactionService;
+import com.studentbudget.service.impl.TransactionServiceImpl;
+import com.studentbudget.util.HibernateTransactionManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Число SQL-запросов на вызов сервиса. Связи транзакции ленивые, поэтому каждый
+ * список обязан подгрузить категорию и пользователя своим запросом: иначе число
+ * запросов растет со списком (N+1), а обращение к связям вне сессии падает.
+ */
+class TransactionFetchPlanTest {
+    private static final int USERS = 5;
+    private static final int CATEGORIES = 4;
+    private static final int TRANSACTIONS = 200;
+
+    private static SessionFactory sessionFactory;
+    private static TransactionService transactionService;
+    private static Statistics statistics;
+    private static User student;
+    private static Long someTransactionId;
+
+    @BeforeAll
+    static void setUp() {
+        sessionFactory = new Configuration().configure()
+            .setProperty("hibernate.connection.url", "jdbc:h2:mem:fetch_plan;DB_CLOSE_DELAY=-1;MODE=LEGACY;" +
+                "DATABASE_TO_LOWER=TRUE;DEFAULT_ESCAPE='';CASE_INSENSITIVE_IDENTIFIERS=TRUE")
+            .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+            .setProperty("hibernate.show_sql", "false")
+            .setProperty("hibernate.generate_statistics", "true")
+            // Без кэша второго уровня: проверяется именно план выборки
+            .setProperty("hibernate.cache.use_second_level_cache", "false")
+            .setProperty("hibernate.cache.use_query_cache", "false")
+            .buildSessionFactory();
+        HibernateTransactionManager transactionManager = new HibernateTransactionManager(sessionFactory);
+        statistics = sessionFactory.getStatistics();
+
+        User admin = new User("admin", "hash", "admin@test.com", "Admin", "User", UserRole.ADMIN);
+        transactionManager.executeInTransactionWithoutResult(session -> {
+            session.persist(admin);
+            List<User> users = new ArrayList<>();
+            for (int i = 0; i < USERS; i++) {
+                User user = new User("user" + i, "hash", "user" + i + "@test.com", "Test", "User", UserRole.STUDENT);
+                session.persist(user);
+                users.add(user);
+            }
+            List<Category> categories = new ArrayList<>();
+            for (int i = 0; i < CATEGORIES; i++) {
+                Category category = new Category("category" + i, "test");
+                session.persist(category);
+                categories.add(category);
+            }
+            for (int i = 0; i < TRANSACTIONS; i++) {
+                Transaction transaction = new Transaction(BigDecimal.valueOf(10 + i), TransactionType.EXPENSE,
+                    categories.get(i % CATEGORIES), "purchase " + i, users.get(i % USERS));
+                transaction.setDate(LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(i));
+                session.persist(transaction);
+                someTransactionId = transaction.getId();
+            }
+            student = users.get(0);
+        });
+
+        AuthService authService = mock(AuthService.class);
+        when(authService.getCurrentUser()).thenReturn(admin);
+        transactionService = new TransactionServiceImpl(new HibernateTransactionDao(sessionFactory), null, null, null,
+            null, List.of(), transactionManager, authService);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        sessionFactory.close();
+    }
+
+    @BeforeEach
+    void clearStatistics() {
+        statistics.clear();
+    }
+
+    // Обращение к связям после закрытия сессии: ленивая связь без подгрузки бросила бы исключение
+    private static void readReferences(List<Transaction> transactions) {
+        for (Transaction transaction : transactions) {
+            assertNotNull(transaction.getCategory().getName());
+            assertNotNull(transaction.getUser().getUsername());
+        }
+    }
+
+    @Test
+    void getAllTransactions_ShouldLoadReferencesInSameStatement() {
+        // Act
+        List<Transaction> transactions = transactionService.getAllTransactions();
+        readReferences(transactions);
+
+        // Assert
+        assertEquals(TRANSACTIONS, transactions.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getTransactionsByUser_ShouldLoadReferencesInSameStatement() {
+        // Act
+        List<Transaction> transactions = transactionService.getTransactionsByUser(student);
+        readReferences(transactions);
+
+        // Assert
+        assertEquals(TRANSACTIONS / USERS, transactions.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getTransactionsPage_ShouldUseOneStatement() {
+        // Act
+        Page<Transaction> page = transactionService.getTransactionsPage(new TransactionFilter(),
+            TransactionSortKey.DATE_DESC, null, 50);
+        readReferences(page.getItems());
+
+        // Assert
+        assertEquals(50, page.getItems().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getTransactionRowsPage_ShouldNotCreateEntities() {
+        // Act
+        Page<TransactionRow> first = transactionService.getTransactionRowsPage(new TransactionFilter(),
+            TransactionSortKey.DATE_DESC, null, 50);
+        Page<TransactionRow> second = transactionService.getTransactionRowsPage(new TransactionFilter(),
+            TransactionSortKey.DATE_DESC, first.getNextCursor(), 50);
+
+        // Assert: по одному запросу на страницу, ни одной загруженной сущности
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        TransactionRow row = first.getItems().get(0);
+        assertNotNull(row.getCategoryName());
+        assertNotNull(row.getUsername());
+
+        // Те же строки и курсоры, что у постраничного списка сущностей
+        Page<Transaction> entities = transactionService.getTransactionsPage(new TransactionFilter(),
+            TransactionSortKey.DATE_DESC, first.getNextCursor(), 50);
+        assertEquals(entities.getNextCursor(), second.getNextCursor());
+        assertEquals(entities.getItems().stream().map(Transaction::getId).toList(),
+            second.getItems().stream().map(TransactionRow::getId).toList());
+        assertEquals(entities.getItems().get(0).getCategory().getName(), second.getItems().get(0).getCategoryName());
+    }
+
+    @Test
+    void getTransactionById_ShouldUseOneStatement() {
+        // Act
+        Transaction transaction = transactionService.getTransactionById(someTransactionId);
+        readReferences(List.of(transaction));
+
+        // Assert
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getExpensesByCategory_ShouldLoadCategoriesInOneStatement() {
+        // Act
+        Map<Category, BigDecimal> expenses = transactionService.getExpensesByCategory();
+
+        // Assert: агрегат и одна догрузка категорий, независимо от их числа
+        assertEquals(CATEGORIES, expenses.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,212 @@
+package com.studentbudget.dao;
+
+import com.studentbudget.dao.impl.HibernateTransactionDao;
+import com.studentbudget.model.*;
+import com.studentbudget.util.HibernateTransactionManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверка планов запросов к таблице transactions. Каждый запрос DAO выполняется
+ * на заполненной базе H2, перехваченный SQL передается в EXPLAIN, и план не должен
+ * читать transactions полным просмотром. Удаленный или измененный индекс ломает сборку.
+ */
+class TransactionQueryPlanTest {
+    private static final Pattern TRANSACTIONS_ACCESS =
+        Pattern.compile("\"transactions\" \"?\\w+\"?\\s*/\\*\\s*([^*]+)\\*/");
+
+    // Запросы, которым по смыслу нужна вся таблица: полная выгрузка и общая статистика
+    private static final Set<String> FULL_SCANS = Set.of(
+        "findAll", "amountStatisticsByUser", "aggregateByTypeAndStatus(all)", "searchByDescription");
+
+    private static SessionFactory sessionFactory;
+    private static HibernateTransactionManager transactionManager;
+    private static TransactionDao transactionDao;
+    private static final List<String> statements = new ArrayList<>();
+    private static User student;
+    private static Category food;
+
+    @BeforeAll
+    static void setUp() {
+        Configuration configuration = new Configuration().configure()
+            .setProperty("hibernate.connection.url", "jdbc:h2:mem:query_plans;DB_CLOSE_DELAY=-1;MODE=LEGACY;" +
+                "DATABASE_TO_LOWER=TRUE;DEFAULT_ESCAPE='';CASE_INSENSITIVE_IDENTIFIERS=TRUE")
+            .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+            .setProperty("hibernate.show_sql", "false");
+        configuration.setStatementInspector(sql -> {
+            synchronized (statements) {
+                statements.add(sql);
+            }
+            return sql;
+        });
+        sessionFactory = configuration.buildSessionFactory();
+        transactionManager = new HibernateTransactionManager(sessionFactory);
+        transactionDao = new HibernateTransactionDao(sessionFactory);
+        seed();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        sessionFactory.close();
+    }
+
+    // Несколько пользователей и категорий, чтобы селективность индексов была как в рабочей базе
+    private static void seed() {
+        transactionManager.executeInTransactionWithoutResult(session -> {
+            List<User> users = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                User user = new User("user" + i, "hash", "user" + i + "@test.com", "Test", "User", UserRole.STUDENT);
+                session.persist(user);
+                users.add(user);
+            }
+            List<Category> categories = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                Category category = new Category("category" + i, "test");
+                session.persist(category);
+                categories.add(category);
+            }
+            for (int i = 0; i < 2000; i++) {
+                Transaction transaction = new Transaction(BigDecimal.valueOf(10 + i % 500),
+                    i % 4 == 0 ? TransactionType.INCOME : TransactionType.EXPENSE,
+                    categories.get(i % categories.size()), "purchase " + i, users.get(i % users.size()));
+                transaction.setDate(LocalDateTime.of(2024, 1, 1, 0, 0).plusHours(i * 3L));
+                transaction.setStatus(i % 50 == 0 ? TransactionStatus.PENDING : TransactionStatus.ACTIVE);
+                session.persist(transaction);
+            }
+            student = users.get(0);
+            food = categories.get(0);
+        });
+        transactionManager.executeInTransactionWithoutResult(session ->
+            session.doWork(connection -> connection.createStatement().execute("ANALYZE")));
+    }
+
+    @Test
+    void transactionQueries_ShouldNotScanTransactionsTable() {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2024, 2, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 29, 23, 59);
+        TransactionFilter own = new TransactionFilter();
+        own.setUser(student);
+        own.setFrom(from);
+        TransactionFilter pending = new TransactionFilter();
+        pending.setStatus(TransactionStatus.PENDING);
+        TransactionFilter matched = new TransactionFilter();
+        matched.setIds(LongStream.rangeClosed(1, 1500).boxed().collect(Collectors.toList()));
+
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findAll", transactionDao::findAll);
+        queries.put("findById", () -> transactionDao.findById(1L));
+        queries.put("findByCategory", () -> transactionDao.findByCategory(food));
+        queries.put("findByDateRange", () -> transactionDao.findByDateRange(from, to));
+        queries.put("findByStatus", () -> transactionDao.findByStatus("PENDING"));
+        queries.put("searchByDescription", () -> transactionDao.searchByDescription("purchase"));
+        queries.put("findByUser", () -> transactionDao.findByUser(student));
+        queries.put("findByUserAndType", () -> transactionDao.findByUserAndType(student, TransactionType.EXPENSE));
+        queries.put("findByUserAndCategory", () -> transactionDao.findByUserAndCategory(student, food));
+        queries.put("findByUserAndDateRange", () -> transactionDao.findByUserAndDateRange(student, from, to));
+        queries.put("findByUserAndStatus", () -> transactionDao.findByUserAndStatus(student, "ACTIVE"));
+        queries.put("findPage(user)", () -> transactionDao.findPage(own, TransactionSortKey.DATE_DESC, null, 50));
+        queries.put("findPage(status)", () -> transactionDao.findPage(pending, TransactionSortKey.DATE_DESC, null, 50));
+        queries.put("findRowPage(user)", () -> transactionDao.findRowPage(own, TransactionSortKey.DATE_DESC, null, 50));
+        queries.put("findRowPage(ids)", () -> transactionDao.findRowPage(matched, TransactionSortKey.DATE_DESC, null, 50));
+        queries.put("forEachMatching(user)", () ->
+            transactionDao.forEachMatching(own, TransactionSortKey.DATE_ASC, transaction -> { }));
+        queries.put("aggregateByTypeAndStatus(all)", () -> transactionDao.aggregateByTypeAndStatus(null));
+        queries.put("aggregateByTypeAndStatus(user)", () -> transactionDao.aggregateByTypeAndStatus(student));
+        queries.put("aggregateByCategory(user)", () ->
+            transactionDao.aggregateByCategory(student, TransactionType.EXPENSE, TransactionStatus.ACTIVE));
+        queries.put("aggregateByCategory(all)", () ->
+            transactionDao.aggregateByCategory(null, TransactionType.EXPENSE, TransactionStatus.ACTIVE));
+        queries.put("aggregateByPeriod", () -> transactionDao.aggregateByPeriod(from, to));
+        queries.put("aggregateByUserAndCategory", () -> transactionDao.aggregateByUserAndCategory(TransactionType.INCOME));
+        queries.put("aggregateTrend(user)", () -> transactionDao.aggregateTrend(student, TransactionType.EXPENSE,
+            TransactionStatus.ACTIVE, TrendGranularity.WEEK, from.toLocalDate(), to.toLocalDate()));
+        queries.put("aggregateTrend(all)", () -> transactionDao.aggregateTrend(null, TransactionType.EXPENSE,
+            TransactionStatus.ACTIVE, TrendGranularity.MONTH, from.toLocalDate(), to.toLocalDate()));
+        queries.put("amountStatisticsByUser", transactionDao::amountStatisticsByUser);
+        queries.put("findAmountsAfterId", () -> transactionDao.findAmountsAfterId(100L, 500));
+        queries.put("findDescriptionsAfterId", () -> transactionDao.findDescriptionsAfterId(100L, 500));
+        queries.put("findFactsAfterId", () -> transactionDao.findFactsAfterId(100L, 500));
+        queries.put("findAllById", () -> transactionDao.findAllById(List.of(1L, 2L, 3L)));
+
+        // Act
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, Runnable> query : queries.entrySet()) {
+            for (String access : transactionsAccess(query.getValue())) {
+                if (access.contains("tableScan") && !FULL_SCANS.contains(query.getKey())) {
+                    failures.add(query.getKey() + ": " + access);
+                }
+            }
+        }
+
+        // Assert
+        assertTrue(failures.isEmpty(), "Full scan of transactions: " + failures);
+    }
+
+    @Test
+    void userPeriodQueries_ShouldUseUserDateIndex() {
+        // Arrange
+        TransactionFilter own = new TransactionFilter();
+        own.setUser(student);
+        own.setFrom(LocalDateTime.of(2024, 2, 1, 0, 0));
+        own.setTo(LocalDateTime.of(2024, 2, 29, 23, 59));
+
+        // Act
+        List<String> access = transactionsAccess(() -> transactionDao.findPage(own, TransactionSortKey.DATE_DESC, null, 50));
+
+        // Assert
+        assertEquals(1, access.size());
+        assertTrue(access.get(0).contains("idx_transactions_user_date"), access.get(0));
+    }
+
+    // Выполняет запросы DAO и возвращает способ чтения transactions из плана каждого из них
+    private static List<String> transactionsAccess(Runnable query) {
+        synchronized (statements) {
+            statements.clear();
+        }
+        transactionManager.executeInTransactionWithoutResult(session -> query.run());
+        List<String> captured;
+        synchronized (statements) {
+            captured = new ArrayList<>(statements);
+        }
+
+        List<String> access = new ArrayList<>();
+        transactionManager.executeInTransactionWithoutResult(session -> session.doWork(connection -> {
+            for (String sql : captured) {
+                try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                    // План строится при подготовке запроса и не зависит от значений параметров
+                    for (int i = 1; i <= explain.getParameterMetaData().getParameterCount(); i++) {
+                        explain.setObject(i, null);
+                    }
+                    try (ResultSet plan = explain.executeQuery()) {
+                        plan.next();
+                        Matcher matcher = TRANSACTIONS_ACCESS.matcher(plan.getString(1));
+                        while (matcher.find()) {
+                            access.add(matcher.group(1).trim());
+                        }
+                    }
+                }
+            }
+        }));
+        return access;
+    }
+}
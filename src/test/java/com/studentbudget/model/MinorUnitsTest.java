@@ -0,0 +1,44 @@
+package com.studentbudget.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinorUnitsTest {
+
+    @Test
+    void of_ShouldConvertToKopecksAndRoundExtraDigits() {
+        assertEquals(1250L, MinorUnits.of(new BigDecimal("12.5")));
+        assertEquals(-1L, MinorUnits.of(new BigDecimal("-0.01")));
+        assertEquals(101L, MinorUnits.of(new BigDecimal("1.005")));
+        assertEquals(new BigDecimal("12.50"), MinorUnits.toBigDecimal(1250L));
+    }
+
+    @Test
+    void overflow_ShouldThrowInsteadOfWrapping() {
+        assertThrows(ArithmeticException.class, () -> MinorUnits.add(Long.MAX_VALUE, 1L));
+        assertThrows(ArithmeticException.class, () -> MinorUnits.of(new BigDecimal("1e17")));
+    }
+
+    @Test
+    void format_ShouldMatchFixedPointFormatting() {
+        for (String amount : new String[] {"0", "0.05", "12.5", "-3.07", "1234567.89"}) {
+            BigDecimal value = new BigDecimal(amount);
+            assertEquals(String.format("%.2f ₽", value), MinorUnits.format(MinorUnits.of(value)), amount);
+        }
+    }
+
+    @Test
+    void transaction_ShouldRecalculateMinorUnitsWhenAmountChanges() {
+        Transaction transaction = new Transaction();
+        transaction.setAmount(new BigDecimal("10.00"));
+        assertEquals(1000L, transaction.amountInMinorUnits());
+
+        transaction.setAmount(new BigDecimal("0.99"));
+
+        assertEquals(99L, transaction.amountInMinorUnits());
+        assertEquals(String.format("%.2f ₽", new BigDecimal("0.99")), transaction.getFormattedAmount());
+    }
+}
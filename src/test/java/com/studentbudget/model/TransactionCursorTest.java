@@ -0,0 +1,33 @@
+package com.studentbudget.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionCursorTest {
+
+    @Test
+    void decode_ShouldRestoreEncodedPosition() {
+        TransactionRow last = new TransactionRow(42L, LocalDateTime.of(2024, 3, 1, 12, 0), null, null, null, null, null, null);
+        String encoded = TransactionCursor.after(TransactionSortKey.DATE_DESC, last).encode();
+
+        TransactionCursor decoded = TransactionCursor.decode(encoded, TransactionSortKey.DATE_DESC);
+
+        assertEquals(last.getDate(), decoded.getValue());
+        assertEquals(42L, decoded.getId());
+    }
+
+    @Test
+    void decode_ShouldRejectTamperedFieldsAsMalformed() {
+        for (String raw : new String[] {"DATE_DESC|not-a-date|1", "AMOUNT_ASC|1.5x|1", "NOPE|1|1", "DATE_ASC|2024-03-01T12:00|x", "a|b"}) {
+            String cursor = Base64.getUrlEncoder().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> TransactionCursor.decode(cursor, TransactionSortKey.DATE_ASC), raw);
+            assertTrue(e.getMessage().startsWith("Malformed cursor"), raw);
+        }
+    }
+}
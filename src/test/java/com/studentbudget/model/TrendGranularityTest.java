@@ -0,0 +1,30 @@
+package com.studentbudget.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendGranularityTest {
+
+    @Test
+    void bucketOf_ShouldMapEveryDayToIntervalContainingIt() {
+        for (TrendGranularity granularity : TrendGranularity.values()) {
+            for (LocalDate day = LocalDate.of(1999, 12, 20); day.isBefore(LocalDate.of(2001, 1, 10)); day = day.plusDays(1)) {
+                int bucket = granularity.bucketOf(day);
+                assertFalse(granularity.startOf(bucket).isAfter(day), granularity + " " + day);
+                assertTrue(granularity.startOf(bucket + 1).isAfter(day), granularity + " " + day);
+            }
+        }
+    }
+
+    @Test
+    void startOf_ShouldBeMondayForWeeksAndFirstDayForMonths() {
+        LocalDate day = LocalDate.of(2024, 2, 29);
+        assertEquals(LocalDate.of(2024, 2, 26), TrendGranularity.WEEK.startOf(TrendGranularity.WEEK.bucketOf(day)));
+        assertEquals(DayOfWeek.MONDAY, TrendGranularity.WEEK.startOf(0).getDayOfWeek());
+        assertEquals(LocalDate.of(2024, 2, 1), TrendGranularity.MONTH.startOf(TrendGranularity.MONTH.bucketOf(day)));
+    }
+}
@@ -0,0 +1,86 @@
+package com.studentbudget.service;
+
+import com.studentbudget.service.impl.AggregateResultCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AggregateResultCacheTest {
+
+    private AggregateResultCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AggregateResultCache(2);
+        loads = new AtomicInteger();
+    }
+
+    private Supplier<Integer> loader() {
+        return loads::incrementAndGet;
+    }
+
+    @Test
+    void get_Repeated_ShouldLoadOncePerKey() {
+        // Act
+        int first = cache.get(1L, "summary", loader());
+        int second = cache.get(1L, "summary", loader());
+        int otherArgs = cache.get(1L, "summary", loader(), "2024-03");
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(1, second);
+        assertEquals(2, otherArgs);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidateUser_ShouldExpireOwnAndAllUsersResultsOnly() {
+        // Arrange
+        cache.get(1L, "summary", loader());
+        cache.get(2L, "summary", loader());
+
+        // Act
+        cache.invalidateUser(1L);
+
+        // Assert: пользователь 2 читается из кэша, пользователь 1 и общий результат пересчитываются
+        assertEquals(2, (int) cache.get(2L, "summary", loader()));
+        assertEquals(3, (int) cache.get(1L, "summary", loader()));
+        assertEquals(4, (int) cache.get(null, "summary", loader()));
+        cache.invalidateUser(2L);
+        assertEquals(5, (int) cache.get(null, "summary", loader()));
+    }
+
+    @Test
+    void invalidateAll_ShouldExpireEveryScope() {
+        // Arrange
+        cache.get(1L, "summary", loader());
+
+        // Act
+        cache.invalidateAll();
+
+        // Assert
+        assertEquals(0, cache.size());
+        assertEquals(2, (int) cache.get(1L, "summary", loader()));
+    }
+
+    @Test
+    void get_OverCapacity_ShouldEvictLeastRecentlyUsed() {
+        // Arrange
+        cache.get(1L, "a", loader());
+        cache.get(1L, "b", loader());
+        cache.get(1L, "a", loader());
+
+        // Act
+        cache.get(1L, "c", loader());
+
+        // Assert: "b" читали давнее всего, он вытеснен
+        assertEquals(2, cache.size());
+        assertEquals(1, (int) cache.get(1L, "a", loader()));
+        assertEquals(4, (int) cache.get(1L, "b", loader()));
+    }
+}
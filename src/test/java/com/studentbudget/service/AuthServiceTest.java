@@ -39,6 +39,12 @@ class AuthServiceTest {
             return callback.execute(null);
         });
 
+        // Чтения выполняются тем же способом, что и транзакции с результатом
+        lenient().when(transactionManager.executeReadOnly(any())).thenAnswer(invocation -> {
+            HibernateTransactionManager.TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.execute(null);
+        });
+
         // Настраиваем мок транзакционного менеджера для void методов
         lenient().doAnswer(invocation -> {
             HibernateTransactionManager.VoidTransactionCallback callback = invocation.getArgument(0);
@@ -35,7 +35,7 @@ class CategoryServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        categoryService = new CategoryServiceImpl(categoryDao, transactionDao, transactionManager);
+        categoryService = new CategoryServiceImpl(categoryDao, transactionDao, List.of(), transactionManager);
 
         // Настраиваем мок транзакционного менеджера для методов, возвращающих значения
         lenient().when(transactionManager.executeInTransaction(any())).thenAnswer(invocation -> {
@@ -46,6 +46,15 @@ class CategoryServiceTest {
             return null;
         });
 
+        // Чтения выполняются тем же способом, что и транзакции с результатом
+        lenient().when(transactionManager.executeReadOnly(any())).thenAnswer(invocation -> {
+            HibernateTransactionManager.TransactionCallback<?> callback = invocation.getArgument(0);
+            if (callback != null) {
+                return callback.execute(null);
+            }
+            return null;
+        });
+
         // Настраиваем мок транзакционного менеджера для void методов
         lenient().doAnswer(invocation -> {
             HibernateTransactionManager.VoidTransactionCallback callback = invocation.getArgument(0);
@@ -169,15 +178,8 @@ class CategoryServiceTest {
         newCategory.setId(newCategoryId);
         newCategory.setName("New Category");
         
-        Transaction t1 = new Transaction();
-        t1.setCategory(oldCategory);
-        Transaction t2 = new Transaction();
-        t2.setCategory(oldCategory);
-        
-        List<Transaction> transactions = Arrays.asList(t1, t2);
-        
         when(categoryDao.findById(oldCategoryId)).thenReturn(Optional.of(oldCategory));
-        when(transactionDao.findByCategory(oldCategory)).thenReturn(transactions);
+        when(transactionDao.moveCategory(oldCategory, newCategory)).thenReturn(2);
         when(transactionManager.executeInTransaction(any())).thenAnswer(invocation -> {
             return invocation.getArgument(0, HibernateTransactionManager.TransactionCallback.class).execute(null);
         });
@@ -186,10 +188,8 @@ class CategoryServiceTest {
         categoryService.deleteCategoryWithTransactions(oldCategoryId, newCategory);
 
         // Assert
-        for (Transaction t : transactions) {
-            verify(transactionDao).update(t);
-            assertSame(newCategory, t.getCategory());
-        }
+        verify(transactionDao).moveCategory(oldCategory, newCategory);
+        verify(transactionDao, never()).update(any());
         
         verify(categoryDao).deleteById(oldCategoryId);
     }
@@ -0,0 +1,293 @@
+package com.studentbudget.service;
+
+import com.studentbudget.dao.TransactionDao;
+import com.studentbudget.model.AmountStatistics;
+import com.studentbudget.model.AnomalyMode;
+import com.studentbudget.model.Category;
+import com.studentbudget.model.Page;
+import com.studentbudget.model.Transaction;
+import com.studentbudget.model.TransactionAggregate;
+import com.studentbudget.model.TransactionFacts;
+import com.studentbudget.model.TransactionStatus;
+import com.studentbudget.model.TransactionType;
+import com.studentbudget.model.User;
+import com.studentbudget.model.UserRole;
+import com.studentbudget.service.impl.ColumnarTransactionSnapshot;
+import com.studentbudget.util.HibernateTransactionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class ColumnarTransactionSnapshotTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 9, 1, 12, 0);
+
+    @Mock
+    private TransactionDao transactionDao;
+
+    @Mock
+    private HibernateTransactionManager transactionManager;
+
+    private final Map<Long, User> users = new HashMap<>();
+    private final Map<Long, Category> categories = new HashMap<>();
+    private final List<TransactionFacts> rows = new ArrayList<>();
+    private ForkJoinPool pool;
+    private ColumnarTransactionSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        pool = new ForkJoinPool(4);
+        snapshot = new ColumnarTransactionSnapshot(transactionDao, transactionManager, pool);
+
+        for (long id = 1; id <= 3; id++) {
+            User user = new User("user" + id, "hash", "user" + id + "@test.com", "User", "" + id, UserRole.STUDENT);
+            user.setId(id);
+            users.put(id, user);
+        }
+        for (long id = 10; id <= 11; id++) {
+            Category category = new Category("Категория " + id, "");
+            category.setId(id);
+            categories.put(id, category);
+        }
+
+        when(transactionManager.executeReadOnly(any())).thenAnswer(invocation -> {
+            HibernateTransactionManager.TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.execute(null);
+        });
+        // Порции по возрастанию id, как отдает keyset-запрос
+        when(transactionDao.findFactsAfterId(any(), anyInt())).thenAnswer(invocation -> {
+            Long afterId = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            return rows.stream()
+                .filter(row -> afterId == null || row.getId() > afterId)
+                .limit(limit)
+                .collect(Collectors.toList());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void aggregateByPeriod_ShouldGroupByUserTypeCategoryAndStatusWithinDays() {
+        // Arrange
+        addRow(1L, 1L, 10L, TransactionType.EXPENSE, TransactionStatus.ACTIVE, 0, "100.10");
+        addRow(2L, 1L, 10L, TransactionType.EXPENSE, TransactionStatus.ACTIVE, 1, "0.20");
+        addRow(3L, 1L, 10L, TransactionType.EXPENSE, TransactionStatus.PENDING, 1, "50.00");
+        addRow(4L, 2L, 11L, TransactionType.INCOME, TransactionStatus.ACTIVE, 2, "1000.00");
+        addRow(5L, 2L, 11L, TransactionType.INCOME, TransactionStatus.ACTIVE, 3, "999.99");
+
+        // Act
+        List<TransactionAggregate> aggregates = snapshot.aggregateByPeriod(day(0), day(2), users::get, categories::get);
+
+        // Assert: строка 5 вне периода
+        assertEquals(3, aggregates.size());
+        TransactionAggregate active = find(aggregates, 1L, 10L, TransactionType.EXPENSE, TransactionStatus.ACTIVE);
+        assertEquals(new BigDecimal("100.30"), active.getTotal());
+        assertEquals(2, active.getCount());
+        assertSame(users.get(1L), active.getUser());
+        assertSame(categories.get(10L), active.getCategory());
+        assertEquals(new BigDecimal("50.00"),
+            find(aggregates, 1L, 10L, TransactionType.EXPENSE, TransactionStatus.PENDING).getTotal());
+        assertEquals(new BigDecimal("1000.00"),
+            find(aggregates, 2L, 11L, TransactionType.INCOME, TransactionStatus.ACTIVE).getTotal());
+    }
+
+    @Test
+    void aggregateByUserAndCategory_ShouldMergeStatusesAndSkipUnresolvedUsers() {
+        // Arrange
+        addRow(1L, 1L, 10L, TransactionType.EXPENSE, TransactionStatus.ACTIVE, 0, "10.00");
+        addRow(2L, 1L, 10L, TransactionType.EXPENSE, TransactionStatus.REJECTED, 400, "5.50");
+        addRow(3L, 1L, 10L, TransactionType.INCOME, TransactionStatus.ACTIVE, 1, "70.00");
+        // Пользователь 9 удален в обход сервисов
+        addRow(4L, 9L, 10L, TransactionType.EXPENSE, TransactionStatus.ACTIVE, 1, "1.00");
+
+        // Act
+        List<TransactionAggregate> aggregates =
+            snapshot.aggregateByUserAndCategory(TransactionType.EXPENSE, users::get, categories::get);
+
+        // Assert
+        assertEquals(1, aggregates.size());
+        assertNull(aggregates.get(0).getStatus());
+        assertEquals(new BigDecimal("15.50"), aggregates.get(0).getTotal());
+        assertEquals(2, aggregates.get(0).getCount());
+    }
+
+    @Test
+    void writesAfterLoad_ShouldPatchColumnsInPlace() {
+        // Arrange
+        addRow(1L, 1L, 10L, TransactionType.EXPENSE, TransactionStatus.ACTIVE, 0, "10.00");
+        addRow(2L, 1L, 10L, TransactionType.EXPENSE, TransactionStatus.ACTIVE, 0, "20.00");
+        addRow(4L, 2L, 10L, TransactionType.EXPENSE, TransactionStatus.ACTIVE, 0, "40.00");
+        // До заполнения изменения пропускаются: заполнение прочитает зафиксированные строки
+        snapshot.put(transaction(9L, 3L, 10L, "999.00"));
+        snapshot.amountStatisticsByUser();
+        assertEquals(3, snapshot.size());
+
+        // Act
+        snapshot.put(transaction(5L, 3L, 11L, "5.00"));
+        snapshot.put(transaction(3L, 3L, 10L, "3.00"));
+        snapshot.put(transaction(1L, 1L, 10L, "11.00"));
+        snapshot.removeAll(List.of(2L));
+        snapshot.updateStatus(List.of(4L), TransactionStatus.CANCELLED);
+        snapshot.moveCategory(11L, 10L);
+
+        // Assert
+        assertEquals(4, snapshot.size());
+        List<TransactionAggregate> aggregates = snapshot.aggregateByPeriod(day(0), day(0), users::get, categories::get);
+        assertEquals(new BigDecimal("11.00"),
+            find(aggregates, 1L, 10L, TransactionType.EXPENSE, TransactionStatus.ACTIVE).getTotal());
+        assertEquals(new BigDecimal("40.00"),
+            find(aggregates, 2L, 10L, TransactionType.EXPENSE, TransactionStatus.CANCELLED).getTotal());
+        TransactionAggregate moved = find(aggregates, 3L, 10L, TransactionType.EXPENSE, TransactionStatus.ACTIVE);
+        assertEquals(new BigDecimal("8.00"), moved.getTotal());
+        assertEquals(2, moved.getCount());
+        verify(transactionDao, times(1)).findFactsAfterId(any(), anyInt());
+    }
+
+    @Test
+    void writeCommittedDuringLoad_ShouldBeAppliedAfterLoad() throws Exception {
+        // Arrange: заполнение уже прочитало строку 1, когда ее статус изменили
+        addRow(1L, 1L, 10L, TransactionType.EXPENSE, TransactionStatus.ACTIVE, 0, "10.00");
+        Thread[] writer = new Thread[1];
+        when(transactionDao.findFactsAfterId(any(), anyInt())).thenAnswer(invocation -> {
+            if (writer[0] == null) {
+                writer[0] = new Thread(() -> snapshot.updateStatus(List.of(1L), TransactionStatus.CANCELLED));
+                writer[0].start();
+                while (writer[0].getState() != Thread.State.WAITING && writer[0].getState() != Thread.State.TERMINATED) {
+                    Thread.onSpinWait();
+                }
+                return new ArrayList<>(rows);
+            }
+            return new ArrayList<>();
+        });
+
+        // Act
+        snapshot.amountStatisticsByUser();
+        writer[0].join();
+
+        // Assert
+        List<TransactionAggregate> aggregates = snapshot.aggregateByPeriod(day(0), day(0), users::get, categories::get);
+        assertEquals(1, aggregates.size());
+        assertEquals(TransactionStatus.CANCELLED, aggregates.get(0).getStatus());
+    }
+
+    @Test
+    void parallelAggregation_ShouldMatchRowByRowTotals() {
+        // Arrange: достаточно строк, чтобы пул разделил их на несколько задач
+        Random random = new Random(7);
+        Map<String, long[]> expected = new HashMap<>();
+        for (long id = 1; id <= 300_000; id++) {
+            long userId = 1 + random.nextInt(3);
+            long categoryId = 10 + random.nextInt(2);
+            TransactionType type = random.nextInt(4) == 0 ? TransactionType.INCOME : TransactionType.EXPENSE;
+            TransactionStatus status = TransactionStatus.values()[random.nextInt(TransactionStatus.values().length)];
+            long units = 1 + random.nextInt(5_000_00);
+            addRow(id, userId, categoryId, type, status, random.nextInt(30), BigDecimal.valueOf(units, 2).toPlainString());
+            long[] totals = expected.computeIfAbsent(userId + "/" + categoryId + "/" + type, key -> new long[2]);
+            totals[0] += units;
+            totals[1]++;
+        }
+
+        // Act
+        List<TransactionAggregate> incomes =
+            snapshot.aggregateByUserAndCategory(TransactionType.INCOME, users::get, categories::get);
+        List<TransactionAggregate> expenses =
+            snapshot.aggregateByUserAndCategory(TransactionType.EXPENSE, users::get, categories::get);
+
+        // Assert
+        assertEquals(expected.size(), incomes.size() + expenses.size());
+        for (TransactionAggregate aggregate : concat(incomes, expenses)) {
+            long[] totals = expected.get(aggregate.getUser().getId() + "/" + aggregate.getCategory().getId()
+                + "/" + aggregate.getType());
+            assertEquals(BigDecimal.valueOf(totals[0], 2), aggregate.getTotal());
+            assertEquals(totals[1], aggregate.getCount());
+        }
+    }
+
+    @Test
+    void findAnomalousIds_ShouldMatchStatisticsOfOnePassAndPageById() {
+        // Arrange
+        String[] firstUser = {"100.00", "110.00", "90.00", "400.00", "105.00", "95.00"};
+        for (int i = 0; i < firstUser.length; i++) {
+            addRow(i + 1, 1L, 10L, TransactionType.EXPENSE, TransactionStatus.ACTIVE, i, firstUser[i]);
+        }
+        addRow(7L, 2L, 10L, TransactionType.EXPENSE, TransactionStatus.ACTIVE, 0, "10.00");
+        addRow(8L, 2L, 10L, TransactionType.EXPENSE, TransactionStatus.ACTIVE, 0, "30.00");
+        addRow(9L, 1L, 10L, TransactionType.EXPENSE, TransactionStatus.ACTIVE, 6, "5.00");
+        AmountStatistics onePass = new AmountStatistics(1L);
+        rows.stream().filter(row -> row.getUserId() == 1L).forEach(row -> onePass.add(row.getAmount().doubleValue()));
+
+        // Act
+        Map<Long, AmountStatistics> statisticsByUser = snapshot.amountStatisticsByUser().stream()
+            .collect(Collectors.toMap(AmountStatistics::getUserId, s -> s));
+        Page<Long> first = snapshot.findAnomalousIds(statisticsByUser, AnomalyMode.RELATIVE_DEVIATION, 0.9, null, 1);
+        Page<Long> second = snapshot.findAnomalousIds(statisticsByUser, AnomalyMode.RELATIVE_DEVIATION, 0.9,
+            Long.valueOf(first.getNextCursor()), 1);
+
+        // Assert
+        AmountStatistics statistics = statisticsByUser.get(1L);
+        assertEquals(onePass.getCount(), statistics.getCount());
+        assertEquals(onePass.getMean(), statistics.getMean(), 1e-9);
+        assertEquals(onePass.getStandardDeviation(), statistics.getStandardDeviation(), 1e-9);
+        assertEquals(List.of(4L), first.getItems());
+        assertEquals("4", first.getNextCursor());
+        // Последняя строка просмотрена: следующей страницы нет
+        assertEquals(List.of(9L), second.getItems());
+        assertNull(second.getNextCursor());
+    }
+
+    private void addRow(long id, long userId, long categoryId, TransactionType type, TransactionStatus status,
+                        int dayOffset, String amount) {
+        rows.add(new TransactionFacts(id, userId, categoryId, type, status, START.plusDays(dayOffset),
+            new BigDecimal(amount)));
+    }
+
+    private Transaction transaction(long id, long userId, long categoryId, String amount) {
+        Transaction transaction = new Transaction(new BigDecimal(amount), TransactionType.EXPENSE,
+            categories.get(categoryId), "", users.get(userId));
+        transaction.setId(id);
+        transaction.setDate(START);
+        transaction.setStatus(TransactionStatus.ACTIVE);
+        return transaction;
+    }
+
+    private static LocalDate day(int offset) {
+        return START.toLocalDate().plusDays(offset);
+    }
+
+    private static List<TransactionAggregate> concat(List<TransactionAggregate> first, List<TransactionAggregate> second) {
+        List<TransactionAggregate> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+
+    private static TransactionAggregate find(List<TransactionAggregate> aggregates, long userId, long categoryId,
+                                             TransactionType type, TransactionStatus status) {
+        return aggregates.stream()
+            .filter(a -> a.getUser().getId() == userId && a.getCategory().getId() == categoryId
+                && a.getType() == type && a.getStatus() == status)
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No group " + userId + "/" + categoryId + "/" + type + "/" + status));
+    }
+}
@@ -0,0 +1,141 @@
+package com.studentbudget.service;
+
+import com.studentbudget.dao.TransactionDao;
+import com.studentbudget.model.TransactionDescription;
+import com.studentbudget.service.impl.DescriptionSearchIndex;
+import com.studentbudget.util.HibernateTransactionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class DescriptionSearchIndexTest {
+
+    @Mock
+    private TransactionDao transactionDao;
+
+    @Mock
+    private HibernateTransactionManager transactionManager;
+
+    private DescriptionSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        index = new DescriptionSearchIndex(transactionDao, transactionManager);
+
+        when(transactionManager.executeReadOnly(any())).thenAnswer(invocation -> {
+            HibernateTransactionManager.TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.execute(null);
+        });
+        when(transactionDao.findDescriptionsAfterId(isNull(), anyInt())).thenReturn(List.of(
+                new TransactionDescription(1L, 10L, "Кофемашина в общежитие"),
+                new TransactionDescription(2L, 10L, "Кофе у дома"),
+                new TransactionDescription(3L, 20L, "Автобус до дома"),
+                new TransactionDescription(4L, 20L, "Кофе, булочка; ещё кофе"),
+                new TransactionDescription(5L, 20L, null)));
+    }
+
+    @Test
+    void search_ShouldMatchAllWordsByPrefix() {
+        // Act & Assert
+        assertEquals(List.of(2L), index.search("коф дом", null));
+        assertEquals(List.of(3L, 2L), index.search("ДОМА", null));
+        assertEquals(List.of(), index.search("кофе метро", null));
+        assertEquals(List.of(), index.search(" ,. ", null));
+    }
+
+    @Test
+    void search_ShouldRankExactWordsAboveLongerPrefixMatches() {
+        // Act
+        List<Long> ids = index.search("кофе", null);
+
+        // Assert: полное совпадение слова, затем по убыванию id; "кофемашина" - только префикс
+        assertEquals(List.of(4L, 2L, 1L), ids);
+    }
+
+    @Test
+    void search_WithUser_ShouldReturnOnlyOwnTransactions() {
+        // Act & Assert
+        assertEquals(List.of(2L, 1L), index.search("кофе", 10L));
+        assertEquals(List.of(4L), index.search("еще", 20L));
+    }
+
+    @Test
+    void matchingIds_ShouldReturnSearchMatchesInIdOrder() {
+        // Act & Assert
+        assertArrayEquals(new long[] {1L, 2L, 4L}, index.matchingIds("кофе", null));
+        assertArrayEquals(new long[] {4L}, index.matchingIds("коф", 20L));
+        assertArrayEquals(new long[0], index.matchingIds("метро", null));
+        assertArrayEquals(new long[0], index.matchingIds(" ,. ", null));
+    }
+
+    @Test
+    void search_ShouldMatchWordsInsideDescriptionWords() {
+        // Act & Assert: "фе" и "маш" - середина слов, "ещ" короче триграммы
+        assertEquals(List.of(4L, 2L, 1L), index.search("фе", null));
+        assertEquals(List.of(1L), index.search("маш", null));
+        assertEquals(List.of(2L), index.search("фе ома", 10L));
+        assertArrayEquals(new long[] {4L}, index.matchingIds("ещ", null));
+        assertArrayEquals(new long[] {1L, 2L, 4L}, index.matchingIds("фе", null));
+    }
+
+    @Test
+    void search_ShouldRankWordStartAboveMatchInsideWord() {
+        // Act
+        index.search("кофе", null);
+        index.put(6L, 10L, "Вафельница");
+        index.put(7L, 10L, "Фен");
+
+        // Assert: "фен" начинается с запроса; внутри слова короткое "кофе" весит больше длинных слов
+        assertEquals(List.of(7L, 2L, 6L, 1L), index.search("фе", 10L));
+    }
+
+    @Test
+    void remove_ShouldDropWordsFromTrigramTable() {
+        // Arrange
+        index.search("кофе", null);
+
+        // Act
+        index.removeAll(List.of(1L));
+
+        // Assert
+        assertEquals(List.of(), index.search("машин", null));
+        assertEquals(List.of(4L, 2L), index.search("офе", null));
+    }
+
+    @Test
+    void putAndRemove_ShouldKeepIndexUpToDate() {
+        // Arrange
+        index.search("кофе", null);
+
+        // Act
+        index.put(2L, 10L, "Чай у дома");
+        index.put(6L, 10L, "Кофейня");
+        index.removeAll(List.of(4L));
+
+        // Assert
+        assertEquals(List.of(6L, 1L), index.search("кофе", null));
+        assertEquals(List.of(2L), index.search("чай", null));
+        assertEquals(5, index.size());
+        verify(transactionDao, times(1)).findDescriptionsAfterId(any(), anyInt());
+    }
+
+    @Test
+    void put_BeforeLoad_ShouldBeLeftToInitialLoad() {
+        // Act
+        index.put(99L, 10L, "Кофе навынос");
+
+        // Assert: изменение уже в БД, индекс заполнится при первом поиске
+        assertEquals(0, index.size());
+        assertEquals(List.of(4L, 2L, 1L), index.search("кофе", null));
+    }
+}
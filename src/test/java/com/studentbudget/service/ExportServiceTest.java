@@ -0,0 +1,123 @@
+package com.studentbudget.service;
+
+import com.studentbudget.dao.TransactionDao;
+import com.studentbudget.model.*;
+import com.studentbudget.service.impl.ExportServiceImpl;
+import com.studentbudget.util.HibernateTransactionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ExportServiceTest {
+
+    @Mock
+    private TransactionDao transactionDao;
+
+    @Mock
+    private HibernateTransactionManager transactionManager;
+
+    @Mock
+    private AuthService authService;
+
+    private ExportService exportService;
+    private User testUser;
+    private User adminUser;
+    private List<Transaction> transactions;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        exportService = new ExportServiceImpl(transactionDao, transactionManager, authService);
+
+        testUser = new User("testuser", "hashedpass", "test@test.com", "Test", "User", UserRole.STUDENT);
+        testUser.setId(1L);
+        adminUser = new User("admin", "hashedpass", "admin@test.com", "Admin", "User", UserRole.ADMIN);
+        adminUser.setId(2L);
+        Category food = new Category("Еда, кафе", "Продукты");
+        food.setId(10L);
+
+        Transaction lunch = new Transaction(new BigDecimal("350.50"), TransactionType.EXPENSE, food,
+                "Обед \"У дома\"", testUser);
+        lunch.setId(100L);
+        lunch.setDate(LocalDateTime.of(2024, 3, 1, 13, 0));
+        Transaction refund = new Transaction(new BigDecimal("20"), TransactionType.INCOME, food, null, testUser);
+        refund.setId(101L);
+        refund.setDate(LocalDateTime.of(2024, 3, 2, 9, 30));
+        transactions = List.of(lunch, refund);
+
+        when(transactionDao.forEachMatching(any(), any(), any())).thenAnswer(invocation -> {
+            Consumer<Transaction> action = invocation.getArgument(2);
+            transactions.forEach(action);
+            return (long) transactions.size();
+        });
+        lenient().when(transactionManager.executeReadOnly(any())).thenAnswer(invocation -> {
+            HibernateTransactionManager.TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.execute(null);
+        });
+    }
+
+    @Test
+    void exportCsv_ShouldWriteHeaderAndQuotedRows() {
+        // Arrange
+        when(authService.getCurrentUser()).thenReturn(testUser);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        long count = exportService.exportTransactions(new TransactionFilter(), ExportFormat.CSV, output);
+
+        // Assert
+        assertEquals(2, count);
+        assertEquals("date,type,category,amount,description,status,user\n" +
+                "2024-03-01T13:00,EXPENSE,\"Еда, кафе\",350.50,\"Обед \"\"У дома\"\"\",ACTIVE,testuser\n" +
+                "2024-03-02T09:30,INCOME,\"Еда, кафе\",20,,ACTIVE,testuser\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportJsonLines_ShouldWriteOneEscapedObjectPerLine() {
+        // Arrange
+        when(authService.getCurrentUser()).thenReturn(adminUser);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        exportService.exportTransactions(new TransactionFilter(), ExportFormat.JSONL, output);
+
+        // Assert
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"id\":100,\"date\":\"2024-03-01T13:00\",\"type\":\"EXPENSE\",\"category\":\"Еда, кафе\"," +
+                "\"amount\":350.50,\"description\":\"Обед \\\"У дома\\\"\",\"status\":\"ACTIVE\",\"user\":\"testuser\"}",
+                lines[0]);
+        assertTrue(lines[1].contains("\"description\":null"));
+    }
+
+    @Test
+    void exportTransactions_AsStudent_ShouldOnlyExportOwnTransactions() {
+        // Arrange
+        when(authService.getCurrentUser()).thenReturn(testUser);
+        TransactionFilter filter = new TransactionFilter();
+        filter.setUser(adminUser);
+
+        // Act
+        exportService.exportTransactions(filter, ExportFormat.CSV, new ByteArrayOutputStream());
+
+        // Assert
+        ArgumentCaptor<TransactionFilter> scoped = ArgumentCaptor.forClass(TransactionFilter.class);
+        verify(transactionDao).forEachMatching(scoped.capture(), eq(TransactionSortKey.DATE_ASC), any());
+        assertEquals(testUser, scoped.getValue().getUser());
+        assertEquals(adminUser, filter.getUser());
+    }
+}
@@ -0,0 +1,220 @@
+package com.studentbudget.service;
+
+import com.studentbudget.dao.BalanceRollupDao;
+import com.studentbudget.dao.CategoryDao;
+import com.studentbudget.dao.TransactionDao;
+import com.studentbudget.model.*;
+import com.studentbudget.service.impl.BalanceRollupWriteListener;
+import com.studentbudget.service.impl.ImportServiceImpl;
+import com.studentbudget.util.HibernateTransactionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class ImportServiceTest {
+
+    @Mock
+    private TransactionDao transactionDao;
+
+    @Mock
+    private CategoryDao categoryDao;
+
+    @Mock
+    private BalanceRollupDao balanceRollupDao;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private HibernateTransactionManager transactionManager;
+
+    @Mock
+    private AuthService authService;
+
+    private ImportService importService;
+    private User testUser;
+    private Category food;
+    private Category salary;
+    private final List<Transaction> saved = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        importService = new ImportServiceImpl(transactionDao, categoryDao,
+                List.of(new BalanceRollupWriteListener(balanceRollupDao)), transactionService, transactionManager,
+                authService);
+
+        testUser = new User("testuser", "hashedpass", "test@test.com", "Test", "User", UserRole.STUDENT);
+        testUser.setId(1L);
+        food = new Category("Еда", "Продукты");
+        food.setId(10L);
+        salary = new Category("Зарплата", "Доход");
+        salary.setId(11L);
+
+        when(authService.getCurrentUser()).thenReturn(testUser);
+        when(categoryDao.findAll()).thenReturn(List.of(food, salary));
+        when(transactionService.getApprovalThreshold()).thenReturn(BigDecimal.valueOf(10000));
+        when(transactionService.checkTransactionLimit(any())).thenReturn(true);
+        when(transactionDao.saveAll(anyCollection())).thenAnswer(invocation -> {
+            Collection<Transaction> batch = invocation.getArgument(0);
+            saved.addAll(batch);
+            return new ArrayList<>(batch);
+        });
+
+        lenient().when(transactionManager.executeInTransaction(any())).thenAnswer(invocation -> {
+            HibernateTransactionManager.TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.execute(null);
+        });
+
+        // Чтения выполняются тем же способом, что и транзакции с результатом
+        lenient().when(transactionManager.executeReadOnly(any())).thenAnswer(invocation -> {
+            HibernateTransactionManager.TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.execute(null);
+        });
+        lenient().doAnswer(invocation -> {
+            HibernateTransactionManager.VoidTransactionCallback callback = invocation.getArgument(0);
+            callback.execute(null);
+            return null;
+        }).when(transactionManager).executeInTransactionWithoutResult(any());
+    }
+
+    private static InputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importCsv_ShouldWriteValidRowsInBatchesAndReportInvalidOnes() {
+        // Arrange
+        String csv = "Дата;Категория;Сумма;Описание\n" +
+                "2024-03-01;Еда;-1 250,50;\"Магазин; у дома\"\n" +
+                "2024-03-02;Зарплата;30000;Стипендия\n" +
+                "2024-03-03;Транспорт;-50;Автобус\n" +
+                "не дата;Еда;-10;\n" +
+                "2024-03-05 18:30:00;еда;-99.90;Кафе\n";
+        ImportOptions options = new ImportOptions();
+        options.setDelimiter(';');
+        options.setBatchSize(2);
+        List<Long> progress = new ArrayList<>();
+
+        // Act
+        ImportResult result = importService.importTransactions(input(csv), options,
+                (processed, imported, failed) -> progress.add(processed));
+
+        // Assert
+        assertEquals(3, result.getImportedRows());
+        assertEquals(2, result.getFailedRows());
+        assertEquals(List.of(2L, 4L, 5L), progress);
+        assertEquals(4, result.getErrors().get(0).getRecordNumber());
+        assertTrue(result.getErrors().get(0).getMessage().contains("Транспорт"));
+        assertEquals(5, result.getErrors().get(1).getRecordNumber());
+
+        Transaction shop = saved.get(0);
+        assertEquals(new BigDecimal("1250.50"), shop.getAmount());
+        assertEquals(TransactionType.EXPENSE, shop.getType());
+        assertEquals(food, shop.getCategory());
+        assertEquals("Магазин; у дома", shop.getDescription());
+        assertEquals(testUser, shop.getUser());
+
+        Transaction grant = saved.get(1);
+        assertEquals(TransactionType.INCOME, grant.getType());
+        assertEquals(TransactionStatus.PENDING, grant.getStatus());
+        assertEquals(TransactionStatus.ACTIVE, shop.getStatus());
+        assertEquals(LocalDateTime.of(2024, 3, 5, 18, 30), saved.get(2).getDate());
+
+        // Во втором пакете нет корректных строк, он не записывается
+        verify(transactionDao, times(2)).saveAll(anyCollection());
+        verify(balanceRollupDao, times(2)).applyChanges(eq(List.of()), anyCollection());
+    }
+
+    @Test
+    void importCsv_WhenBatchWriteFails_ShouldContinueWithNextBatch() {
+        // Arrange
+        String csv = "date,category,amount\n" +
+                "2024-03-01,Еда,-1\n" +
+                "2024-03-02,Еда,-2\n" +
+                "2024-03-03,Еда,-3\n";
+        ImportOptions options = new ImportOptions();
+        options.setBatchSize(2);
+        doThrow(new RuntimeException("constraint violation"))
+                .doAnswer(invocation -> new ArrayList<>(invocation.<Collection<Transaction>>getArgument(0)))
+                .when(transactionDao).saveAll(anyCollection());
+
+        // Act
+        ImportResult result = importService.importTransactions(input(csv), options, null);
+
+        // Assert
+        assertEquals(1, result.getImportedRows());
+        assertEquals(2, result.getFailedRows());
+        assertEquals(List.of(2L, 3L), result.getErrors().stream().map(ImportError::getRecordNumber).toList());
+        assertTrue(result.getErrors().get(0).getMessage().contains("constraint violation"));
+    }
+
+    @Test
+    void importOfx_ShouldUseDefaultCategoryAndTransactionType() {
+        // Arrange
+        String ofx = "OFXHEADER:100\nDATA:OFXSGML\n<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>\n" +
+                "<STMTTRN><TRNTYPE>DEBIT<DTPOSTED>20240301120000[+3:MSK]<TRNAMT>-450.00<NAME>Супермаркет</STMTTRN>\n" +
+                "<STMTTRN>\n<TRNTYPE>CREDIT\n<DTPOSTED>20240302\n<TRNAMT>1000.00\n<MEMO>Перевод\n</STMTTRN>\n" +
+                "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>\n";
+        ImportOptions options = new ImportOptions();
+        options.setFormat(ImportFormat.OFX);
+        options.setDefaultCategory(food);
+
+        // Act
+        ImportResult result = importService.importTransactions(input(ofx), options, null);
+
+        // Assert
+        assertEquals(2, result.getImportedRows());
+        assertEquals(0, result.getFailedRows());
+        assertEquals(TransactionType.EXPENSE, saved.get(0).getType());
+        assertEquals(new BigDecimal("450.00"), saved.get(0).getAmount());
+        assertEquals("Супермаркет", saved.get(0).getDescription());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 0, 0), saved.get(0).getDate());
+        assertEquals(TransactionType.INCOME, saved.get(1).getType());
+        assertEquals(food, saved.get(1).getCategory());
+    }
+
+    @Test
+    void importTransactions_AsStudentForAnotherUser_ShouldThrowSecurityException() {
+        // Arrange
+        User otherUser = new User("other", "hashedpass", "other@test.com", "Other", "User", UserRole.STUDENT);
+        otherUser.setId(3L);
+        ImportOptions options = new ImportOptions();
+        options.setUser(otherUser);
+
+        // Act & Assert
+        assertThrows(SecurityException.class,
+                () -> importService.importTransactions(input("date,amount\n2024-03-01,-1\n"), options, null));
+        verify(transactionDao, never()).saveAll(anyCollection());
+    }
+
+    @Test
+    void importCsv_OverLimit_ShouldRejectRow() {
+        // Arrange
+        when(transactionService.checkTransactionLimit(any())).thenReturn(false);
+
+        // Act
+        ImportResult result = importService.importTransactions(
+                input("date,category,amount\n2024-03-01,Еда,-5000\n"), new ImportOptions(), null);
+
+        // Assert
+        assertEquals(0, result.getImportedRows());
+        assertEquals(1, result.getFailedRows());
+        verify(transactionDao, never()).saveAll(anyCollection());
+    }
+}
@@ -1,22 +1,37 @@
 package com.studentbudget.service;
 
+import com.studentbudget.dao.BalanceRollupDao;
 import com.studentbudget.dao.TransactionDao;
 import com.studentbudget.model.*;
+import com.studentbudget.service.impl.AggregateResultCache;
+import com.studentbudget.service.impl.BalanceRollupWriteListener;
+import com.studentbudget.service.impl.ColumnarTransactionSnapshot;
+import com.studentbudget.service.impl.DescriptionSearchIndex;
 import com.studentbudget.service.impl.TransactionServiceImpl;
 import com.studentbudget.util.HibernateTransactionManager;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 class TransactionServiceTest {
@@ -24,6 +39,9 @@ class TransactionServiceTest {
     @Mock
     private TransactionDao transactionDao;
 
+    @Mock
+    private BalanceRollupDao balanceRollupDao;
+
     @Mock
     private HibernateTransactionManager transactionManager;
 
@@ -37,7 +55,8 @@ class TransactionServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        transactionService = new TransactionServiceImpl(transactionDao, transactionManager, authService);
+        transactionService = new TransactionServiceImpl(transactionDao, null, null, null, null, List.of(),
+            transactionManager, authService);
 
         // Setup test users
         testUser = new User("testuser", "hashedpass", "test@test.com", "Test", "User", UserRole.STUDENT);
@@ -55,6 +74,15 @@ class TransactionServiceTest {
             return null;
         });
 
+        // Чтения выполняются тем же способом, что и транзакции с результатом
+        lenient().when(transactionManager.executeReadOnly(any())).thenAnswer(invocation -> {
+            HibernateTransactionManager.TransactionCallback<?> callback = invocation.getArgument(0);
+            if (callback != null) {
+                return callback.execute(null);
+            }
+            return null;
+        });
+
         // Настраиваем мок транзакционного менеджера для void методов
         lenient().doAnswer(invocation -> {
             HibernateTransactionManager.VoidTransactionCallback callback = invocation.getArgument(0);
@@ -161,8 +189,7 @@ class TransactionServiceTest {
         Transaction t2 = new Transaction();
         t2.setUser(adminUser);
         
-        List<Transaction> allTransactions = Arrays.asList(t1, t2);
-        when(transactionDao.findAll()).thenReturn(allTransactions);
+        when(transactionDao.findByUser(testUser)).thenReturn(List.of(t1));
 
         // Act
         List<Transaction> result = transactionService.getAllTransactions();
@@ -170,6 +197,7 @@ class TransactionServiceTest {
         // Assert
         assertEquals(1, result.size());
         assertEquals(testUser, result.get(0).getUser());
+        verify(transactionDao, never()).findAll();
     }
 
     @Test
@@ -231,8 +259,7 @@ class TransactionServiceTest {
         Transaction t2 = new Transaction();
         t2.setUser(adminUser);
         
-        List<Transaction> allTransactions = Arrays.asList(t1, t2);
-        when(transactionDao.findAll()).thenReturn(allTransactions);
+        when(transactionDao.findByUser(testUser)).thenReturn(List.of(t1));
 
         // Act
         List<Transaction> result = transactionService.getCurrentUserTransactions();
@@ -246,29 +273,511 @@ class TransactionServiceTest {
     void getTotalIncome_ShouldCalculateCorrectly() {
         // Arrange
         when(authService.getCurrentUser()).thenReturn(testUser);
-        
-        Transaction t1 = new Transaction();
-        t1.setUser(testUser);
-        t1.setType(TransactionType.INCOME);
-        t1.setAmount(new BigDecimal("100.00"));
-        
-        Transaction t2 = new Transaction();
-        t2.setUser(testUser);
-        t2.setType(TransactionType.INCOME);
-        t2.setAmount(new BigDecimal("50.00"));
-        
-        Transaction t3 = new Transaction();
-        t3.setUser(testUser);
-        t3.setType(TransactionType.EXPENSE);
-        t3.setAmount(new BigDecimal("30.00"));
-        
-        List<Transaction> transactions = Arrays.asList(t1, t2, t3);
-        when(transactionDao.findAll()).thenReturn(transactions);
+        when(transactionDao.aggregateByTypeAndStatus(testUser)).thenReturn(List.of(
+            new TransactionAggregate(TransactionType.INCOME, TransactionStatus.ACTIVE, new BigDecimal("100.00"), 1L),
+            new TransactionAggregate(TransactionType.INCOME, TransactionStatus.PENDING, new BigDecimal("50.00"), 1L),
+            new TransactionAggregate(TransactionType.EXPENSE, TransactionStatus.ACTIVE, new BigDecimal("30.00"), 1L)
+        ));
 
         // Act
         BigDecimal totalIncome = transactionService.getTotalIncome();
 
         // Assert
         assertEquals(new BigDecimal("150.00"), totalIncome);
+        verify(transactionDao, never()).findAll();
+    }
+
+    @Test
+    void getDashboardSummary_AsAdmin_ShouldAggregateAllUsersInOneQuery() {
+        // Arrange
+        when(authService.getCurrentUser()).thenReturn(adminUser);
+        when(transactionDao.aggregateByTypeAndStatus(null)).thenReturn(List.of(
+            new TransactionAggregate(TransactionType.INCOME, TransactionStatus.ACTIVE, new BigDecimal("500.00"), 3L),
+            new TransactionAggregate(TransactionType.EXPENSE, TransactionStatus.PENDING, new BigDecimal("120.00"), 2L),
+            new TransactionAggregate(TransactionType.EXPENSE, TransactionStatus.REJECTED, new BigDecimal("80.00"), 1L)
+        ));
+
+        // Act
+        DashboardSummary summary = transactionService.getDashboardSummary();
+
+        // Assert
+        assertEquals(new BigDecimal("500.00"), summary.getTotalIncome());
+        assertEquals(new BigDecimal("200.00"), summary.getTotalExpenses());
+        assertEquals(new BigDecimal("300.00"), summary.getBalance());
+        assertEquals(2L, summary.getPendingCount());
+        assertEquals(1L, summary.getRejectedCount());
+        verify(transactionDao, times(1)).aggregateByTypeAndStatus(null);
+    }
+
+    @Test
+    void getExpenseDistribution_AsStudent_ShouldUseOwnGroupedTotals() {
+        // Arrange
+        when(authService.getCurrentUser()).thenReturn(testUser);
+
+        Category food = new Category("Food", "Food");
+        Category transport = new Category("Transport", "Transport");
+        TransactionAggregate foodTotal = new TransactionAggregate(
+            TransactionType.EXPENSE, TransactionStatus.ACTIVE, new BigDecimal("75.00"), 3L);
+        foodTotal.setCategory(food);
+        TransactionAggregate transportTotal = new TransactionAggregate(
+            TransactionType.EXPENSE, TransactionStatus.ACTIVE, new BigDecimal("25.00"), 1L);
+        transportTotal.setCategory(transport);
+
+        when(transactionDao.aggregateByCategory(testUser, TransactionType.EXPENSE, TransactionStatus.ACTIVE))
+            .thenReturn(List.of(foodTotal, transportTotal));
+
+        // Act
+        Map<Category, Double> distribution = transactionService.getExpenseDistribution();
+
+        // Assert
+        assertEquals(75.0, distribution.get(food));
+        assertEquals(25.0, distribution.get(transport));
+        verify(transactionDao, never()).findByType(any());
+    }
+
+    @Test
+    void getAnomalousTransactions_ShouldFlagOutliersFromPerUserStatistics() {
+        // Arrange
+        when(authService.getCurrentUser()).thenReturn(adminUser);
+
+        AmountStatistics statistics = new AmountStatistics(testUser.getId());
+        for (String amount : List.of("100", "110", "90", "1000")) {
+            statistics.add(Double.parseDouble(amount));
+        }
+        when(transactionDao.amountStatisticsByUser()).thenReturn(List.of(statistics));
+        when(transactionDao.findAmountsAfterId(isNull(), anyInt())).thenReturn(List.of(
+            new TransactionAmount(1L, testUser.getId(), new BigDecimal("100")),
+            new TransactionAmount(2L, testUser.getId(), new BigDecimal("110")),
+            new TransactionAmount(3L, testUser.getId(), new BigDecimal("90")),
+            new TransactionAmount(4L, testUser.getId(), new BigDecimal("1000"))
+        ));
+
+        Transaction outlier = new Transaction();
+        outlier.setId(4L);
+        outlier.setUser(testUser);
+        when(transactionDao.findAllById(List.of(4L))).thenReturn(List.of(outlier));
+
+        // Act
+        Page<Transaction> page = transactionService.getAnomalousTransactions(
+            AnomalyMode.Z_SCORE, new BigDecimal("1.5"), null, 10);
+
+        // Assert
+        assertEquals(List.of(outlier), page.getItems());
+        assertFalse(page.hasNext());
+        verify(transactionDao, never()).findAll();
+    }
+
+    @Test
+    void getAnomalousTransactions_ShouldComputeStatisticsOncePerScan() {
+        // Arrange
+        when(authService.getCurrentUser()).thenReturn(adminUser);
+
+        AmountStatistics statistics = new AmountStatistics(testUser.getId());
+        for (String amount : List.of("100", "1000", "110", "1000", "90")) {
+            statistics.add(Double.parseDouble(amount));
+        }
+        when(transactionDao.amountStatisticsByUser()).thenReturn(List.of(statistics));
+        List<TransactionAmount> amounts = List.of(
+            new TransactionAmount(1L, testUser.getId(), new BigDecimal("100")),
+            new TransactionAmount(2L, testUser.getId(), new BigDecimal("1000")),
+            new TransactionAmount(3L, testUser.getId(), new BigDecimal("110")),
+            new TransactionAmount(4L, testUser.getId(), new BigDecimal("1000")),
+            new TransactionAmount(5L, testUser.getId(), new BigDecimal("90")));
+        when(transactionDao.findAmountsAfterId(any(), anyInt())).thenAnswer(invocation -> {
+            Long afterId = invocation.getArgument(0);
+            return amounts.stream()
+                .filter(amount -> afterId == null || amount.getId() > afterId)
+                .collect(Collectors.toList());
+        });
+        when(transactionDao.findAllById(any())).thenReturn(List.of());
+
+        // Act
+        Page<Transaction> first = transactionService.getAnomalousTransactions(
+            AnomalyMode.Z_SCORE, BigDecimal.ONE, null, 1);
+        Page<Transaction> second = transactionService.getAnomalousTransactions(
+            AnomalyMode.Z_SCORE, BigDecimal.ONE, first.getNextCursor(), 1);
+        Page<Transaction> third = transactionService.getAnomalousTransactions(
+            AnomalyMode.Z_SCORE, BigDecimal.ONE, second.getNextCursor(), 1);
+
+        // Assert
+        verify(transactionDao).findAllById(List.of(2L));
+        verify(transactionDao).findAllById(List.of(4L));
+        assertFalse(third.hasNext());
+        verify(transactionDao, times(1)).amountStatisticsByUser();
+    }
+
+    @Test
+    void getUserStatistics_ShouldBuildTypedStatisticsFromGroupedTotals() {
+        // Arrange
+        when(authService.getCurrentUser()).thenReturn(adminUser);
+
+        Category food = new Category("Food", "Food");
+        food.setId(10L);
+        TransactionAggregate income = new TransactionAggregate(
+            TransactionType.INCOME, TransactionStatus.ACTIVE, new BigDecimal("300.00"), 2L);
+        income.setUser(testUser);
+        income.setCategory(food);
+        TransactionAggregate expense = new TransactionAggregate(
+            TransactionType.EXPENSE, TransactionStatus.ACTIVE, new BigDecimal("120.00"), 4L);
+        expense.setUser(testUser);
+        expense.setCategory(food);
+
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 1, 31);
+        when(transactionDao.aggregateByPeriod(from.atStartOfDay(), to.atTime(23, 59, 59)))
+            .thenReturn(List.of(income, expense));
+
+        // Act
+        Map<User, UserStatistics> statistics = transactionService.getUserStatistics(from, to);
+
+        // Assert
+        UserStatistics userStatistics = statistics.get(testUser);
+        assertEquals(new BigDecimal("300.00"), userStatistics.getTotalIncome());
+        assertEquals(new BigDecimal("120.00"), userStatistics.getTotalExpenses());
+        assertEquals(6L, userStatistics.getTransactionCount());
+        assertEquals(new BigDecimal("120.00"), userStatistics.getExpensesByCategory().get(food));
+        verify(transactionDao, never()).findByDateRange(any(), any());
+    }
+
+    @Test
+    void approveTransaction_WithRollup_ShouldMoveAmountBetweenStatusGroups() {
+        // Arrange
+        TransactionService service = new TransactionServiceImpl(transactionDao, balanceRollupDao, null, null, null,
+            List.of(new BalanceRollupWriteListener(balanceRollupDao)), transactionManager, authService);
+        when(authService.getCurrentUser()).thenReturn(adminUser);
+
+        Category food = new Category("Food", "Food");
+        food.setId(10L);
+        Transaction transaction = new Transaction(new BigDecimal("15000.00"), TransactionType.EXPENSE, food, "Laptop", testUser);
+        transaction.setId(7L);
+        transaction.setDate(LocalDateTime.of(2024, 3, 5, 14, 30));
+        transaction.setStatus(TransactionStatus.PENDING);
+        when(transactionDao.findById(7L)).thenReturn(Optional.of(transaction));
+
+        // Act
+        service.approveTransaction(7L);
+
+        // Assert
+        verify(balanceRollupDao).applyChanges(
+            argThat(removed -> removed.size() == 1 && removed.iterator().next().getStatus() == TransactionStatus.PENDING),
+            argThat(added -> added.size() == 1 && added.iterator().next().getStatus() == TransactionStatus.ACTIVE
+                && added.iterator().next().getDay().equals(LocalDate.of(2024, 3, 5))
+                && added.iterator().next().getAmount().equals(new BigDecimal("15000.00"))));
+    }
+
+    @Test
+    void getDashboardSummary_WithRollup_ShouldNotTouchTransactionsTable() {
+        // Arrange
+        TransactionService service = new TransactionServiceImpl(transactionDao, balanceRollupDao, null, null, null,
+            List.of(new BalanceRollupWriteListener(balanceRollupDao)), transactionManager, authService);
+        when(authService.getCurrentUser()).thenReturn(testUser);
+        when(balanceRollupDao.aggregateByTypeAndStatus(testUser)).thenReturn(List.of(
+            new TransactionAggregate(TransactionType.INCOME, TransactionStatus.ACTIVE, new BigDecimal("400.00"), 2L),
+            new TransactionAggregate(TransactionType.EXPENSE, TransactionStatus.ACTIVE, new BigDecimal("150.00"), 5L)
+        ));
+
+        // Act
+        DashboardSummary summary = service.getDashboardSummary();
+
+        // Assert
+        assertEquals(new BigDecimal("250.00"), summary.getBalance());
+        verify(transactionDao, never()).aggregateByTypeAndStatus(any());
+        verify(transactionDao, never()).findByUser(any());
+    }
+
+    @Test
+    void verifyBalanceRollup_AsStudent_ShouldThrowSecurityException() {
+        // Arrange
+        TransactionService service = new TransactionServiceImpl(transactionDao, balanceRollupDao, null, null, null,
+            List.of(new BalanceRollupWriteListener(balanceRollupDao)), transactionManager, authService);
+        when(authService.getCurrentUser()).thenReturn(testUser);
+
+        // Act & Assert
+        assertThrows(SecurityException.class, service::verifyBalanceRollup);
+        verify(balanceRollupDao, never()).verify();
+    }
+
+    @Test
+    void getTransactionsPage_AsStudent_ShouldScopeFilterToCurrentUser() {
+        // Arrange
+        when(authService.getCurrentUser()).thenReturn(testUser);
+        TransactionFilter filter = new TransactionFilter();
+        filter.setUser(adminUser);
+        Transaction own = new Transaction();
+        own.setId(5L);
+        when(transactionDao.findPage(argThat(f -> f.getUser() == testUser), eq(TransactionSortKey.DATE_DESC), isNull(), eq(50)))
+            .thenReturn(new Page<>(List.of(own), "next"));
+
+        // Act
+        Page<Transaction> page = transactionService.getTransactionsPage(filter, TransactionSortKey.DATE_DESC, null, 50);
+
+        // Assert
+        assertEquals(List.of(own), page.getItems());
+        assertTrue(page.hasNext());
+        assertSame(adminUser, filter.getUser());
+        verify(transactionDao, never()).findAll();
+    }
+
+    @Test
+    void getTransactionRowsPage_AsStudent_ShouldReadProjectionScopedToCurrentUser() {
+        // Arrange
+        when(authService.getCurrentUser()).thenReturn(testUser);
+        TransactionFilter filter = new TransactionFilter();
+        TransactionRow row = new TransactionRow(5L, LocalDateTime.now(), TransactionType.EXPENSE, "Еда",
+            new BigDecimal("10.00"), "обед", TransactionStatus.ACTIVE, testUser.getUsername());
+        when(transactionDao.findRowPage(argThat(f -> f.getUser() == testUser), eq(TransactionSortKey.DATE_DESC), isNull(), eq(50)))
+            .thenReturn(new Page<>(List.of(row), null));
+
+        // Act
+        Page<TransactionRow> page = transactionService.getTransactionRowsPage(filter, TransactionSortKey.DATE_DESC, null, 50);
+
+        // Assert
+        assertEquals(List.of(row), page.getItems());
+        assertFalse(page.hasNext());
+        assertNull(filter.getUser());
+        verify(transactionDao, never()).findPage(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getTransactionRowsPage_WithIndex_ShouldRestrictPageToIndexedIds() {
+        // Arrange
+        DescriptionSearchIndex searchIndex = mock(DescriptionSearchIndex.class);
+        TransactionService indexedService = new TransactionServiceImpl(transactionDao, null, searchIndex, null, null,
+            List.of(searchIndex), transactionManager, authService);
+        when(authService.getCurrentUser()).thenReturn(testUser);
+        when(searchIndex.matchingIds("обед", testUser.getId())).thenReturn(new long[] {3L, 5L});
+        TransactionFilter filter = new TransactionFilter();
+        filter.setDescription("обед");
+        ArgumentCaptor<TransactionFilter> scoped = ArgumentCaptor.forClass(TransactionFilter.class);
+        when(transactionDao.findRowPage(scoped.capture(), eq(TransactionSortKey.DATE_DESC), isNull(), eq(50)))
+            .thenReturn(new Page<>(List.of(), null));
+
+        // Act
+        indexedService.getTransactionRowsPage(filter, TransactionSortKey.DATE_DESC, null, 50);
+
+        // Assert: вместо LIKE по описанию запрос страницы ограничен найденными id
+        assertNull(scoped.getValue().getDescription());
+        assertEquals(List.of(3L, 5L), scoped.getValue().getIds());
+    }
+
+    @Test
+    void getTransactionRowsPage_WithManyIndexedMatches_ShouldRestrictOnePageQueryToAllIds() {
+        // Arrange: совпадений много, но страница все равно читается одним запросом по id
+        DescriptionSearchIndex searchIndex = mock(DescriptionSearchIndex.class);
+        TransactionService indexedService = new TransactionServiceImpl(transactionDao, null, searchIndex, null, null,
+            List.of(searchIndex), transactionManager, authService);
+        when(authService.getCurrentUser()).thenReturn(testUser);
+        when(searchIndex.matchingIds("обед", testUser.getId())).thenReturn(LongStream.rangeClosed(1, 100_000).toArray());
+        TransactionFilter filter = new TransactionFilter();
+        filter.setDescription("обед");
+        ArgumentCaptor<TransactionFilter> scoped = ArgumentCaptor.forClass(TransactionFilter.class);
+        when(transactionDao.findRowPage(scoped.capture(), eq(TransactionSortKey.DATE_DESC), eq("next"), eq(2)))
+            .thenReturn(new Page<>(List.of(), null));
+
+        // Act
+        indexedService.getTransactionRowsPage(filter, TransactionSortKey.DATE_DESC, "next", 2);
+
+        // Assert
+        verify(transactionDao, times(1)).findRowPage(any(), any(), any(), anyInt());
+        assertNull(scoped.getValue().getDescription());
+        assertEquals(100_000, scoped.getValue().getIds().size());
+    }
+
+    @Test
+    void batchUpdateStatus_AsAdmin_ShouldIssueSingleBulkUpdate() {
+        // Arrange
+        when(authService.getCurrentUser()).thenReturn(adminUser);
+        when(transactionDao.updateStatusIn(Set.of(1L, 2L, 3L), TransactionStatus.REJECTED)).thenReturn(3);
+
+        // Act
+        transactionService.batchUpdateStatus(List.of(1L, 2L, 3L, 2L), "REJECTED");
+
+        // Assert
+        verify(transactionDao).updateStatusIn(Set.of(1L, 2L, 3L), TransactionStatus.REJECTED);
+        verify(transactionDao, never()).findById(any());
+        verify(transactionDao, never()).update(any());
+    }
+
+    @Test
+    void batchMoveTransactions_WithMissingIds_ShouldFail() {
+        // Arrange
+        when(authService.getCurrentUser()).thenReturn(adminUser);
+        Category food = new Category("Food", "Food");
+        food.setId(10L);
+        when(transactionDao.moveCategoryIn(Set.of(1L, 2L), food)).thenReturn(1);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+            () -> transactionService.batchMoveTransactions(List.of(1L, 2L), food));
+    }
+
+    @Test
+    void searchTransactions_WithIndex_ShouldReturnOwnTransactionsInRelevanceOrder() {
+        // Arrange
+        DescriptionSearchIndex searchIndex = mock(DescriptionSearchIndex.class);
+        TransactionService indexedService = new TransactionServiceImpl(transactionDao, null, searchIndex, null, null,
+            List.of(searchIndex), transactionManager, authService);
+        when(authService.getCurrentUser()).thenReturn(testUser);
+        Transaction first = new Transaction(new BigDecimal("10.00"), TransactionType.EXPENSE, null, "Кофе", testUser);
+        first.setId(5L);
+        Transaction second = new Transaction(new BigDecimal("20.00"), TransactionType.EXPENSE, null, "Кофейня", testUser);
+        second.setId(3L);
+        when(searchIndex.search("коф", testUser.getId())).thenReturn(List.of(5L, 3L, 7L));
+        when(transactionDao.findAllById(List.of(5L, 3L, 7L))).thenReturn(List.of(second, first));
+
+        // Act
+        List<Transaction> results = indexedService.searchTransactions("коф");
+
+        // Assert: 7 уже удалена из БД и отбрасывается
+        assertEquals(List.of(first, second), results);
+        verify(transactionDao, never()).searchByDescription(any());
+    }
+
+    @Test
+    void deleteTransaction_WithIndex_ShouldRemoveItFromIndex() {
+        // Arrange
+        DescriptionSearchIndex searchIndex = mock(DescriptionSearchIndex.class);
+        TransactionService indexedService = new TransactionServiceImpl(transactionDao, null, searchIndex, null, null,
+            List.of(searchIndex), transactionManager, authService);
+        when(authService.getCurrentUser()).thenReturn(testUser);
+        Transaction transaction = new Transaction(new BigDecimal("10.00"), TransactionType.EXPENSE, null, "Кофе", testUser);
+        transaction.setId(5L);
+        when(transactionDao.findById(5L)).thenReturn(Optional.of(transaction));
+
+        // Act
+        indexedService.deleteTransaction(5L);
+
+        // Assert
+        verify(searchIndex).afterDeleted(List.of(5L));
+    }
+
+    @Test
+    void searchTransactions_WithCriteria_ShouldRunSingleFilteredQuery() {
+        // Arrange
+        when(authService.getCurrentUser()).thenReturn(testUser);
+        Category food = new Category("Food", "Food");
+        food.setId(10L);
+        Transaction lunch = new Transaction(new BigDecimal("10.00"), TransactionType.EXPENSE, food, "Обед", testUser);
+        when(transactionDao.forEachMatching(any(), eq(TransactionSortKey.DATE_DESC), any())).thenAnswer(invocation -> {
+            Consumer<Transaction> action = invocation.getArgument(2);
+            action.accept(lunch);
+            return 1L;
+        });
+
+        // Act
+        List<Transaction> results = transactionService.searchTransactions("обед", food,
+            LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31));
+
+        // Assert: все условия переданы в один запрос, полный список не загружается
+        assertEquals(List.of(lunch), results);
+        ArgumentCaptor<TransactionFilter> filter = ArgumentCaptor.forClass(TransactionFilter.class);
+        verify(transactionDao).forEachMatching(filter.capture(), eq(TransactionSortKey.DATE_DESC), any());
+        assertEquals(testUser, filter.getValue().getUser());
+        assertEquals(food, filter.getValue().getCategory());
+        assertEquals("обед", filter.getValue().getDescription());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 0, 0), filter.getValue().getFrom());
+        assertEquals(LocalDate.of(2024, 3, 31), filter.getValue().getTo().toLocalDate());
+        verify(transactionDao, never()).findAll();
+        verify(transactionDao, never()).findByUser(any());
+    }
+
+    @Test
+    void getDashboardSummary_WithResultCache_ShouldRecomputeOnlyAfterWrite() {
+        // Arrange
+        AggregateResultCache resultCache = new AggregateResultCache();
+        TransactionService cachedService = new TransactionServiceImpl(transactionDao, null, null, resultCache, null,
+            List.of(resultCache), transactionManager, authService);
+        when(authService.getCurrentUser()).thenReturn(testUser);
+        when(transactionDao.aggregateByTypeAndStatus(testUser)).thenReturn(List.of(
+            new TransactionAggregate(TransactionType.INCOME, TransactionStatus.ACTIVE, new BigDecimal("100.00"), 1L)));
+        when(transactionDao.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
+
+        // Act
+        cachedService.getDashboardSummary();
+        cachedService.getTotalIncome();
+        cachedService.getCurrentBalance();
+        cachedService.createTransaction(new Transaction(new BigDecimal("5.00"), TransactionType.EXPENSE, null, "Чай", testUser));
+        cachedService.getDashboardSummary();
+
+        // Assert: три чтения до записи обслужены одним запросом, после записи - пересчет
+        verify(transactionDao, times(2)).aggregateByTypeAndStatus(testUser);
+    }
+
+    @Test
+    void getSystemStatistics_WithSnapshot_ShouldAggregateInMemoryAndSeeNewTransactions() {
+        // Arrange
+        Category food = new Category("Еда", "");
+        food.setId(10L);
+        Session session = mock(Session.class);
+        when(session.get(User.class, 1L)).thenReturn(testUser);
+        when(session.get(Category.class, 10L)).thenReturn(food);
+        when(transactionManager.executeReadOnly(any())).thenAnswer(invocation -> {
+            HibernateTransactionManager.TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.execute(session);
+        });
+        when(transactionDao.findFactsAfterId(isNull(), anyInt())).thenReturn(List.of(
+            new TransactionFacts(1L, 1L, 10L, TransactionType.EXPENSE, TransactionStatus.ACTIVE,
+                LocalDateTime.of(2024, 9, 2, 10, 0), new BigDecimal("120.00"))));
+        when(transactionDao.save(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction saved = invocation.getArgument(0);
+            saved.setId(2L);
+            return saved;
+        });
+        ColumnarTransactionSnapshot snapshot = new ColumnarTransactionSnapshot(transactionDao, transactionManager);
+        TransactionService analyticsService = new TransactionServiceImpl(transactionDao, null, null, null, snapshot,
+            List.of(snapshot), transactionManager, authService);
+        when(authService.getCurrentUser()).thenReturn(adminUser);
+        LocalDate day = LocalDate.of(2024, 9, 2);
+        Transaction lunch = new Transaction(new BigDecimal("30.00"), TransactionType.EXPENSE, food, "Обед", testUser);
+        lunch.setDate(LocalDateTime.of(2024, 9, 2, 13, 0));
+
+        // Act
+        SystemStatistics before = analyticsService.getSystemStatistics(day, day);
+        analyticsService.createTransaction(lunch);
+        SystemStatistics after = analyticsService.getSystemStatistics(day, day);
+
+        // Assert: таблица прочитана один раз при заполнении, новая транзакция дописана в снимок
+        assertEquals(new BigDecimal("120.00"), before.getTotalExpenses());
+        assertEquals(2, after.getTotalTransactions());
+        assertEquals(new BigDecimal("150.00"), after.getTotalExpenses());
+        assertEquals(Map.of(testUser, new BigDecimal("150.00")), analyticsService.getTotalExpensesByUser());
+        verify(transactionDao, times(1)).findFactsAfterId(any(), anyInt());
+        verify(transactionDao, never()).aggregateByPeriod(any(), any());
+        verify(transactionDao, never()).aggregateByUserAndCategory(any());
+    }
+
+    @Test
+    void getTrend_AsStudent_ShouldZeroFillEmptyMonthsAndKeepChanges() {
+        // Arrange: декабрь читается только ради изменения в январе
+        when(authService.getCurrentUser()).thenReturn(testUser);
+        when(transactionDao.aggregateTrend(testUser, TransactionType.EXPENSE, TransactionStatus.ACTIVE,
+                TrendGranularity.MONTH, LocalDate.of(2023, 12, 1), LocalDate.of(2024, 4, 30))).thenReturn(List.of(
+            new TrendPoint(LocalDate.of(2023, 12, 1), new BigDecimal("80.00"), 2, new BigDecimal("80.00")),
+            new TrendPoint(LocalDate.of(2024, 1, 1), new BigDecimal("100.00"), 3, new BigDecimal("20.00")),
+            new TrendPoint(LocalDate.of(2024, 3, 1), new BigDecimal("50.00"), 1, new BigDecimal("50.00"))));
+
+        // Act
+        List<TrendPoint> trend = transactionService.getTrend(testUser, TrendGranularity.MONTH,
+            LocalDate.of(2024, 1, 15), LocalDate.of(2024, 4, 10), TransactionType.EXPENSE);
+
+        // Assert
+        assertEquals(List.of(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1),
+            LocalDate.of(2024, 4, 1)), trend.stream().map(TrendPoint::getStart).toList());
+        assertEquals(List.of(new BigDecimal("100.00"), BigDecimal.ZERO, new BigDecimal("50.00"), BigDecimal.ZERO),
+            trend.stream().map(TrendPoint::getTotal).toList());
+        assertEquals(List.of(new BigDecimal("20.00"), new BigDecimal("-100.00"), new BigDecimal("50.00"),
+            new BigDecimal("-50.00")), trend.stream().map(TrendPoint::getChange).toList());
+        assertEquals(0, trend.get(1).getCount());
+    }
+
+    @Test
+    void getTrend_AsStudentForAllUsers_ShouldThrowSecurityException() {
+        // Arrange
+        when(authService.getCurrentUser()).thenReturn(testUser);
+
+        // Act & Assert
+        assertThrows(SecurityException.class, () -> transactionService.getTrend(null, TrendGranularity.WEEK,
+            LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31), TransactionType.EXPENSE));
+        verify(transactionDao, never()).aggregateTrend(any(), any(), any(), any(), any(), any());
     }
-} 
\ No newline at end of file
+}
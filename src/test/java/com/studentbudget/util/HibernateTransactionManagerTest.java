@@ -0,0 +1,109 @@
+package com.studentbudget.util;
+
+import com.studentbudget.model.Category;
+import org.hibernate.FlushMode;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Режим только для чтения на настоящей сессии H2: настройки сессии и соединения
+ * действуют внутри чтения и не остаются на соединении после него.
+ */
+class HibernateTransactionManagerTest {
+    private SessionFactory sessionFactory;
+    private HibernateTransactionManager transactionManager;
+    private Long categoryId;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = new Configuration().configure()
+            .setProperty("hibernate.connection.url", "jdbc:h2:mem:read_only;DB_CLOSE_DELAY=-1;MODE=LEGACY;" +
+                "DATABASE_TO_LOWER=TRUE;DEFAULT_ESCAPE='';CASE_INSENSITIVE_IDENTIFIERS=TRUE")
+            .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+            .setProperty("hibernate.show_sql", "false")
+            .setProperty("hibernate.cache.use_second_level_cache", "false")
+            .setProperty("hibernate.cache.use_query_cache", "false")
+            .buildSessionFactory();
+        transactionManager = new HibernateTransactionManager(sessionFactory, Connection.TRANSACTION_SERIALIZABLE);
+        categoryId = transactionManager.executeInTransaction(session -> {
+            Category category = new Category("Еда", "Продукты");
+            session.persist(category);
+            return category.getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void executeReadOnly_ShouldUseReadOnlySessionAndIsolation() {
+        // Act
+        Object[] state = transactionManager.executeReadOnly(session -> new Object[] {
+            session.isDefaultReadOnly(),
+            session.getHibernateFlushMode(),
+            session.doReturningWork(Connection::getTransactionIsolation),
+            sessionFactory.getCurrentSession() == session
+        });
+
+        // Assert
+        assertEquals(true, state[0]);
+        assertEquals(FlushMode.MANUAL, state[1]);
+        assertEquals(Connection.TRANSACTION_SERIALIZABLE, state[2]);
+        assertEquals(true, state[3]);
+        int isolationAfter = transactionManager.executeInTransaction(session ->
+            session.doReturningWork(Connection::getTransactionIsolation));
+        assertNotEquals(Connection.TRANSACTION_SERIALIZABLE, isolationAfter);
+    }
+
+    @Test
+    void executeReadOnly_ShouldNotWriteChangesToLoadedEntities() {
+        // Act
+        transactionManager.executeReadOnly(session -> {
+            Category category = session.get(Category.class, categoryId);
+            category.setName("Изменено");
+            return category;
+        });
+
+        // Assert
+        String name = transactionManager.executeInTransaction(session -> session.get(Category.class, categoryId).getName());
+        assertEquals("Еда", name);
+    }
+
+    @Test
+    void executeReadOnly_InsideTransaction_ShouldJoinOuterSession() {
+        // Act
+        transactionManager.executeInTransactionWithoutResult(session -> {
+            Category category = transactionManager.executeReadOnly(inner -> {
+                assertSame(session, inner);
+                assertFalse(inner.isDefaultReadOnly());
+                return inner.get(Category.class, categoryId);
+            });
+            category.setName("Изменено");
+        });
+
+        // Assert: внешняя транзакция сохраняет изменения как обычно
+        String name = transactionManager.executeInTransaction(session -> session.get(Category.class, categoryId).getName());
+        assertEquals("Изменено", name);
+    }
+
+    @Test
+    void executeReadOnly_WhenCallbackFails_ShouldReleaseSession() {
+        // Act
+        assertThrows(IllegalStateException.class, () -> transactionManager.executeReadOnly(session -> {
+            throw new IllegalStateException("ошибка чтения");
+        }));
+
+        // Assert: следующая транзакция получает новую сессию в обычном режиме
+        boolean readOnly = transactionManager.executeInTransaction(session -> session.isDefaultReadOnly());
+        assertFalse(readOnly);
+    }
+}
@@ -0,0 +1,109 @@
+package com.studentbudget.util;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Пул соединений под Hibernate: параллельные чтения получают собственные соединения,
+ * а счетчики пула отражают выдачи и отказы по таймауту.
+ */
+class PooledConnectionProviderTest {
+    private SessionFactory sessionFactory;
+
+    private SessionFactory build(int maxSize, long connectionTimeoutMs) {
+        sessionFactory = new Configuration().configure()
+            .setProperty("hibernate.connection.url", "jdbc:h2:mem:pool;DB_CLOSE_DELAY=-1;MODE=LEGACY;" +
+                "DATABASE_TO_LOWER=TRUE;DEFAULT_ESCAPE='';CASE_INSENSITIVE_IDENTIFIERS=TRUE")
+            .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+            .setProperty("hibernate.show_sql", "false")
+            .setProperty(PooledConnectionProvider.MAX_SIZE, String.valueOf(maxSize))
+            .setProperty(PooledConnectionProvider.MIN_IDLE, "1")
+            .setProperty(PooledConnectionProvider.CONNECTION_TIMEOUT, String.valueOf(connectionTimeoutMs))
+            .buildSessionFactory();
+        return sessionFactory;
+    }
+
+    private static PooledConnectionProvider provider(SessionFactory sessionFactory) {
+        return sessionFactory.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+            .getService(ConnectionProvider.class)
+            .unwrap(PooledConnectionProvider.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+
+    @Test
+    void concurrentReads_ShouldHoldConnectionsInParallel() throws Exception {
+        // Arrange
+        int threads = 4;
+        HibernateTransactionManager transactionManager = new HibernateTransactionManager(build(threads, 5_000));
+        PooledConnectionProvider provider = provider(sessionFactory);
+        CountDownLatch allInside = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // Act: каждое чтение ждет, пока соединение получат все; при общем соединении ожидание не закончится
+        List<Future<Boolean>> reads = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                reads.add(executor.submit(() -> transactionManager.executeReadOnly(session -> {
+                    session.createNativeQuery("select 1", Integer.class).getSingleResult();
+                    allInside.countDown();
+                    try {
+                        return allInside.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })));
+            }
+            for (Future<Boolean> read : reads) {
+                // Assert
+                assertTrue(read.get(10, TimeUnit.SECONDS), "reads were serialised");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ConnectionPoolMetrics metrics = provider.getMetrics();
+        assertTrue(metrics.getAcquisitions() >= threads);
+        assertEquals(0, metrics.getTimeouts());
+        assertEquals(0, metrics.getActiveConnections());
+    }
+
+    @Test
+    void exhaustedPool_ShouldFailAfterTimeoutAndCountIt() throws SQLException {
+        // Arrange
+        PooledConnectionProvider provider = provider(build(1, 250));
+
+        // Act
+        try (Connection held = provider.getConnection()) {
+            assertNotNull(held);
+            assertThrows(SQLException.class, provider::getConnection);
+        }
+
+        // Assert
+        ConnectionPoolMetrics metrics = provider.getMetrics();
+        assertEquals(1, metrics.getTimeouts());
+        assertTrue(metrics.getMaxWaitMillis() >= 0);
+        assertEquals(0, metrics.getActiveConnections());
+    }
+}